@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A burst of 'burst' targets() lookups over a ConcurrentGraph, answered by
+ * blocking calls, by one targetsAsync() future per lookup, and by a single
+ * targetsMany() batch. With 'hot' set, every lookup in the burst asks for one
+ * of 16 vertices, so most async lookups are coalesced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AsyncGraphBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    @Param({"1000"})
+    public int burst;
+
+    @Param({"false", "true"})
+    public boolean hot;
+
+    private Graph<String> graph;
+    private AsyncGraph<String> async;
+    private List<String> keys;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] labels = BenchmarkGraphs.labels(BenchmarkGraphs.SHORT, "v", size);
+        graph = new ConcurrentGraph<>(Collections.emptySet());
+        BenchmarkGraphs.populate(graph, labels, BenchmarkGraphs.edges(BenchmarkGraphs.UNIFORM, size, degree, random),
+                random);
+        async = new AsyncGraph<>(graph);
+        keys = new ArrayList<>();
+        for (int i = 0; i < burst; i++) {
+            keys.add(labels[random.nextInt(hot ? 16 : size)]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        async.close();
+    }
+
+    @Benchmark
+    public int blocking() {
+        int total = 0;
+        for (String key : keys) {
+            total += graph.targets(key).size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int futurePerLookup() {
+        List<CompletableFuture<Map<String, Integer>>> futures = new ArrayList<>();
+        for (String key : keys) {
+            futures.add(async.targetsAsync(key));
+        }
+        int total = 0;
+        for (CompletableFuture<Map<String, Integer>> future : futures) {
+            total += future.join().size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int batch() {
+        int total = 0;
+        for (Map<String, Integer> targets : async.targetsMany(keys).join().values()) {
+            total += targets.size();
+        }
+        return total;
+    }
+}
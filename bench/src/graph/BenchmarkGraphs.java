@@ -0,0 +1,141 @@
+package graph;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Graphs and labels shared by the benchmark suites, so that every
+ * implementation is measured on exactly the same vertices and edges.
+ */
+final class BenchmarkGraphs {
+
+    /** Implementations swept by the suites, as accepted by create(). */
+    static final String GRAPH = "Graph";
+    static final String EDGES = "ConcreteEdgesGraph";
+    static final String VERTICES = "ConcreteVerticesGraph";
+
+    /** Degree distributions, as accepted by edges(). */
+    static final String UNIFORM = "uniform";
+    static final String POWER_LAW = "powerlaw";
+
+    /** Label types, as accepted by labels(). */
+    static final String SHORT = "short";
+    static final String LONG = "long";
+
+    // Pareto shape of power-law out-degrees; 2 gives a finite mean and an
+    // unbounded variance, like many real networks
+    private static final double SHAPE = 2.0;
+    // Skew of power-law targets: vertex i is chosen with density ~ i^(-2/3)
+    private static final double TARGET_SKEW = 3.0;
+
+    private BenchmarkGraphs() {
+        throw new AssertionError("no instances");
+    }
+
+    /**
+     * @param implementation one of GRAPH, EDGES or VERTICES
+     * @return an empty graph of that implementation, with rep checks off
+     */
+    static Graph<String> create(String implementation) {
+        switch (implementation) {
+        case GRAPH:
+            return Graph.empty();
+        case EDGES:
+            ConcreteEdgesGraph edges = new ConcreteEdgesGraph(Collections.emptySet());
+            edges.setRepCheck(RepCheck.OFF);
+            return edges;
+        case VERTICES:
+            ConcreteVerticesGraph vertices = new ConcreteVerticesGraph(Collections.emptySet());
+            vertices.setRepCheck(RepCheck.OFF);
+            return vertices;
+        default:
+            throw new IllegalArgumentException("unknown implementation: " + implementation);
+        }
+    }
+
+    /**
+     * @param labelType SHORT for labels like "v42", LONG for URI-like labels
+     *        that share a long prefix, so hashing and equals() cost more
+     * @param prefix distinguishes this set of labels from others
+     * @param count number of labels
+     * @return count distinct labels of that type
+     */
+    static String[] labels(String labelType, String prefix, int count) {
+        String head;
+        switch (labelType) {
+        case SHORT:
+            head = prefix;
+            break;
+        case LONG:
+            head = "http://example.org/datasets/benchmark/resource/" + prefix + "/";
+            break;
+        default:
+            throw new IllegalArgumentException("unknown label type: " + labelType);
+        }
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = head + i;
+        }
+        return labels;
+    }
+
+    /**
+     * Generate the edges of a random graph.
+     *
+     * @param distribution UNIFORM for out-degree 'degree' everywhere and
+     *        uniform targets; POWER_LAW for Pareto out-degrees with mean about
+     *        'degree' and targets skewed toward low ids, so in-degrees are
+     *        heavy-tailed too
+     * @param size number of vertices
+     * @param degree mean out-degree
+     * @param random source of randomness
+     * @return sources in [0][k] and targets in [1][k]; may repeat pairs
+     */
+    static int[][] edges(String distribution, int size, int degree, Random random) {
+        IntList sources = new IntList();
+        IntList targets = new IntList();
+        for (int s = 0; s < size; s++) {
+            int outDegree;
+            switch (distribution) {
+            case UNIFORM:
+                outDegree = degree;
+                break;
+            case POWER_LAW:
+                double scale = degree * (SHAPE - 1) / SHAPE;
+                outDegree = (int) Math.min(size, Math.round(scale / Math.pow(1 - random.nextDouble(), 1 / SHAPE)));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown distribution: " + distribution);
+            }
+            for (int k = 0; k < outDegree; k++) {
+                sources.add(s);
+                targets.add(distribution.equals(UNIFORM)
+                        ? random.nextInt(size)
+                        : (int) (size * Math.pow(random.nextDouble(), TARGET_SKEW)));
+            }
+        }
+        int[][] edges = new int[2][sources.size()];
+        for (int k = 0; k < sources.size(); k++) {
+            edges[0][k] = sources.get(k);
+            edges[1][k] = targets.get(k);
+        }
+        return edges;
+    }
+
+    /**
+     * Add every label as a vertex and every edge with a weight in [1, 100].
+     *
+     * @param graph graph to fill
+     * @param labels vertex labels, indexed by the ids used in edges
+     * @param edges as returned by edges()
+     * @param random source of weights
+     */
+    static void populate(Graph<String> graph, String[] labels, int[][] edges, Random random) {
+        for (String label : labels) {
+            graph.add(label);
+        }
+        for (int k = 0; k < edges[0].length; k++) {
+            graph.set(labels[edges[0][k]], labels[edges[1][k]], 1 + random.nextInt(100));
+        }
+    }
+}
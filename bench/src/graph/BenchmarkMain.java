@@ -0,0 +1,27 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar. Runs JMH with the given command line,
+ * but writes results as JSON (to jmh-result.json, unless -rff says
+ * otherwise) when no result format is given, so that runs can be compared
+ * across commits.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+        throw new AssertionError("no instances");
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.add(0, "-rf");
+            arguments.add(1, "json");
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,90 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Repeated queries over a hot set of vertices, on a plain Graph and on a
+ * CachingGraph, with one set() that reweights a random edge every
+ * writeInterval queries (0 for no writes). Queries are targets(), and
+ * shortest paths between hot pairs, which the plain graph answers on a
+ * snapshot taken in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CachingGraphBenchmark {
+
+    @Param({"plain", "caching"})
+    public String mode;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    @Param({"1000"})
+    public int hotVertices;
+
+    @Param({"0", "1000"})
+    public int writeInterval;
+
+    private Graph<String> graph;
+    private CachingGraph<String> caching;
+    private ShortestPaths<String> snapshotPaths;
+    private String[] labels;
+    private int[][] edges;
+    private Random random;
+    private int next;
+    private int queries;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        labels = BenchmarkGraphs.labels(BenchmarkGraphs.SHORT, "v", size);
+        edges = BenchmarkGraphs.edges(BenchmarkGraphs.UNIFORM, size, degree, random);
+        Graph<String> plain = Graph.empty();
+        BenchmarkGraphs.populate(plain, labels, edges, random);
+        if (mode.equals("plain")) {
+            graph = plain;
+            snapshotPaths = new ShortestPaths<>(plain.freeze());
+        } else {
+            caching = new CachingGraph<>(plain);
+            graph = caching;
+        }
+    }
+
+    private void maybeWrite() {
+        if (writeInterval > 0 && ++queries % writeInterval == 0) {
+            int e = random.nextInt(edges[0].length);
+            graph.set(labels[edges[0][e]], labels[edges[1][e]], 1 + random.nextInt(100));
+        }
+    }
+
+    @Benchmark
+    public Object targets() {
+        maybeWrite();
+        next = (next + 1) % hotVertices;
+        return graph.targets(labels[next]);
+    }
+
+    @Benchmark
+    public Object shortestPath() {
+        maybeWrite();
+        next = (next + 1) % hotVertices;
+        String source = labels[next];
+        String target = labels[(next * 7 + 1) % hotVertices];
+        return caching == null ? snapshotPaths.bidirectionalShortestPath(source, target)
+                : caching.shortestPath(source, target);
+    }
+}
@@ -0,0 +1,86 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * What a change log costs writers, and what it saves readers: set() with and
+ * without a log attached, and bringing a copy of the graph up to date after
+ * 100 mutations by pulling the delta versus re-reading every vertex.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChangeLogBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"false", "true"})
+    public boolean logging;
+
+    @Param({"100000"})
+    public int size;
+
+    private Graph<String> graph;
+    private ChangeLog<String> log;
+    private String[] labels;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        graph = Graph.empty();
+        labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = "v" + i;
+        }
+        for (int i = 0; i < size; i++) {
+            graph.set(labels[i], labels[(i + 1) % size], 1);
+        }
+        log = new ChangeLog<>(1 << 16);
+        if (logging) {
+            graph.setChangeLog(log);
+        }
+    }
+
+    private void mutate() {
+        for (int k = 0; k < BATCH; k++) {
+            next = (next + 1) % size;
+            graph.set(labels[next], labels[(next + 1) % size], 1 + next % 7);
+        }
+    }
+
+    // One hundred weight changes
+    @Benchmark
+    public void setBatch() {
+        mutate();
+    }
+
+    // One hundred weight changes, then a delta pull of them
+    @Benchmark
+    public int setBatchThenPullDelta() {
+        long seen = log.lastSequence();
+        mutate();
+        return log.changesSince(seen).map(changes -> changes.size()).orElse(-1);
+    }
+
+    // One hundred weight changes, then a full resync of every vertex
+    @Benchmark
+    public int setBatchThenResync() {
+        mutate();
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        for (String vertex : graph.vertices()) {
+            copy.put(vertex, graph.targets(vertex));
+        }
+        return copy.size();
+    }
+}
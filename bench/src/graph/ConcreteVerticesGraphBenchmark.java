@@ -0,0 +1,102 @@
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ConcreteVerticesGraph against Graph on the same random graph: edge updates,
+ * neighborhood reads and vertex removal. Both keep per-vertex weight maps
+ * behind a hash index, so the costs should stay within a small factor of each
+ * other and flat in the graph size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConcreteVerticesGraphBenchmark {
+
+    @Param({"graph", "vertices"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    private Graph<String> graph;
+    private String[] labels;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        if (implementation.equals("graph")) {
+            graph = Graph.empty();
+        } else {
+            ConcreteVerticesGraph vertices = new ConcreteVerticesGraph(Collections.emptySet());
+            vertices.setRepCheck(RepCheck.OFF);
+            graph = vertices;
+        }
+        labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = "v" + i;
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < degree; d++) {
+                graph.set(labels[i], labels[random.nextInt(size)], 1 + random.nextInt(100));
+            }
+        }
+    }
+
+    private String nextLabel() {
+        next = (next + 1) % size;
+        return labels[next];
+    }
+
+    // Change the weight of an edge and restore it
+    @Benchmark
+    public int setWeight() {
+        String source = nextLabel();
+        String target = labels[(next + size / 2) % size];
+        int previous = graph.set(source, target, 7);
+        return graph.set(source, target, previous);
+    }
+
+    // Sum the weights of one vertex's outgoing and incoming edges
+    @Benchmark
+    public void visitNeighbors(Blackhole sink) {
+        String vertex = nextLabel();
+        graph.forEachTarget(vertex, (target, weight) -> sink.consume(weight));
+        graph.forEachSource(vertex, (source, weight) -> sink.consume(weight));
+    }
+
+    // Copy one vertex's incoming edges, as sources() must
+    @Benchmark
+    public Object copySources() {
+        return graph.sources(nextLabel());
+    }
+
+    // Remove a vertex with all its edges, then put the edges back
+    @Benchmark
+    public boolean removeAndRestore() {
+        String vertex = nextLabel();
+        Map<String, Integer> targets = graph.targets(vertex);
+        Map<String, Integer> sources = graph.sources(vertex);
+        boolean removed = graph.remove(vertex);
+        targets.forEach((target, weight) -> graph.set(vertex, target, weight));
+        sources.forEach((source, weight) -> graph.set(source, vertex, weight));
+        return removed;
+    }
+}
@@ -0,0 +1,120 @@
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Multi-threaded throughput of ConcurrentGraph against a Graph whose every
+ * call is wrapped in one global lock. Run with -t to vary the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ConcurrentGraphBenchmark {
+
+    private static final int VERTICES = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"concurrent", "synchronized"})
+        public String implementation;
+
+        Graph<Integer> graph;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            graph = implementation.equals("concurrent")
+                    ? new ConcurrentGraph<>(Collections.emptySet())
+                    : new SynchronizedGraph<>();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < VERTICES * 4; i++) {
+                graph.set(random.nextInt(VERTICES), random.nextInt(VERTICES), 1);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+
+        // Each thread sets edges out of its own slice of sources
+        int first;
+        int next;
+
+        @Setup
+        public void setUp(Shared shared) {
+            first = shared.threads.getAndIncrement() * 1024 % VERTICES;
+        }
+    }
+
+    @Benchmark
+    public int setUnrelatedSources(Shared shared, PerThread local) {
+        int source = local.first + (local.next++ & 1023);
+        int target = ThreadLocalRandom.current().nextInt(VERTICES);
+        return shared.graph.set(source, target, 1 + (local.next & 7));
+    }
+
+    @Benchmark
+    public int readTargets(Shared shared) {
+        return shared.graph.targets(ThreadLocalRandom.current().nextInt(VERTICES)).size();
+    }
+
+    @Benchmark
+    public int mixedNinetyPercentReads(Shared shared, PerThread local) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int vertex = random.nextInt(VERTICES);
+        if (random.nextInt(10) == 0) {
+            return shared.graph.set(local.first + (local.next++ & 1023), vertex, 1);
+        }
+        return shared.graph.sources(vertex).size();
+    }
+
+    /**
+     * The baseline: a plain Graph with one lock around every call.
+     */
+    static class SynchronizedGraph<L> extends Graph<L> {
+
+        SynchronizedGraph() {
+            super(Collections.emptySet());
+        }
+
+        @Override
+        public synchronized boolean add(L vertex) {
+            return super.add(vertex);
+        }
+
+        @Override
+        public synchronized int set(L source, L target, int weight) {
+            return super.set(source, target, weight);
+        }
+
+        @Override
+        public synchronized boolean remove(L vertex) {
+            return super.remove(vertex);
+        }
+
+        @Override
+        public synchronized Map<L, Integer> sources(L target) {
+            return super.sources(target);
+        }
+
+        @Override
+        public synchronized Map<L, Integer> targets(L source) {
+            return super.targets(source);
+        }
+    }
+}
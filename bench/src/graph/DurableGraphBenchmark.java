@@ -0,0 +1,136 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * What durability costs: set() on a plain Graph versus a DurableGraph (the
+ * target is within 20%), and how recovery time grows with the length of the
+ * log tail after the last snapshot rather than with the size of the graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DurableGraphBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("durable-graph-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String[] labels(int count) {
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = "v" + i;
+        }
+        return labels;
+    }
+
+    @State(Scope.Thread)
+    public static class Writes {
+
+        @Param({"plain", "durable"})
+        public String kind;
+
+        Graph<String> graph;
+        Path directory;
+        String[] labels;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            labels = labels(SIZE);
+            if (kind.equals("durable")) {
+                directory = createDirectory();
+                graph = DurableGraph.open(directory);
+            } else {
+                graph = Graph.empty();
+            }
+            for (int i = 0; i < SIZE; i++) {
+                graph.set(labels[i], labels[(i + 1) % SIZE], 1);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (graph instanceof DurableGraph) {
+                ((DurableGraph) graph).close();
+                deleteDirectory(directory);
+            }
+        }
+    }
+
+    // One weight change on an existing edge
+    @Benchmark
+    public int set(Writes state) {
+        int i = state.next = (state.next + 1) % SIZE;
+        return state.graph.set(state.labels[i], state.labels[(i + 1) % SIZE], 1 + i % 7);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+
+        @Param({"0", "10000", "100000"})
+        public int tail;
+
+        Path directory;
+
+        // A snapshot of SIZE edges followed by 'tail' logged changes
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = createDirectory();
+            String[] labels = labels(SIZE);
+            try (DurableGraph graph = DurableGraph.open(directory, DurableGraph.DEFAULT_FLUSH_MILLIS, 0)) {
+                for (int i = 0; i < SIZE; i++) {
+                    graph.set(labels[i], labels[(i + 1) % SIZE], 1);
+                }
+                graph.checkpoint();
+                for (int i = 0; i < tail; i++) {
+                    graph.set(labels[i % SIZE], labels[(i * 31 + 7) % SIZE], 1 + i % 7);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteDirectory(directory);
+        }
+    }
+
+    // Open the directory: load the snapshot and replay the tail
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int recover(Recovery state) throws IOException {
+        try (DurableGraph graph = DurableGraph.open(state.directory, DurableGraph.DEFAULT_FLUSH_MILLIS, 0)) {
+            return graph.verticesView().size();
+        }
+    }
+}
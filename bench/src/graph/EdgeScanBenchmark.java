@@ -0,0 +1,86 @@
+package graph;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A full scan of every edge, summing the weights: through vertices() and
+ * targets(), which copy, through the allocation-free forEachTarget(), through
+ * the edges() cursor, and through edgeStream(), sequential and parallel.
+ * Scores are the time of one scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EdgeScanBenchmark {
+
+    @Param({BenchmarkGraphs.GRAPH, BenchmarkGraphs.EDGES, BenchmarkGraphs.VERTICES})
+    public String implementation;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    private Graph<String> graph;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        graph = BenchmarkGraphs.create(implementation);
+        String[] labels = BenchmarkGraphs.labels(BenchmarkGraphs.SHORT, "v", size);
+        int[][] edges = BenchmarkGraphs.edges(BenchmarkGraphs.UNIFORM, size, degree, random);
+        BenchmarkGraphs.populate(graph, labels, edges, random);
+    }
+
+    @Benchmark
+    public long targetsCopies() {
+        long sum = 0;
+        for (String source : graph.vertices()) {
+            for (Map.Entry<String, Integer> edge : graph.targets(source).entrySet()) {
+                sum += edge.getValue();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long forEachTarget() {
+        long[] sum = new long[1];
+        for (String source : graph.verticesView()) {
+            graph.forEachTarget(source, (target, weight) -> sum[0] += weight);
+        }
+        return sum[0];
+    }
+
+    @Benchmark
+    public long cursor() {
+        long sum = 0;
+        EdgeCursor<String> edges = graph.edges();
+        while (edges.next()) {
+            sum += edges.weight();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long stream() {
+        return graph.edgeStream().mapToLong(EdgeTriple::getWeight).sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return graph.edgeStream().parallel().mapToLong(EdgeTriple::getWeight).sum();
+    }
+}
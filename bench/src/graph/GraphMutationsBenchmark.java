@@ -0,0 +1,225 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The operations that change the shape of every Graph implementation: add()
+ * of a new vertex, set() inserting a new edge, set(..., 0) deleting an edge,
+ * and remove() of a vertex with its edges. None of them can be repeated on
+ * the same arguments, so each measurement iteration runs a batch of BATCH
+ * distinct operations prepared beforehand, and undoes them afterwards so
+ * every iteration starts from the same graph. Scores are the time of one
+ * batch. Swept like GraphOperationsBenchmark.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = GraphMutationsBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = GraphMutationsBenchmark.BATCH)
+public class GraphMutationsBenchmark {
+
+    static final int BATCH = 1000;
+
+    @State(Scope.Thread)
+    public static class Base {
+
+        @Param({BenchmarkGraphs.GRAPH, BenchmarkGraphs.EDGES, BenchmarkGraphs.VERTICES})
+        public String implementation;
+
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        @Param({BenchmarkGraphs.UNIFORM, BenchmarkGraphs.POWER_LAW})
+        public String distribution;
+
+        @Param({BenchmarkGraphs.SHORT, BenchmarkGraphs.LONG})
+        public String labelType;
+
+        @Param({"8"})
+        public int degree;
+
+        Graph<String> graph;
+        String[] labels;
+        int[][] edges;
+        final Random random = new Random(42);
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = BenchmarkGraphs.create(implementation);
+            labels = BenchmarkGraphs.labels(labelType, "v", size);
+            edges = BenchmarkGraphs.edges(distribution, size, degree, random);
+            BenchmarkGraphs.populate(graph, labels, edges, random);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Additions {
+
+        String[] labels;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(Base base) {
+            if (labels == null) {
+                labels = BenchmarkGraphs.labels(base.labelType, "new", BATCH);
+            }
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Base base) {
+            for (int i = 0; i < next; i++) {
+                base.graph.remove(labels[i]);
+            }
+        }
+    }
+
+    // Add a vertex that is not in the graph
+    @Benchmark
+    public boolean add(Base base, Additions state) {
+        return base.graph.add(state.labels[state.next++]);
+    }
+
+    @State(Scope.Thread)
+    public static class Insertions {
+
+        final String[] sources = new String[BATCH];
+        final String[] targets = new String[BATCH];
+        int next;
+
+        // Pick BATCH distinct pairs of existing vertices with no edge between
+        // them; on small dense graphs, a pair may be retried many times
+        @Setup(Level.Iteration)
+        public void setUp(Base base) {
+            Set<String> chosen = new HashSet<>();
+            int k = 0;
+            while (k < BATCH) {
+                String source = base.labels[base.random.nextInt(base.size)];
+                String target = base.labels[base.random.nextInt(base.size)];
+                if (base.graph.weight(source, target) == 0 && chosen.add(source + "\n" + target)) {
+                    sources[k] = source;
+                    targets[k] = target;
+                    k++;
+                }
+            }
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Base base) {
+            for (int i = 0; i < next; i++) {
+                base.graph.set(sources[i], targets[i], 0);
+            }
+        }
+    }
+
+    // Insert an edge between existing vertices
+    @Benchmark
+    public int setInsert(Base base, Insertions state) {
+        int i = state.next++;
+        return base.graph.set(state.sources[i], state.targets[i], 1 + i % 100);
+    }
+
+    @State(Scope.Thread)
+    public static class Deletions {
+
+        final String[] sources = new String[BATCH];
+        final String[] targets = new String[BATCH];
+        final int[] weights = new int[BATCH];
+        int next;
+
+        // Pick BATCH distinct existing edges
+        @Setup(Level.Iteration)
+        public void setUp(Base base) {
+            Set<String> chosen = new HashSet<>();
+            int k = 0;
+            while (k < BATCH) {
+                int e = base.random.nextInt(base.edges[0].length);
+                String source = base.labels[base.edges[0][e]];
+                String target = base.labels[base.edges[1][e]];
+                if (chosen.add(source + "\n" + target)) {
+                    sources[k] = source;
+                    targets[k] = target;
+                    weights[k] = base.graph.weight(source, target);
+                    k++;
+                }
+            }
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Base base) {
+            for (int i = 0; i < next; i++) {
+                base.graph.set(sources[i], targets[i], weights[i]);
+            }
+        }
+    }
+
+    // Delete an existing edge by setting its weight to zero
+    @Benchmark
+    public int setDelete(Base base, Deletions state) {
+        int i = state.next++;
+        return base.graph.set(state.sources[i], state.targets[i], 0);
+    }
+
+    @State(Scope.Thread)
+    public static class Removals {
+
+        final String[] vertices = new String[BATCH];
+        final List<EdgeTriple<String>> removedEdges = new ArrayList<>();
+        int next;
+
+        // Pick BATCH distinct vertices and remember their edges
+        @Setup(Level.Iteration)
+        public void setUp(Base base) {
+            Set<String> chosen = new HashSet<>();
+            removedEdges.clear();
+            int k = 0;
+            while (k < Math.min(BATCH, base.size)) {
+                String vertex = base.labels[base.random.nextInt(base.size)];
+                if (chosen.add(vertex)) {
+                    vertices[k++] = vertex;
+                    for (Map.Entry<String, Integer> edge : base.graph.targets(vertex).entrySet()) {
+                        removedEdges.add(new EdgeTriple<>(vertex, edge.getKey(), edge.getValue()));
+                    }
+                    for (Map.Entry<String, Integer> edge : base.graph.sources(vertex).entrySet()) {
+                        removedEdges.add(new EdgeTriple<>(edge.getKey(), vertex, edge.getValue()));
+                    }
+                }
+            }
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Base base) {
+            for (int i = 0; i < next; i++) {
+                base.graph.add(vertices[i]);
+            }
+            base.graph.setAll(removedEdges);
+        }
+    }
+
+    // Remove a vertex together with its incoming and outgoing edges
+    @Benchmark
+    public boolean remove(Base base, Removals state) {
+        return base.graph.remove(state.vertices[state.next++]);
+    }
+}
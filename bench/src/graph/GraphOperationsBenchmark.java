@@ -0,0 +1,83 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The read operations and in-place updates of every Graph implementation,
+ * which leave the graph unchanged and so can be measured in a steady state:
+ * set() on an existing edge, sources(), targets() and vertices(). Swept over
+ * graph size, degree distribution and label type; see
+ * GraphMutationsBenchmark for the operations that change the graph's shape.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GraphOperationsBenchmark {
+
+    @Param({BenchmarkGraphs.GRAPH, BenchmarkGraphs.EDGES, BenchmarkGraphs.VERTICES})
+    public String implementation;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({BenchmarkGraphs.UNIFORM, BenchmarkGraphs.POWER_LAW})
+    public String distribution;
+
+    @Param({BenchmarkGraphs.SHORT, BenchmarkGraphs.LONG})
+    public String labelType;
+
+    @Param({"8"})
+    public int degree;
+
+    private Graph<String> graph;
+    private String[] labels;
+    private int[][] edges;
+    private int nextVertex;
+    private int nextEdge;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        graph = BenchmarkGraphs.create(implementation);
+        labels = BenchmarkGraphs.labels(labelType, "v", size);
+        edges = BenchmarkGraphs.edges(distribution, size, degree, random);
+        BenchmarkGraphs.populate(graph, labels, edges, random);
+    }
+
+    private String nextVertex() {
+        nextVertex = (nextVertex + 1) % size;
+        return labels[nextVertex];
+    }
+
+    // Change the weight of an existing edge (set() as an update)
+    @Benchmark
+    public int setUpdate() {
+        nextEdge = (nextEdge + 1) % edges[0].length;
+        return graph.set(labels[edges[0][nextEdge]], labels[edges[1][nextEdge]], 1 + nextEdge % 100);
+    }
+
+    @Benchmark
+    public Object sources() {
+        return graph.sources(nextVertex());
+    }
+
+    @Benchmark
+    public Object targets() {
+        return graph.targets(nextVertex());
+    }
+
+    @Benchmark
+    public Object vertices() {
+        return graph.vertices();
+    }
+}
@@ -0,0 +1,68 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * What instrumentation costs per call: set() and targets() on a plain Graph,
+ * on an InstrumentedGraph recording, and on one whose metrics are switched
+ * off. With the system property unset, instrument() returns the plain graph,
+ * so "plain" is also the cost of instrumentation turned off at startup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstrumentedGraphBenchmark {
+
+    @Param({"plain", "recording", "disabled"})
+    public String mode;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    private Graph<String> graph;
+    private String[] labels;
+    private int[][] edges;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        labels = BenchmarkGraphs.labels(BenchmarkGraphs.SHORT, "v", size);
+        edges = BenchmarkGraphs.edges(BenchmarkGraphs.UNIFORM, size, degree, random);
+        Graph<String> plain = Graph.empty();
+        BenchmarkGraphs.populate(plain, labels, edges, random);
+        if (mode.equals("plain")) {
+            graph = plain;
+        } else {
+            InstrumentedGraph<String> instrumented = new InstrumentedGraph<>(plain);
+            instrumented.getMetrics().setEnabled(mode.equals("recording"));
+            graph = instrumented;
+        }
+    }
+
+    // Change the weight of an existing edge
+    @Benchmark
+    public int setUpdate() {
+        next = (next + 1) % edges[0].length;
+        return graph.set(labels[edges[0][next]], labels[edges[1][next]], 1 + next % 100);
+    }
+
+    @Benchmark
+    public Object targets() {
+        next = (next + 1) % size;
+        return graph.targets(labels[next]);
+    }
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * OffHeapGraph against Graph on the same random graph. Run with
+ * {@code -prof gc}: the interesting numbers are the per-operation allocation
+ * rate and GC time, which for OffHeapGraph should not grow with the size of
+ * the graph, next to the cost of decoding labels from direct memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OffHeapGraphBenchmark {
+
+    @Param({"graph", "offheap"})
+    public String implementation;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    private Graph<String> graph;
+    private String[] labels;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        graph = implementation.equals("graph") ? Graph.empty() : new OffHeapGraph(Collections.emptySet());
+        labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = "http://example.org/vertex/" + i;
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < degree; d++) {
+                graph.set(labels[i], labels[random.nextInt(size)], 1 + random.nextInt(100));
+            }
+        }
+    }
+
+    private String nextLabel() {
+        next = (next + 1) % size;
+        return labels[next];
+    }
+
+    // Insert an edge and delete it again, exercising block growth and reuse
+    @Benchmark
+    public int setInsertAndDelete() {
+        String source = nextLabel();
+        String target = labels[(next + size / 2) % size];
+        graph.set(source, target, 7);
+        return graph.set(source, target, 0);
+    }
+
+    // Look up one edge weight by label
+    @Benchmark
+    public int weight() {
+        return graph.weight(nextLabel(), labels[(next * 31) % size]);
+    }
+
+    // Visit one vertex's outgoing edges
+    @Benchmark
+    public void visitTargets(Blackhole sink) {
+        graph.forEachTarget(nextLabel(), (target, weight) -> sink.consume(weight));
+    }
+}
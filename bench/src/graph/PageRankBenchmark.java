@@ -0,0 +1,67 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serial against parallel PageRank: a fixed 20 power iterations on a
+ * weighted random graph with 10M edges and skewed in-degrees, with 1 worker
+ * thread (serial) and more. The target is a full run in seconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PageRankBenchmark {
+
+    private static final int VERTICES = 1_000_000;
+    private static final int EDGES = 10_000_000;
+    private static final int ITERATIONS = 20;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private PageRank<Integer> pageRank;
+
+    @Setup
+    public void setUp() {
+        Graph<Integer> built = Graph.empty();
+        Random setup = new Random(42);
+        for (int v = 0; v < VERTICES; v++) {
+            built.add(v);
+        }
+        for (int e = 0; e < EDGES; e++) {
+            int target = (int) (VERTICES * Math.pow(setup.nextDouble(), 2));
+            built.set(setup.nextInt(VERTICES), target, 1 + setup.nextInt(10));
+        }
+        pool = new ForkJoinPool(threads);
+        pageRank = new PageRank<>(built.freeze(), pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public PageRank.Result<Integer> run() {
+        return pageRank.run(PageRank.DEFAULT_DAMPING, 0, ITERATIONS);
+    }
+}
@@ -0,0 +1,68 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Scaling of a full parallel BFS with the number of worker threads, on a
+ * random graph with 20M edges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ParallelBfsBenchmark {
+
+    private static final int VERTICES = 2_000_000;
+    private static final int EDGES = 20_000_000;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    private CsrGraph<Integer> graph;
+    private ForkJoinPool pool;
+    private ParallelBfs<Integer> bfs;
+    private final Random random = new Random(1);
+
+    @Setup
+    public void setUp() {
+        Graph<Integer> built = Graph.empty();
+        Random setup = new Random(42);
+        for (int v = 0; v < VERTICES; v++) {
+            built.add(v);
+        }
+        for (int e = 0; e < EDGES; e++) {
+            built.set(setup.nextInt(VERTICES), setup.nextInt(VERTICES), 1);
+        }
+        graph = built.freeze();
+        pool = new ForkJoinPool(threads);
+        bfs = new ParallelBfs<>(graph, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] forwardUnlimited() {
+        return bfs.hops(random.nextInt(VERTICES), ParallelBfs.UNLIMITED, ParallelBfs.Direction.FORWARD);
+    }
+
+    @Benchmark
+    public int[] backwardThreeHops() {
+        return bfs.hops(random.nextInt(VERTICES), 3, ParallelBfs.Direction.BACKWARD);
+    }
+}
@@ -0,0 +1,79 @@
+package graph;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of one mutation on ConcreteEdgesGraph and ConcreteVerticesGraph as the
+ * graph grows, under each rep-checking mode. With OFF (and INCREMENTAL) the
+ * cost should stay flat across sizes; with FULL it grows with the graph.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RepCheckBenchmark {
+
+    @Param({"edges", "vertices"})
+    public String implementation;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"OFF", "SAMPLED", "INCREMENTAL", "FULL"})
+    public RepCheck mode;
+
+    private Graph<String> graph;
+    private String[] labels;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        if (implementation.equals("edges")) {
+            ConcreteEdgesGraph edges = new ConcreteEdgesGraph(Collections.emptySet());
+            edges.setRepCheck(RepCheck.OFF);
+            graph = edges;
+        } else {
+            ConcreteVerticesGraph vertices = new ConcreteVerticesGraph(Collections.emptySet());
+            vertices.setRepCheck(RepCheck.OFF);
+            graph = vertices;
+        }
+        labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = "v" + i;
+        }
+        for (int i = 0; i < size; i++) {
+            graph.set(labels[i], labels[(i + 1) % size], 1);
+        }
+        if (graph instanceof ConcreteEdgesGraph) {
+            ((ConcreteEdgesGraph) graph).setRepCheck(mode);
+        } else {
+            ((ConcreteVerticesGraph) graph).setRepCheck(mode);
+        }
+    }
+
+    // Insert a chord and delete it again, so the graph size stays fixed
+    @Benchmark
+    public int setInsertAndDelete() {
+        String source = labels[next];
+        String target = labels[(next + size / 2) % size];
+        next = (next + 1) % size;
+        graph.set(source, target, 2);
+        return graph.set(source, target, 0);
+    }
+
+    // Add a fresh vertex and remove it again
+    @Benchmark
+    public boolean addAndRemove() {
+        graph.add("extra");
+        return graph.remove("extra");
+    }
+}
@@ -0,0 +1,77 @@
+package graph;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Multi-threaded throughput of ShardedGraph over in-process shards as the
+ * number of shards grows. Write throughput should scale with the shard count
+ * up to the number of cores; run with -t to vary the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ShardedGraphBenchmark {
+
+    private static final int VERTICES = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"1", "2", "4", "8"})
+        public int shards;
+
+        ShardedGraph<Integer> graph;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            graph = new ShardedGraph<>(shards);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < VERTICES * 4; i++) {
+                graph.set(random.nextInt(VERTICES), random.nextInt(VERTICES), 1);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+
+        // Each thread sets edges out of its own slice of sources
+        int first;
+        int next;
+
+        @Setup
+        public void setUp(Shared shared) {
+            first = shared.threads.getAndIncrement() * 1024 % VERTICES;
+        }
+    }
+
+    @Benchmark
+    public int setUnrelatedSources(Shared shared, PerThread local) {
+        int source = local.first + (local.next++ & 1023);
+        int target = ThreadLocalRandom.current().nextInt(VERTICES);
+        return shared.graph.set(source, target, 1 + (local.next & 7));
+    }
+
+    @Benchmark
+    public int readTargets(Shared shared) {
+        return shared.graph.targets(ThreadLocalRandom.current().nextInt(VERTICES)).size();
+    }
+
+    @Benchmark
+    public int readSources(Shared shared) {
+        return shared.graph.sources(ThreadLocalRandom.current().nextInt(VERTICES)).size();
+    }
+}
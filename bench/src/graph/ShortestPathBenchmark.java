@@ -0,0 +1,63 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shortest-path queries on random graphs with 1M and 10M edges and an
+ * average out-degree of 10.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ShortestPathBenchmark {
+
+    private static final int DEGREE = 10;
+
+    @Param({"1000000", "10000000"})
+    public int edges;
+
+    private ShortestPaths<Integer> paths;
+    private int vertices;
+    private final Random random = new Random(1);
+
+    @Setup
+    public void setUp() {
+        vertices = edges / DEGREE;
+        Graph<Integer> graph = Graph.empty();
+        Random setup = new Random(42);
+        for (int v = 0; v < vertices; v++) {
+            graph.add(v);
+        }
+        for (int e = 0; e < edges; e++) {
+            graph.set(setup.nextInt(vertices), setup.nextInt(vertices), 1 + setup.nextInt(100));
+        }
+        paths = new ShortestPaths<>(graph.freeze());
+    }
+
+    @Benchmark
+    public long singleSource() {
+        return paths.distancesFrom(random.nextInt(vertices))[0];
+    }
+
+    @Benchmark
+    public Object pointToPoint() {
+        return paths.shortestPath(random.nextInt(vertices), random.nextInt(vertices));
+    }
+
+    @Benchmark
+    public Object bidirectional() {
+        return paths.bidirectionalShortestPath(random.nextInt(vertices), random.nextInt(vertices));
+    }
+}
@@ -0,0 +1,70 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Strongly connected components of a snapshot with 1M vertices: a random
+ * graph with 'degree' edges per vertex, mostly one giant component; a random
+ * DAG of the same size, with every edge from a lower to a higher vertex; and
+ * a single 1M-vertex path, deep enough to overflow a recursive search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StrongComponentsBenchmark {
+
+    private static final int VERTICES = 1_000_000;
+
+    @Param({"random", "dag", "path"})
+    public String shape;
+
+    @Param({"8"})
+    public int degree;
+
+    private CsrGraph<Integer> snapshot;
+
+    @Setup
+    public void setUp() {
+        Graph<Integer> built = Graph.empty();
+        Random setup = new Random(42);
+        for (int v = 0; v < VERTICES; v++) {
+            built.add(v);
+        }
+        if (shape.equals("path")) {
+            for (int v = 0; v < VERTICES - 1; v++) {
+                built.set(v, v + 1, 1);
+            }
+        } else {
+            for (int e = 0; e < VERTICES * degree; e++) {
+                int u = setup.nextInt(VERTICES);
+                int v = setup.nextInt(VERTICES);
+                if (shape.equals("dag") && u >= v) {
+                    continue;
+                }
+                built.set(u, v, 1);
+            }
+        }
+        snapshot = built.freeze();
+    }
+
+    @Benchmark
+    public int components() {
+        return new StrongComponents<>(snapshot).componentCount();
+    }
+}
@@ -0,0 +1,78 @@
+package graph;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * What multi-versioning costs and saves: set() on an existing edge and
+ * targets() on a VersionedGraph against a plain Graph and a ConcurrentGraph,
+ * and a consistent copy of the whole graph, which is snapshot() for the
+ * VersionedGraph and freeze() for the others.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VersionedGraphBenchmark {
+
+    @Param({"plain", "concurrent", "versioned"})
+    public String implementation;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"8"})
+    public int degree;
+
+    private Graph<String> graph;
+    private VersionedGraph<String> versioned;
+    private String[] labels;
+    private int[][] edges;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        switch (implementation) {
+        case "plain":
+            graph = Graph.empty();
+            break;
+        case "concurrent":
+            graph = new ConcurrentGraph<>(Collections.emptySet());
+            break;
+        default:
+            versioned = new VersionedGraph<>(Collections.emptySet());
+            graph = versioned;
+        }
+        labels = BenchmarkGraphs.labels(BenchmarkGraphs.SHORT, "v", size);
+        edges = BenchmarkGraphs.edges(BenchmarkGraphs.UNIFORM, size, degree, random);
+        BenchmarkGraphs.populate(graph, labels, edges, random);
+    }
+
+    // Change the weight of an existing edge
+    @Benchmark
+    public int setUpdate() {
+        next = (next + 1) % edges[0].length;
+        return graph.set(labels[edges[0][next]], labels[edges[1][next]], 1 + next % 100);
+    }
+
+    @Benchmark
+    public Object targets() {
+        next = (next + 1) % size;
+        return graph.targets(labels[next]);
+    }
+
+    @Benchmark
+    public Object consistentCopy() {
+        return versioned != null ? versioned.snapshot() : graph.freeze();
+    }
+}
@@ -0,0 +1,311 @@
+package graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A non-blocking query facade over a Graph: adjacency lookups that return
+ * {@link CompletableFuture}s, batched multi-vertex lookups, a
+ * {@link Flow.Publisher} of edges, and arbitrary queries run off the
+ * caller's thread.
+ *
+ * <p>Work runs on virtual threads, one per task, when the runtime has them
+ * (Java 21 and later). On Java 17, which this project targets, the default
+ * is instead a fork-join pool with one thread per core. Either way,
+ * thousands of outstanding queries share a few threads. A caller may supply
+ * its own executor instead; see {@link #edgePublisher()} for what it must
+ * tolerate.
+ *
+ * <p>Lookups of the same vertex in the same direction are coalesced: a
+ * request made while an earlier one is still queued shares its result
+ * instead of reading the graph again. A lookup stops accepting sharers when
+ * it starts reading, so every caller sees the graph as it was at or after
+ * its own call.
+ *
+ * <p>Queries run concurrently with each other and with the caller, so the
+ * graph must allow concurrent reads, and concurrent mutation if the caller
+ * mutates it while queries are outstanding: for example a
+ * {@link ConcurrentGraph}, {@link ShardedGraph}, {@link VersionedGraph} or
+ * {@link CsrGraph}, or any Graph that is no longer mutated. Maps delivered
+ * by futures are unmodifiable, since coalesced callers share them. Call
+ * {@link #close()} when done, to release the threads of the default
+ * executor.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public class AsyncGraph<L> implements AutoCloseable {
+
+    private final Graph<L> graph;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final boolean virtualThreads;
+    private final int bufferSize;
+    private final ConcurrentHashMap<L, CompletableFuture<Map<L, Integer>>> pendingTargets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<L, CompletableFuture<Map<L, Integer>>> pendingSources = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    // Abstraction function:
+    //   Represents a facade that runs queries on 'graph' using 'executor',
+    //   which it shuts down on close() if it is 'ownedExecutor'. Each entry
+    //   v -> f of pendingTargets (pendingSources) is a queued lookup of the
+    //   targets (sources) of v whose result f has not been computed yet.
+    //   Publishers buffer up to bufferSize edges per subscriber.
+    //
+    // Representation invariant:
+    //   - graph and executor are not null.
+    //   - ownedExecutor is null or the same object as executor.
+    //   - bufferSize is positive.
+    //   - no future in pendingTargets or pendingSources is done.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final; pending futures are returned to
+    //     callers, but only completed by this class, with unmodifiable maps.
+
+    // Constructor, using virtual threads if the runtime has them
+    public AsyncGraph(Graph<L> graph) {
+        this(graph, defaultExecutor(), true, Flow.defaultBufferSize());
+    }
+
+    // Constructor, running every query on the given executor
+    public AsyncGraph(Graph<L> graph, Executor executor) {
+        this(graph, executor, Flow.defaultBufferSize());
+    }
+
+    // Constructor, buffering up to bufferSize edges per publisher subscriber
+    public AsyncGraph(Graph<L> graph, Executor executor, int bufferSize) {
+        this(graph, executor, false, bufferSize);
+    }
+
+    private AsyncGraph(Graph<L> graph, Executor executor, boolean owned, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.graph = graph;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.virtualThreads = owned && !(executor instanceof ForkJoinPool);
+        this.bufferSize = bufferSize;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert graph != null && executor != null : "Graph and executor must not be null";
+        assert ownedExecutor == null || ownedExecutor == executor : "Owned executor is not the executor";
+        assert bufferSize > 0 : "Buffer size not positive";
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() if the runtime has it,
+    // reached reflectively so that this class builds for Java 17; otherwise
+    // a fork-join pool with one thread per core
+    private static ExecutorService defaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        }
+    }
+
+    /**
+     * @return true if queries run on virtual threads created by this facade
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return the number of lookups that shared the result of an earlier
+     *         queued lookup instead of reading the graph
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Look up the target vertices of a source vertex, as by
+     * {@link Graph#targets(Object)}.
+     *
+     * @param source a label
+     * @return a future of an unmodifiable map of the targets of source and
+     *         the weights of the edges to them
+     */
+    public CompletableFuture<Map<L, Integer>> targetsAsync(L source) {
+        return lookup(List.of(source), pendingTargets, graph::targets).get(source);
+    }
+
+    /**
+     * Look up the source vertices of a target vertex, as by
+     * {@link Graph#sources(Object)}.
+     *
+     * @param target a label
+     * @return a future of an unmodifiable map of the sources of target and
+     *         the weights of the edges from them
+     */
+    public CompletableFuture<Map<L, Integer>> sourcesAsync(L target) {
+        return lookup(List.of(target), pendingSources, graph::sources).get(target);
+    }
+
+    /**
+     * Look up the target vertices of many source vertices at once. Vertices
+     * not already being looked up are read by a single task.
+     *
+     * @param sources labels; duplicates are looked up once
+     * @return a future of a map from each distinct label in sources to what
+     *         {@link #targetsAsync(Object)} would deliver for it
+     */
+    public CompletableFuture<Map<L, Map<L, Integer>>> targetsMany(Collection<? extends L> sources) {
+        return all(lookup(sources, pendingTargets, graph::targets));
+    }
+
+    /**
+     * Look up the source vertices of many target vertices at once. Vertices
+     * not already being looked up are read by a single task.
+     *
+     * @param targets labels; duplicates are looked up once
+     * @return a future of a map from each distinct label in targets to what
+     *         {@link #sourcesAsync(Object)} would deliver for it
+     */
+    public CompletableFuture<Map<L, Map<L, Integer>>> sourcesMany(Collection<? extends L> targets) {
+        return all(lookup(targets, pendingSources, graph::sources));
+    }
+
+    // Join each vertex to a queued lookup of it, or claim it for a new task
+    // that reads all of the claimed vertices
+    private Map<L, CompletableFuture<Map<L, Integer>>> lookup(Collection<? extends L> vertices,
+            ConcurrentHashMap<L, CompletableFuture<Map<L, Integer>>> pending, Function<L, Map<L, Integer>> read) {
+        Map<L, CompletableFuture<Map<L, Integer>>> futures = new LinkedHashMap<>();
+        Map<L, CompletableFuture<Map<L, Integer>>> claimed = new LinkedHashMap<>();
+        for (L vertex : vertices) {
+            if (futures.containsKey(vertex)) {
+                continue;
+            }
+            CompletableFuture<Map<L, Integer>> future = new CompletableFuture<>();
+            CompletableFuture<Map<L, Integer>> queued = pending.putIfAbsent(vertex, future);
+            if (queued == null) {
+                claimed.put(vertex, future);
+                futures.put(vertex, future);
+            } else {
+                coalesced.increment();
+                futures.put(vertex, queued);
+            }
+        }
+        if (!claimed.isEmpty()) {
+            Runnable task = () -> {
+                // Stop sharing before reading, so that later callers read
+                // the graph again
+                claimed.forEach(pending::remove);
+                claimed.forEach((vertex, future) -> {
+                    try {
+                        future.complete(Collections.unmodifiableMap(read.apply(vertex)));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                claimed.forEach(pending::remove);
+                claimed.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+        return futures;
+    }
+
+    private CompletableFuture<Map<L, Map<L, Integer>>> all(Map<L, CompletableFuture<Map<L, Integer>>> futures) {
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Map<L, Map<L, Integer>> result = new HashMap<>();
+            futures.forEach((vertex, future) -> result.put(vertex, future.join()));
+            return result;
+        });
+    }
+
+    /**
+     * Publish every edge of the graph, as by {@link Graph#edges()}. Each
+     * subscriber gets its own traversal, which produces edges only as fast
+     * as the subscriber requests them, buffering a bounded number; a
+     * subscriber that stops requesting leaves its traversal parked until it
+     * cancels. The graph is traversed under the same rules as
+     * {@link Graph#edges()}.
+     *
+     * <p>The traversal and the delivery of edges both run on the executor,
+     * and the traversal blocks a thread while the buffer is full. Virtual
+     * threads park without holding a carrier, and a fork-join pool, such as
+     * the default on Java 17, adds a spare worker while one is blocked, so
+     * delivery never starves on either. Any other supplied executor must
+     * tolerate blocking tasks: it needs a thread for delivery beyond the one
+     * held by each traversal in progress, or the subscriber stalls.
+     *
+     * @return a publisher that completes each subscriber after the last edge,
+     *         or fails it with the exception thrown by the traversal
+     */
+    public Flow.Publisher<EdgeTriple<L>> edgePublisher() {
+        return subscriber -> {
+            SubmissionPublisher<EdgeTriple<L>> publisher = new SubmissionPublisher<>(executor, bufferSize);
+            publisher.subscribe(subscriber);
+            Runnable traversal = () -> {
+                try {
+                    EdgeCursor<L> cursor = graph.edges();
+                    while (publisher.hasSubscribers() && cursor.next()) {
+                        publisher.submit(new EdgeTriple<>(cursor.source(), cursor.target(), cursor.weight()));
+                    }
+                    publisher.close();
+                } catch (RuntimeException e) {
+                    publisher.closeExceptionally(e);
+                }
+            };
+            try {
+                executor.execute(traversal);
+            } catch (RejectedExecutionException e) {
+                publisher.closeExceptionally(e);
+            }
+        };
+    }
+
+    /**
+     * Run any query on the graph, such as a traversal, off the caller's
+     * thread.
+     *
+     * @param <R> type of the result
+     * @param query a function that reads the graph and must not modify it
+     * @return a future of the result of the query, or of the exception it
+     *         threw
+     */
+    public <R> CompletableFuture<R> queryAsync(Function<? super Graph<L>, ? extends R> query) {
+        return CompletableFuture.supplyAsync(() -> query.apply(graph), executor);
+    }
+
+    /**
+     * Stop accepting queries, if this facade created its own executor; the
+     * queries already submitted still complete. An executor supplied by the
+     * caller is left running. The graph is not affected.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncGraph over " + graph.getClass().getSimpleName()
+                + (virtualThreads ? " on virtual threads" : "");
+    }
+}
@@ -0,0 +1,55 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size set of ints in [0, size) that many threads can add to at once
+ * without locking.
+ */
+class AtomicBitSet {
+
+    private final AtomicLongArray words;
+
+    // Abstraction function:
+    //   Represents the set of i such that bit (i % 64) of words[i / 64] is 1.
+    //
+    // Representation invariant:
+    //   - true
+    //
+    // Safety from rep exposure:
+    //   - 'words' is private and final and never returned.
+
+    // Constructor
+    AtomicBitSet(int size) {
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * @param i an int in [0, size)
+     * @return true if i is in this set
+     */
+    boolean get(int i) {
+        return (words.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    /**
+     * Add an int to this set, atomically.
+     *
+     * @param i an int in [0, size)
+     * @return true if this call added i; false if i was already in this set,
+     *         so that exactly one of several racing callers gets true
+     */
+    boolean add(int i) {
+        int index = i >>> 6;
+        long bit = 1L << i;
+        while (true) {
+            long word = words.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, word, word | bit)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocates variable-sized blocks of ints outside the Java heap, in direct
+ * ByteBuffer pages, and reuses the space of freed blocks.
+ *
+ * <p>Block sizes are rounded up to a power of two. A freed block goes on a
+ * free list for its size class, threaded through the block itself, and the
+ * next allocation of that class takes it before any new space is used. New
+ * space comes from a bump pointer in the current page; the current page
+ * starts small and doubles up to the page size before a new page is opened.
+ * A block larger than a page gets a page of its own, which is dropped when
+ * the block is freed. Free blocks are not coalesced.
+ *
+ * <p>A block is named by a long address: its page index in the high 32 bits
+ * and its offset in ints within the page in the low 32 bits. Every block
+ * handed out by {@link #allocate(int)} is zeroed.
+ */
+class BlockAllocator {
+
+    /** Default page size in ints: 4 MB pages. */
+    static final int DEFAULT_PAGE_INTS = 1 << 20;
+
+    private static final int MIN_BLOCK_INTS = 2;
+    private static final int FIRST_PAGE_INTS = 1 << 10;
+    private static final long NONE = -1;
+
+    private final int pageInts;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private final IntList freePageSlots = new IntList();
+    private final long[] freeLists = new long[Integer.SIZE];
+    private int currentPage = -1;
+    private int top = 0;
+    private long usedInts = 0;
+    private long reservedBytes = 0;
+
+    // Abstraction function:
+    //   Represents the set of blocks handed out by allocate() and not yet
+    //   freed; every other int in the pages is either on a free list or above
+    //   'top' in the current page.
+    //
+    // Representation invariant:
+    //   - pageInts is a power of two.
+    //   - freeLists[k] is NONE or the address of a free block of 2^k ints,
+    //     whose first two ints hold the address of the next free block of
+    //     that size.
+    //   - 0 <= top <= capacity of the current page, and pages below
+    //     currentPage are never bumped again.
+    //   - pages.get(i) is null exactly for slots in freePageSlots.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and the pages are never returned; callers
+    //     read and write blocks only through getInt() and putInt().
+
+    // Constructor
+    BlockAllocator() {
+        this(DEFAULT_PAGE_INTS);
+    }
+
+    // Constructor, with pages of pageInts ints
+    BlockAllocator(int pageInts) {
+        assert Integer.bitCount(pageInts) == 1 && pageInts >= FIRST_PAGE_INTS : "Page size must be a power of two";
+        this.pageInts = pageInts;
+        Arrays.fill(freeLists, NONE);
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert currentPage < 0 || top <= pages.get(currentPage).capacity() / Integer.BYTES : "Bump pointer past page";
+        assert usedInts >= 0 : "More ints freed than allocated";
+    }
+
+    /**
+     * @param ints a requested block size, positive
+     * @return the number of ints a block of that size really occupies
+     */
+    static int blockInts(int ints) {
+        return Math.max(MIN_BLOCK_INTS, Integer.highestOneBit(ints - 1) << 1);
+    }
+
+    private static int page(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Allocate a zeroed block.
+     *
+     * @param ints the number of ints needed, positive
+     * @return the address of a block of at least that many ints
+     */
+    long allocate(int ints) {
+        int size = blockInts(ints);
+        int sizeClass = Integer.numberOfTrailingZeros(size);
+        usedInts += size;
+        long address;
+        if (freeLists[sizeClass] != NONE) {
+            address = freeLists[sizeClass];
+            freeLists[sizeClass] = getLong(address);
+            ByteBuffer page = pages.get(page(address));
+            for (int i = 0; i < size; i++) {
+                page.putInt((offset(address) + i) * Integer.BYTES, 0);
+            }
+        } else if (size > pageInts) {
+            int slot = freePageSlots.isEmpty() ? pages.size() : freePageSlots.pop();
+            ByteBuffer page = OffHeapInts.allocatePage(size);
+            if (slot == pages.size()) {
+                pages.add(page);
+            } else {
+                pages.set(slot, page);
+            }
+            reservedBytes += page.capacity();
+            address = (long) slot << 32;
+        } else {
+            reserve(size);
+            address = ((long) currentPage << 32) | top;
+            top += size;
+        }
+        checkRep();
+        return address;
+    }
+
+    // Make room for size ints above the bump pointer, growing the current
+    // page or opening a new one
+    private void reserve(int size) {
+        while (currentPage < 0 || top + size > pages.get(currentPage).capacity() / Integer.BYTES) {
+            ByteBuffer current = currentPage < 0 ? null : pages.get(currentPage);
+            if (current != null && current.capacity() / Integer.BYTES < pageInts) {
+                ByteBuffer grown = OffHeapInts.allocatePage(current.capacity() / Integer.BYTES * 2);
+                ByteBuffer source = current.duplicate();
+                source.clear();
+                grown.put(source);
+                grown.clear();
+                pages.set(currentPage, grown);
+                reservedBytes += grown.capacity() - current.capacity();
+                continue;
+            }
+            if (current != null) {
+                retireTail();
+            }
+            currentPage = freePageSlots.isEmpty() ? pages.size() : freePageSlots.pop();
+            ByteBuffer page = OffHeapInts.allocatePage(Math.min(pageInts, Math.max(FIRST_PAGE_INTS, size)));
+            if (currentPage == pages.size()) {
+                pages.add(page);
+            } else {
+                pages.set(currentPage, page);
+            }
+            reservedBytes += page.capacity();
+            top = 0;
+        }
+    }
+
+    // Put the unused end of a full page on the free lists, in power-of-two
+    // pieces, so that it is not wasted
+    private void retireTail() {
+        int remaining = pageInts - top;
+        while (remaining >= MIN_BLOCK_INTS) {
+            int piece = Integer.highestOneBit(remaining);
+            push(((long) currentPage << 32) | top, piece);
+            top += piece;
+            remaining -= piece;
+        }
+    }
+
+    /**
+     * Free a block, making its space available to later allocations.
+     *
+     * @param address the address returned by allocate()
+     * @param ints the size that was passed to allocate()
+     */
+    void free(long address, int ints) {
+        int size = blockInts(ints);
+        usedInts -= size;
+        if (size > pageInts) {
+            reservedBytes -= pages.get(page(address)).capacity();
+            pages.set(page(address), null);
+            freePageSlots.add(page(address));
+        } else {
+            push(address, size);
+        }
+        checkRep();
+    }
+
+    private void push(long address, int size) {
+        int sizeClass = Integer.numberOfTrailingZeros(size);
+        putLong(address, freeLists[sizeClass]);
+        freeLists[sizeClass] = address;
+    }
+
+    private long getLong(long address) {
+        return ((long) getInt(address, 0) << 32) | (getInt(address, 1) & 0xFFFFFFFFL);
+    }
+
+    private void putLong(long address, long value) {
+        putInt(address, 0, (int) (value >>> 32));
+        putInt(address, 1, (int) value);
+    }
+
+    /**
+     * @param address address of an allocated block
+     * @param index an index in ints within the block
+     * @return the int at that index
+     */
+    int getInt(long address, int index) {
+        return pages.get(page(address)).getInt((offset(address) + index) * Integer.BYTES);
+    }
+
+    /**
+     * @param address address of an allocated block
+     * @param index an index in ints within the block
+     * @param value the new int at that index
+     */
+    void putInt(long address, int index, int value) {
+        pages.get(page(address)).putInt((offset(address) + index) * Integer.BYTES, value);
+    }
+
+    /**
+     * Copy bytes out of a block.
+     *
+     * @param address address of an allocated block
+     * @param index the index in ints within the block where the bytes start
+     * @param bytes the array to fill
+     */
+    void getBytes(long address, int index, byte[] bytes) {
+        ByteBuffer source = pages.get(page(address)).duplicate();
+        source.position((offset(address) + index) * Integer.BYTES);
+        source.get(bytes);
+    }
+
+    /**
+     * Copy bytes into a block.
+     *
+     * @param address address of an allocated block
+     * @param index the index in ints within the block where the bytes start
+     * @param bytes the bytes to write, which must fit in the block
+     */
+    void putBytes(long address, int index, byte[] bytes) {
+        ByteBuffer target = pages.get(page(address)).duplicate();
+        target.position((offset(address) + index) * Integer.BYTES);
+        target.put(bytes);
+    }
+
+    /**
+     * @return the number of ints in blocks that are allocated and not freed
+     */
+    long usedInts() {
+        return usedInts;
+    }
+
+    /**
+     * @return the number of bytes of direct memory held by this allocator
+     */
+    long reservedBytes() {
+        return reservedBytes;
+    }
+}
@@ -0,0 +1,76 @@
+package graph;
+
+/**
+ * An immutable snapshot of the counters of a {@link CachingGraph}'s caches.
+ */
+public final class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    // Abstraction function:
+    //   Represents 'hits' lookups answered from a cache and 'misses' that
+    //   were computed, with 'evictions' entries dropped to bound the size
+    //   and 'invalidations' dropped because a mutation made them stale.
+    //
+    // Representation invariant:
+    //   - every count is nonnegative.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final and only numbers are returned.
+
+    // Constructor
+    CacheStats(long hits, long misses, long evictions, long invalidations) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        assert hits >= 0 && misses >= 0 && evictions >= 0 && invalidations >= 0 : "Negative count";
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that had to be computed
+     */
+    public long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 if there
+     *         were none
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of entries dropped to keep the cache within its
+     *         maximum size
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of entries dropped because a mutation changed them
+     */
+    public long getInvalidationCount() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d invalidations=%d",
+                hits, misses, getHitRate(), evictions, invalidations);
+    }
+}
@@ -0,0 +1,459 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A Graph that forwards every call to another Graph and caches the results
+ * of sources(), targets() and {@link #shortestPath(Object, Object)}, for
+ * workloads that repeat the same queries many times between writes.
+ *
+ * <p>Each of the three caches holds at most a maximum number of entries and
+ * evicts the least recently used one when full. Mutations invalidate only
+ * the entries they make stale:
+ * <ul>
+ * <li>set(s, t, w) drops targets(s) and sources(t);
+ * <li>remove(v) drops sources(v), targets(v), sources(x) for every target x
+ *     of v, and targets(x) for every source x of v;
+ * <li>a new edge, or a lower weight, can shorten any path, so it drops every
+ *     cached path; a removed edge, or a higher weight, drops only the cached
+ *     paths that use that edge, and remove(v) only those through v;
+ * <li>setAll() drops every cached path;
+ * <li>add(v) and addAll() drop only the cached empty path from v to itself
+ *     for each vertex v they add, since v now has the trivial path; so does
+ *     set(s, t, 0) on a delegate that, contrary to the spec, adds its
+ *     endpoints.
+ * </ul>
+ * Paths are computed on a {@link CsrGraph} snapshot, which is taken on the
+ * first path miss after any mutation, so a path miss after a write costs a
+ * copy of the whole graph.
+ *
+ * <p>sources() and targets() return unmodifiable maps, shared by every caller
+ * that hits the same entry. The caches, the statistics and every mutator are
+ * synchronized on this object, so cached queries may be shared between
+ * threads; other observers are forwarded without locking and are exactly as
+ * safe for concurrent use as the delegate's.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class CachingGraph<L> extends Graph<L> {
+
+    /** Default maximum number of entries in each cache. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final Graph<L> delegate;
+    private final Lru<L, Map<L, Integer>> sourcesCache;
+    private final Lru<L, Map<L, Integer>> targetsCache;
+    private final Lru<List<L>, Optional<WeightedPath<L>>> pathCache;
+    private ShortestPaths<L> shortestPaths = null;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    // Abstraction function:
+    //   Represents the same graph as 'delegate'. sourcesCache.get(v) and
+    //   targetsCache.get(v) are delegate.sources(v) and delegate.targets(v);
+    //   pathCache.get(List.of(s, t)) is a shortest path from s to t in
+    //   delegate, if any. shortestPaths, if not null, searches a snapshot of
+    //   delegate. hits, misses, evictions and invalidations count the
+    //   caches' lookups and dropped entries.
+    //
+    // Representation invariant:
+    //   - every cached entry equals what the delegate returns now, as long as
+    //     the delegate is changed only through this object.
+    //   - shortestPaths is null or searches a snapshot equal to delegate.
+    //   - every cache holds at most its maximum size.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; 'delegate' is never returned, though its
+    //     views are, and they are read-only.
+    //   - Cached maps are unmodifiable and their labels and weights are
+    //     immutable, so sharing them between callers is safe; cached paths
+    //     are immutable.
+    //   - The superclass's own rep is left empty and is never used.
+
+    // Constructor, with caches of DEFAULT_MAXIMUM_SIZE entries, taking over a
+    // graph that must from now on be changed only through this object
+    public CachingGraph(Graph<L> delegate) {
+        this(delegate, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    // Constructor, with caches of at most maximumSize entries each
+    public CachingGraph(Graph<L> delegate, int maximumSize) {
+        super(Collections.emptySet());
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.sourcesCache = new Lru<>(maximumSize);
+        this.targetsCache = new Lru<>(maximumSize);
+        this.pathCache = new Lru<>(maximumSize);
+    }
+
+    /**
+     * @return the hit, miss, eviction and invalidation counts of all three
+     *         caches together, since construction or the last resetStats()
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, invalidations);
+    }
+
+    /**
+     * Set every statistic back to zero; cached entries are kept.
+     */
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    /**
+     * Drop every cached entry. The statistics are kept.
+     */
+    public synchronized void clear() {
+        sourcesCache.clear();
+        targetsCache.clear();
+        pathCache.clear();
+        shortestPaths = null;
+    }
+
+    // Drop the cached adjacency of a vertex, if any
+    private void invalidate(Map<L, Map<L, Integer>> cache, L vertex) {
+        if (cache.remove(vertex) != null) {
+            invalidations++;
+        }
+    }
+
+    // Drop every cached path
+    private void invalidateAllPaths() {
+        invalidations += pathCache.size();
+        pathCache.clear();
+    }
+
+    // Drop the cached paths that use the edge from source to target
+    private void invalidatePathsUsing(L source, L target) {
+        for (Iterator<Optional<WeightedPath<L>>> it = pathCache.values().iterator(); it.hasNext(); ) {
+            Optional<WeightedPath<L>> path = it.next();
+            if (path.isPresent() && usesEdge(path.get().getVertices(), source, target)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    private static <L> boolean usesEdge(List<L> vertices, L source, L target) {
+        for (int i = 0; i + 1 < vertices.size(); i++) {
+            if (vertices.get(i).equals(source) && vertices.get(i + 1).equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Drop the cached paths that pass through any of the given vertices
+    private void invalidatePathsThrough(Set<L> removed) {
+        for (Iterator<Optional<WeightedPath<L>>> it = pathCache.values().iterator(); it.hasNext(); ) {
+            Optional<WeightedPath<L>> path = it.next();
+            if (path.isPresent() && !Collections.disjoint(path.get().getVertices(), removed)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    // Drop the cached empty path from a newly added vertex to itself
+    private void invalidateEmptyLoop(L vertex) {
+        if (pathCache.remove(List.of(vertex, vertex), Optional.empty())) {
+            invalidations++;
+        }
+    }
+
+    // Drop the cached adjacency of a vertex about to be removed and of its
+    // neighbors, collected before the removal
+    private void invalidateIncident(L vertex, Collection<L> targets, Collection<L> sources) {
+        invalidate(sourcesCache, vertex);
+        invalidate(targetsCache, vertex);
+        for (L target : targets) {
+            invalidate(sourcesCache, target);
+        }
+        for (L source : sources) {
+            invalidate(targetsCache, source);
+        }
+    }
+
+    @Override
+    public synchronized boolean add(L vertex) {
+        boolean added = delegate.add(vertex);
+        if (added) {
+            shortestPaths = null;
+            invalidateEmptyLoop(vertex);
+        }
+        return added;
+    }
+
+    @Override
+    public synchronized int set(L source, L target, int weight) {
+        int vertexCount = delegate.verticesView().size();
+        int previousWeight = delegate.set(source, target, weight);
+        if (previousWeight == weight) {
+            // No edge changed, but set() may still have added the endpoints
+            if (delegate.verticesView().size() != vertexCount) {
+                shortestPaths = null;
+                invalidateEmptyLoop(source);
+                invalidateEmptyLoop(target);
+            }
+            return previousWeight;
+        }
+        shortestPaths = null;
+        invalidate(targetsCache, source);
+        invalidate(sourcesCache, target);
+        if (weight > 0 && (previousWeight == 0 || weight < previousWeight)) {
+            invalidateAllPaths();
+        } else {
+            invalidatePathsUsing(source, target);
+        }
+        return previousWeight;
+    }
+
+    @Override
+    public synchronized boolean remove(L vertex) {
+        if (!delegate.verticesView().contains(vertex)) {
+            return false;
+        }
+        List<L> targets = new ArrayList<>(delegate.targetsView(vertex).keySet());
+        List<L> sources = new ArrayList<>(delegate.sourcesView(vertex).keySet());
+        boolean removed = delegate.remove(vertex);
+        shortestPaths = null;
+        invalidateIncident(vertex, targets, sources);
+        invalidatePathsThrough(Collections.singleton(vertex));
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends L> newVertices) {
+        boolean changed = delegate.addAll(newVertices);
+        if (changed) {
+            shortestPaths = null;
+            for (L vertex : newVertices) {
+                invalidateEmptyLoop(vertex);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public synchronized void setAll(Iterable<EdgeTriple<L>> edges) {
+        List<EdgeTriple<L>> batch = new ArrayList<>();
+        edges.forEach(batch::add);
+        delegate.setAll(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        shortestPaths = null;
+        for (EdgeTriple<L> edge : batch) {
+            invalidate(targetsCache, edge.getSource());
+            invalidate(sourcesCache, edge.getTarget());
+        }
+        invalidateAllPaths();
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<? extends L> oldVertices) {
+        Map<L, List<L>> targets = new HashMap<>();
+        Map<L, List<L>> sources = new HashMap<>();
+        for (L vertex : oldVertices) {
+            if (delegate.verticesView().contains(vertex) && !targets.containsKey(vertex)) {
+                targets.put(vertex, new ArrayList<>(delegate.targetsView(vertex).keySet()));
+                sources.put(vertex, new ArrayList<>(delegate.sourcesView(vertex).keySet()));
+            }
+        }
+        boolean changed = delegate.removeAll(oldVertices);
+        if (targets.isEmpty()) {
+            return changed;
+        }
+        shortestPaths = null;
+        for (L vertex : targets.keySet()) {
+            invalidateIncident(vertex, targets.get(vertex), sources.get(vertex));
+        }
+        invalidatePathsThrough(new HashSet<>(targets.keySet()));
+        return changed;
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return delegate.vertices();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the map is unmodifiable, and may be the same
+     * map returned by earlier calls.
+     */
+    @Override
+    public synchronized Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = sourcesCache.get(target);
+        if (sources != null) {
+            hits++;
+            return sources;
+        }
+        misses++;
+        sources = Collections.unmodifiableMap(delegate.sources(target));
+        sourcesCache.put(target, sources);
+        return sources;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the map is unmodifiable, and may be the same
+     * map returned by earlier calls.
+     */
+    @Override
+    public synchronized Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = targetsCache.get(source);
+        if (targets != null) {
+            hits++;
+            return targets;
+        }
+        misses++;
+        targets = Collections.unmodifiableMap(delegate.targets(source));
+        targetsCache.put(source, targets);
+        return targets;
+    }
+
+    /**
+     * Find a shortest path, from the cache if it was found before and is
+     * still a shortest path.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return a path of least total weight from source to target, or empty if
+     *         either vertex is not in the graph or target is unreachable
+     */
+    public synchronized Optional<WeightedPath<L>> shortestPath(L source, L target) {
+        List<L> key = List.of(source, target);
+        Optional<WeightedPath<L>> path = pathCache.get(key);
+        if (path != null) {
+            hits++;
+            return path;
+        }
+        misses++;
+        if (shortestPaths == null) {
+            shortestPaths = new ShortestPaths<>(delegate.freeze());
+        }
+        path = shortestPaths.bidirectionalShortestPath(source, target);
+        pathCache.put(key, path);
+        return path;
+    }
+
+    @Override
+    public Set<L> verticesView() {
+        return delegate.verticesView();
+    }
+
+    @Override
+    public Map<L, Integer> sourcesView(L target) {
+        return delegate.sourcesView(target);
+    }
+
+    @Override
+    public Map<L, Integer> targetsView(L source) {
+        return delegate.targetsView(source);
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        return delegate.weight(source, target);
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+        delegate.forEachTarget(source, action);
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+        delegate.forEachSource(target, action);
+    }
+
+    @Override
+    public EdgeCursor<L> edges() {
+        return delegate.edges();
+    }
+
+    @Override
+    public Stream<EdgeTriple<L>> edgeStream() {
+        return delegate.edgeStream();
+    }
+
+    @Override
+    public void setChangeLog(ChangeLog<L> log) {
+        delegate.setChangeLog(log);
+    }
+
+    @Override
+    public ChangeLog<L> getChangeLog() {
+        return delegate.getChangeLog();
+    }
+
+    @Override
+    public int idOf(L vertex) {
+        return delegate.idOf(vertex);
+    }
+
+    @Override
+    public L labelOf(int id) {
+        return delegate.labelOf(id);
+    }
+
+    @Override
+    public CsrGraph<L> freeze() {
+        return delegate.freeze();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    /**
+     * A map in least-recently-used order that drops its eldest entry when it
+     * grows past a maximum size, counting the drop as an eviction.
+     */
+    private class Lru<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maximumSize;
+
+        // Constructor
+        Lru(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maximumSize) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A bounded, ordered log of the mutations of a graph, for consumers that keep
+ * a copy of the graph up to date by pulling only what changed.
+ * 
+ * <p>Attach a log with {@link Graph#setChangeLog(ChangeLog)}. Every mutation
+ * that changes the abstract value of the graph then appends one change per
+ * vertex added, vertex removed, or edge whose weight changed, numbered by
+ * consecutive sequence numbers starting at 1. Mutations that change nothing,
+ * such as adding a vertex that is already present, append nothing.
+ * 
+ * <p>The log keeps only the most recent {@code capacity} changes, in a ring
+ * of primitive and label arrays, so memory use is fixed and appending does
+ * not allocate. A consumer remembers the sequence number of the last change
+ * it applied and calls {@link #changesSince(long)}; if it has fallen so far
+ * behind that the changes it needs were overwritten, it must take a full
+ * snapshot again. To start, a consumer reads {@link #lastSequence()} and then
+ * takes its snapshot with no mutation in between.
+ * 
+ * <p>A log is safe for use by multiple threads.
+ * 
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class ChangeLog<L> {
+
+    private static final GraphChange.Kind[] KINDS = GraphChange.Kind.values();
+
+    private final byte[] kinds;
+    private final Object[] sources;
+    private final Object[] targets;
+    private final int[] oldWeights;
+    private final int[] newWeights;
+    private long lastSequence = 0;
+
+    // Abstraction function:
+    //   Represents the changes numbered max(1, lastSequence - capacity + 1)
+    //   through lastSequence, where change s is held at index
+    //   (s - 1) % capacity of every array, its kind as an ordinal of
+    //   GraphChange.Kind.
+    //
+    // Representation invariant:
+    //   - all arrays have the same positive length, the capacity.
+    //   - lastSequence >= 0.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final except lastSequence, and the
+    //     arrays are never returned; changesSince() builds new immutable
+    //     GraphChange objects in a fresh list.
+    //   - All access is synchronized on this log.
+
+    // Constructor
+    public ChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.kinds = new byte[capacity];
+        this.sources = new Object[capacity];
+        this.targets = new Object[capacity];
+        this.oldWeights = new int[capacity];
+        this.newWeights = new int[capacity];
+    }
+
+    /**
+     * @return the number of changes this log retains
+     */
+    public int capacity() {
+        return kinds.length;
+    }
+
+    /**
+     * @return the sequence number of the most recent change, or 0 if none
+     *         has been recorded
+     */
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Get the changes after a given one, oldest first.
+     * 
+     * @param sequence the sequence number of the last change the caller has
+     *        applied, or 0 for none; at most {@link #lastSequence()}
+     * @return the changes numbered sequence + 1 through lastSequence(), in
+     *         order, or empty if some of them are no longer retained
+     * @throws IllegalArgumentException if sequence is negative or greater
+     *         than lastSequence()
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Optional<List<GraphChange<L>>> changesSince(long sequence) {
+        if (sequence < 0 || sequence > lastSequence) {
+            throw new IllegalArgumentException("no such sequence number: " + sequence);
+        }
+        if (lastSequence - sequence > kinds.length) {
+            return Optional.empty();
+        }
+        List<GraphChange<L>> changes = new ArrayList<>((int) (lastSequence - sequence));
+        for (long s = sequence + 1; s <= lastSequence; s++) {
+            int i = (int) ((s - 1) % kinds.length);
+            changes.add(new GraphChange<>(s, KINDS[kinds[i]], (L) sources[i], (L) targets[i],
+                    oldWeights[i], newWeights[i]));
+        }
+        return Optional.of(changes);
+    }
+
+    // Append one change; the caller has checked that it is a real change
+    private synchronized void append(GraphChange.Kind kind, L source, L target, int oldWeight, int newWeight) {
+        int i = (int) (lastSequence++ % kinds.length);
+        kinds[i] = (byte) kind.ordinal();
+        sources[i] = source;
+        targets[i] = target;
+        oldWeights[i] = oldWeight;
+        newWeights[i] = newWeight;
+    }
+
+    /**
+     * Record that a vertex was added.
+     * 
+     * @param vertex label of the new vertex
+     */
+    void vertexAdded(L vertex) {
+        append(GraphChange.Kind.VERTEX_ADDED, vertex, null, 0, 0);
+    }
+
+    /**
+     * Record that a vertex was removed, with all of its edges.
+     * 
+     * @param vertex label of the removed vertex
+     */
+    void vertexRemoved(L vertex) {
+        append(GraphChange.Kind.VERTEX_REMOVED, vertex, null, 0, 0);
+    }
+
+    /**
+     * Record that the weight of an edge changed, if it did.
+     * 
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param oldWeight weight before the change, zero if there was no edge
+     * @param newWeight weight after the change, zero if the edge was removed
+     */
+    void edgeChanged(L source, L target, int oldWeight, int newWeight) {
+        if (oldWeight != newWeight) {
+            append(GraphChange.Kind.EDGE_CHANGED, source, target, oldWeight, newWeight);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package graph;
 
 import java.util.*;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An implementation of Graph.
@@ -10,102 +14,374 @@ import java.util.*;
 public class ConcreteEdgesGraph extends Graph<String> {
     
 	public ConcreteEdgesGraph(Set<String> vertices) {
-	    super(vertices);
+	    super(Collections.emptySet());
 
-	    // Initialize edges field
+	    // Initialize the per-vertex indexes
 	    for (String vertex : vertices) {
-	        edges.add(new Edge(vertex, vertex, 0)); // Assume a self-loop with weight 0 for each vertex
+	        this.vertices.add(vertex);
+	        outgoing.put(vertex, new HashMap<>());
+	        incoming.put(vertex, new HashMap<>());
 	    }
 	}
 
 
 	private final Set<String> vertices = new HashSet<>();
-    private final List<Edge> edges = new ArrayList<>();
+    private final ArrayList<Edge> edges = new ArrayList<>();
+    private final Map<String, Map<String, Integer>> outgoing = new HashMap<>();
+    private final Map<String, Map<String, Integer>> incoming = new HashMap<>();
+    private RepCheck repCheck = RepCheck.defaultMode();
+    private long mutations = 0;
     
     // Abstraction function:
     //   Represents a weighted directed graph with string-labeled vertices and edges.
     //   The set 'vertices' contains all vertices in the graph.
     //   The list 'edges' contains all directed edges with their corresponding weights.
+    //   'outgoing' and 'incoming' are indexes into 'edges' and add nothing to
+    //   the abstract value.
     
     // Representation invariant:
     //   - Every edge in 'edges' must have valid source and target vertices that exist in 'vertices'.
     //   - There should be no duplicate edges with the same source and target vertices.
+    //   - Every edge in 'edges' has a positive weight.
+    //   - 'outgoing' and 'incoming' have exactly the keys in 'vertices'.
+    //   - edges.get(i) goes from s to t if and only if outgoing.get(s).get(t) == i
+    //     and incoming.get(t).get(s) == i.
     
     // Safety from rep exposure:
     //   - All fields are private and final.
     //   - 'vertices' is returned as an unmodifiable set to prevent modification.
-    //   - 'edges' is not exposed outside of the class.
+    //   - 'edges' and the indexes are not exposed outside of the class;
+    //     sources() and targets() return fresh maps, and the views are
+    //     read-only.
+    //   - 'repCheck' and 'mutations' only control checking and are not part
+    //     of the abstract value.
+    //   - The superclass's own rep is left empty and is never used.
     
 //    // Constructor
 //    public ConcreteEdgesGraph() {
 //        checkRep();
 //    }
     
-    // Check the representation invariant
+    /**
+     * Choose how this graph checks its rep invariant after each mutation.
+     * 
+     * @param mode the new checking mode
+     */
+    public void setRepCheck(RepCheck mode) {
+        this.repCheck = Objects.requireNonNull(mode);
+    }
+    
+    // Check the representation invariant as configured, after a mutation
+    // that touched the edge from source to target (or the vertex source, if
+    // target is null)
+    private void checkRep(String source, String target) {
+        if (repCheck == RepCheck.OFF) {
+            return;
+        }
+        if (repCheck.fullCheckDue(++mutations)) {
+            checkRep();
+        } else if (repCheck == RepCheck.INCREMENTAL) {
+            checkTouched(source, target);
+        }
+    }
+    
+    // Check only the part of the representation invariant about one vertex
+    // or one edge, in O(1)
+    private void checkTouched(String source, String target) {
+        assert outgoing.size() == vertices.size() && incoming.size() == vertices.size()
+                : "Index vertices out of sync";
+        if (target == null) {
+            boolean present = vertices.contains(source);
+            assert outgoing.containsKey(source) == present : "Outgoing index out of sync";
+            assert incoming.containsKey(source) == present : "Incoming index out of sync";
+            return;
+        }
+        if (!vertices.contains(source) || !vertices.contains(target)) {
+            // A zero-weight set() between absent vertices touched nothing
+            return;
+        }
+        Integer position = outgoing.get(source).get(target);
+        assert Objects.equals(position, incoming.get(target).get(source)) : "Indexes disagree";
+        if (position != null) {
+            Edge edge = edges.get(position);
+            assert edge.getSource().equals(source) && edge.getTarget().equals(target) : "Index points at wrong edge";
+            assert edge.getWeight() > 0 : "Edge weight must be positive";
+        }
+    }
+    
+    // Check the full representation invariant, in O(V + E)
     private void checkRep() {
-        for (Edge edge : edges) {
+        for (int i = 0; i < edges.size(); i++) {
+            Edge edge = edges.get(i);
             assert vertices.contains(edge.getSource()) : "Invalid edge source vertex";
             assert vertices.contains(edge.getTarget()) : "Invalid edge target vertex";
+            assert edge.getWeight() > 0 : "Edge weight must be positive";
+            assert outgoing.get(edge.getSource()).get(edge.getTarget()) == i : "Outgoing index out of sync";
+            assert incoming.get(edge.getTarget()).get(edge.getSource()) == i : "Incoming index out of sync";
+        }
+        int indexed = 0;
+        for (Map<String, Integer> targets : outgoing.values()) {
+            indexed += targets.size();
+        }
+        assert indexed == edges.size() : "Duplicate edges found";
+        assert outgoing.keySet().equals(vertices) && incoming.keySet().equals(vertices)
+                : "Index vertices out of sync";
+    }
+    
+    // Check the full representation invariant once after a batch, unless
+    // checking is off
+    private void checkRepAfterBatch() {
+        if (repCheck != RepCheck.OFF) {
+            checkRep();
         }
-        Set<Edge> uniqueEdges = new HashSet<>(edges);
-        assert uniqueEdges.size() == edges.size() : "Duplicate edges found";
     }
     
     public boolean add(String vertex) {
+        boolean added = addVertex(vertex);
+        checkRep(vertex, null);
+        return added;
+    }
+    
+    private boolean addVertex(String vertex) {
         boolean added = vertices.add(vertex);
-        checkRep();
+        if (added) {
+            outgoing.put(vertex, new HashMap<>());
+            incoming.put(vertex, new HashMap<>());
+            logVertexAdded(vertex);
+        }
         return added;
     }
     
 
     public int set(String source, String target, int weight) {
-        Edge newEdge = new Edge(source, target, weight);
-        Edge existingEdge = edges.stream()
-                .filter(edge -> edge.getSource().equals(source) && edge.getTarget().equals(target))
-                .findFirst()
-                .orElse(null);
+        int previousWeight = setEdge(source, target, weight);
+        checkRep(source, target);
+        return previousWeight;
+    }
+    
+    private int setEdge(String source, String target, int weight) {
+        if (weight != 0) {
+            addVertex(source);
+            addVertex(target);
+        } else if (!vertices.contains(source) || !vertices.contains(target)) {
+            // Removing an edge never adds its endpoints
+            return 0;
+        }
+        Integer position = outgoing.get(source).get(target);
         
-        if (existingEdge != null) {
+        if (position != null) {
+            Edge existingEdge = edges.get(position);
             int previousWeight = existingEdge.getWeight();
-            existingEdge.setWeight(weight);
-            checkRep();
+            if (weight != 0) {
+                existingEdge.setWeight(weight);
+            } else {
+                outgoing.get(source).remove(target);
+                incoming.get(target).remove(source);
+                removeAt(position);
+            }
+            logEdgeChanged(source, target, previousWeight, weight);
             return previousWeight;
         } else {
-            edges.add(newEdge);
-            checkRep();
+            if (weight != 0) {
+                outgoing.get(source).put(target, edges.size());
+                incoming.get(target).put(source, edges.size());
+                edges.add(new Edge(source, target, weight));
+                logEdgeChanged(source, target, 0, weight);
+            }
             return 0;
         }
     }
     
+    // Remove the edge at a position in O(1) by moving the last edge into its
+    // place; the caller has already dropped the removed edge from the indexes
+    private void removeAt(int position) {
+        Edge moved = edges.remove(edges.size() - 1);
+        if (position < edges.size()) {
+            edges.set(position, moved);
+            outgoing.get(moved.getSource()).put(moved.getTarget(), position);
+            incoming.get(moved.getTarget()).put(moved.getSource(), position);
+        }
+    }
+    
     public boolean remove(String vertex) {
+        boolean removed = removeVertex(vertex);
+        checkRep(vertex, null);
+        return removed;
+    }
+    
+    private boolean removeVertex(String vertex) {
         boolean removed = vertices.remove(vertex);
-        edges.removeIf(edge -> edge.getSource().equals(vertex) || edge.getTarget().equals(vertex));
-        checkRep();
+        if (removed) {
+            Map<String, Integer> targets = outgoing.remove(vertex);
+            Map<String, Integer> sources = incoming.remove(vertex);
+            Set<Integer> positions = new TreeSet<>(Collections.reverseOrder());
+            for (Map.Entry<String, Integer> entry : targets.entrySet()) {
+                positions.add(entry.getValue());
+                if (!entry.getKey().equals(vertex)) {
+                    incoming.get(entry.getKey()).remove(vertex);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : sources.entrySet()) {
+                positions.add(entry.getValue());
+                if (!entry.getKey().equals(vertex)) {
+                    outgoing.get(entry.getKey()).remove(vertex);
+                }
+            }
+            // Highest positions first, so the last edge moved into a gap is
+            // never one that is about to be removed
+            for (int position : positions) {
+                removeAt(position);
+            }
+            logVertexRemoved(vertex);
+        }
         return removed;
     }
     
+    @Override
+    public boolean addAll(Collection<? extends String> newVertices) {
+        boolean changed = false;
+        for (String vertex : newVertices) {
+            changed |= addVertex(vertex);
+        }
+        checkRepAfterBatch();
+        return changed;
+    }
+    
+    @Override
+    public void setAll(Iterable<EdgeTriple<String>> newEdges) {
+        if (newEdges instanceof Collection) {
+            edges.ensureCapacity(edges.size() + ((Collection<?>) newEdges).size());
+        }
+        for (EdgeTriple<String> edge : newEdges) {
+            setEdge(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+        checkRepAfterBatch();
+    }
+    
+    @Override
+    public boolean removeAll(Collection<? extends String> oldVertices) {
+        boolean changed = false;
+        for (String vertex : oldVertices) {
+            changed |= removeVertex(vertex);
+        }
+        checkRepAfterBatch();
+        return changed;
+    }
+    
     public Set<String> vertices() {
         return Collections.unmodifiableSet(vertices);
     }
     
     public Map<String, Integer> sources(String target) {
         Map<String, Integer> sourceVertices = new HashMap<>();
-        for (Edge edge : edges) {
-            if (edge.getTarget().equals(target)) {
-                sourceVertices.put(edge.getSource(), edge.getWeight());
-            }
-        }
+        forEachSource(target, sourceVertices::put);
         return sourceVertices;
     }
     
     public Map<String, Integer> targets(String source) {
         Map<String, Integer> targetVertices = new HashMap<>();
-        for (Edge edge : edges) {
-            if (edge.getSource().equals(source)) {
-                targetVertices.put(edge.getTarget(), edge.getWeight());
+        forEachTarget(source, targetVertices::put);
+        return targetVertices;
+    }
+    
+    @Override
+    public Set<String> verticesView() {
+        return Collections.unmodifiableSet(vertices);
+    }
+    
+    @Override
+    public Map<String, Integer> sourcesView(String target) {
+        return new IndexView(() -> incoming.get(target));
+    }
+    
+    @Override
+    public Map<String, Integer> targetsView(String source) {
+        return new IndexView(() -> outgoing.get(source));
+    }
+    
+    @Override
+    public int weight(String source, String target) {
+        Map<String, Integer> targets = outgoing.get(source);
+        Integer position = targets == null ? null : targets.get(target);
+        return position == null ? 0 : edges.get(position).getWeight();
+    }
+    
+    @Override
+    public void forEachTarget(String source, ObjIntConsumer<? super String> action) {
+        Map<String, Integer> targets = outgoing.get(source);
+        if (targets != null) {
+            for (int position : targets.values()) {
+                Edge edge = edges.get(position);
+                action.accept(edge.getTarget(), edge.getWeight());
             }
         }
-        return targetVertices;
+    }
+    
+    @Override
+    public void forEachSource(String target, ObjIntConsumer<? super String> action) {
+        Map<String, Integer> sources = incoming.get(target);
+        if (sources != null) {
+            for (int position : sources.values()) {
+                Edge edge = edges.get(position);
+                action.accept(edge.getSource(), edge.getWeight());
+            }
+        }
+    }
+    
+    @Override
+    public EdgeCursor<String> edges() {
+        return new ListCursor(0, edges.size());
+    }
+    
+    @Override
+    public Stream<EdgeTriple<String>> edgeStream() {
+        return StreamSupport.stream(new EdgeSpliterator<>(ListCursor::new, 0, edges.size(), edges.size()), false);
+    }
+    
+    // A cursor over the edges at positions [from, to) of the edge list
+    private class ListCursor implements EdgeCursor<String> {
+        
+        private final int to;
+        private int position;
+        private Edge edge = null;
+        
+        // Constructor
+        ListCursor(int from, int to) {
+            this.position = from;
+            this.to = to;
+        }
+        
+        @Override
+        public boolean next() {
+            if (position >= Math.min(to, edges.size())) {
+                edge = null;
+                return false;
+            }
+            edge = edges.get(position++);
+            return true;
+        }
+        
+        private Edge current() {
+            if (edge == null) {
+                throw new IllegalStateException("cursor is not on an edge");
+            }
+            return edge;
+        }
+        
+        @Override
+        public String source() {
+            return current().getSource();
+        }
+        
+        @Override
+        public String target() {
+            return current().getTarget();
+        }
+        
+        @Override
+        public int weight() {
+            return current().getWeight();
+        }
     }
     
     public String toString() {
@@ -117,7 +393,90 @@ public class ConcreteEdgesGraph extends Graph<String> {
     }
     
     /**
-     * An edge in the graph.
+     * A read-only live view of the neighbors of one vertex, read through its
+     * map in 'outgoing' or 'incoming', so size(), get() and containsKey() are
+     * O(1). The map is looked up on every access, since removing a vertex and
+     * adding it again replaces it.
+     */
+    private class IndexView extends AbstractMap<String, Integer> {
+        
+        private final Supplier<Map<String, Integer>> index;
+        
+        // Abstraction function:
+        //   Represents the map from each key k of index.get() to the weight of
+        //   edges.get(index.get().get(k)), or the empty map if index.get() is
+        //   null.
+        
+        // Representation invariant:
+        //   - 'index' is not null.
+        
+        // Safety from rep exposure:
+        //   - The index map is only read; entries handed out are immutable,
+        //     and the inherited mutators of AbstractMap throw
+        //     UnsupportedOperationException.
+        
+        // Constructor
+        IndexView(Supplier<Map<String, Integer>> index) {
+            this.index = index;
+        }
+        
+        @Override
+        public int size() {
+            Map<String, Integer> current = index.get();
+            return current == null ? 0 : current.size();
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            Map<String, Integer> current = index.get();
+            return current != null && current.containsKey(key);
+        }
+        
+        @Override
+        public Integer get(Object key) {
+            Map<String, Integer> current = index.get();
+            Integer position = current == null ? null : current.get(key);
+            return position == null ? null : edges.get(position).getWeight();
+        }
+        
+        @Override
+        public Set<Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Entry<String, Integer>>() {
+                @Override
+                public int size() {
+                    return IndexView.this.size();
+                }
+                
+                @Override
+                public Iterator<Entry<String, Integer>> iterator() {
+                    Map<String, Integer> current = index.get();
+                    if (current == null) {
+                        return Collections.emptyIterator();
+                    }
+                    Iterator<Entry<String, Integer>> positions = current.entrySet().iterator();
+                    return new Iterator<Entry<String, Integer>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return positions.hasNext();
+                        }
+                        
+                        @Override
+                        public Entry<String, Integer> next() {
+                            Entry<String, Integer> entry = positions.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(),
+                                    edges.get(entry.getValue()).getWeight());
+                        }
+                    };
+                }
+            };
+        }
+    }
+    
+    /**
+     * An edge in the graph: a mutable directed edge from a source label to a
+     * target label, with a positive weight that the graph changes in place.
+     * The graph removes an edge instead of giving it weight zero. Edges are
+     * compared by identity.
      * 
      * <p>PS2 instructions: the specification and implementation of this class are
      * up to you.
@@ -133,7 +492,7 @@ public class ConcreteEdgesGraph extends Graph<String> {
         
         // Representation invariant:
         //   - 'source' and 'target' must not be null.
-        //   - 'weight' must be non-negative.
+        //   - 'weight' must be positive.
         
         // Safety from rep exposure:
         //   - All fields are private and final, except 'weight', which is mutable.
@@ -150,7 +509,7 @@ public class ConcreteEdgesGraph extends Graph<String> {
         private void checkRep() {
             assert source != null : "Source vertex cannot be null";
             assert target != null : "Target vertex cannot be null";
-            assert weight >= 0 : "Weight must be non-negative";
+            assert weight > 0 : "Weight must be positive";
         }
         
         // Getters
@@ -172,8 +531,6 @@ public class ConcreteEdgesGraph extends Graph<String> {
             checkRep();
         }
         
-        // TODO: Implement any additional methods
-        
         @Override
         public String toString() {
             return String.format("%s -> %s : %d", source, target, weight);
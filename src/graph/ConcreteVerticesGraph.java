@@ -1,110 +1,356 @@
 package graph;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An implementation of Graph.
- * 
+ *
  * <p>PS2 instructions: you MUST use the provided rep.
  */
 public class ConcreteVerticesGraph extends Graph<String> {
 
-    private final List<Vertex> vertices = new ArrayList<>();
+    private final Map<String, Vertex> vertices = new LinkedHashMap<>();
+    private final Set<String> verticesView = Collections.unmodifiableSet(vertices.keySet());
+    private RepCheck repCheck = RepCheck.defaultMode();
+    private long mutations = 0;
 
     /**
      * Abstraction function:
-     *   Represents a directed graph with labeled vertices. Each vertex is
-     *   associated with a Vertex object in the 'vertices' list.
-     * 
+     *   Represents a directed graph whose vertices are the keys of 'vertices',
+     *   with an edge from s to t of weight w for every
+     *   vertices.get(s).getTarget(t) == w with w > 0.
+     *
      * Representation invariant:
-     *   - Each vertex label is unique.
-     *   - The 'vertices' list contains all the vertices in the graph.
-     * 
+     *   - vertices.get(label).getLabel() equals label for every key.
+     *   - Every label in a Vertex's outgoing or incoming map is a key of
+     *     'vertices'.
+     *   - vertices.get(s).getTarget(t) == vertices.get(t).getSource(s) for
+     *     every pair of keys s, t.
+     *
      * Safety from rep exposure:
-     *   - The 'vertices' list is private and final. Any external modifications
-     *     to the list are prevented.
-     *   - Methods that return information about vertices (e.g., 'vertices()',
-     *     'sources()', 'targets()') return copies of data to avoid exposing the
-     *     internal representation.
+     *   - 'vertices' is private and final, and Vertex objects are never
+     *     returned.
+     *   - vertices(), sources() and targets() return fresh copies; the views
+     *     are unmodifiable wrappers.
+     *   - 'repCheck' and 'mutations' only control checking and are not part of
+     *     the abstract value.
+     *   - The superclass's own rep is left empty and is never used.
      */
 
     // Constructor
     public ConcreteVerticesGraph(Set<String> vertices) {
-        super(vertices);
+        super(Collections.emptySet());
         for (String vertexLabel : vertices) {
-            this.vertices.add(new Vertex(vertexLabel));
+            this.vertices.put(vertexLabel, new Vertex(vertexLabel));
+        }
+    }
+
+    /**
+     * Choose how this graph checks its rep invariant after each mutation.
+     *
+     * @param mode the new checking mode
+     */
+    public void setRepCheck(RepCheck mode) {
+        this.repCheck = Objects.requireNonNull(mode);
+    }
+
+    // Check the representation invariant as configured, after a mutation
+    // that touched the edge from source to target (or only the vertex source,
+    // if they are equal)
+    private void checkRep(String source, String target) {
+        if (repCheck == RepCheck.OFF) {
+            return;
+        }
+        if (repCheck.fullCheckDue(++mutations)) {
+            checkRep();
+        } else if (repCheck == RepCheck.INCREMENTAL) {
+            checkTouched(source, target);
+        }
+    }
+
+    // Check only the part of the representation invariant about one pair of
+    // vertices, in O(1)
+    private void checkTouched(String source, String target) {
+        Vertex from = vertices.get(source);
+        Vertex to = vertices.get(target);
+        if (from != null && !from.getLabel().equals(source)) {
+            throw new RuntimeException("Vertex indexed under the wrong label: " + source);
+        }
+        if (from != null && to != null && from.getTarget(target) != to.getSource(source)) {
+            throw new RuntimeException("Edge maps disagree at: " + source + " -> " + target);
+        }
+    }
+
+    // Check the representation invariant after a batch operation, once for
+    // the whole batch
+    private void checkRepAfterBatch() {
+        if (repCheck != RepCheck.OFF) {
+            checkRep();
         }
     }
 
     // Representation invariant
     private void checkRep() {
-        Set<String> labels = new HashSet<>();
-        for (Vertex vertex : vertices) {
-            String label = vertex.getLabel();
-            if (labels.contains(label)) {
-                throw new RuntimeException("Duplicate vertex label: " + label);
+        for (Map.Entry<String, Vertex> entry : vertices.entrySet()) {
+            String label = entry.getKey();
+            Vertex vertex = entry.getValue();
+            if (!vertex.getLabel().equals(label)) {
+                throw new RuntimeException("Vertex indexed under the wrong label: " + label);
             }
-            labels.add(label);
+            vertex.forEachTarget((target, weight) -> {
+                Vertex to = vertices.get(target);
+                if (to == null || to.getSource(label) != weight) {
+                    throw new RuntimeException("Edge maps disagree at: " + label + " -> " + target);
+                }
+            });
+            vertex.forEachSource((source, weight) -> {
+                Vertex from = vertices.get(source);
+                if (from == null || from.getTarget(label) != weight) {
+                    throw new RuntimeException("Edge maps disagree at: " + source + " -> " + label);
+                }
+            });
         }
     }
 
     @Override
     public boolean add(String vertex) {
-        if (super.add(vertex)) {
-            vertices.add(new Vertex(vertex));
-            checkRep();
-            return true;
+        boolean added = addVertex(vertex);
+        checkRep(vertex, vertex);
+        return added;
+    }
+
+    private boolean addVertex(String vertex) {
+        if (vertices.containsKey(vertex)) {
+            return false;
         }
-        return false;
+        vertices.put(vertex, new Vertex(vertex));
+        logVertexAdded(vertex);
+        return true;
     }
 
     @Override
     public int set(String source, String target, int weight) {
-        // Implementation of set method...
-        checkRep();
-        return 0; // Placeholder, replace with actual implementation
+        int previousWeight = setEdge(source, target, weight);
+        checkRep(source, target);
+        return previousWeight;
+    }
+
+    private int setEdge(String source, String target, int weight) {
+        if (weight != 0) {
+            addVertex(source);
+            addVertex(target);
+        } else if (!vertices.containsKey(source) || !vertices.containsKey(target)) {
+            // Removing an edge never adds its endpoints
+            return 0;
+        }
+        vertices.get(target).setSource(source, weight);
+        int previousWeight = vertices.get(source).setTarget(target, weight);
+        logEdgeChanged(source, target, previousWeight, weight);
+        return previousWeight;
     }
 
     @Override
     public boolean remove(String vertex) {
-        if (super.remove(vertex)) {
-            vertices.removeIf(v -> v.getLabel().equals(vertex));
-            checkRep();
-            return true;
+        boolean removed = removeVertex(vertex);
+        checkRep(vertex, vertex);
+        return removed;
+    }
+
+    // Unlink the vertex from each of its neighbors only, in O(degree)
+    private boolean removeVertex(String vertex) {
+        Vertex removed = vertices.remove(vertex);
+        if (removed == null) {
+            return false;
         }
-        return false;
+        removed.forEachTarget((target, weight) -> {
+            if (!target.equals(vertex)) {
+                vertices.get(target).setSource(vertex, 0);
+            }
+        });
+        removed.forEachSource((source, weight) -> {
+            if (!source.equals(vertex)) {
+                vertices.get(source).setTarget(vertex, 0);
+            }
+        });
+        logVertexRemoved(vertex);
+        return true;
     }
 
     @Override
-    public Set<String> vertices() {
-        Set<String> vertexSet = new HashSet<>();
-        for (Vertex vertex : vertices) {
-            vertexSet.add(vertex.getLabel());
+    public boolean addAll(Collection<? extends String> newVertices) {
+        boolean changed = false;
+        for (String vertex : newVertices) {
+            changed |= addVertex(vertex);
         }
-        return vertexSet;
+        checkRepAfterBatch();
+        return changed;
+    }
+
+    @Override
+    public void setAll(Iterable<EdgeTriple<String>> edges) {
+        for (EdgeTriple<String> edge : edges) {
+            setEdge(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+        checkRepAfterBatch();
+    }
+
+    @Override
+    public boolean removeAll(Collection<? extends String> oldVertices) {
+        boolean changed = false;
+        for (String vertex : oldVertices) {
+            changed |= removeVertex(vertex);
+        }
+        checkRepAfterBatch();
+        return changed;
+    }
+
+    @Override
+    public Set<String> vertices() {
+        return new HashSet<>(vertices.keySet());
     }
 
     @Override
     public Map<String, Integer> sources(String target) {
-        // Implementation of sources method...
-        return Collections.emptyMap(); // Placeholder, replace with actual implementation
+        Map<String, Integer> sourceVertices = new HashMap<>();
+        forEachSource(target, sourceVertices::put);
+        return sourceVertices;
     }
 
     @Override
     public Map<String, Integer> targets(String source) {
-        // Implementation of targets method...
-        return Collections.emptyMap(); // Placeholder, replace with actual implementation
+        Map<String, Integer> targetVertices = new HashMap<>();
+        forEachTarget(source, targetVertices::put);
+        return targetVertices;
+    }
+
+    @Override
+    public Set<String> verticesView() {
+        return verticesView;
+    }
+
+    @Override
+    public Map<String, Integer> sourcesView(String target) {
+        return new ObjIntMapView<>(() -> {
+            Vertex vertex = vertices.get(target);
+            return vertex == null ? null : vertex.sourceWeights();
+        });
+    }
+
+    @Override
+    public Map<String, Integer> targetsView(String source) {
+        return new ObjIntMapView<>(() -> {
+            Vertex vertex = vertices.get(source);
+            return vertex == null ? null : vertex.targetWeights();
+        });
+    }
+
+    @Override
+    public int weight(String source, String target) {
+        Vertex vertex = vertices.get(source);
+        return vertex == null ? 0 : vertex.getTarget(target);
+    }
+
+    @Override
+    public void forEachTarget(String source, ObjIntConsumer<? super String> action) {
+        Vertex vertex = vertices.get(source);
+        if (vertex != null) {
+            vertex.forEachTarget(action);
+        }
+    }
+
+    @Override
+    public void forEachSource(String target, ObjIntConsumer<? super String> action) {
+        Vertex vertex = vertices.get(target);
+        if (vertex != null) {
+            vertex.forEachSource(action);
+        }
+    }
+
+    @Override
+    public EdgeCursor<String> edges() {
+        Vertex[] rows = vertices.values().toArray(new Vertex[0]);
+        return new VertexCursor(rows, 0, rows.length);
+    }
+
+    @Override
+    public Stream<EdgeTriple<String>> edgeStream() {
+        Vertex[] rows = vertices.values().toArray(new Vertex[0]);
+        long edgeCount = 0;
+        for (Vertex vertex : rows) {
+            edgeCount += vertex.targetWeights().size();
+        }
+        return StreamSupport.stream(new EdgeSpliterator<>(
+                (from, to) -> new VertexCursor(rows, from, to), 0, rows.length, edgeCount), false);
+    }
+
+    /**
+     * A cursor over the outgoing edges of rows[from, to), vertex by vertex
+     * and slot by slot of each vertex's target map.
+     */
+    private static class VertexCursor implements EdgeCursor<String> {
+
+        private final Vertex[] rows;
+        private final int to;
+        private int row;
+        private int slot = -1;
+
+        // Constructor
+        VertexCursor(Vertex[] rows, int from, int to) {
+            this.rows = rows;
+            this.row = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean next() {
+            while (row < to) {
+                slot = rows[row].targetWeights().nextSlot(slot);
+                if (slot >= 0) {
+                    return true;
+                }
+                row++;
+            }
+            return false;
+        }
+
+        private ObjIntMap<String> current() {
+            if (row >= to || slot < 0) {
+                throw new IllegalStateException("cursor is not on an edge");
+            }
+            return rows[row].targetWeights();
+        }
+
+        @Override
+        public String source() {
+            current();
+            return rows[row].getLabel();
+        }
+
+        @Override
+        public String target() {
+            return current().keyAt(slot);
+        }
+
+        @Override
+        public int weight() {
+            return current().valueAt(slot);
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder("Vertices: [");
-        for (Vertex vertex : vertices) {
+        for (Vertex vertex : vertices.values()) {
             result.append(vertex).append(", ");
         }
         if (!vertices.isEmpty()) {
@@ -117,21 +363,30 @@ public class ConcreteVerticesGraph extends Graph<String> {
 }
 
 /**
- * Represents a vertex in a directed graph.
+ * Represents a vertex in a directed graph, together with the weights of its
+ * outgoing and incoming edges.
  */
 class Vertex {
 
     private final String label;
+    private final ObjIntMap<String> targets = new ObjIntMap<>();
+    private final ObjIntMap<String> sources = new ObjIntMap<>();
 
     /**
      * Abstraction function:
-     *   Represents a vertex in a directed graph with a unique label.
-     * 
+     *   Represents a vertex in a directed graph with a unique label, an edge
+     *   of weight w to each key t of 'targets' with targets.get(t) == w, and
+     *   an edge of weight w from each key s of 'sources' with
+     *   sources.get(s) == w.
+     *
      * Representation invariant:
      *   - 'label' is not null.
-     * 
+     *   - Every weight in 'targets' and 'sources' is positive.
+     *
      * Safety from rep exposure:
-     *   - 'label' is private and final.
+     *   - All fields are private and final.
+     *   - targetWeights() and sourceWeights() hand the maps to the enclosing
+     *     graph only, which wraps them in read-only views.
      */
 
     // Constructor
@@ -149,22 +404,92 @@ class Vertex {
 
     /**
      * Get the label of the vertex.
-     * 
+     *
      * @return The label of the vertex.
      */
     public String getLabel() {
         return label;
     }
 
-    // TODO methods
+    /**
+     * Get the weight of the edge from this vertex to a target.
+     *
+     * @param target label of the target vertex
+     * @return the weight of the edge, or zero if there is none
+     */
+    public int getTarget(String target) {
+        return targets.get(target);
+    }
+
+    /**
+     * Get the weight of the edge from a source to this vertex.
+     *
+     * @param source label of the source vertex
+     * @return the weight of the edge, or zero if there is none
+     */
+    public int getSource(String source) {
+        return sources.get(source);
+    }
 
-    @Override
-    public String toString() {
-        return label;
+    /**
+     * Add, change, or remove the edge from this vertex to a target.
+     *
+     * @param target label of the target vertex
+     * @param weight nonnegative weight of the edge; zero removes it
+     * @return the previous weight of the edge, or zero if there was none
+     */
+    public int setTarget(String target, int weight) {
+        if (weight < 0) {
+            throw new RuntimeException("Edge weight cannot be negative.");
+        }
+        return weight == 0 ? targets.remove(target) : targets.put(target, weight);
     }
 
-}
+    /**
+     * Add, change, or remove the edge from a source to this vertex.
+     *
+     * @param source label of the source vertex
+     * @param weight nonnegative weight of the edge; zero removes it
+     * @return the previous weight of the edge, or zero if there was none
+     */
+    public int setSource(String source, int weight) {
+        if (weight < 0) {
+            throw new RuntimeException("Edge weight cannot be negative.");
+        }
+        return weight == 0 ? sources.remove(source) : sources.put(source, weight);
+    }
 
+    /**
+     * Visit the targets of this vertex's outgoing edges with their weights.
+     *
+     * @param action called once with each target label and edge weight
+     */
+    public void forEachTarget(ObjIntConsumer<? super String> action) {
+        targets.forEach(action);
+    }
 
+    /**
+     * Visit the sources of this vertex's incoming edges with their weights.
+     *
+     * @param action called once with each source label and edge weight
+     */
+    public void forEachSource(ObjIntConsumer<? super String> action) {
+        sources.forEach(action);
+    }
 
+    // The outgoing weight map itself, for read-only views
+    ObjIntMap<String> targetWeights() {
+        return targets;
+    }
 
+    // The incoming weight map itself, for read-only views
+    ObjIntMap<String> sourceWeights() {
+        return sources;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+
+}
@@ -0,0 +1,500 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A thread-safe implementation of Graph.
+ *
+ * <p>Mutators lock only the stripes of the vertices they touch, so set() calls
+ * on unrelated vertices run in parallel. Each of add(), set() and remove() is
+ * atomic: in particular remove() drops a vertex together with all of its
+ * incoming and outgoing edges. Observers never lock and never block writers;
+ * they are weakly consistent, reflecting some state of each adjacency map at
+ * or after the start of the call, and views and visitors may observe
+ * mutations that are in progress on other threads.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcurrentGraph<L> extends Graph<L> {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentHashMap<L, ConcurrentHashMap<L, Integer>> edges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<L, ConcurrentHashMap<L, Integer>> reverseEdges = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks;
+    private final Set<L> verticesView = Collections.unmodifiableSet(edges.keySet());
+
+    // Abstraction function:
+    //   Represents the graph whose vertices are the keys of 'edges', with an
+    //   edge from s to t of weight w for every edges.get(s).get(t) == w.
+    //   'reverseEdges' holds the same edges keyed by target.
+    //
+    // Representation invariant:
+    //   - 'edges' and 'reverseEdges' have the same key set.
+    //   - edges.get(s).get(t) == w if and only if reverseEdges.get(t).get(s) == w,
+    //     and every such w is positive.
+    //   - locks.length is a power of two.
+    //   The invariant holds whenever no mutator holds a stripe; every mutator
+    //   holds the stripes of all vertices whose maps it changes.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final.
+    //   - vertices(), sources() and targets() return fresh HashSet/HashMap
+    //     copies; the views are unmodifiable wrappers.
+    //   - Labels are immutable and weights are boxed Integers, also immutable.
+
+    // Constructor
+    public ConcurrentGraph(Set<L> vertices) {
+        this(vertices, DEFAULT_STRIPES);
+    }
+
+    // Constructor, with at least the given number of lock stripes
+    public ConcurrentGraph(Set<L> vertices, int stripes) {
+        super(Collections.emptySet());
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        for (L vertex : vertices) {
+            edges.put(vertex, new ConcurrentHashMap<>());
+            reverseEdges.put(vertex, new ConcurrentHashMap<>());
+        }
+    }
+
+    // Check the part of the representation invariant about one edge; the
+    // caller holds the stripes of both endpoints
+    private void checkRep(L source, L target) {
+        Map<L, Integer> targets = edges.get(source);
+        Map<L, Integer> sources = reverseEdges.get(target);
+        assert targets != null && sources != null : "Endpoint missing from an index";
+        assert Objects.equals(targets.get(target), sources.get(source)) : "Indexes disagree";
+    }
+
+    private int stripe(Object vertex) {
+        int h = vertex.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (locks.length - 1);
+    }
+
+    // Lock two stripes in index order, so that no two mutators deadlock
+    private void lock(int first, int second) {
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    private void unlock(int first, int second) {
+        if (first != second) {
+            locks[Math.max(first, second)].unlock();
+        }
+        locks[Math.min(first, second)].unlock();
+    }
+
+    // Create the maps for a vertex if absent; the caller holds its stripe
+    private void ensureVertex(L vertex) {
+        if (!edges.containsKey(vertex)) {
+            reverseEdges.put(vertex, new ConcurrentHashMap<>());
+            edges.put(vertex, new ConcurrentHashMap<>());
+            logVertexAdded(vertex);
+        }
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        if (edges.containsKey(vertex)) {
+            return false;
+        }
+        int s = stripe(vertex);
+        locks[s].lock();
+        try {
+            if (edges.containsKey(vertex)) {
+                return false;
+            }
+            ensureVertex(vertex);
+            return true;
+        } finally {
+            locks[s].unlock();
+        }
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        int s = stripe(source);
+        int t = stripe(target);
+        lock(s, t);
+        try {
+            Integer previousWeight;
+            if (weight != 0) {
+                ensureVertex(source);
+                ensureVertex(target);
+                previousWeight = edges.get(source).put(target, weight);
+                reverseEdges.get(target).put(source, weight);
+            } else if (!edges.containsKey(source) || !edges.containsKey(target)) {
+                // Removing an edge never adds its endpoints
+                return 0;
+            } else {
+                previousWeight = edges.get(source).remove(target);
+                reverseEdges.get(target).remove(source);
+            }
+            checkRep(source, target);
+            int previous = previousWeight == null ? 0 : previousWeight;
+            logEdgeChanged(source, target, previous, weight);
+            return previous;
+        } finally {
+            unlock(s, t);
+        }
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        if (!edges.containsKey(vertex)) {
+            return false;
+        }
+        // Lock the stripes of the vertex and all of its neighbors. Holding the
+        // vertex's own stripe stops new edges to or from it, so once the
+        // neighbors seen under the locks are all covered, they are final.
+        TreeSet<Integer> held = new TreeSet<>();
+        while (true) {
+            TreeSet<Integer> wanted = neighborStripes(vertex);
+            wanted.addAll(held);
+            for (int s : wanted) {
+                locks[s].lock();
+            }
+            held = wanted;
+            if (held.containsAll(neighborStripes(vertex))) {
+                break;
+            }
+            for (int s : held.descendingSet()) {
+                locks[s].unlock();
+            }
+        }
+        try {
+            ConcurrentHashMap<L, Integer> targets = edges.remove(vertex);
+            ConcurrentHashMap<L, Integer> sources = reverseEdges.remove(vertex);
+            if (targets == null) {
+                return false;
+            }
+            for (L target : targets.keySet()) {
+                if (!target.equals(vertex)) {
+                    reverseEdges.get(target).remove(vertex);
+                }
+            }
+            for (L source : sources.keySet()) {
+                if (!source.equals(vertex)) {
+                    edges.get(source).remove(vertex);
+                }
+            }
+            logVertexRemoved(vertex);
+            return true;
+        } finally {
+            for (int s : held.descendingSet()) {
+                locks[s].unlock();
+            }
+        }
+    }
+
+    private TreeSet<Integer> neighborStripes(L vertex) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        stripes.add(stripe(vertex));
+        Map<L, Integer> targets = edges.get(vertex);
+        Map<L, Integer> sources = reverseEdges.get(vertex);
+        if (targets != null) {
+            for (L target : targets.keySet()) {
+                stripes.add(stripe(target));
+            }
+        }
+        if (sources != null) {
+            for (L source : sources.keySet()) {
+                stripes.add(stripe(source));
+            }
+        }
+        return stripes;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation each vertex is added atomically, but the
+     * batch as a whole is not.
+     */
+    @Override
+    public boolean addAll(Collection<? extends L> newVertices) {
+        boolean changed = false;
+        for (L vertex : newVertices) {
+            changed |= add(vertex);
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation each edge is set atomically, but the batch as
+     * a whole is not.
+     */
+    @Override
+    public void setAll(Iterable<EdgeTriple<L>> newEdges) {
+        for (EdgeTriple<L> edge : newEdges) {
+            set(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation each vertex is removed atomically, but the
+     * batch as a whole is not.
+     */
+    @Override
+    public boolean removeAll(Collection<? extends L> oldVertices) {
+        boolean changed = false;
+        for (L vertex : oldVertices) {
+            changed |= remove(vertex);
+        }
+        return changed;
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return new HashSet<>(edges.keySet());
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = reverseEdges.get(target);
+        return sources == null ? new HashMap<>() : new HashMap<>(sources);
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = edges.get(source);
+        return targets == null ? new HashMap<>() : new HashMap<>(targets);
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        Map<L, Integer> targets = edges.get(source);
+        Integer weight = targets == null ? null : targets.get(target);
+        return weight == null ? 0 : weight;
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+        Map<L, Integer> targets = edges.get(source);
+        if (targets != null) {
+            targets.forEach(action::accept);
+        }
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+        Map<L, Integer> sources = reverseEdges.get(target);
+        if (sources != null) {
+            sources.forEach(action::accept);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the view may be read concurrently with
+     * mutation; its iterators are weakly consistent and never throw
+     * {@link java.util.ConcurrentModificationException}.
+     */
+    @Override
+    public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the view may be read concurrently with
+     * mutation; its iterators are weakly consistent and never throw
+     * {@link java.util.ConcurrentModificationException}.
+     */
+    @Override
+    public Map<L, Integer> sourcesView(L target) {
+        return new LiveView<>(reverseEdges, target);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the view may be read concurrently with
+     * mutation; its iterators are weakly consistent and never throw
+     * {@link java.util.ConcurrentModificationException}.
+     */
+    @Override
+    public Map<L, Integer> targetsView(L source) {
+        return new LiveView<>(edges, source);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the cursor may be used concurrently with
+     * mutation; it is weakly consistent, and sees each edge map as it is
+     * when the cursor reaches it. It allocates an iterator per vertex.
+     */
+    @Override
+    public EdgeCursor<L> edges() {
+        return new EdgeCursor<L>() {
+            private final Iterator<Map.Entry<L, ConcurrentHashMap<L, Integer>>> rows = edges.entrySet().iterator();
+            private Iterator<Map.Entry<L, Integer>> row = Collections.emptyIterator();
+            private L source;
+            private Map.Entry<L, Integer> edge;
+
+            @Override
+            public boolean next() {
+                while (!row.hasNext()) {
+                    if (!rows.hasNext()) {
+                        edge = null;
+                        return false;
+                    }
+                    Map.Entry<L, ConcurrentHashMap<L, Integer>> entry = rows.next();
+                    source = entry.getKey();
+                    row = entry.getValue().entrySet().iterator();
+                }
+                edge = row.next();
+                return true;
+            }
+
+            private Map.Entry<L, Integer> current() {
+                if (edge == null) {
+                    throw new IllegalStateException("cursor is not on an edge");
+                }
+                return edge;
+            }
+
+            @Override
+            public L source() {
+                current();
+                return source;
+            }
+
+            @Override
+            public L target() {
+                return current().getKey();
+            }
+
+            @Override
+            public int weight() {
+                return current().getValue();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the stream may run concurrently with
+     * mutation; it is weakly consistent in the same way as {@link #edges()},
+     * and splits by vertex.
+     */
+    @Override
+    public Stream<EdgeTriple<L>> edgeStream() {
+        return edges.entrySet().stream().flatMap(row -> row.getValue().entrySet().stream()
+                .map(edge -> new EdgeTriple<>(row.getKey(), edge.getKey(), edge.getValue())));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the snapshot may be taken concurrently with
+     * mutation. The outgoing edges of each vertex are copied exactly once,
+     * under its stripe lock, so each row of the snapshot is a state that row
+     * really had; a vertex added during the copy is included if a copied
+     * edge leads to it. Like the other observers, the snapshot as a whole is
+     * weakly consistent.
+     */
+    @Override
+    public CsrGraph<L> freeze() {
+        return CsrGraph.copyOf(vertices(), (source, action) -> {
+            int s = stripe(source);
+            locks[s].lock();
+            try {
+                Map<L, Integer> targets = edges.get(source);
+                if (targets != null) {
+                    targets.forEach(action::accept);
+                }
+            } finally {
+                locks[s].unlock();
+            }
+        }, true);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        edges.forEach((source, targets) -> targets.forEach((target, weight) ->
+                sb.append(String.format("%s -> %s : %d", source, target, weight)).append("\n")));
+        return sb.toString();
+    }
+
+    /**
+     * A read-only view of one vertex's concurrent weight map, looked up on
+     * every access so that it follows the vertex across remove and re-add.
+     */
+    private static class LiveView<L> extends AbstractMap<L, Integer> {
+
+        private final Map<L, ConcurrentHashMap<L, Integer>> index;
+        private final L vertex;
+
+        // Abstraction function:
+        //   Represents the map index.get(vertex), or the empty map if vertex
+        //   is not a key of index.
+        //
+        // Representation invariant:
+        //   - index is not null.
+        //
+        // Safety from rep exposure:
+        //   - Fields are private and final; index is only read, through an
+        //     unmodifiable wrapper.
+
+        // Constructor
+        LiveView(Map<L, ConcurrentHashMap<L, Integer>> index, L vertex) {
+            this.index = index;
+            this.vertex = vertex;
+        }
+
+        private Map<L, Integer> current() {
+            Map<L, Integer> weights = index.get(vertex);
+            return weights == null ? Collections.emptyMap() : Collections.unmodifiableMap(weights);
+        }
+
+        @Override
+        public int size() {
+            return current().size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return current().containsKey(key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return current().get(key);
+        }
+
+        @Override
+        public Set<Map.Entry<L, Integer>> entrySet() {
+            return current().entrySet();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable, read-optimized snapshot of a weighted directed graph, stored
+ * in compressed sparse row (CSR) form.
+ *
+ * <p>Vertex labels are interned to dense int ids in {@code [0, vertexCount())}.
+ * Outgoing and incoming edges are packed into flat int arrays, so an edge
+ * costs a few ints instead of map entries and boxed weights, and traversals
+ * read contiguous memory. The label-based observers match those of
+ * {@link Graph}; the id-based accessors return without allocating.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class CsrGraph<L> implements VertexIds<L> {
+
+    private final Object[] labels;
+    private final ObjIntMap<L> ids;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inWeights;
+
+    // Abstraction function:
+    //   Represents the graph whose vertices are labels[0..n-1], where vertex
+    //   i has an edge to outTargets[k] with weight outWeights[k] for every k
+    //   in [outOffsets[i], outOffsets[i+1]).
+    //   inOffsets, inSources and inWeights hold the same edges grouped by
+    //   target instead of by source.
+    //
+    // Representation invariant:
+    //   - labels are distinct and ids maps labels[i] to i for every i.
+    //   - outOffsets and inOffsets have length n+1, start at 0, are
+    //     nondecreasing and end at the edge count.
+    //   - every target, source and weight array has length equal to the edge
+    //     count; every id in them is in [0, n) and every weight is positive.
+    //   - each out row is strictly increasing by target id and each in row is
+    //     strictly increasing by source id.
+    //   - the in arrays describe exactly the same edges as the out arrays.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final, and the arrays are never returned.
+    //   - vertices(), sources() and targets() return fresh mutable copies.
+    //   - Labels are immutable, so returning them does not expose the rep.
+
+    // Constructor, from edges given in out-row order that need not be sorted
+    private CsrGraph(Object[] labels, ObjIntMap<L> ids, int[] offsets, int[] targets, int[] weights) {
+        int n = labels.length;
+        int m = targets.length;
+        this.labels = labels;
+        this.ids = ids;
+        this.inOffsets = new int[n + 1];
+        this.inSources = new int[m];
+        this.inWeights = new int[m];
+        this.outOffsets = new int[n + 1];
+        this.outTargets = new int[m];
+        this.outWeights = new int[m];
+
+        // Transposing visits rows in id order, so each pass leaves the rows
+        // of its result sorted; two passes sort the out rows as well
+        transpose(offsets, targets, weights, inOffsets, inSources, inWeights);
+        transpose(inOffsets, inSources, inWeights, outOffsets, outTargets, outWeights);
+        checkRep();
+    }
+
+    /**
+     * Build a snapshot of any graph, reading its edges with
+     * {@link Graph#forEachTarget(Object, java.util.function.ObjIntConsumer)}
+     * once per vertex.
+     *
+     * @param <L> type of vertex labels
+     * @param graph the graph to copy
+     * @return an immutable snapshot of graph's current abstract value
+     * @throws ConcurrentModificationException if graph changes while it is
+     *         copied so that an edge leads to a vertex that was not in it
+     */
+    public static <L> CsrGraph<L> copyOf(Graph<L> graph) {
+        return copyOf(graph.vertices(), graph::forEachTarget, false);
+    }
+
+    /**
+     * Build a snapshot from a collection of vertices and a way to read the
+     * outgoing edges of each, in a single pass: each row is read exactly
+     * once, in id order.
+     *
+     * @param <L> type of vertex labels
+     * @param vertices the distinct labels of the vertices
+     * @param rows calls its second argument with each target and weight of
+     *        the edges out of its first argument
+     * @param addTargets if true, a target that is not yet a vertex is added
+     *        as one, and its row read in turn; if false it is rejected
+     * @return an immutable snapshot of the rows read
+     * @throws ConcurrentModificationException if addTargets is false and an
+     *         edge leads to a vertex not in vertices
+     */
+    static <L> CsrGraph<L> copyOf(Collection<L> vertices, BiConsumer<L, ObjIntConsumer<L>> rows,
+            boolean addTargets) {
+        List<L> labels = new ArrayList<>(vertices);
+        ObjIntMap<L> ids = new ObjIntMap<>(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            ids.put(labels.get(i), i);
+        }
+        IntList offsets = new IntList(labels.size() + 1);
+        IntList targets = new IntList();
+        IntList weights = new IntList();
+        offsets.add(0);
+        for (int i = 0; i < labels.size(); i++) {
+            L source = labels.get(i);
+            rows.accept(source, (target, weight) -> {
+                int id = ids.getOrDefault(target, -1);
+                if (id < 0) {
+                    if (!addTargets) {
+                        throw new ConcurrentModificationException(
+                                "edge " + source + " -> " + target + " leads to a vertex not in the graph");
+                    }
+                    id = labels.size();
+                    labels.add(target);
+                    ids.put(target, id);
+                }
+                targets.add(id);
+                weights.add(weight);
+            });
+            offsets.add(targets.size());
+        }
+        return new CsrGraph<>(labels.toArray(), ids, toArray(offsets), toArray(targets), toArray(weights));
+    }
+
+    private static int[] toArray(IntList list) {
+        int[] array = new int[list.size()];
+        list.copyTo(array, 0);
+        return array;
+    }
+
+    // Counting-sort the edges of a CSR structure into its transpose
+    private static void transpose(int[] offsets, int[] targets, int[] weights,
+            int[] tOffsets, int[] tTargets, int[] tWeights) {
+        int n = offsets.length - 1;
+        for (int k = 0; k < offsets[n]; k++) {
+            tOffsets[targets[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            tOffsets[i + 1] += tOffsets[i];
+        }
+        int[] next = Arrays.copyOf(tOffsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                int slot = next[targets[k]]++;
+                tTargets[slot] = i;
+                tWeights[slot] = weights[k];
+            }
+        }
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        int n = labels.length;
+        assert ids.size() == n : "Duplicate vertex labels";
+        assert outOffsets[0] == 0 && inOffsets[0] == 0 : "Offsets must start at zero";
+        assert outOffsets[n] == outTargets.length : "Out offsets must end at the edge count";
+        assert inOffsets[n] == inSources.length : "In offsets must end at the edge count";
+        assert outTargets.length == inSources.length : "In and out edge counts differ";
+    }
+
+    /**
+     * @return the number of vertices in this graph
+     */
+    public int vertexCount() {
+        return labels.length;
+    }
+
+    /**
+     * @return the number of edges in this graph
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Get the dense id of a vertex.
+     *
+     * @param vertex a label
+     * @return the id of vertex in [0, vertexCount()), or -1 if this graph
+     *         does not include a vertex with the given label
+     */
+    @Override
+    public int idOf(L vertex) {
+        return ids.getOrDefault(vertex, -1);
+    }
+
+    /**
+     * Get the label of a vertex.
+     *
+     * @param id a vertex id in [0, vertexCount())
+     * @return the label of the vertex with that id
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public L labelOf(int id) {
+        return (L) labels[id];
+    }
+
+    /**
+     * @param id a vertex id in [0, vertexCount())
+     * @return the number of edges from that vertex
+     */
+    public int outDegree(int id) {
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    /**
+     * @param id a vertex id in [0, vertexCount())
+     * @param i an index in [0, outDegree(id))
+     * @return the id of the target of the i-th edge from that vertex; targets
+     *         are in increasing id order
+     */
+    public int target(int id, int i) {
+        return outTargets[outOffsets[id] + i];
+    }
+
+    /**
+     * @param id a vertex id in [0, vertexCount())
+     * @param i an index in [0, outDegree(id))
+     * @return the weight of the i-th edge from that vertex
+     */
+    public int targetWeight(int id, int i) {
+        return outWeights[outOffsets[id] + i];
+    }
+
+    /**
+     * @param id a vertex id in [0, vertexCount())
+     * @return the number of edges to that vertex
+     */
+    public int inDegree(int id) {
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+
+    /**
+     * @param id a vertex id in [0, vertexCount())
+     * @param i an index in [0, inDegree(id))
+     * @return the id of the source of the i-th edge to that vertex; sources
+     *         are in increasing id order
+     */
+    public int source(int id, int i) {
+        return inSources[inOffsets[id] + i];
+    }
+
+    /**
+     * @param id a vertex id in [0, vertexCount())
+     * @param i an index in [0, inDegree(id))
+     * @return the weight of the i-th edge to that vertex
+     */
+    public int sourceWeight(int id, int i) {
+        return inWeights[inOffsets[id] + i];
+    }
+
+    /**
+     * Get the weight of an edge by vertex ids, in O(log out-degree).
+     *
+     * @param source id of the source vertex
+     * @param target id of the target vertex
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(int source, int target) {
+        int k = Arrays.binarySearch(outTargets, outOffsets[source], outOffsets[source + 1], target);
+        return k >= 0 ? outWeights[k] : 0;
+    }
+
+    /**
+     * Get all the vertices in this graph.
+     *
+     * @return the set of labels of vertices in this graph
+     */
+    public Set<L> vertices() {
+        Set<L> vertices = new HashSet<>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++) {
+            vertices.add(labelOf(i));
+        }
+        return vertices;
+    }
+
+    /**
+     * Get the source vertices with directed edges to a target vertex and the
+     * weights of those edges.
+     *
+     * @param target a label
+     * @return a map where the key set is the set of labels of vertices such
+     *         that this graph includes an edge from that vertex to target, and
+     *         the value for each key is the (nonzero) weight of the edge from
+     *         the key to target
+     */
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sourceVertices = new HashMap<>();
+        int id = idOf(target);
+        if (id >= 0) {
+            for (int k = inOffsets[id]; k < inOffsets[id + 1]; k++) {
+                sourceVertices.put(labelOf(inSources[k]), inWeights[k]);
+            }
+        }
+        return sourceVertices;
+    }
+
+    /**
+     * Get the target vertices with directed edges from a source vertex and the
+     * weights of those edges.
+     *
+     * @param source a label
+     * @return a map where the key set is the set of labels of vertices such
+     *         that this graph includes an edge from source to that vertex, and
+     *         the value for each key is the (nonzero) weight of the edge from
+     *         source to the key
+     */
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targetVertices = new HashMap<>();
+        int id = idOf(source);
+        if (id >= 0) {
+            for (int k = outOffsets[id]; k < outOffsets[id + 1]; k++) {
+                targetVertices.put(labelOf(outTargets[k]), outWeights[k]);
+            }
+        }
+        return targetVertices;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i++) {
+            for (int k = outOffsets[i]; k < outOffsets[i + 1]; k++) {
+                sb.append(String.format("%s -> %s : %d", labels[i], labels[outTargets[k]], outWeights[k]))
+                  .append("\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,332 @@
+package graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Graph with String labels whose contents survive a restart, kept in a
+ * directory of write-ahead log segments and snapshots.
+ *
+ * <p>Every add(), set() and remove() that is accepted is appended to a
+ * {@link WriteAheadLog}; a background thread writes the appended records
+ * and forces them to disk in batches, one fsync per batch (group commit).
+ * A change is durable once {@link #sync()} returns after it, or at the
+ * latest about one flush interval after it was made.
+ *
+ * <p>A background checkpointer periodically writes a full snapshot of the
+ * graph in the {@link GraphIO} binary format, named after the sequence
+ * number of the last change it includes, and then deletes the older
+ * snapshots and the log segments the snapshot covers. Opening a directory
+ * loads the latest snapshot and replays only the log records after it, so
+ * recovery time is proportional to the log written since the last
+ * checkpoint, not to the whole history. A background checkpoint that fails
+ * is tried again at the next interval, and its failure is reported by the
+ * next {@link #sync()} or {@link #close()}.
+ *
+ * <p>Like Graph, this class is meant for one thread at a time; its mutators
+ * are synchronized only so that the checkpointer sees a consistent graph.
+ * Call {@link #close()} when done with the graph.
+ */
+public class DurableGraph extends Graph<String> implements Closeable {
+
+    /** Default flush interval for the write-ahead log, in milliseconds. */
+    public static final long DEFAULT_FLUSH_MILLIS = 5;
+
+    /** Default interval between background checkpoints, in milliseconds. */
+    public static final long DEFAULT_CHECKPOINT_MILLIS = 60_000;
+
+    private static final long SEGMENT_BYTES = 64L << 20;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final Object checkpointLock = new Object();
+    private WriteAheadLog wal;
+    private ScheduledExecutorService checkpointer;
+    private long snapshotLsn = 0;
+    private Exception checkpointFailure;
+
+    // Abstraction function:
+    //   Represents the graph held in the superclass's rep, which equals the
+    //   snapshot named after snapshotLsn with every record of the log after
+    //   snapshotLsn applied in order.
+    //
+    // Representation invariant:
+    //   - snapshotLsn <= wal.lastLsn() once the log is open.
+    //   - wal is null only while the graph is being recovered; mutators
+    //     append nothing while it is null.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; the log, the executor and the snapshots
+    //     are never returned. Observers are the superclass's.
+
+    // Constructor
+    private DurableGraph(Path directory) {
+        super(Collections.emptySet());
+        this.directory = directory;
+    }
+
+    /**
+     * Open a durable graph in a directory, with the default flush and
+     * checkpoint intervals.
+     *
+     * @param directory the directory holding the graph's log and snapshots;
+     *        created if it does not exist
+     * @return the graph recovered from the directory, empty if the directory
+     *         is new
+     * @throws IOException if the directory cannot be read or written
+     */
+    public static DurableGraph open(Path directory) throws IOException {
+        return open(directory, DEFAULT_FLUSH_MILLIS, DEFAULT_CHECKPOINT_MILLIS);
+    }
+
+    /**
+     * Open a durable graph in a directory.
+     *
+     * @param directory the directory holding the graph's log and snapshots;
+     *        created if it does not exist
+     * @param flushMillis how long the log may wait to gather more changes
+     *        into one write and fsync, nonnegative
+     * @param checkpointMillis interval between background checkpoints, or
+     *        zero for no background checkpoints
+     * @return the graph recovered from the directory, empty if the directory
+     *         is new
+     * @throws IOException if the directory cannot be read or written
+     */
+    public static DurableGraph open(Path directory, long flushMillis, long checkpointMillis) throws IOException {
+        if (flushMillis < 0 || checkpointMillis < 0) {
+            throw new IllegalArgumentException("intervals must be nonnegative");
+        }
+        Files.createDirectories(directory);
+        DurableGraph graph = new DurableGraph(directory);
+        graph.recover(flushMillis);
+        if (checkpointMillis > 0) {
+            graph.startCheckpointer(checkpointMillis);
+        }
+        return graph;
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert wal == null || snapshotLsn <= wal.lastLsn() : "Snapshot ahead of the log";
+    }
+
+    // Load the latest snapshot, replay the log after it, and open the log
+    private void recover(long flushMillis) throws IOException {
+        List<Path> snapshots = snapshots();
+        for (Path file : snapshots) {
+            if (file.getFileName().toString().endsWith(".tmp")) {
+                Files.delete(file);
+            }
+        }
+        snapshots.removeIf(file -> file.getFileName().toString().endsWith(".tmp"));
+        if (!snapshots.isEmpty()) {
+            Path latest = snapshots.get(snapshots.size() - 1);
+            GraphIO.readBinary(latest, this);
+            snapshotLsn = snapshotLsn(latest);
+        }
+        long lastLsn = WriteAheadLog.replay(directory, snapshotLsn, new WriteAheadLog.Replayer() {
+            @Override
+            public void add(String vertex) {
+                DurableGraph.super.add(vertex);
+            }
+
+            @Override
+            public void set(String source, String target, int weight) {
+                DurableGraph.super.set(source, target, weight);
+            }
+
+            @Override
+            public void remove(String vertex) {
+                DurableGraph.super.remove(vertex);
+            }
+        });
+        wal = new WriteAheadLog(directory, lastLsn, flushMillis, SEGMENT_BYTES);
+        checkRep();
+    }
+
+    private void startCheckpointer(long checkpointMillis) {
+        checkpointer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "graph-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A task that throws is never run again, so keep the failure for
+        // sync() and close() instead
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                synchronized (checkpointLock) {
+                    if (checkpointFailure == null) {
+                        checkpointFailure = e;
+                    }
+                }
+            }
+        }, checkpointMillis, checkpointMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Throw the first background checkpoint failure not yet reported, if any
+    private void reportCheckpointFailure() throws IOException {
+        Exception failure;
+        synchronized (checkpointLock) {
+            failure = checkpointFailure;
+            checkpointFailure = null;
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure != null) {
+            throw new IOException("background checkpoint failed", failure);
+        }
+    }
+
+    // Snapshot files and leftover temporary files, oldest first
+    private List<Path> snapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*")) {
+            for (Path file : files) {
+                snapshots.add(file);
+            }
+        }
+        Collections.sort(snapshots);
+        return snapshots;
+    }
+
+    private static long snapshotLsn(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    @Override
+    public synchronized boolean add(String vertex) {
+        boolean added = super.add(vertex);
+        if (added && wal != null) {
+            wal.appendAdd(vertex);
+        }
+        return added;
+    }
+
+    @Override
+    public synchronized int set(String source, String target, int weight) {
+        int previousWeight = super.set(source, target, weight);
+        // A set() that leaves the weight unchanged changes nothing at all
+        if (previousWeight != weight && wal != null) {
+            wal.appendSet(source, target, weight);
+        }
+        return previousWeight;
+    }
+
+    @Override
+    public synchronized boolean remove(String vertex) {
+        boolean removed = super.remove(vertex);
+        if (removed && wal != null) {
+            wal.appendRemove(vertex);
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<? extends String> oldVertices) {
+        List<String> present = new ArrayList<>();
+        for (String vertex : oldVertices) {
+            if (idOf(vertex) >= 0) {
+                present.add(vertex);
+            }
+        }
+        boolean changed = super.removeAll(oldVertices);
+        if (wal != null) {
+            for (String vertex : present) {
+                wal.appendRemove(vertex);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Block until every change made so far is durable.
+     *
+     * @throws IOException if writing the log failed, or if a background
+     *         checkpoint failed since the last sync()
+     */
+    public void sync() throws IOException {
+        wal.sync();
+        reportCheckpointFailure();
+    }
+
+    /**
+     * Write a snapshot of this graph now, then delete older snapshots and the
+     * log segments the new snapshot covers. Does nothing if the graph has not
+     * changed since the last snapshot. The graph is locked only while the
+     * snapshot is copied in memory, not while it is written.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            CsrGraph<String> snapshot;
+            long lsn;
+            synchronized (this) {
+                lsn = wal.lastLsn();
+                if (lsn == snapshotLsn) {
+                    return;
+                }
+                snapshot = freeze();
+            }
+            Path file = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+            GraphIO.writeBinary(snapshot, temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            // Make the rename durable before the log it replaces is deleted
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+            synchronized (this) {
+                snapshotLsn = lsn;
+                checkRep();
+            }
+            for (Path old : snapshots()) {
+                if (!old.equals(file) && !old.getFileName().toString().endsWith(".tmp")) {
+                    Files.delete(old);
+                }
+            }
+            WriteAheadLog.deleteSegmentsThrough(directory, lsn);
+        }
+    }
+
+    /**
+     * Stop background checkpoints, make every change durable and close the
+     * log. The graph must not be mutated afterwards.
+     *
+     * @throws IOException if writing the log failed, or if a background
+     *         checkpoint failed since the last sync()
+     */
+    @Override
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            try {
+                checkpointer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        wal.close();
+        reportCheckpointFailure();
+    }
+}
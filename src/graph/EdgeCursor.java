@@ -0,0 +1,44 @@
+package graph;
+
+/**
+ * A cursor over the edges of a graph, returned by {@link Graph#edges()}.
+ * The cursor starts before the first edge; each call to {@link #next()}
+ * moves it to the next edge, whose endpoints and weight are then read with
+ * {@link #source()}, {@link #target()} and {@link #weight()}. The same
+ * cursor object serves every edge, so a traversal allocates nothing per
+ * edge (except where an implementation must create label objects, as
+ * OffHeapGraph does).
+ *
+ * <p>If the graph is changed while a cursor is in use, the cursor may skip
+ * or repeat edges; implementations that are safe for concurrent use say so.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public interface EdgeCursor<L> {
+
+    /**
+     * Move to the next edge.
+     *
+     * @return true if the cursor is now on an edge, false if there are no
+     *         more edges
+     */
+    boolean next();
+
+    /**
+     * @return the source of the current edge
+     * @throws IllegalStateException if the cursor is not on an edge
+     */
+    L source();
+
+    /**
+     * @return the target of the current edge
+     * @throws IllegalStateException if the cursor is not on an edge
+     */
+    L target();
+
+    /**
+     * @return the weight of the current edge, positive
+     * @throws IllegalStateException if the cursor is not on an edge
+     */
+    int weight();
+}
@@ -0,0 +1,102 @@
+package graph;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over the edges of a graph whose edges are grouped in
+ * numbered rows (a row is one source vertex, or one edge), given a way to
+ * open an edge cursor over any range of rows. It splits by halving its
+ * range of rows until it has started iterating.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+class EdgeSpliterator<L> implements Spliterator<EdgeTriple<L>> {
+
+    /** Opens cursors over ranges of rows. */
+    interface Rows<L> {
+        /**
+         * @param from first row, inclusive
+         * @param to last row, exclusive
+         * @return a cursor over the edges of those rows
+         */
+        EdgeCursor<L> cursor(int from, int to);
+    }
+
+    private final Rows<L> rows;
+    private int from;
+    private final int to;
+    private long estimate;
+    private EdgeCursor<L> cursor;
+
+    // Abstraction function:
+    //   Represents the edges of rows [from, to) not yet passed to an action;
+    //   once 'cursor' is open, the edges it has not yet reached.
+    //
+    // Representation invariant:
+    //   - from <= to, and estimate >= 0.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; edges are passed on as new immutable
+    //     triples.
+
+    // Constructor, over rows [from, to) holding about 'estimate' edges
+    EdgeSpliterator(Rows<L> rows, int from, int to, long estimate) {
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+        this.estimate = estimate;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert from <= to && estimate >= 0 : "Malformed range";
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super EdgeTriple<L>> action) {
+        if (cursor == null) {
+            cursor = rows.cursor(from, to);
+        }
+        if (!cursor.next()) {
+            return false;
+        }
+        action.accept(new EdgeTriple<>(cursor.source(), cursor.target(), cursor.weight()));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super EdgeTriple<L>> action) {
+        if (cursor == null) {
+            cursor = rows.cursor(from, to);
+        }
+        while (cursor.next()) {
+            action.accept(new EdgeTriple<>(cursor.source(), cursor.target(), cursor.weight()));
+        }
+    }
+
+    @Override
+    public Spliterator<EdgeTriple<L>> trySplit() {
+        if (cursor != null || to - from < 2) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        long half = estimate / 2;
+        Spliterator<EdgeTriple<L>> prefix = new EdgeSpliterator<>(rows, from, middle, half);
+        from = middle;
+        estimate -= half;
+        checkRep();
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT;
+    }
+}
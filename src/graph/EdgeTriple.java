@@ -0,0 +1,77 @@
+package graph;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An immutable (source, target, weight) triple, used to pass many edges to a
+ * graph at once. A triple is serializable if its labels are.
+ * 
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class EdgeTriple<L> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final L source;
+    private final L target;
+    private final int weight;
+
+    // Abstraction function:
+    //   Represents the request to set the edge from 'source' to 'target' to
+    //   'weight', where a weight of zero means the edge should be removed.
+
+    // Representation invariant:
+    //   - 'source' and 'target' must not be null.
+    //   - 'weight' must be non-negative.
+
+    // Safety from rep exposure:
+    //   - All fields are private and final, and labels are immutable.
+
+    // Constructor
+    public EdgeTriple(L source, L target, int weight) {
+        this.source = source;
+        this.target = target;
+        this.weight = weight;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert source != null : "Source vertex cannot be null";
+        assert target != null : "Target vertex cannot be null";
+        assert weight >= 0 : "Weight must be non-negative";
+    }
+
+    // Getters
+    public L getSource() {
+        return source;
+    }
+
+    public L getTarget() {
+        return target;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof EdgeTriple)) {
+            return false;
+        }
+        EdgeTriple<?> other = (EdgeTriple<?>) that;
+        return source.equals(other.source) && target.equals(other.target) && weight == other.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, target, weight);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s : %d", source, target, weight);
+    }
+}
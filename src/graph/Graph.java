@@ -1,10 +1,20 @@
 package graph;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A mutable weighted directed graph with labeled vertices.
@@ -17,15 +27,48 @@ import java.util.Set;
  * 
  * @param <L> type of vertex labels in this graph, must be immutable
  */
-public class Graph<L> {
+public class Graph<L> implements VertexIds<L> {
 
-    private Set<L> vertices;
-    private Map<L, Map<L, Integer>> edges;  // Map of source vertex to Map of target vertex and weight
+    private static final int MIN_ID_CAPACITY = 16;
+
+    private final ObjIntMap<L> ids;  // Label dictionary: vertex label to its id
+    private Object[] labels;  // Id to vertex label, null for a free id
+    private IntIntMap[] edges;  // Source id to map of target id and weight
+    private IntIntMap[] reverseEdges;  // Target id to map of source id and weight
+    private int nextId;  // Ids in [0, nextId) have been handed out at least once
+    private final IntList freeIds;  // Ids below nextId not in use, reused first
+    private final Set<L> verticesView;  // Read-only live view of the labels, created once
+    private ChangeLog<L> changeLog;  // Where mutations are recorded, or null
+
+    // Abstraction function:
+    //   Represents the graph whose vertices are the keys of 'ids', with an
+    //   edge from labels[s] to labels[t] of weight w for every
+    //   edges[s].get(t) == w.
+    //
+    // Representation invariant:
+    //   - ids.get(v) == i if and only if labels[i] equals v, for i < nextId.
+    //   - edges[i] and reverseEdges[i] are non-null exactly when labels[i] is.
+    //   - edges[s].get(t) == reverseEdges[t].get(s) for every pair of ids,
+    //     and every stored weight is positive.
+    //   - freeIds holds each id below nextId whose label is null, once.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; the arrays and maps are never returned.
+    //   - vertices(), sources() and targets() return fresh copies, and the
+    //     views are read-only.
 
     // Constructor
     public Graph(Set<L> vertices) {
-        this.vertices = new HashSet<>(vertices);
-        this.edges = new HashMap<>();
+        int capacity = Math.max(MIN_ID_CAPACITY, vertices.size());
+        this.ids = new ObjIntMap<>(vertices.size());
+        this.labels = new Object[capacity];
+        this.edges = new IntIntMap[capacity];
+        this.reverseEdges = new IntIntMap[capacity];
+        this.freeIds = new IntList();
+        this.verticesView = new LabelSet();
+        for (L vertex : vertices) {
+            intern(vertex);
+        }
     }
 
     /**
@@ -46,14 +89,55 @@ public class Graph<L> {
      *         given label; otherwise false (and this graph is not modified)
      */
     public boolean add(L vertex) {
-        if (!vertices.contains(vertex)) {
-            vertices.add(vertex);
-            edges.put(vertex, new HashMap<>());
+        if (!ids.containsKey(vertex)) {
+            intern(vertex);
             return true;
         }
         return false;
     }
 
+    // Get the id of a vertex, first adding it with a free or new id if absent.
+    // Private so that the constructor and set() never call an override.
+    private int intern(L vertex) {
+        return intern(vertex, 0);
+    }
+
+    // Intern a vertex, sizing a new vertex's outgoing map for expectedDegree
+    // edges
+    private int intern(L vertex, int expectedDegree) {
+        int id = ids.getOrDefault(vertex, -1);
+        if (id >= 0) {
+            return id;
+        }
+        if (!freeIds.isEmpty()) {
+            id = freeIds.pop();
+        } else {
+            id = nextId++;
+            if (id == labels.length) {
+                growIds(labels.length * 2);
+            }
+        }
+        ids.put(vertex, id);
+        labels[id] = vertex;
+        edges[id] = new IntIntMap(expectedDegree);
+        reverseEdges[id] = new IntIntMap();
+        logVertexAdded(vertex);
+        return id;
+    }
+
+    /**
+     * @return the length of the id-indexed arrays, for tests of sizing
+     */
+    int idCapacity() {
+        return labels.length;
+    }
+
+    private void growIds(int capacity) {
+        labels = Arrays.copyOf(labels, capacity);
+        edges = Arrays.copyOf(edges, capacity);
+        reverseEdges = Arrays.copyOf(reverseEdges, capacity);
+    }
+
     /**
      * Add, change, or remove a weighted directed edge in this graph.
      * If weight is nonzero, add an edge or update the weight of that edge;
@@ -69,16 +153,23 @@ public class Graph<L> {
      *         edge
      */
     public int set(L source, L target, int weight) {
-        add(source);
-        add(target);
-
-        Map<L, Integer> sourceEdges = edges.get(source);
-        int previousWeight = sourceEdges.getOrDefault(target, 0);
+        int previousWeight;
         if (weight != 0) {
-            sourceEdges.put(target, weight);
+            int s = intern(source);
+            int t = intern(target);
+            previousWeight = edges[s].put(t, weight);
+            reverseEdges[t].put(s, weight);
         } else {
-            sourceEdges.remove(target);
+            // Removing an edge never adds its endpoints
+            int s = ids.getOrDefault(source, -1);
+            int t = ids.getOrDefault(target, -1);
+            if (s < 0 || t < 0) {
+                return 0;
+            }
+            previousWeight = edges[s].remove(t);
+            reverseEdges[t].remove(s);
         }
+        logEdgeChanged(source, target, previousWeight, weight);
 
         return previousWeight;
     }
@@ -92,25 +183,181 @@ public class Graph<L> {
      *         otherwise false (and this graph is not modified)
      */
     public boolean remove(L vertex) {
-        if (vertices.contains(vertex)) {
-            vertices.remove(vertex);
-            edges.remove(vertex);
-
-            // Remove edges pointing to the removed vertex
-            edges.forEach((source, targetEdges) -> targetEdges.remove(vertex));
-
+        int id = ids.getOrDefault(vertex, -1);
+        if (id >= 0) {
+            ids.remove(vertex);
+            detach(id);
+            release(id);
+            logVertexRemoved(vertex);
             return true;
         }
         return false;
     }
 
+    // Remove the edges pointing to and from a vertex already removed from
+    // 'ids', visiting only its neighbors rather than every source map
+    private void detach(int id) {
+        edges[id].forEach((target, weight) -> {
+            if (target != id) {
+                reverseEdges[target].remove(id);
+            }
+        });
+        reverseEdges[id].forEach((source, weight) -> {
+            if (source != id) {
+                edges[source].remove(id);
+            }
+        });
+    }
+
+    // Drop the maps and label of a detached vertex and make its id reusable
+    private void release(int id) {
+        labels[id] = null;
+        edges[id] = null;
+        reverseEdges[id] = null;
+        freeIds.add(id);
+    }
+
+    /**
+     * Add many vertices to this graph. Equivalent to calling
+     * {@link #add(Object)} for each one, but the indexes are sized once for
+     * the whole batch.
+     * 
+     * @param newVertices labels for the new vertices
+     * @return true if this graph did not already include at least one of the
+     *         given labels; otherwise false (and this graph is not modified)
+     */
+    public boolean addAll(Collection<? extends L> newVertices) {
+        ensureCapacity(newVertices.size());
+        boolean changed = false;
+        for (L vertex : newVertices) {
+            changed |= add(vertex);
+        }
+        return changed;
+    }
+
+    /**
+     * Add, change, or remove many weighted directed edges, as if by calling
+     * {@link #set(Object, Object, int)} for each triple in order. Vertices are
+     * added as needed. When edges is a Collection, a first pass counts the
+     * distinct new endpoints and the edges out of each source, so that the
+     * vertex tables are sized once by the number of new vertices and each
+     * source's outgoing map once by its edges in the batch.
+     * 
+     * @param edges the edges to set; a triple with weight zero removes its edge
+     */
+    public void setAll(Iterable<EdgeTriple<L>> edges) {
+        if (!(edges instanceof Collection)) {
+            for (EdgeTriple<L> edge : edges) {
+                set(edge.getSource(), edge.getTarget(), edge.getWeight());
+            }
+            return;
+        }
+        ObjIntMap<L> outDegrees = new ObjIntMap<>();
+        for (EdgeTriple<L> edge : edges) {
+            if (edge.getWeight() != 0) {
+                outDegrees.put(edge.getSource(), outDegrees.get(edge.getSource()) + 1);
+                if (!outDegrees.containsKey(edge.getTarget())) {
+                    outDegrees.put(edge.getTarget(), 0);
+                }
+            }
+        }
+        int newVertices = 0;
+        for (int slot = outDegrees.nextSlot(-1); slot >= 0; slot = outDegrees.nextSlot(slot)) {
+            int id = ids.getOrDefault(outDegrees.keyAt(slot), -1);
+            if (id < 0) {
+                newVertices++;
+            } else if (outDegrees.valueAt(slot) > 0) {
+                this.edges[id].ensureCapacity(this.edges[id].size() + outDegrees.valueAt(slot));
+            }
+        }
+        ensureCapacity(newVertices);
+        for (EdgeTriple<L> edge : edges) {
+            if (edge.getWeight() != 0) {
+                // Intern in the order set() would, sizing new outgoing maps
+                intern(edge.getSource(), outDegrees.get(edge.getSource()));
+                intern(edge.getTarget(), outDegrees.get(edge.getTarget()));
+            }
+            set(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+    }
+
+    /**
+     * Remove many vertices and every edge to or from them. Equivalent to
+     * calling {@link #remove(Object)} for each one. When a large share of the
+     * graph is removed, the incoming-edge index is rebuilt in a single pass
+     * over the remaining edges instead of being updated edge by edge.
+     * 
+     * @param oldVertices labels of the vertices to remove
+     * @return true if this graph included at least one of the given labels;
+     *         otherwise false (and this graph is not modified)
+     */
+    public boolean removeAll(Collection<? extends L> oldVertices) {
+        IntList removed = new IntList();
+        for (L vertex : oldVertices) {
+            int id = ids.getOrDefault(vertex, -1);
+            if (id >= 0) {
+                ids.remove(vertex);
+                removed.add(id);
+                logVertexRemoved(vertex);
+            }
+        }
+        if (removed.size() * 4 < ids.size()) {
+            for (int k = 0; k < removed.size(); k++) {
+                detach(removed.get(k));
+                release(removed.get(k));
+            }
+            return !removed.isEmpty();
+        }
+
+        for (int k = 0; k < removed.size(); k++) {
+            release(removed.get(k));
+        }
+        for (int id = 0; id < nextId; id++) {
+            if (labels[id] != null) {
+                reverseEdges[id].clear();
+            }
+        }
+        IntList dropped = new IntList();
+        for (int source = 0; source < nextId; source++) {
+            if (labels[source] == null) {
+                continue;
+            }
+            int s = source;
+            IntIntMap targetEdges = edges[source];
+            targetEdges.forEach((target, weight) -> {
+                if (labels[target] == null) {
+                    dropped.add(target);
+                } else {
+                    reverseEdges[target].put(s, weight);
+                }
+            });
+            for (int k = 0; k < dropped.size(); k++) {
+                targetEdges.remove(dropped.get(k));
+            }
+            dropped.clear();
+        }
+        return !removed.isEmpty();
+    }
+
+    // Grow the label dictionary and id arrays once, when a batch of up to
+    // 'extra' new vertices would otherwise grow them repeatedly
+    private void ensureCapacity(int extra) {
+        int needed = ids.size() + extra;
+        ids.ensureCapacity(needed);
+        if (needed > labels.length) {
+            growIds(Math.max(needed, labels.length * 2));
+        }
+    }
+
     /**
      * Get all the vertices in this graph.
      * 
      * @return the set of labels of vertices in this graph
      */
     public Set<L> vertices() {
-        return new HashSet<>(vertices);
+        Set<L> vertexSet = new HashSet<>(ids.size() * 4 / 3 + 1);
+        ids.forEach((vertex, id) -> vertexSet.add(vertex));
+        return vertexSet;
     }
 
     /**
@@ -125,12 +372,7 @@ public class Graph<L> {
      */
     public Map<L, Integer> sources(L target) {
         Map<L, Integer> sourceVertices = new HashMap<>();
-        for (L source : vertices) {
-            int weight = edges.getOrDefault(source, Collections.emptyMap()).getOrDefault(target, 0);
-            if (weight != 0) {
-                sourceVertices.put(source, weight);
-            }
-        }
+        forEachSource(target, sourceVertices::put);
         return sourceVertices;
     }
 
@@ -145,6 +387,436 @@ public class Graph<L> {
      *         source to the key
      */
     public Map<L, Integer> targets(L source) {
-        return new HashMap<>(edges.getOrDefault(source, Collections.emptyMap()));
+        Map<L, Integer> targetVertices = new HashMap<>();
+        forEachTarget(source, targetVertices::put);
+        return targetVertices;
+    }
+
+    /**
+     * Get a read-only view of the vertices in this graph, in O(1) and without
+     * copying.
+     * 
+     * <p>The view is live: it reflects later changes to this graph. It cannot
+     * be used to modify this graph. This graph is not thread-safe, so the view
+     * must not be read while another thread modifies the graph; iterating the
+     * view while this graph gains or loses vertices fails with a best-effort
+     * {@link ConcurrentModificationException}. Callers that need a stable set
+     * should use {@link #vertices()}.
+     * 
+     * @return an unmodifiable live view of the set of labels of vertices in
+     *         this graph
+     */
+    public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    /**
+     * Get a read-only view of the source vertices with directed edges to a
+     * target vertex and the weights of those edges, in O(1) and without
+     * copying.
+     * 
+     * <p>The view is live, with the same rules as {@link #verticesView()}: it
+     * reflects later changes to the edges into target (including target being
+     * removed and added again), it cannot be used to modify this graph, and
+     * iterating it while those edges change fails with a best-effort
+     * {@link ConcurrentModificationException}.
+     * 
+     * @param target a label
+     * @return an unmodifiable live view of the map that {@link #sources(Object)}
+     *         would return for target
+     */
+    public Map<L, Integer> sourcesView(L target) {
+        return new AdjacencyView(false, target);
+    }
+
+    /**
+     * Get a read-only view of the target vertices with directed edges from a
+     * source vertex and the weights of those edges, in O(1) and without
+     * copying.
+     * 
+     * <p>The view is live, with the same rules as {@link #sourcesView(Object)}.
+     * 
+     * @param source a label
+     * @return an unmodifiable live view of the map that {@link #targets(Object)}
+     *         would return for source
+     */
+    public Map<L, Integer> targetsView(L source) {
+        return new AdjacencyView(true, source);
+    }
+
+    /**
+     * Get the weight of a directed edge without boxing it.
+     * 
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(L source, L target) {
+        int s = ids.getOrDefault(source, -1);
+        return s < 0 ? 0 : edges[s].get(ids.getOrDefault(target, -1));
+    }
+
+    /**
+     * Visit the target vertices with directed edges from a source vertex,
+     * passing each edge weight as a primitive. The action must not modify
+     * this graph.
+     * 
+     * @param source a label
+     * @param action called once with each target label and the (nonzero)
+     *        weight of the edge from source to it; not called if source is
+     *        not in this graph
+     */
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+        int s = ids.getOrDefault(source, -1);
+        if (s >= 0) {
+            edges[s].forEach((target, weight) -> action.accept(label(target), weight));
+        }
+    }
+
+    /**
+     * Visit the source vertices with directed edges to a target vertex,
+     * passing each edge weight as a primitive. The action must not modify
+     * this graph.
+     * 
+     * @param target a label
+     * @param action called once with each source label and the (nonzero)
+     *        weight of the edge from it to target; not called if target is
+     *        not in this graph
+     */
+    public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+        int t = ids.getOrDefault(target, -1);
+        if (t >= 0) {
+            reverseEdges[t].forEach((source, weight) -> action.accept(label(source), weight));
+        }
+    }
+
+    /**
+     * Walk every edge of this graph with a single reusable cursor, without
+     * allocating per edge. The graph must not be changed while the cursor is
+     * in use, except where an implementation documents otherwise.
+     * 
+     * @return a new cursor, positioned before the first edge
+     */
+    public EdgeCursor<L> edges() {
+        return new IdCursor(0, nextId);
+    }
+
+    /**
+     * Stream every edge of this graph, as one new EdgeTriple per edge. The
+     * stream splits well, so {@code edgeStream().parallel()} spreads the
+     * edges across threads. The graph must not be changed while the stream
+     * runs, except where an implementation documents otherwise.
+     * 
+     * @return a sequential stream of the edges of this graph
+     */
+    public Stream<EdgeTriple<L>> edgeStream() {
+        long edgeCount = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (edges[id] != null) {
+                edgeCount += edges[id].size();
+            }
+        }
+        return StreamSupport.stream(new EdgeSpliterator<>(IdCursor::new, 0, nextId, edgeCount), false);
+    }
+
+    /**
+     * Start recording the mutations of this graph in a change log, replacing
+     * any log attached before, or stop recording. Set the log before the
+     * graph is shared between threads.
+     * 
+     * @param log the log to append every later change to, or null to stop
+     *        recording
+     */
+    public void setChangeLog(ChangeLog<L> log) {
+        this.changeLog = log;
+    }
+
+    /**
+     * @return the change log attached to this graph, or null if none
+     */
+    public ChangeLog<L> getChangeLog() {
+        return changeLog;
+    }
+
+    // Record a change in the attached log, if any. Every implementation calls
+    // these from its mutators, after the change and while it still holds any
+    // locks that order the change against others.
+
+    final void logVertexAdded(L vertex) {
+        ChangeLog<L> log = changeLog;
+        if (log != null) {
+            log.vertexAdded(vertex);
+        }
+    }
+
+    final void logVertexRemoved(L vertex) {
+        ChangeLog<L> log = changeLog;
+        if (log != null) {
+            log.vertexRemoved(vertex);
+        }
+    }
+
+    final void logEdgeChanged(L source, L target, int oldWeight, int newWeight) {
+        ChangeLog<L> log = changeLog;
+        if (log != null) {
+            log.edgeChanged(source, target, oldWeight, newWeight);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>Ids are assigned when a vertex is added and are stable until it is
+     * removed; the id of a removed vertex may then be given to a vertex added
+     * later. Every id is less than the largest number of vertices this graph
+     * has held at once (or the size of the constructor's vertex set, if
+     * larger).
+     * 
+     * <p>The ids belong to this class's own representation. A subclass that
+     * replaces it keeps no ids unless it overrides this method and
+     * {@link #labelOf(int)}: then this returns -1 for every vertex and
+     * labelOf() returns null for every id. Wrappers forward both to the graph
+     * they wrap; a caller that needs ids from any graph can use those of
+     * {@link #freeze()}.
+     * 
+     * @return the non-negative id of vertex, or -1 if this graph does not
+     *         include a vertex with the given label or keeps no ids
+     */
+    @Override
+    public int idOf(L vertex) {
+        return ids.getOrDefault(vertex, -1);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return the label of the vertex with that id, or null if no vertex in
+     *         this graph currently has it
+     */
+    @Override
+    public L labelOf(int id) {
+        return id >= 0 && id < nextId ? label(id) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private L label(int id) {
+        return (L) labels[id];
+    }
+
+    /**
+     * Take an immutable snapshot of this graph in compressed sparse row form.
+     * Later changes to this graph do not affect the snapshot.
+     * 
+     * @return a read-optimized copy of the current abstract value of this graph
+     */
+    public CsrGraph<L> freeze() {
+        return CsrGraph.copyOf(this);
+    }
+
+    /**
+     * The read-only live view of the vertex labels, backed by the label
+     * dictionary.
+     */
+    private class LabelSet extends AbstractSet<L> {
+
+        @Override
+        public int size() {
+            return ids.size();
+        }
+
+        @Override
+        public boolean contains(Object vertex) {
+            return ids.containsKey(vertex);
+        }
+
+        @Override
+        public Iterator<L> iterator() {
+            return new Iterator<L>() {
+                private final int expectedModCount = ids.modCount();
+                private int slot = ids.nextSlot(-1);
+
+                @Override
+                public boolean hasNext() {
+                    return slot >= 0;
+                }
+
+                @Override
+                public L next() {
+                    if (ids.modCount() != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (slot < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    L vertex = ids.keyAt(slot);
+                    slot = ids.nextSlot(slot);
+                    return vertex;
+                }
+            };
+        }
+    }
+
+    /**
+     * A cursor over the edges out of the ids in [from, to), id by id and
+     * slot by slot of each id's edge map.
+     */
+    private class IdCursor implements EdgeCursor<L> {
+
+        private final int to;
+        private int id;
+        private int slot = -1;
+
+        // Abstraction function:
+        //   Represents the position just after slot 'slot' of edges[id],
+        //   where slot -1 is before the first edge of id; the cursor is on
+        //   an edge when slot >= 0.
+        //
+        // Representation invariant:
+        //   - id <= to, and slot == -1 unless id < to and edges[id] is not
+        //     null.
+        //
+        // Safety from rep exposure:
+        //   - Fields are private; the edge maps belong to the enclosing Graph
+        //     and are only read.
+
+        // Constructor
+        IdCursor(int from, int to) {
+            this.id = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean next() {
+            while (id < to) {
+                IntIntMap targets = edges[id];
+                if (targets != null) {
+                    slot = targets.nextSlot(slot);
+                    if (slot >= 0) {
+                        return true;
+                    }
+                }
+                id++;
+            }
+            return false;
+        }
+
+        private IntIntMap current() {
+            if (id >= to || slot < 0) {
+                throw new IllegalStateException("cursor is not on an edge");
+            }
+            return edges[id];
+        }
+
+        @Override
+        public L source() {
+            current();
+            return label(id);
+        }
+
+        @Override
+        public L target() {
+            return label(current().keyAt(slot));
+        }
+
+        @Override
+        public int weight() {
+            return current().valueAt(slot);
+        }
+    }
+
+    /**
+     * A read-only map view of the edges of one vertex. The vertex's id is
+     * looked up on every access, so the view stays correct when the vertex is
+     * removed or added again with another id.
+     */
+    private class AdjacencyView extends AbstractMap<L, Integer> {
+
+        private final boolean outgoing;
+        private final L vertex;
+
+        // Abstraction function:
+        //   Represents the edges out of vertex if outgoing, otherwise the
+        //   edges into it, as a map from the label at the other end to the
+        //   weight; the empty map if vertex is not in the enclosing graph.
+        //
+        // Representation invariant:
+        //   - true
+        //
+        // Safety from rep exposure:
+        //   - Fields are private and final; the id maps belong to the
+        //     enclosing Graph and are only read.
+        //   - Entries handed out are immutable, and the inherited mutators of
+        //     AbstractMap throw UnsupportedOperationException.
+
+        // Constructor
+        AdjacencyView(boolean outgoing, L vertex) {
+            this.outgoing = outgoing;
+            this.vertex = vertex;
+        }
+
+        private IntIntMap weights() {
+            int id = ids.getOrDefault(vertex, -1);
+            return id < 0 ? null : outgoing ? edges[id] : reverseEdges[id];
+        }
+
+        @Override
+        public int size() {
+            IntIntMap weights = weights();
+            return weights == null ? 0 : weights.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            IntIntMap weights = weights();
+            int weight = weights == null ? 0 : weights.get(ids.getOrDefault(key, -1));
+            return weight == 0 ? null : weight;
+        }
+
+        @Override
+        public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override
+                public int size() {
+                    return AdjacencyView.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<L, Integer>> iterator() {
+                    IntIntMap weights = weights();
+                    if (weights == null) {
+                        return Collections.emptyIterator();
+                    }
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private final int expectedModCount = weights.modCount();
+                        private int slot = weights.nextSlot(-1);
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot >= 0;
+                        }
+
+                        @Override
+                        public Map.Entry<L, Integer> next() {
+                            if (weights.modCount() != expectedModCount) {
+                                throw new ConcurrentModificationException();
+                            }
+                            if (slot < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<L, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+                                    label(weights.keyAt(slot)), weights.valueAt(slot));
+                            slot = weights.nextSlot(slot);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
     }
 }
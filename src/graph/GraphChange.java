@@ -0,0 +1,137 @@
+package graph;
+
+import java.util.Objects;
+
+/**
+ * An immutable record of one mutation of a graph, as kept by a
+ * {@link ChangeLog}.
+ * 
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class GraphChange<L> {
+
+    /** What kind of mutation a change records. */
+    public enum Kind {
+        /** A vertex was added. */
+        VERTEX_ADDED,
+        /**
+         * A vertex was removed, together with every edge to or from it; those
+         * edges are not recorded separately.
+         */
+        VERTEX_REMOVED,
+        /** An edge was added, removed, or given a new weight. */
+        EDGE_CHANGED
+    }
+
+    private final long sequence;
+    private final Kind kind;
+    private final L source;
+    private final L target;
+    private final int oldWeight;
+    private final int newWeight;
+
+    // Abstraction function:
+    //   Represents change number 'sequence' of a graph: if kind is
+    //   EDGE_CHANGED, the weight of the edge from 'source' to 'target' went
+    //   from 'oldWeight' to 'newWeight' (zero meaning no edge); otherwise the
+    //   vertex 'source' was added or removed.
+
+    // Representation invariant:
+    //   - 'sequence' is positive, and 'kind' and 'source' are not null.
+    //   - 'target' is null and both weights are zero unless kind is
+    //     EDGE_CHANGED; then 'target' is not null, both weights are
+    //     non-negative, and they differ.
+
+    // Safety from rep exposure:
+    //   - All fields are private and final, and labels are immutable.
+
+    // Constructor
+    GraphChange(long sequence, Kind kind, L source, L target, int oldWeight, int newWeight) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.source = source;
+        this.target = target;
+        this.oldWeight = oldWeight;
+        this.newWeight = newWeight;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert sequence > 0 && kind != null && source != null : "Change must have a sequence, kind and vertex";
+        if (kind == Kind.EDGE_CHANGED) {
+            assert target != null : "Edge change must have a target";
+            assert oldWeight >= 0 && newWeight >= 0 && oldWeight != newWeight : "Edge change must change the weight";
+        } else {
+            assert target == null && oldWeight == 0 && newWeight == 0 : "Vertex change has no edge";
+        }
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the source of the changed edge, or the vertex that was added or
+     *         removed
+     */
+    public L getSource() {
+        return source;
+    }
+
+    /**
+     * @return the target of the changed edge, or null for a vertex change
+     */
+    public L getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the weight of the edge before the change, zero if it did not
+     *         exist, or zero for a vertex change
+     */
+    public int getOldWeight() {
+        return oldWeight;
+    }
+
+    /**
+     * @return the weight of the edge after the change, zero if it was
+     *         removed, or zero for a vertex change
+     */
+    public int getNewWeight() {
+        return newWeight;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof GraphChange)) {
+            return false;
+        }
+        GraphChange<?> other = (GraphChange<?>) that;
+        return sequence == other.sequence && kind == other.kind && source.equals(other.source)
+                && Objects.equals(target, other.target)
+                && oldWeight == other.oldWeight && newWeight == other.newWeight;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, kind, source, target, oldWeight, newWeight);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+        case VERTEX_ADDED:
+            return String.format("%d: add %s", sequence, source);
+        case VERTEX_REMOVED:
+            return String.format("%d: remove %s", sequence, source);
+        default:
+            return String.format("%d: %s -> %s : %d => %d", sequence, source, target, oldWeight, newWeight);
+        }
+    }
+}
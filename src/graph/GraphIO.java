@@ -0,0 +1,303 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes graphs with String labels, in a text edge-list format and
+ * a compact binary format.
+ *
+ * <p>The text format has one line per edge, in the same shape as
+ * {@code ConcreteEdgesGraph.Edge.toString()}: {@code A -> B : 5}. A line
+ * holding only a label declares a vertex with no edges; blank lines are
+ * ignored. Labels must not contain line breaks, {@code " -> "} or
+ * {@code " : "}.
+ *
+ * <p>The binary format is big-endian: the int {@link #MAGIC}, the int
+ * {@link #VERSION}, the vertex count n, then n labels each as a byte length
+ * and that many UTF-8 bytes, then the edge count as a long, then one
+ * (source index, target index, weight) int triple per edge, where an index
+ * refers to the order of the labels.
+ *
+ * <p>Both readers stream edges into the graph through
+ * {@link Graph#setAll(Iterable)} in fixed-size batches, so memory use beyond
+ * the graph itself is bounded by the batch size (and, for the binary format,
+ * the label table). The binary reader maps the file with
+ * {@link FileChannel#map} window by window instead of copying it into heap
+ * arrays.
+ */
+public final class GraphIO {
+
+    /** First four bytes of a binary graph file: "GRPH". */
+    public static final int MAGIC = 0x47525048;
+
+    /** Version of the binary format written by this class. */
+    public static final int VERSION = 1;
+
+    private static final String ARROW = " -> ";
+    private static final String COLON = " : ";
+    private static final int BATCH = 1 << 16;
+
+    private GraphIO() {
+        // static methods only
+    }
+
+    /**
+     * Read a text edge list into a graph, setting each edge in file order.
+     *
+     * @param file the file to read
+     * @param graph the graph to add vertices and edges to
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static void readEdgeList(Path file, Graph<String> graph) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<EdgeTriple<String>> batch = new ArrayList<>(BATCH);
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int arrow = line.indexOf(ARROW);
+                if (arrow < 0) {
+                    flush(graph, batch);
+                    graph.add(line);
+                    continue;
+                }
+                int colon = line.lastIndexOf(COLON);
+                if (colon < arrow + ARROW.length()) {
+                    throw new IOException(file + ":" + lineNumber + ": expected 'source -> target : weight'");
+                }
+                int weight;
+                try {
+                    weight = Integer.parseInt(line.substring(colon + COLON.length()).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ":" + lineNumber + ": bad weight", e);
+                }
+                if (weight < 0) {
+                    throw new IOException(file + ":" + lineNumber + ": weight must be non-negative");
+                }
+                batch.add(new EdgeTriple<>(line.substring(0, arrow),
+                        line.substring(arrow + ARROW.length(), colon), weight));
+                if (batch.size() == BATCH) {
+                    flush(graph, batch);
+                }
+            }
+            flush(graph, batch);
+        }
+    }
+
+    private static void flush(Graph<String> graph, List<EdgeTriple<String>> batch) {
+        if (!batch.isEmpty()) {
+            graph.setAll(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write a graph as a text edge list. Vertices with no edges are written as
+     * bare labels.
+     *
+     * @param graph the graph to write; its labels must be allowed by the text
+     *        format
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeEdgeList(Graph<String> graph, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            IOException[] failure = new IOException[1];
+            for (String source : graph.verticesView()) {
+                if (graph.targetsView(source).isEmpty() && graph.sourcesView(source).isEmpty()) {
+                    writer.write(source);
+                    writer.newLine();
+                    continue;
+                }
+                graph.forEachTarget(source, (target, weight) -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        writer.write(source);
+                        writer.write(ARROW);
+                        writer.write(target);
+                        writer.write(COLON);
+                        writer.write(Integer.toString(weight));
+                        writer.newLine();
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a graph in the binary format.
+     *
+     * @param graph the graph to write
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeBinary(Graph<String> graph, Path file) throws IOException {
+        writeBinary(graph.freeze(), file);
+    }
+
+    /**
+     * Write a snapshot in the binary format.
+     *
+     * @param snapshot the snapshot to write
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeBinary(CsrGraph<String> snapshot, Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.vertexCount());
+            for (int id = 0; id < snapshot.vertexCount(); id++) {
+                byte[] label = snapshot.labelOf(id).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(label.length);
+                out.write(label);
+            }
+            out.writeLong(snapshot.edgeCount());
+            for (int id = 0; id < snapshot.vertexCount(); id++) {
+                for (int i = 0; i < snapshot.outDegree(id); i++) {
+                    out.writeInt(id);
+                    out.writeInt(snapshot.target(id, i));
+                    out.writeInt(snapshot.targetWeight(id, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a graph in the binary format, memory-mapping the file.
+     *
+     * @param file the file to read
+     * @param graph the graph to add vertices and edges to
+     * @throws IOException if the file cannot be read or is not a valid binary
+     *         graph file
+     */
+    public static void readBinary(Path file, Graph<String> graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedInput in = new MappedInput(channel);
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + ": not a binary graph file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(file + ": unsupported version " + version);
+            }
+            int vertexCount = in.readInt();
+            if (vertexCount < 0) {
+                throw new IOException(file + ": corrupt vertex count");
+            }
+            String[] labels = new String[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                labels[i] = in.readString();
+            }
+            graph.addAll(Arrays.asList(labels));
+
+            long edgeCount = in.readLong();
+            List<EdgeTriple<String>> batch = new ArrayList<>(BATCH);
+            for (long k = 0; k < edgeCount; k++) {
+                int source = in.readInt();
+                int target = in.readInt();
+                int weight = in.readInt();
+                if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount || weight < 0) {
+                    throw new IOException(file + ": corrupt edge " + k);
+                }
+                batch.add(new EdgeTriple<>(labels[source], labels[target], weight));
+                if (batch.size() == BATCH) {
+                    flush(graph, batch);
+                }
+            }
+            flush(graph, batch);
+        }
+    }
+
+    /**
+     * Sequential big-endian reads from a file channel through a sliding
+     * memory-mapped window, so files larger than one mapping can be read.
+     */
+    static class MappedInput {
+
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart = 0;
+        private MappedByteBuffer window;
+
+        // Abstraction function:
+        //   Represents the unread suffix of the channel's file, starting at
+        //   byte windowStart + window.position().
+        //
+        // Representation invariant:
+        //   - 0 <= windowStart <= size, and window maps
+        //     [windowStart, windowStart + window.limit()) within the file.
+        //
+        // Safety from rep exposure:
+        //   - All fields are private and the window is never returned.
+
+        // Constructor
+        MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW, size));
+        }
+
+        // Make sure that n more bytes can be read from the window, remapping
+        // it to start at the current position if needed
+        private ByteBuffer ensure(int n) throws IOException {
+            if (window.remaining() < n) {
+                long position = windowStart + window.position();
+                if (size - position < n) {
+                    throw new IOException("unexpected end of file at byte " + position);
+                }
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+            }
+            return window;
+        }
+
+        int readInt() throws IOException {
+            return ensure(Integer.BYTES).getInt();
+        }
+
+        long readLong() throws IOException {
+            return ensure(Long.BYTES).getLong();
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            if (length < 0 || length > WINDOW) {
+                throw new IOException("corrupt label length " + length);
+            }
+            ByteBuffer bytes = ensure(length);
+            int end = bytes.position() + length;
+            ByteBuffer label = bytes.duplicate();
+            label.limit(end);
+            bytes.position(end);
+            return StandardCharsets.UTF_8.decode(label).toString();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package graph;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of one {@link InstrumentedGraph}: a counter, latency histogram
+ * and allocation estimate per operation, and structural gauges. Every
+ * recording method is lock-free.
+ *
+ * <p>Allocation is measured with the per-thread allocation counter of the
+ * HotSpot ThreadMXBean, when the JVM supports it. Reading that counter costs
+ * more than a typical call, so only one call in {@value #ALLOCATION_SAMPLE}
+ * is measured and the total is extrapolated from the sample; it also
+ * includes anything else the calling thread allocates during the call, so
+ * it is an estimate.
+ *
+ * <p>{@link #register(String)} publishes the metrics through the platform
+ * MBean server, as a {@link GraphMetricsMXBean} named
+ * {@code graph:type=Graph,name=<name>} and one {@link OperationMetricsMXBean}
+ * per operation named {@code graph:type=Graph,name=<name>,operation=<op>}.
+ */
+public final class GraphMetrics implements GraphMetricsMXBean {
+
+    /** The operations whose calls are recorded. */
+    public enum Operation {
+        ADD, SET, REMOVE, ADD_ALL, SET_ALL, REMOVE_ALL,
+        VERTICES, SOURCES, TARGETS, WEIGHT, FOR_EACH_SOURCE, FOR_EACH_TARGET, FREEZE
+    }
+
+    /** One call in this many has its allocation measured. */
+    public static final int ALLOCATION_SAMPLE = 64;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
+
+    private final OperationMetrics[] operations = new OperationMetrics[OPERATIONS.length];
+    private final IntSupplier vertexCount;
+    private final LongAdder edgeCount = new LongAdder();
+    private final LongAccumulator maxOutDegree = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxInDegree = new LongAccumulator(Math::max, 0);
+    private volatile boolean enabled = true;
+    private int calls = 0;
+    private String registeredName;
+
+    // Abstraction function:
+    //   Represents the metrics of a graph with vertexCount.getAsInt()
+    //   vertices and edgeCount edges: operations[op.ordinal()] holds the
+    //   calls of op, and maxOutDegree and maxInDegree the largest degrees
+    //   seen. Calls are recorded only while 'enabled'. registeredName is the
+    //   name the MBeans are registered under, or null. 'calls' only picks
+    //   the calls whose allocation is sampled; lost updates to it are
+    //   harmless.
+    //
+    // Representation invariant:
+    //   - operations[i].getOperation() == OPERATIONS[i].
+    //   - edgeCount is nonnegative whenever no mutation is in progress.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private. operation() returns OperationMetrics
+    //     objects, which are meant to be shared and hold only their own
+    //     counts.
+
+    // Constructor
+    GraphMetrics(IntSupplier vertexCount) {
+        this.vertexCount = vertexCount;
+        for (Operation operation : OPERATIONS) {
+            operations[operation.ordinal()] = new OperationMetrics(operation);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start recording one call.
+     *
+     * @return the bytes allocated so far by the calling thread, if this call
+     *         is sampled for allocation; otherwise -1
+     */
+    long startAllocation() {
+        if (ALLOCATION == null || ++calls % ALLOCATION_SAMPLE != 0) {
+            return -1;
+        }
+        return ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Finish recording one call.
+     *
+     * @param operation the operation called
+     * @param startNanos System.nanoTime() when the call started
+     * @param startBytes startAllocation() when the call started
+     */
+    void record(Operation operation, long startNanos, long startBytes) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = startBytes < 0 ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes() - startBytes;
+        operations[operation.ordinal()].record(nanos, bytes);
+    }
+
+    // Gauge updates, called by the instrumented graph after each mutation
+
+    void edgesChanged(long delta) {
+        edgeCount.add(delta);
+    }
+
+    void outDegreeReached(int degree) {
+        maxOutDegree.accumulate(degree);
+    }
+
+    void inDegreeReached(int degree) {
+        maxInDegree.accumulate(degree);
+    }
+
+    /**
+     * @param operation an operation
+     * @return the metrics of its calls
+     */
+    public OperationMetrics operation(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    @Override
+    public long getVertexCount() {
+        return vertexCount.getAsInt();
+    }
+
+    @Override
+    public long getEdgeCount() {
+        return edgeCount.sum();
+    }
+
+    @Override
+    public double getAverageOutDegree() {
+        long vertices = getVertexCount();
+        return vertices == 0 ? 0 : (double) getEdgeCount() / vertices;
+    }
+
+    @Override
+    public double getAverageInDegree() {
+        return getAverageOutDegree();
+    }
+
+    @Override
+    public long getMaxOutDegree() {
+        return maxOutDegree.get();
+    }
+
+    @Override
+    public long getMaxInDegree() {
+        return maxInDegree.get();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics operation : operations) {
+            operation.reset();
+        }
+    }
+
+    private static ObjectName objectName(String name, Operation operation) throws JMException {
+        String base = "graph:type=Graph,name=" + ObjectName.quote(name);
+        return new ObjectName(operation == null ? base : base + ",operation=" + operation);
+    }
+
+    /**
+     * Publish these metrics through the platform MBean server, replacing any
+     * metrics registered before under the same name.
+     *
+     * @param name a name that identifies the graph
+     * @throws IllegalStateException if these metrics are already registered,
+     *         or the MBean server refuses them
+     */
+    public synchronized void register(String name) {
+        if (registeredName != null) {
+            throw new IllegalStateException("already registered as " + registeredName);
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            register(server, objectName(name, null), this);
+            for (OperationMetrics operation : operations) {
+                register(server, objectName(name, operation.getOperation()), operation);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register graph metrics as " + name, e);
+        }
+        registeredName = name;
+    }
+
+    private static void register(MBeanServer server, ObjectName objectName, Object bean) throws JMException {
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(bean, objectName);
+    }
+
+    /**
+     * Withdraw these metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        unregister(server, registeredName, null);
+        for (Operation operation : OPERATIONS) {
+            unregister(server, registeredName, operation);
+        }
+        registeredName = null;
+    }
+
+    private static void unregister(MBeanServer server, String name, Operation operation) {
+        try {
+            server.unregisterMBean(objectName(name, operation));
+        } catch (JMException e) {
+            // Already replaced by metrics registered under the same name
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("vertices=").append(getVertexCount())
+                .append(" edges=").append(getEdgeCount())
+                .append(" maxOutDegree=").append(getMaxOutDegree())
+                .append(" maxInDegree=").append(getMaxInDegree()).append('\n');
+        for (OperationMetrics operation : operations) {
+            if (operation.getCount() > 0) {
+                result.append(operation).append('\n');
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package graph;
+
+/**
+ * The JMX view of an instrumented graph: structural gauges, and a switch for
+ * recording. Per-operation latencies are published as separate
+ * {@link OperationMetricsMXBean}s.
+ */
+public interface GraphMetricsMXBean {
+
+    /**
+     * @return the number of vertices in the graph
+     */
+    long getVertexCount();
+
+    /**
+     * @return the number of edges in the graph
+     */
+    long getEdgeCount();
+
+    /**
+     * @return the mean out-degree, which equals the mean in-degree, or 0 if
+     *         the graph has no vertices
+     */
+    double getAverageOutDegree();
+
+    /**
+     * @return the mean in-degree, which equals the mean out-degree, or 0 if
+     *         the graph has no vertices
+     */
+    double getAverageInDegree();
+
+    /**
+     * @return the largest out-degree any vertex has reached since the graph
+     *         was instrumented
+     */
+    long getMaxOutDegree();
+
+    /**
+     * @return the largest in-degree any vertex has reached since the graph
+     *         was instrumented
+     */
+    long getMaxInDegree();
+
+    /**
+     * @return true if calls are being timed and counted
+     */
+    boolean isEnabled();
+
+    /**
+     * Start or stop timing and counting calls. Gauges stay up to date either
+     * way.
+     *
+     * @param enabled true to record calls
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Forget every call recorded so far, for every operation.
+     */
+    void reset();
+}
@@ -0,0 +1,237 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One shard of a {@link ShardedGraph}: the vertices whose labels hash to it,
+ * their outgoing edges, and a reverse index of those same edges by target.
+ * The reverse index lets the shard answer, without asking any other shard,
+ * which of its own vertices have edges to a given vertex, wherever that
+ * vertex lives; a ShardedGraph fans sources() and remove() out to every
+ * shard through it.
+ *
+ * <p>A shard is driven only through {@link ShardRequest}s delivered by a
+ * {@link ShardTransport}, and each of its operations is atomic: every method
+ * is synchronized on the shard, so each shard is its own lock domain.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class GraphShard<L> {
+
+    private final Map<L, Map<L, Integer>> edges = new HashMap<>();
+    private final Map<L, Map<L, Integer>> reverseEdges = new HashMap<>();
+
+    // Abstraction function:
+    //   Represents the vertices that are the keys of 'edges', each with an
+    //   edge to t of weight w for every edges.get(s).get(t) == w.
+    //   reverseEdges.get(t).get(s) == w for each of those same edges.
+    //
+    // Representation invariant:
+    //   - edges.get(s).get(t) == w if and only if
+    //     reverseEdges.get(t).get(s) == w, and every such w is positive.
+    //   - no map in reverseEdges is empty.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final, and every method returns fresh
+    //     collections.
+
+    // Constructor
+    public GraphShard() {
+    }
+
+    // Check the part of the representation invariant about one edge
+    private void checkRep(L source, L target) {
+        Map<L, Integer> targets = edges.get(source);
+        Map<L, Integer> sources = reverseEdges.get(target);
+        Integer weight = targets == null ? null : targets.get(target);
+        assert weight == null || weight > 0 : "Non-positive weight";
+        assert weight == null ? sources == null || !sources.containsKey(source)
+                : weight.equals(sources.get(source)) : "Reverse index disagrees";
+        assert sources == null || !sources.isEmpty() : "Empty reverse index entry";
+    }
+
+    /**
+     * @param vertex a label owned by this shard
+     * @return true if the vertex was added, false if it was already here
+     */
+    synchronized boolean addVertex(L vertex) {
+        return edges.putIfAbsent(vertex, new HashMap<>()) == null;
+    }
+
+    /**
+     * @param vertices labels owned by this shard
+     * @return, for each label in order, true if it was added, false if it
+     *         was already here (or earlier in the list)
+     */
+    synchronized boolean[] addVertices(List<L> vertices) {
+        boolean[] added = new boolean[vertices.size()];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = addVertex(vertices.get(i));
+        }
+        return added;
+    }
+
+    /**
+     * @param vertex a label
+     * @return true if the vertex is here
+     */
+    synchronized boolean containsVertex(L vertex) {
+        return edges.containsKey(vertex);
+    }
+
+    /**
+     * @return the number of vertices here
+     */
+    synchronized int vertexCount() {
+        return edges.size();
+    }
+
+    /**
+     * @return a new set of the vertices here
+     */
+    synchronized Set<L> vertices() {
+        return new HashSet<>(edges.keySet());
+    }
+
+    /**
+     * Add, change or remove an edge out of a vertex owned by this shard,
+     * adding the source vertex if the weight is positive. The target is not
+     * added; it belongs to its own shard.
+     *
+     * @param source label of the source, owned by this shard
+     * @param target label of the target
+     * @param weight nonnegative weight; zero removes the edge
+     * @return the previous weight of the edge, or zero if there was none; or
+     *         -1 if the source vertex was added (so there was no edge)
+     */
+    synchronized int setEdge(L source, L target, int weight) {
+        Map<L, Integer> targets = edges.get(source);
+        if (targets == null) {
+            if (weight == 0) {
+                return 0;
+            }
+            targets = new HashMap<>();
+            edges.put(source, targets);
+            targets.put(target, weight);
+            reverseEdges.computeIfAbsent(target, key -> new HashMap<>()).put(source, weight);
+            checkRep(source, target);
+            return -1;
+        }
+        Integer previous = weight > 0 ? targets.put(target, weight) : targets.remove(target);
+        if (weight > 0) {
+            reverseEdges.computeIfAbsent(target, key -> new HashMap<>()).put(source, weight);
+        } else if (previous != null) {
+            removeReverse(target, source);
+        }
+        checkRep(source, target);
+        return previous == null ? 0 : previous;
+    }
+
+    /**
+     * Apply setEdge() to a batch of edges, in order.
+     *
+     * @param batch edges whose sources are owned by this shard
+     * @return the result of setEdge() for each edge, in order
+     */
+    synchronized int[] setEdges(List<EdgeTriple<L>> batch) {
+        int[] results = new int[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            EdgeTriple<L> edge = batch.get(i);
+            results[i] = setEdge(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+        return results;
+    }
+
+    private void removeReverse(L target, L source) {
+        Map<L, Integer> sources = reverseEdges.get(target);
+        sources.remove(source);
+        if (sources.isEmpty()) {
+            reverseEdges.remove(target);
+        }
+    }
+
+    /**
+     * Remove a vertex owned by this shard with its outgoing edges. Edges into
+     * it from other vertices are left for removeEdgesTo().
+     *
+     * @param vertex a label owned by this shard
+     * @return true if the vertex was here
+     */
+    synchronized boolean removeVertex(L vertex) {
+        Map<L, Integer> targets = edges.remove(vertex);
+        if (targets == null) {
+            return false;
+        }
+        for (L target : targets.keySet()) {
+            removeReverse(target, vertex);
+        }
+        return true;
+    }
+
+    /**
+     * Remove every edge from a vertex of this shard to the given vertex.
+     *
+     * @param target a label, owned by any shard
+     * @return the number of edges removed
+     */
+    synchronized int removeEdgesTo(L target) {
+        Map<L, Integer> sources = reverseEdges.remove(target);
+        if (sources == null) {
+            return 0;
+        }
+        for (L source : sources.keySet()) {
+            edges.get(source).remove(target);
+        }
+        return sources.size();
+    }
+
+    /**
+     * @param source a label owned by this shard
+     * @param target a label
+     * @return the weight of the edge from source to target, or zero
+     */
+    synchronized int weight(L source, L target) {
+        Map<L, Integer> targets = edges.get(source);
+        Integer weight = targets == null ? null : targets.get(target);
+        return weight == null ? 0 : weight;
+    }
+
+    /**
+     * @param source a label owned by this shard
+     * @return a new map of the targets of source and their weights
+     */
+    synchronized Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = edges.get(source);
+        return targets == null ? new HashMap<>() : new HashMap<>(targets);
+    }
+
+    /**
+     * @param target a label, owned by any shard
+     * @return a new map of the vertices of this shard with edges to target,
+     *         and their weights
+     */
+    synchronized Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = reverseEdges.get(target);
+        return sources == null ? new HashMap<>() : new HashMap<>(sources);
+    }
+
+    /**
+     * @return a new list of every edge out of a vertex of this shard
+     */
+    synchronized List<EdgeTriple<L>> edges() {
+        List<EdgeTriple<L>> result = new ArrayList<>();
+        edges.forEach((source, targets) -> targets.forEach((target, weight) ->
+                result.add(new EdgeTriple<>(source, target, weight))));
+        return result;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "GraphShard" + edges;
+    }
+}
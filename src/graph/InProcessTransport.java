@@ -0,0 +1,44 @@
+package graph;
+
+/**
+ * A ShardTransport whose shards live in this JVM and run each request
+ * directly on the calling thread, with no copying.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class InProcessTransport<L> implements ShardTransport<L> {
+
+    private final GraphShard<L>[] shards;
+
+    // Abstraction function:
+    //   Represents a transport to the shards shards[0..n-1].
+    //
+    // Representation invariant:
+    //   - shards is not empty and has no null element.
+    //
+    // Safety from rep exposure:
+    //   - The array is private and final and never returned; requests see
+    //     one shard at a time.
+
+    // Constructor, with the given number of new empty shards
+    @SuppressWarnings("unchecked")
+    public InProcessTransport(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = (GraphShard<L>[]) new GraphShard<?>[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new GraphShard<>();
+        }
+    }
+
+    @Override
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public <R> R send(int shard, ShardRequest<L, R> request) {
+        return request.apply(shards[shard]);
+    }
+}
@@ -0,0 +1,360 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A Graph that forwards every call to another Graph and records it in a
+ * {@link GraphMetrics}: a count, latency and allocation estimate per
+ * operation, and gauges of the graph's structure.
+ *
+ * <p>Instrumentation is opt-in. {@link #instrument(Graph, String)} wraps a
+ * graph only when the system property {@value #PROPERTY} is {@code true},
+ * and otherwise returns the graph itself, so an uninstrumented graph pays
+ * nothing at all. A wrapped graph whose metrics are switched off with
+ * {@link GraphMetrics#setEnabled(boolean)} still forwards through this class
+ * and keeps its gauges, but no longer reads the clock or the allocation
+ * counter.
+ *
+ * <p>The live views, edge cursors and streams are forwarded without being
+ * recorded.
+ * Keeping the maximum degree gauges costs one view size() per edge added,
+ * which is O(1) for every implementation.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class InstrumentedGraph<L> extends Graph<L> {
+
+    /** System property that turns on {@link #instrument(Graph, String)}. */
+    public static final String PROPERTY = "graph.metrics";
+
+    private final Graph<L> delegate;
+    private final GraphMetrics metrics;
+
+    // Abstraction function:
+    //   Represents the same graph as 'delegate'; 'metrics' describes the
+    //   calls made through this object and the delegate's shape.
+    //
+    // Representation invariant:
+    //   - metrics.getEdgeCount() is the number of edges of delegate, as long
+    //     as the delegate is changed only through this object.
+    //
+    // Safety from rep exposure:
+    //   - 'delegate' is private and final and is never returned; its views
+    //     are returned, and they are read-only.
+    //   - getMetrics() returns the metrics, which are meant to be shared and
+    //     cannot change the graph.
+    //   - The superclass's own rep is left empty and is never used.
+
+    // Constructor, taking over a graph that must from now on be changed only
+    // through this object
+    public InstrumentedGraph(Graph<L> delegate) {
+        super(Collections.emptySet());
+        this.delegate = Objects.requireNonNull(delegate);
+        Set<L> vertices = delegate.verticesView();
+        this.metrics = new GraphMetrics(vertices::size);
+        for (L vertex : delegate.vertices()) {
+            int outDegree = delegate.targetsView(vertex).size();
+            metrics.edgesChanged(outDegree);
+            metrics.outDegreeReached(outDegree);
+            metrics.inDegreeReached(delegate.sourcesView(vertex).size());
+        }
+    }
+
+    /**
+     * Instrument a graph if the system property {@value #PROPERTY} is
+     * {@code true}, publishing its metrics through JMX under the given name.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph a graph, which must from now on be changed only through
+     *        the returned graph
+     * @param name a name that identifies the graph in JMX
+     * @return an instrumented graph wrapping the given graph, or the given
+     *         graph itself if instrumentation is off
+     */
+    public static <L> Graph<L> instrument(Graph<L> graph, String name) {
+        if (!Boolean.getBoolean(PROPERTY)) {
+            return graph;
+        }
+        InstrumentedGraph<L> instrumented = new InstrumentedGraph<>(graph);
+        instrumented.metrics.register(name);
+        return instrumented;
+    }
+
+    /**
+     * @return the metrics of this graph
+     */
+    public GraphMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Update the maximum degree gauges after an edge from source to target
+    // was added
+    private void edgeAdded(L source, L target) {
+        metrics.edgesChanged(1);
+        metrics.outDegreeReached(delegate.targetsView(source).size());
+        metrics.inDegreeReached(delegate.sourcesView(target).size());
+    }
+
+    // Number of edges to or from a vertex, each counted once
+    private int incidentEdges(L vertex) {
+        int loop = delegate.weight(vertex, vertex) > 0 ? 1 : 0;
+        return delegate.targetsView(vertex).size() + delegate.sourcesView(vertex).size() - loop;
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        boolean added = delegate.add(vertex);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.ADD, start, startBytes);
+        }
+        return added;
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        int previousWeight = delegate.set(source, target, weight);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.SET, start, startBytes);
+        }
+        if (previousWeight == 0 && weight > 0) {
+            edgeAdded(source, target);
+        } else if (previousWeight > 0 && weight == 0) {
+            metrics.edgesChanged(-1);
+        }
+        return previousWeight;
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        int edges = delegate.verticesView().contains(vertex) ? incidentEdges(vertex) : 0;
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        boolean removed = delegate.remove(vertex);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.REMOVE, start, startBytes);
+        }
+        metrics.edgesChanged(-edges);
+        return removed;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends L> newVertices) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        boolean changed = delegate.addAll(newVertices);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.ADD_ALL, start, startBytes);
+        }
+        return changed;
+    }
+
+    @Override
+    public void setAll(Iterable<EdgeTriple<L>> edges) {
+        List<EdgeTriple<L>> batch = new ArrayList<>();
+        edges.forEach(batch::add);
+        // Weight of each edge the batch touches, before the batch
+        Map<Map.Entry<L, L>, Integer> before = new HashMap<>();
+        for (EdgeTriple<L> edge : batch) {
+            before.computeIfAbsent(new AbstractMap.SimpleImmutableEntry<>(edge.getSource(), edge.getTarget()),
+                    key -> delegate.weight(key.getKey(), key.getValue()));
+        }
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        delegate.setAll(batch);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.SET_ALL, start, startBytes);
+        }
+        for (Map.Entry<Map.Entry<L, L>, Integer> edge : before.entrySet()) {
+            L source = edge.getKey().getKey();
+            L target = edge.getKey().getValue();
+            boolean existed = edge.getValue() > 0;
+            boolean exists = delegate.weight(source, target) > 0;
+            if (!existed && exists) {
+                edgeAdded(source, target);
+            } else if (existed && !exists) {
+                metrics.edgesChanged(-1);
+            }
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<? extends L> oldVertices) {
+        Set<L> removed = new HashSet<>();
+        for (L vertex : oldVertices) {
+            if (delegate.verticesView().contains(vertex)) {
+                removed.add(vertex);
+            }
+        }
+        long edges = 0;
+        for (L vertex : removed) {
+            edges += incidentEdges(vertex);
+            // An edge between two removed vertices is incident to both
+            for (L target : delegate.targetsView(vertex).keySet()) {
+                if (!target.equals(vertex) && removed.contains(target)) {
+                    edges--;
+                }
+            }
+        }
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        boolean changed = delegate.removeAll(oldVertices);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.REMOVE_ALL, start, startBytes);
+        }
+        metrics.edgesChanged(-edges);
+        return changed;
+    }
+
+    @Override
+    public Set<L> vertices() {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        Set<L> vertices = delegate.vertices();
+        if (on) {
+            metrics.record(GraphMetrics.Operation.VERTICES, start, startBytes);
+        }
+        return vertices;
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        Map<L, Integer> sources = delegate.sources(target);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.SOURCES, start, startBytes);
+        }
+        return sources;
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        Map<L, Integer> targets = delegate.targets(source);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.TARGETS, start, startBytes);
+        }
+        return targets;
+    }
+
+    @Override
+    public Set<L> verticesView() {
+        return delegate.verticesView();
+    }
+
+    @Override
+    public Map<L, Integer> sourcesView(L target) {
+        return delegate.sourcesView(target);
+    }
+
+    @Override
+    public Map<L, Integer> targetsView(L source) {
+        return delegate.targetsView(source);
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        int weight = delegate.weight(source, target);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.WEIGHT, start, startBytes);
+        }
+        return weight;
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        delegate.forEachTarget(source, action);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.FOR_EACH_TARGET, start, startBytes);
+        }
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        delegate.forEachSource(target, action);
+        if (on) {
+            metrics.record(GraphMetrics.Operation.FOR_EACH_SOURCE, start, startBytes);
+        }
+    }
+
+    @Override
+    public EdgeCursor<L> edges() {
+        return delegate.edges();
+    }
+
+    @Override
+    public Stream<EdgeTriple<L>> edgeStream() {
+        return delegate.edgeStream();
+    }
+
+    @Override
+    public void setChangeLog(ChangeLog<L> log) {
+        delegate.setChangeLog(log);
+    }
+
+    @Override
+    public ChangeLog<L> getChangeLog() {
+        return delegate.getChangeLog();
+    }
+
+    @Override
+    public int idOf(L vertex) {
+        return delegate.idOf(vertex);
+    }
+
+    @Override
+    public L labelOf(int id) {
+        return delegate.labelOf(id);
+    }
+
+    @Override
+    public CsrGraph<L> freeze() {
+        boolean on = metrics.isEnabled();
+        long startBytes = on ? metrics.startAllocation() : -1;
+        long start = on ? System.nanoTime() : 0;
+        CsrGraph<L> snapshot = delegate.freeze();
+        if (on) {
+            metrics.record(GraphMetrics.Operation.FREEZE, start, startBytes);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
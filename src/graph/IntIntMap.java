@@ -0,0 +1,295 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable map from non-negative int keys to int values, using open
+ * addressing with linear probing so that neither keys nor values are boxed.
+ *
+ * <p>Absent keys read as zero, which matches the Graph convention that a
+ * missing edge has weight zero.
+ */
+class IntIntMap {
+
+    /** Receives the entries of an IntIntMap. */
+    interface IntIntConsumer {
+        /**
+         * @param key a key of the map
+         * @param value the value for key
+         */
+        void accept(int key, int value);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int modCount;
+
+    // Abstraction function:
+    //   Represents the map {keys[i] -> values[i] | keys[i] != FREE}.
+    //
+    // Representation invariant:
+    //   - keys.length == values.length and is a power of two.
+    //   - size is the number of keys that are not FREE, and
+    //     size < keys.length * 3/4.
+    //   - keys are distinct and non-negative, and every key is reachable from
+    //     its home slot without crossing a FREE slot (linear probing, no
+    //     tombstones).
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; the arrays are never returned.
+    //   - The slot cursor (nextSlot, keyAt, valueAt) only reads entries.
+
+    // Constructor
+    IntIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    // Constructor, sized to hold expectedSize keys without resizing
+    IntIntMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 <= expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert Integer.bitCount(keys.length) == 1 : "Capacity must be a power of two";
+        assert size < keys.length * 3 / 4 : "Table is overloaded";
+    }
+
+    private static int home(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Slot holding key, or -1 - (the free slot where key would go)
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int i = home(key, mask); ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == FREE) {
+                return -1 - i;
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys in this map
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this map has no keys
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key a key
+     * @return true if this map includes key
+     */
+    boolean containsKey(int key) {
+        return key >= 0 && find(key) >= 0;
+    }
+
+    /**
+     * @param key a key
+     * @return the value for key, or zero if this map does not include key
+     */
+    int get(int key) {
+        if (key < 0) {
+            return 0;
+        }
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /**
+     * Associate a value with a key, replacing any previous value.
+     *
+     * @param key a non-negative key
+     * @param value the new value for key
+     * @return the previous value for key, or zero if this map did not include
+     *         key
+     */
+    int put(int key, int value) {
+        assert key >= 0 : "Keys must be non-negative";
+        int slot = find(key);
+        if (slot >= 0) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        slot = -1 - slot;
+        keys[slot] = key;
+        values[slot] = value;
+        modCount++;
+        if (++size >= keys.length * 3 / 4) {
+            resize(keys.length << 1);
+        }
+        checkRep();
+        return 0;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key a key
+     * @return the value that key had, or zero if this map did not include key
+     */
+    int remove(int key) {
+        if (key < 0) {
+            return 0;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return 0;
+        }
+        int previous = values[slot];
+        deleteSlot(slot);
+        return previous;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the
+    // gap so that no tombstones are needed
+    private void deleteSlot(int gap) {
+        int mask = keys.length - 1;
+        for (int i = (gap + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            int home = home(keys[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Remove every key.
+     */
+    void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, 0);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Grow the table, if needed, so that expectedSize keys fit without
+     * further resizing.
+     *
+     * @param expectedSize number of keys this map is expected to hold
+     */
+    void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        if (capacity > keys.length) {
+            resize(capacity);
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            int key = oldKeys[j];
+            if (key != FREE) {
+                int i = home(key, mask);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Visit every entry of this map. The action must not modify this map.
+     *
+     * @param action called with each key and its value
+     */
+    void forEach(IntIntConsumer action) {
+        int[] keys = this.keys;
+        int[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Find the next occupied slot, for iterating without copying. Slots are
+     * only stable while this map is not structurally modified.
+     *
+     * @param slot a slot index, or -1 to start from the beginning
+     * @return the smallest occupied slot index greater than slot, or -1 if
+     *         there is none
+     */
+    int nextSlot(int slot) {
+        for (int i = slot + 1; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot an occupied slot index returned by nextSlot()
+     * @return the key in that slot
+     */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @param slot an occupied slot index returned by nextSlot()
+     * @return the value in that slot
+     */
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @return a counter that changes whenever a key is added or removed, so
+     *         that iterators can detect concurrent modification
+     */
+    int modCount() {
+        return modCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        forEach((key, value) -> result.append(result.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return result.append('}').toString();
+    }
+}
@@ -0,0 +1,101 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, also usable as a stack.
+ */
+class IntList {
+
+    private int[] elements;
+    private int size;
+
+    // Abstraction function:
+    //   Represents the list elements[0..size-1].
+    //
+    // Representation invariant:
+    //   - 0 <= size <= elements.length.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and 'elements' is never returned.
+
+    // Constructor
+    IntList() {
+        this(16);
+    }
+
+    // Constructor, with room for capacity elements before growing
+    IntList(int capacity) {
+        this.elements = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * @return the number of elements
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this list has no elements
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index an index in [0, size())
+     * @return the element at that index
+     */
+    int get(int index) {
+        assert index < size : "Index out of bounds";
+        return elements[index];
+    }
+
+    /**
+     * Append an element; as a stack, push it.
+     *
+     * @param value the element to append
+     */
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * @return the last element; requires this list to be nonempty
+     */
+    int peek() {
+        assert size > 0 : "Empty list";
+        return elements[size - 1];
+    }
+
+    /**
+     * Remove the last element; as a stack, pop it.
+     *
+     * @return the removed element; requires this list to be nonempty
+     */
+    int pop() {
+        assert size > 0 : "Empty list";
+        return elements[--size];
+    }
+
+    /**
+     * Remove every element, keeping the allocated capacity.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copy every element into an array.
+     *
+     * @param destination the array to copy into
+     * @param offset the index in destination of the first element
+     */
+    void copyTo(int[] destination, int offset) {
+        System.arraycopy(elements, 0, destination, offset, size);
+    }
+}
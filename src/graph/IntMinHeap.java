@@ -0,0 +1,156 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * An indexed binary min-heap of int ids in [0, capacity) keyed by long
+ * priorities, with decrease-key, using only primitive arrays.
+ */
+class IntMinHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    // Abstraction function:
+    //   Represents the set of ids heap[0..size-1], where id has priority
+    //   keys[id].
+    //
+    // Representation invariant:
+    //   - 0 <= size <= heap.length == positions.length == keys.length.
+    //   - positions[heap[i]] == i for every i < size, and positions[id] == -1
+    //     for every id not in heap[0..size-1].
+    //   - keys[heap[(i-1)/2]] <= keys[heap[i]] for every 0 < i < size.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and the arrays are never returned.
+
+    // Constructor
+    IntMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert size <= heap.length : "Heap overflow";
+        assert size == 0 || positions[heap[0]] == 0 : "Root position out of sync";
+    }
+
+    /**
+     * @return true if the heap holds no ids
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param id an id in [0, capacity)
+     * @return true if id is in the heap
+     */
+    boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * @return the smallest priority in the heap; requires the heap to be
+     *         nonempty
+     */
+    long minKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Insert an id, or lower its priority if it is already in the heap and
+     * the new priority is smaller.
+     *
+     * @param id an id in [0, capacity)
+     * @param key its priority
+     */
+    void push(int id, long key) {
+        int i = positions[id];
+        if (i < 0) {
+            i = size++;
+            heap[i] = id;
+            positions[id] = i;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        siftUp(i);
+        checkRep();
+    }
+
+    /**
+     * Remove the id with the smallest priority; requires the heap to be
+     * nonempty.
+     *
+     * @return the removed id
+     */
+    int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        checkRep();
+        return min;
+    }
+
+    /**
+     * Remove every id, in time proportional to the number of ids held.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        long key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[i] = parentId;
+            positions[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        long key = keys[id];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childId = heap[child];
+            if (key <= keys[childId]) {
+                break;
+            }
+            heap[i] = childId;
+            positions[childId] = i;
+            i = child;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+}
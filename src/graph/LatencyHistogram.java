@@ -0,0 +1,158 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, in the style of
+ * HdrHistogram: buckets are exact below 64 and log-linear above, 32 buckets
+ * per power of two, so every recorded value is reported within about 3% of
+ * its true value. Values from 0 to about 18 minutes are kept; larger values
+ * are counted in the last bucket.
+ *
+ * <p>Recording is a few atomic increments and never blocks, so any number of
+ * threads may record at once. Reads see each bucket's latest count but not an
+ * atomic snapshot of all of them, so they may be off by the values recorded
+ * while they run.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 35;
+    private static final long MAX_TRACKABLE = (2L * SUB_BUCKETS << MAX_SHIFT) - 1;
+    private static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Abstraction function:
+    //   Represents the multiset of recorded values, where counts[i] values
+    //   fall in [lowerBound(i), upperBound(i)]; count, sum and max are their
+    //   number, total and largest value.
+    //
+    // Representation invariant:
+    //   - count is the sum of counts, once every record() has returned.
+    //   - every count is nonnegative.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final and only numbers are returned.
+
+    // Constructor
+    public LatencyHistogram() {
+    }
+
+    // Bucket index of a nonnegative value
+    static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        long clamped = Math.min(value, MAX_TRACKABLE);
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(clamped)) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((clamped >>> shift) - SUB_BUCKETS);
+    }
+
+    // Smallest value that falls in a bucket
+    static long lowerBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    // Largest value that falls in a bucket
+    static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return ((long) (bucket % SUB_BUCKETS + SUB_BUCKETS + 1) << shift) - 1;
+    }
+
+    /**
+     * Record one value.
+     *
+     * @param nanos a latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if there are none
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if there are none
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get a percentile of the values recorded.
+     *
+     * @param percentile a percentage in [0, 100]
+     * @return the largest value of the bucket holding that percentile, or 0
+     *         if no values have been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]: " + percentile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Forget every value recorded. Values recorded concurrently with a reset
+     * may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fns p50=%dns p99=%dns max=%dns",
+                getCount(), getMean(), getValueAtPercentile(50), getValueAtPercentile(99), getMax());
+    }
+}
@@ -0,0 +1,83 @@
+package graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ShardTransport that stands in for remote shards: its shards live in this
+ * JVM, but every request and every reply is serialized to bytes and read
+ * back before use, as it would be on a network. It checks that requests
+ * capture nothing but serializable arguments and share no objects with the
+ * shard, and it counts the messages and bytes that a remote transport would
+ * send. Labels must be serializable.
+ *
+ * @param <L> type of vertex labels, must be immutable and serializable
+ */
+public final class LoopbackTransport<L> implements ShardTransport<L> {
+
+    private final InProcessTransport<L> shards;
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    // Abstraction function:
+    //   Represents a transport to the shards of 'shards' that has carried
+    //   'messages' requests and replies totalling 'bytes' bytes.
+    //
+    // Representation invariant:
+    //   - messages and bytes are nonnegative.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final; requests and replies are copies.
+
+    // Constructor, with the given number of new empty shards
+    public LoopbackTransport(int shardCount) {
+        this.shards = new InProcessTransport<>(shardCount);
+    }
+
+    @Override
+    public int shardCount() {
+        return shards.shardCount();
+    }
+
+    @Override
+    public <R> R send(int shard, ShardRequest<L, R> request) {
+        ShardRequest<L, R> received = copy(request);
+        return copy(shards.send(shard, received));
+    }
+
+    /**
+     * @return the number of requests and replies carried
+     */
+    public long getMessageCount() {
+        return messages.get();
+    }
+
+    /**
+     * @return the total serialized size of the requests and replies carried
+     */
+    public long getByteCount() {
+        return bytes.get();
+    }
+
+    // A deep copy of a message, made by serializing it
+    @SuppressWarnings("unchecked")
+    private <T> T copy(T message) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+                out.writeObject(message);
+            }
+            messages.incrementAndGet();
+            bytes.addAndGet(buffer.size());
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+                return (T) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("cannot carry " + message, e);
+        }
+    }
+}
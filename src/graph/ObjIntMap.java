@@ -0,0 +1,299 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A mutable map from object keys to primitive int values, using open
+ * addressing with linear probing so that values are never boxed.
+ *
+ * <p>Absent keys read as zero unless another default is given, which matches
+ * the Graph convention that a missing edge has weight zero.
+ *
+ * @param <K> type of keys in this map, must be immutable
+ */
+class ObjIntMap<K> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private int modCount;
+
+    // Abstraction function:
+    //   Represents the map {keys[i] -> values[i] | keys[i] != null}.
+    //
+    // Representation invariant:
+    //   - keys.length == values.length and is a power of two.
+    //   - size is the number of non-null keys, and size < keys.length * 3/4.
+    //   - keys are distinct, and every key is reachable from its home slot
+    //     without crossing a null slot (linear probing, no tombstones).
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; the arrays are never returned.
+    //   - Keys are immutable and values are primitives.
+    //   - The slot cursor (nextSlot, keyAt, valueAt) only reads entries.
+
+    // Constructor
+    public ObjIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    // Constructor, sized to hold expectedSize keys without resizing
+    public ObjIntMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        this.keys = new Object[capacity];
+        this.values = new int[capacity];
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 <= expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert Integer.bitCount(keys.length) == 1 : "Capacity must be a power of two";
+        assert size < keys.length * 3 / 4 : "Table is overloaded";
+    }
+
+    private int home(Object key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Slot holding key, or -1 - (the empty slot where key would go)
+    private int find(Object key) {
+        int mask = keys.length - 1;
+        for (int i = home(key, mask); ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == null) {
+                return -1 - i;
+            }
+            if (k == key || k.equals(key)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this map has no keys
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key a key
+     * @return true if this map includes key
+     */
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @param key a key
+     * @return the value for key, or zero if this map does not include key
+     */
+    public int get(Object key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * @param key a key
+     * @param defaultValue value to return for an absent key
+     * @return the value for key, or defaultValue if this map does not include
+     *         key
+     */
+    public int getOrDefault(Object key, int defaultValue) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Associate a value with a key, replacing any previous value.
+     *
+     * @param key a key, not null
+     * @param value the new value for key
+     * @return the previous value for key, or zero if this map did not include
+     *         key
+     */
+    public int put(K key, int value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        slot = -1 - slot;
+        keys[slot] = key;
+        values[slot] = value;
+        modCount++;
+        if (++size >= keys.length * 3 / 4) {
+            resize(keys.length << 1);
+        }
+        checkRep();
+        return 0;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key a key
+     * @return the value that key had, or zero if this map did not include key
+     */
+    public int remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return 0;
+        }
+        int previous = values[slot];
+        deleteSlot(slot);
+        return previous;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the
+    // gap so that no tombstones are needed
+    private void deleteSlot(int gap) {
+        int mask = keys.length - 1;
+        for (int i = (gap + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = home(keys[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = null;
+        values[gap] = 0;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Remove every key.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Grow the table, if needed, so that expectedSize keys fit without
+     * further resizing.
+     *
+     * @param expectedSize number of keys this map is expected to hold
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        if (capacity > keys.length) {
+            resize(capacity);
+        }
+    }
+
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object key = oldKeys[j];
+            if (key != null) {
+                int i = home(key, mask);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Visit every entry of this map. The action must not modify this map.
+     *
+     * @param action called with each key and its value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        Object[] keys = this.keys;
+        int[] values = this.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Find the next occupied slot, for iterating without copying. Slots are
+     * only stable while this map is not structurally modified.
+     *
+     * @param slot a slot index, or -1 to start from the beginning
+     * @return the smallest occupied slot index greater than slot, or -1 if
+     *         there is none
+     */
+    int nextSlot(int slot) {
+        for (int i = slot + 1; i < keys.length; i++) {
+            if (keys[i] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot an occupied slot index returned by nextSlot()
+     * @return the key in that slot
+     */
+    @SuppressWarnings("unchecked")
+    K keyAt(int slot) {
+        return (K) keys[slot];
+    }
+
+    /**
+     * @param slot an occupied slot index returned by nextSlot()
+     * @return the value in that slot
+     */
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @return a counter that changes whenever a key is added or removed, so
+     *         that iterators can detect concurrent modification
+     */
+    int modCount() {
+        return modCount;
+    }
+
+    /**
+     * @return a new mutable map with the same entries as this map
+     */
+    public Map<K, Integer> toMap() {
+        Map<K, Integer> map = new HashMap<>(size * 4 / 3 + 1);
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
@@ -0,0 +1,100 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A read-only Map view of an ObjIntMap of positive weights, where a weight of
+ * zero means "no entry". The backing map is looked up through a supplier on
+ * every access, so the view stays correct when its owner replaces the map, for
+ * example when a vertex is removed and added again or an index is resized.
+ *
+ * @param <K> type of keys
+ */
+class ObjIntMapView<K> extends AbstractMap<K, Integer> {
+
+    private final Supplier<ObjIntMap<K>> weights;
+
+    // Abstraction function:
+    //   Represents the map weights.get(), or the empty map if that is null.
+    //
+    // Representation invariant:
+    //   - weights is not null.
+    //
+    // Safety from rep exposure:
+    //   - The field is private and final; the backing map is only read.
+    //   - Entries handed out are immutable, and the inherited mutators of
+    //     AbstractMap throw UnsupportedOperationException.
+
+    // Constructor
+    ObjIntMapView(Supplier<ObjIntMap<K>> weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public int size() {
+        ObjIntMap<K> current = weights.get();
+        return current == null ? 0 : current.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        ObjIntMap<K> current = weights.get();
+        return current != null && current.containsKey(key);
+    }
+
+    @Override
+    public Integer get(Object key) {
+        ObjIntMap<K> current = weights.get();
+        int weight = current == null ? 0 : current.get(key);
+        return weight == 0 ? null : weight;
+    }
+
+    @Override
+    public Set<Map.Entry<K, Integer>> entrySet() {
+        return new AbstractSet<Map.Entry<K, Integer>>() {
+            @Override
+            public int size() {
+                return ObjIntMapView.this.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, Integer>> iterator() {
+                ObjIntMap<K> current = weights.get();
+                if (current == null) {
+                    return Collections.emptyIterator();
+                }
+                return new Iterator<Map.Entry<K, Integer>>() {
+                    private final int expectedModCount = current.modCount();
+                    private int slot = current.nextSlot(-1);
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot >= 0;
+                    }
+
+                    @Override
+                    public Map.Entry<K, Integer> next() {
+                        if (current.modCount() != expectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        if (slot < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<K, Integer> entry =
+                                new AbstractMap.SimpleImmutableEntry<>(current.keyAt(slot), current.valueAt(slot));
+                        slot = current.nextSlot(slot);
+                        return entry;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,857 @@
+package graph;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An implementation of Graph that keeps its vertices, edges and labels
+ * outside the Java heap, in direct ByteBuffers, so that very large graphs
+ * add neither heap footprint nor garbage collection work as they grow.
+ *
+ * <p>Each vertex has a dense int id, as in {@link VertexIds}, and a
+ * fixed-size record in an off-heap table. A record points at the vertex's
+ * label, stored as UTF-8 bytes, and at two adjacency blocks, one for
+ * outgoing and one for incoming edges. An adjacency block is an
+ * open-addressed hash table of (neighbor id, weight) int pairs. Labels are
+ * found through an off-heap hash index of ids. Blocks come from a
+ * {@link BlockAllocator}, which reuses the space of blocks freed when edges
+ * are removed with {@code set(..., 0)}, when a block shrinks, and when a
+ * vertex is removed.
+ *
+ * <p>The heap holds only page tables and a constant number of fields, no
+ * matter how many vertices and edges there are. Labels are decoded into new
+ * Strings whenever they are returned, so observers that return labels
+ * allocate short-lived garbage; {@link #idOf(String)} and
+ * {@link #weight(String, String)} do not allocate except to compare labels.
+ *
+ * <p>Direct memory is returned to the operating system when the graph is
+ * garbage collected.
+ */
+public class OffHeapGraph extends Graph<String> {
+
+    // Vertex record layout, in ints
+    private static final int LABEL = 0;       // long address of the label block, or NO_LABEL if the id is free
+    private static final int HASH = 2;        // mixed hash of the label
+    private static final int OUT = 3;         // outgoing block: long address, size, capacity
+    private static final int IN = 7;          // incoming block: long address, size, capacity
+    private static final int NEXT_FREE = 11;  // next id on the free list, if this id is free
+    private static final int STRIDE = 12;
+
+    // Offsets within the OUT and IN fields of a record
+    private static final int ADDRESS = 0;
+    private static final int SIZE = 2;
+    private static final int CAPACITY = 3;
+
+    private static final long NO_LABEL = -1;
+    private static final int MIN_BLOCK_ENTRIES = 4;
+    private static final int MIN_INDEX_CAPACITY = 16;
+
+    private final BlockAllocator blocks;
+    private final OffHeapInts records;
+    private final int pageInts;
+    private OffHeapInts index;
+    private int indexCapacity;
+    private int vertexCount = 0;
+    private int nextId = 0;
+    private int freeHead = -1;
+    private int vertexModCount = 0;
+    private final Set<String> verticesView = new LabelSet();
+
+    // Abstraction function:
+    //   Represents the graph whose vertices are the labels of the records
+    //   of ids in [0, nextId) whose LABEL is not NO_LABEL, with an edge from
+    //   the vertex with id s to the vertex with id t of weight w for every
+    //   entry (t + 1, w) in the OUT block of s.
+    //
+    // Representation invariant:
+    //   - the OUT block of s has the entry (t + 1, w) if and only if the IN
+    //     block of t has the entry (s + 1, w), and every such w is positive.
+    //   - a block with CAPACITY c > 0 is an allocated block of 2c ints, a
+    //     power-of-two open-addressed table of (key, weight) pairs with key 0
+    //     for an empty slot, holding SIZE < c * 3/4 entries; CAPACITY 0 means
+    //     no block.
+    //   - 'index' has indexCapacity slots, a power of two, each 0 or id + 1
+    //     for a live id, with every live id present exactly once and
+    //     reachable from the home slot of its HASH by linear probing.
+    //   - vertexCount is the number of live ids, and vertexCount <
+    //     indexCapacity * 3/4.
+    //   - freeHead and the NEXT_FREE fields link every free id below nextId
+    //     exactly once.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; off-heap memory is never exposed.
+    //   - Labels are copied into new Strings on the way out, and vertices(),
+    //     sources() and targets() return fresh collections; the views are
+    //     read-only.
+    //   - The superclass's own rep is left empty and is never used.
+
+    // Constructor
+    public OffHeapGraph(Set<String> vertices) {
+        this(vertices, BlockAllocator.DEFAULT_PAGE_INTS);
+    }
+
+    // Constructor, with direct memory pages of pageInts ints
+    OffHeapGraph(Set<String> vertices, int pageInts) {
+        super(Collections.emptySet());
+        this.pageInts = pageInts;
+        this.blocks = new BlockAllocator(pageInts);
+        this.records = new OffHeapInts(pageInts);
+        this.indexCapacity = MIN_INDEX_CAPACITY;
+        this.index = new OffHeapInts(pageInts);
+        index.ensureCapacity(indexCapacity);
+        for (String vertex : vertices) {
+            intern(vertex);
+        }
+    }
+
+    // Check the part of the representation invariant about one edge
+    private void checkRep(int source, int target) {
+        assert vertexCount < indexCapacity * 3 / 4 : "Label index overloaded";
+        assert blockGet(source, OUT, target) == blockGet(target, IN, source) : "Adjacency blocks disagree";
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long record(int id) {
+        return (long) id * STRIDE;
+    }
+
+    private boolean isLive(int id) {
+        return id >= 0 && id < nextId && records.getLong(record(id) + LABEL) != NO_LABEL;
+    }
+
+    // ---- Label dictionary ----
+
+    // Id of the vertex with the given label, or -1
+    private int find(Object vertex) {
+        if (!(vertex instanceof String)) {
+            return -1;
+        }
+        String label = (String) vertex;
+        int hash = mix(label.hashCode());
+        byte[] bytes = null;
+        int mask = indexCapacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = index.get(slot);
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            if (records.get(record(id) + HASH) == hash) {
+                if (bytes == null) {
+                    bytes = label.getBytes(StandardCharsets.UTF_8);
+                }
+                if (labelEquals(id, bytes)) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    private boolean labelEquals(int id, byte[] bytes) {
+        long address = records.getLong(record(id) + LABEL);
+        if (blocks.getInt(address, 0) != bytes.length) {
+            return false;
+        }
+        byte[] stored = new byte[bytes.length];
+        blocks.getBytes(address, 1, stored);
+        return Arrays.equals(stored, bytes);
+    }
+
+    private String label(int id) {
+        long address = records.getLong(record(id) + LABEL);
+        byte[] bytes = new byte[blocks.getInt(address, 0)];
+        blocks.getBytes(address, 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int labelInts(int length) {
+        return 1 + (length + Integer.BYTES - 1) / Integer.BYTES;
+    }
+
+    // Get the id of a vertex, first adding it with a free or new id if absent
+    private int intern(String vertex) {
+        int id = find(vertex);
+        if (id >= 0) {
+            return id;
+        }
+        if (vertexCount + 1 >= indexCapacity * 3 / 4) {
+            rehashIndex(indexCapacity * 2);
+        }
+        byte[] bytes = vertex.getBytes(StandardCharsets.UTF_8);
+        long address = blocks.allocate(labelInts(bytes.length));
+        blocks.putInt(address, 0, bytes.length);
+        blocks.putBytes(address, 1, bytes);
+
+        if (freeHead >= 0) {
+            id = freeHead;
+            freeHead = records.get(record(id) + NEXT_FREE);
+        } else {
+            id = nextId++;
+            records.ensureCapacity(record(nextId));
+        }
+        long base = record(id);
+        records.setLong(base + LABEL, address);
+        records.set(base + HASH, mix(vertex.hashCode()));
+        records.set(base + OUT + SIZE, 0);
+        records.set(base + OUT + CAPACITY, 0);
+        records.set(base + IN + SIZE, 0);
+        records.set(base + IN + CAPACITY, 0);
+        vertexCount++;
+        vertexModCount++;
+        indexInsert(id);
+        logVertexAdded(vertex);
+        return id;
+    }
+
+    private void indexInsert(int id) {
+        int mask = indexCapacity - 1;
+        int slot = records.get(record(id) + HASH) & mask;
+        while (index.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index.set(slot, id + 1);
+    }
+
+    // Backward-shift deletion, as in ObjIntMap
+    private void indexRemove(int id) {
+        int mask = indexCapacity - 1;
+        int gap = records.get(record(id) + HASH) & mask;
+        while (index.get(gap) != id + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int i = (gap + 1) & mask; index.get(i) != 0; i = (i + 1) & mask) {
+            int home = records.get(record(index.get(i) - 1) + HASH) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                index.set(gap, index.get(i));
+                gap = i;
+            }
+        }
+        index.set(gap, 0);
+    }
+
+    // Replace the label index with an empty one of the given capacity and
+    // insert every live id again; the old pages are released by the GC
+    private void rehashIndex(int capacity) {
+        indexCapacity = capacity;
+        index = new OffHeapInts(pageInts);
+        index.ensureCapacity(capacity);
+        for (int id = 0; id < nextId; id++) {
+            if (isLive(id)) {
+                indexInsert(id);
+            }
+        }
+    }
+
+    // ---- Adjacency blocks ----
+
+    private long blockAddress(int id, int direction) {
+        return records.getLong(record(id) + direction + ADDRESS);
+    }
+
+    private int blockSize(int id, int direction) {
+        return records.get(record(id) + direction + SIZE);
+    }
+
+    private int blockCapacity(int id, int direction) {
+        return records.get(record(id) + direction + CAPACITY);
+    }
+
+    // Slot holding the key, or -1 - (the empty slot where it would go)
+    private int blockFind(long address, int capacity, int key) {
+        int mask = capacity - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = blocks.getInt(address, 2 * slot);
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return -1 - slot;
+            }
+        }
+    }
+
+    private int blockGet(int id, int direction, int neighbor) {
+        int capacity = blockCapacity(id, direction);
+        if (capacity == 0) {
+            return 0;
+        }
+        long address = blockAddress(id, direction);
+        int slot = blockFind(address, capacity, neighbor + 1);
+        return slot >= 0 ? blocks.getInt(address, 2 * slot + 1) : 0;
+    }
+
+    private int blockPut(int id, int direction, int neighbor, int weight) {
+        long base = record(id) + direction;
+        int capacity = records.get(base + CAPACITY);
+        if (capacity == 0) {
+            capacity = MIN_BLOCK_ENTRIES;
+            records.setLong(base + ADDRESS, blocks.allocate(2 * capacity));
+            records.set(base + CAPACITY, capacity);
+        }
+        long address = records.getLong(base + ADDRESS);
+        int slot = blockFind(address, capacity, neighbor + 1);
+        if (slot >= 0) {
+            int previous = blocks.getInt(address, 2 * slot + 1);
+            blocks.putInt(address, 2 * slot + 1, weight);
+            return previous;
+        }
+        slot = -1 - slot;
+        blocks.putInt(address, 2 * slot, neighbor + 1);
+        blocks.putInt(address, 2 * slot + 1, weight);
+        int size = records.get(base + SIZE) + 1;
+        records.set(base + SIZE, size);
+        if (size >= capacity * 3 / 4) {
+            resizeBlock(id, direction, capacity * 2);
+        }
+        return 0;
+    }
+
+    private int blockRemove(int id, int direction, int neighbor) {
+        long base = record(id) + direction;
+        int capacity = records.get(base + CAPACITY);
+        if (capacity == 0) {
+            return 0;
+        }
+        long address = records.getLong(base + ADDRESS);
+        int gap = blockFind(address, capacity, neighbor + 1);
+        if (gap < 0) {
+            return 0;
+        }
+        int previous = blocks.getInt(address, 2 * gap + 1);
+        int mask = capacity - 1;
+        for (int i = (gap + 1) & mask; blocks.getInt(address, 2 * i) != 0; i = (i + 1) & mask) {
+            int home = mix(blocks.getInt(address, 2 * i)) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                blocks.putInt(address, 2 * gap, blocks.getInt(address, 2 * i));
+                blocks.putInt(address, 2 * gap + 1, blocks.getInt(address, 2 * i + 1));
+                gap = i;
+            }
+        }
+        blocks.putInt(address, 2 * gap, 0);
+        blocks.putInt(address, 2 * gap + 1, 0);
+        int size = records.get(base + SIZE) - 1;
+        records.set(base + SIZE, size);
+        if (size == 0) {
+            freeBlock(id, direction);
+        } else if (capacity > MIN_BLOCK_ENTRIES && size < capacity / 8) {
+            resizeBlock(id, direction, capacity / 2);
+        }
+        return previous;
+    }
+
+    // Move a block's entries into a new block of the given capacity and free
+    // the old one
+    private void resizeBlock(int id, int direction, int capacity) {
+        long base = record(id) + direction;
+        long oldAddress = records.getLong(base + ADDRESS);
+        int oldCapacity = records.get(base + CAPACITY);
+        long address = blocks.allocate(2 * capacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int key = blocks.getInt(oldAddress, 2 * slot);
+            if (key != 0) {
+                int target = -1 - blockFind(address, capacity, key);
+                blocks.putInt(address, 2 * target, key);
+                blocks.putInt(address, 2 * target + 1, blocks.getInt(oldAddress, 2 * slot + 1));
+            }
+        }
+        blocks.free(oldAddress, 2 * oldCapacity);
+        records.setLong(base + ADDRESS, address);
+        records.set(base + CAPACITY, capacity);
+    }
+
+    private void freeBlock(int id, int direction) {
+        long base = record(id) + direction;
+        int capacity = records.get(base + CAPACITY);
+        if (capacity > 0) {
+            blocks.free(records.getLong(base + ADDRESS), 2 * capacity);
+        }
+        records.set(base + SIZE, 0);
+        records.set(base + CAPACITY, 0);
+    }
+
+    private void forEachEntry(int id, int direction, IntIntMap.IntIntConsumer action) {
+        int capacity = blockCapacity(id, direction);
+        long address = blockAddress(id, direction);
+        for (int slot = 0; slot < capacity; slot++) {
+            int key = blocks.getInt(address, 2 * slot);
+            if (key != 0) {
+                action.accept(key - 1, blocks.getInt(address, 2 * slot + 1));
+            }
+        }
+    }
+
+    // ---- Graph operations ----
+
+    @Override
+    public boolean add(String vertex) {
+        if (find(vertex) >= 0) {
+            return false;
+        }
+        intern(vertex);
+        return true;
+    }
+
+    @Override
+    public int set(String source, String target, int weight) {
+        int s;
+        int t;
+        int previousWeight;
+        if (weight != 0) {
+            s = intern(source);
+            t = intern(target);
+            previousWeight = blockPut(s, OUT, t, weight);
+            blockPut(t, IN, s, weight);
+        } else {
+            // Removing an edge never adds its endpoints
+            s = find(source);
+            t = find(target);
+            if (s < 0 || t < 0) {
+                return 0;
+            }
+            previousWeight = blockRemove(s, OUT, t);
+            blockRemove(t, IN, s);
+        }
+        checkRep(s, t);
+        logEdgeChanged(source, target, previousWeight, weight);
+        return previousWeight;
+    }
+
+    @Override
+    public boolean remove(String vertex) {
+        int id = find(vertex);
+        if (id < 0) {
+            return false;
+        }
+        forEachEntry(id, OUT, (target, weight) -> {
+            if (target != id) {
+                blockRemove(target, IN, id);
+            }
+        });
+        forEachEntry(id, IN, (source, weight) -> {
+            if (source != id) {
+                blockRemove(source, OUT, id);
+            }
+        });
+        freeBlock(id, OUT);
+        freeBlock(id, IN);
+        indexRemove(id);
+        long base = record(id);
+        long address = records.getLong(base + LABEL);
+        blocks.free(address, labelInts(blocks.getInt(address, 0)));
+        records.setLong(base + LABEL, NO_LABEL);
+        records.set(base + NEXT_FREE, freeHead);
+        freeHead = id;
+        vertexCount--;
+        vertexModCount++;
+        logVertexRemoved(vertex);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> newVertices) {
+        boolean changed = false;
+        for (String vertex : newVertices) {
+            changed |= add(vertex);
+        }
+        return changed;
+    }
+
+    @Override
+    public void setAll(Iterable<EdgeTriple<String>> edges) {
+        for (EdgeTriple<String> edge : edges) {
+            set(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<? extends String> oldVertices) {
+        boolean changed = false;
+        for (String vertex : oldVertices) {
+            changed |= remove(vertex);
+        }
+        return changed;
+    }
+
+    @Override
+    public Set<String> vertices() {
+        Set<String> vertexSet = new HashSet<>();
+        for (int id = 0; id < nextId; id++) {
+            if (isLive(id)) {
+                vertexSet.add(label(id));
+            }
+        }
+        return vertexSet;
+    }
+
+    @Override
+    public Map<String, Integer> sources(String target) {
+        Map<String, Integer> sourceVertices = new HashMap<>();
+        forEachSource(target, sourceVertices::put);
+        return sourceVertices;
+    }
+
+    @Override
+    public Map<String, Integer> targets(String source) {
+        Map<String, Integer> targetVertices = new HashMap<>();
+        forEachTarget(source, targetVertices::put);
+        return targetVertices;
+    }
+
+    @Override
+    public Set<String> verticesView() {
+        return verticesView;
+    }
+
+    @Override
+    public Map<String, Integer> sourcesView(String target) {
+        return new AdjacencyView(IN, target);
+    }
+
+    @Override
+    public Map<String, Integer> targetsView(String source) {
+        return new AdjacencyView(OUT, source);
+    }
+
+    @Override
+    public int weight(String source, String target) {
+        int s = find(source);
+        int t = find(target);
+        return s < 0 || t < 0 ? 0 : blockGet(s, OUT, t);
+    }
+
+    @Override
+    public void forEachTarget(String source, ObjIntConsumer<? super String> action) {
+        int s = find(source);
+        if (s >= 0) {
+            forEachEntry(s, OUT, (target, weight) -> action.accept(label(target), weight));
+        }
+    }
+
+    @Override
+    public void forEachSource(String target, ObjIntConsumer<? super String> action) {
+        int t = find(target);
+        if (t >= 0) {
+            forEachEntry(t, IN, (source, weight) -> action.accept(label(source), weight));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the cursor allocates only the labels it
+     * returns: each source label is decoded once per vertex, and each target
+     * label on every call to target().
+     */
+    @Override
+    public EdgeCursor<String> edges() {
+        return new IdCursor(0, nextId);
+    }
+
+    @Override
+    public Stream<EdgeTriple<String>> edgeStream() {
+        long edgeCount = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (isLive(id)) {
+                edgeCount += blockSize(id, OUT);
+            }
+        }
+        return StreamSupport.stream(new EdgeSpliterator<>(IdCursor::new, 0, nextId, edgeCount), false);
+    }
+
+    @Override
+    public int idOf(String vertex) {
+        return find(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the label of the vertex with that id, or null if no vertex in
+     *         this graph currently has it
+     */
+    @Override
+    public String labelOf(int id) {
+        return isLive(id) ? label(id) : null;
+    }
+
+    /**
+     * @return the number of bytes of direct memory this graph holds
+     */
+    long offHeapBytes() {
+        return blocks.reservedBytes() + records.reservedBytes() + index.reservedBytes();
+    }
+
+    /**
+     * @return the number of ints in allocated vertex labels and adjacency
+     *         blocks
+     */
+    long usedBlockInts() {
+        return blocks.usedInts();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int id = 0; id < nextId; id++) {
+            if (isLive(id)) {
+                String source = label(id);
+                forEachEntry(id, OUT, (target, weight) ->
+                        sb.append(String.format("%s -> %s : %d", source, label(target), weight)).append("\n"));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The read-only live view of the vertex labels.
+     */
+    private class LabelSet extends AbstractSet<String> {
+
+        @Override
+        public int size() {
+            return vertexCount;
+        }
+
+        @Override
+        public boolean contains(Object vertex) {
+            return find(vertex) >= 0;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private final int expectedModCount = vertexModCount;
+                private int id = advance(0);
+
+                private int advance(int from) {
+                    while (from < nextId && !isLive(from)) {
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return id < nextId;
+                }
+
+                @Override
+                public String next() {
+                    if (vertexModCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (id >= nextId) {
+                        throw new NoSuchElementException();
+                    }
+                    String vertex = label(id);
+                    id = advance(id + 1);
+                    return vertex;
+                }
+            };
+        }
+    }
+
+    /**
+     * A cursor over the edges out of the ids in [from, to), id by id and
+     * slot by slot of each id's OUT block.
+     */
+    private class IdCursor implements EdgeCursor<String> {
+
+        private final int to;
+        private int id;
+        private int slot = -1;
+        private int capacity = 0;
+        private long address;
+        private String source;
+
+        // Abstraction function:
+        //   Represents the position at slot 'slot' of the OUT block of id,
+        //   at 'address' with 'capacity' slots, whose label is 'source'; the
+        //   cursor is on an edge when source is not null.
+        //
+        // Representation invariant:
+        //   - id <= to, and source is null unless slot < capacity; before the
+        //     first call to next(), id is one less than the first row.
+        //
+        // Safety from rep exposure:
+        //   - Fields are private; the blocks belong to the enclosing graph
+        //     and are only read, and labels are new Strings.
+
+        // Constructor
+        IdCursor(int from, int to) {
+            this.id = from - 1;
+            this.to = to;
+        }
+
+        @Override
+        public boolean next() {
+            while (id < to) {
+                slot++;
+                while (slot < capacity && blocks.getInt(address, 2 * slot) == 0) {
+                    slot++;
+                }
+                if (slot < capacity) {
+                    return true;
+                }
+                source = null;
+                do {
+                    id++;
+                } while (id < to && (!isLive(id) || blockSize(id, OUT) == 0));
+                if (id >= to) {
+                    capacity = 0;
+                    return false;
+                }
+                capacity = blockCapacity(id, OUT);
+                address = blockAddress(id, OUT);
+                slot = -1;
+                source = label(id);
+            }
+            return false;
+        }
+
+        private void checkOnEdge() {
+            if (source == null) {
+                throw new IllegalStateException("cursor is not on an edge");
+            }
+        }
+
+        @Override
+        public String source() {
+            checkOnEdge();
+            return source;
+        }
+
+        @Override
+        public String target() {
+            checkOnEdge();
+            return label(blocks.getInt(address, 2 * slot) - 1);
+        }
+
+        @Override
+        public int weight() {
+            checkOnEdge();
+            return blocks.getInt(address, 2 * slot + 1);
+        }
+    }
+
+    /**
+     * A read-only map view of the edges of one vertex. The vertex's id is
+     * looked up on every access, so the view stays correct when the vertex is
+     * removed or added again with another id.
+     */
+    private class AdjacencyView extends AbstractMap<String, Integer> {
+
+        private final int direction;
+        private final String vertex;
+
+        // Abstraction function:
+        //   Represents the edges out of vertex if direction is OUT, otherwise
+        //   the edges into it, as a map from the label at the other end to
+        //   the weight; the empty map if vertex is not in the enclosing graph.
+        //
+        // Representation invariant:
+        //   - direction is OUT or IN.
+        //
+        // Safety from rep exposure:
+        //   - Fields are private and final; the blocks belong to the
+        //     enclosing graph and are only read.
+        //   - Entries handed out are immutable, and the inherited mutators of
+        //     AbstractMap throw UnsupportedOperationException.
+
+        // Constructor
+        AdjacencyView(int direction, String vertex) {
+            this.direction = direction;
+            this.vertex = vertex;
+        }
+
+        @Override
+        public int size() {
+            int id = find(vertex);
+            return id < 0 ? 0 : blockSize(id, direction);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            int id = find(vertex);
+            int other = find(key);
+            int weight = id < 0 || other < 0 ? 0 : blockGet(id, direction, other);
+            return weight == 0 ? null : weight;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Integer>>() {
+                @Override
+                public int size() {
+                    return AdjacencyView.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, Integer>> iterator() {
+                    int id = find(vertex);
+                    if (id < 0) {
+                        return Collections.emptyIterator();
+                    }
+                    return new Iterator<Map.Entry<String, Integer>>() {
+                        private final long expectedAddress = blockAddress(id, direction);
+                        private final int expectedSize = blockSize(id, direction);
+                        private final int capacity = blockCapacity(id, direction);
+                        private int slot = advance(0);
+
+                        private int advance(int from) {
+                            while (from < capacity && blocks.getInt(expectedAddress, 2 * from) == 0) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < capacity;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Integer> next() {
+                            if (!isLive(id) || blockCapacity(id, direction) != capacity
+                                    || blockAddress(id, direction) != expectedAddress
+                                    || blockSize(id, direction) != expectedSize) {
+                                throw new ConcurrentModificationException();
+                            }
+                            if (slot >= capacity) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<String, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+                                    label(blocks.getInt(expectedAddress, 2 * slot) - 1),
+                                    blocks.getInt(expectedAddress, 2 * slot + 1));
+                            slot = advance(slot + 1);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A growable array of ints stored outside the Java heap, in direct
+ * ByteBuffer pages, indexed by long so that it can hold more than 2^31
+ * elements. Elements that were never set read as zero.
+ *
+ * <p>Only the last page may be smaller than the page size; it is grown by
+ * doubling, so a small array does not reserve a whole page.
+ */
+class OffHeapInts {
+
+    private static final int MIN_PAGE_INTS = 64;
+
+    private final int pageShift;
+    private final int pageInts;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private long capacity;
+
+    // Abstraction function:
+    //   Represents the array a[0..capacity) where a[i] is the int at byte
+    //   (i mod pageInts) * 4 of pages.get(i / pageInts).
+    //
+    // Representation invariant:
+    //   - pageInts == 1 << pageShift.
+    //   - every page but the last holds exactly pageInts ints, and the last
+    //     holds a power of two no greater than pageInts.
+    //   - capacity is the total number of ints in all pages.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and the pages are never returned.
+
+    // Constructor
+    OffHeapInts(int pageInts) {
+        assert Integer.bitCount(pageInts) == 1 && pageInts >= MIN_PAGE_INTS : "Page size must be a power of two";
+        this.pageInts = pageInts;
+        this.pageShift = Integer.numberOfTrailingZeros(pageInts);
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        long total = 0;
+        for (ByteBuffer page : pages) {
+            total += page.capacity() / Integer.BYTES;
+        }
+        assert total == capacity : "Capacity out of sync with pages";
+    }
+
+    static ByteBuffer allocatePage(long ints) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(ints * Integer.BYTES)).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Grow this array, if needed, so that indexes below size are valid.
+     *
+     * @param size the number of elements needed
+     */
+    void ensureCapacity(long size) {
+        while (capacity < size) {
+            int last = pages.size() - 1;
+            if (last >= 0 && pages.get(last).capacity() / Integer.BYTES < pageInts) {
+                ByteBuffer old = pages.get(last);
+                ByteBuffer grown = allocatePage(Math.min(pageInts, (long) old.capacity() / Integer.BYTES * 2));
+                ByteBuffer source = old.duplicate();
+                source.clear();
+                grown.put(source);
+                grown.clear();
+                pages.set(last, grown);
+                capacity += (grown.capacity() - old.capacity()) / Integer.BYTES;
+            } else {
+                long wanted = Math.min(pageInts, Math.max(MIN_PAGE_INTS, Long.highestOneBit(size - capacity - 1) << 1));
+                pages.add(allocatePage(wanted));
+                capacity += wanted;
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * @return the number of valid indexes
+     */
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of bytes of direct memory this array holds
+     */
+    long reservedBytes() {
+        return capacity * Integer.BYTES;
+    }
+
+    /**
+     * @param index an index in [0, capacity())
+     * @return the element at that index
+     */
+    int get(long index) {
+        return pages.get((int) (index >>> pageShift)).getInt((int) (index & (pageInts - 1)) * Integer.BYTES);
+    }
+
+    /**
+     * @param index an index in [0, capacity())
+     * @param value the new element at that index
+     */
+    void set(long index, int value) {
+        pages.get((int) (index >>> pageShift)).putInt((int) (index & (pageInts - 1)) * Integer.BYTES, value);
+    }
+
+    /**
+     * @param index an index in [0, capacity() - 1)
+     * @return the long stored in the elements at index and index + 1
+     */
+    long getLong(long index) {
+        return ((long) get(index) << 32) | (get(index + 1) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param index an index in [0, capacity() - 1)
+     * @param value the long to store in the elements at index and index + 1
+     */
+    void setLong(long index, long value) {
+        set(index, (int) (value >>> 32));
+        set(index + 1, (int) value);
+    }
+}
@@ -0,0 +1,116 @@
+package graph;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and allocation of the calls of one operation of an instrumented
+ * graph. Recording is lock-free.
+ */
+public final class OperationMetrics implements OperationMetricsMXBean {
+
+    private final GraphMetrics.Operation operation;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder sampledBytes = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    // Abstraction function:
+    //   Represents the calls of 'operation' recorded since the last reset,
+    //   with their latencies in 'latencies'; 'samples' of them allocated
+    //   'sampledBytes' in total.
+    //
+    // Representation invariant:
+    //   - sampledBytes and samples are nonnegative, and samples is at most
+    //     the number of calls recorded.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final; getLatencies() returns the
+    //     histogram, which clients may read and reset but which holds no
+    //     other part of this rep.
+
+    // Constructor
+    OperationMetrics(GraphMetrics.Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Record one call.
+     *
+     * @param nanos its latency in nanoseconds
+     * @param bytes the bytes it allocated, or a negative number if it was
+     *        not sampled
+     */
+    void record(long nanos, long bytes) {
+        latencies.record(nanos);
+        if (bytes >= 0) {
+            sampledBytes.add(bytes);
+            samples.increment();
+        }
+    }
+
+    /**
+     * @return the operation these metrics are about
+     */
+    public GraphMetrics.Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the histogram of the latencies recorded
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public long getCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return latencies.getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latencies.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        long sampled = samples.sum();
+        return sampled == 0 ? 0 : Math.round((double) sampledBytes.sum() * getCount() / sampled);
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+        sampledBytes.reset();
+        samples.reset();
+    }
+
+    @Override
+    public String toString() {
+        return operation + ": " + latencies + " allocated=" + getAllocatedBytes() + "B";
+    }
+}
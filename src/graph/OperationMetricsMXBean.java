@@ -0,0 +1,55 @@
+package graph;
+
+/**
+ * The JMX view of the metrics of one operation of an instrumented graph.
+ * Latencies are in nanoseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return the number of calls recorded
+     */
+    long getCount();
+
+    /**
+     * @return the mean latency of the calls recorded
+     */
+    double getMeanNanos();
+
+    /**
+     * @return the median latency
+     */
+    long getP50Nanos();
+
+    /**
+     * @return the 90th percentile latency
+     */
+    long getP90Nanos();
+
+    /**
+     * @return the 99th percentile latency
+     */
+    long getP99Nanos();
+
+    /**
+     * @return the 99.9th percentile latency
+     */
+    long getP999Nanos();
+
+    /**
+     * @return the largest latency recorded
+     */
+    long getMaxNanos();
+
+    /**
+     * @return an estimate of the bytes allocated by all calls recorded,
+     *         extrapolated from a sample of them, or 0 if the JVM cannot
+     *         measure allocation
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Forget every call recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,375 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Weighted PageRank over a {@link CsrGraph} snapshot, by power iteration
+ * with each iteration split across a {@link ForkJoinPool}.
+ *
+ * <p>A random surfer at vertex u follows the edge to v with probability
+ * d * w(u, v) / W(u), where W(u) is the total weight of u's outgoing edges,
+ * and jumps to a uniformly random vertex with probability 1 - d, where d is
+ * the damping factor. At a dangling vertex (one with no outgoing edges) the
+ * surfer always jumps to a uniformly random vertex, so ranks always sum to
+ * 1.
+ *
+ * <p>Each iteration pulls ranks along incoming edges: every vertex sums the
+ * contributions of its own sources, so worker threads write disjoint parts
+ * of the rank vector and need no synchronization. Vertices are split into
+ * chunks in the same way whether or not the pool has more than one thread,
+ * so serial and parallel runs add in the same order and give identical
+ * results.
+ *
+ * <p>Instances are immutable and may be shared between threads; every run
+ * allocates its own rank vectors, three doubles per vertex.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public class PageRank<L> {
+
+    /** Damping factor commonly used for PageRank. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Default convergence tolerance, on the L1 change in ranks. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /** Default limit on the number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    // Vertex ranges smaller than this are handled by one task
+    private static final int CHUNK = 4096;
+
+    private final CsrGraph<L> graph;
+    private final ForkJoinPool pool;
+    private final double[] inverseOutWeight;
+
+    // Abstraction function:
+    //   Represents a PageRank engine for 'graph' that runs its iterations on
+    //   'pool'.
+    //
+    // Representation invariant:
+    //   - 'graph' and 'pool' are not null.
+    //   - inverseOutWeight[u] is 1 / (total weight of u's out-edges), or 0 if
+    //     u is dangling.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final; the snapshot is immutable and
+    //     inverseOutWeight is never returned.
+    //   - run() returns a new Result that owns its arrays.
+
+    // Constructor, using the common fork-join pool
+    public PageRank(CsrGraph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    // Constructor
+    public PageRank(CsrGraph<L> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        int n = graph.vertexCount();
+        this.inverseOutWeight = new double[n];
+        for (int u = 0; u < n; u++) {
+            long total = 0;
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                total += graph.targetWeight(u, i);
+            }
+            inverseOutWeight[u] = total == 0 ? 0 : 1.0 / total;
+        }
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert graph != null && pool != null : "Graph and pool must not be null";
+        assert inverseOutWeight.length == graph.vertexCount() : "Weights sized wrongly";
+    }
+
+    /**
+     * Compute PageRank with the default damping, tolerance and iteration
+     * limit.
+     *
+     * @return the ranks
+     */
+    public Result<L> run() {
+        return run(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Compute PageRank.
+     *
+     * @param damping probability of following an edge rather than jumping,
+     *        in [0, 1)
+     * @param tolerance iteration stops once the ranks change by less than
+     *        this in L1 norm; non-negative
+     * @param maxIterations iteration stops after this many iterations,
+     *        positive
+     * @return the ranks after the last iteration
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public Result<L> run(double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1): " + damping);
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance must be non-negative: " + tolerance);
+        }
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        }
+        int n = graph.vertexCount();
+        if (n == 0) {
+            return new Result<>(graph, new double[0], 0, true);
+        }
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] contribution = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        boolean parallel = pool.getParallelism() > 1 && n > CHUNK;
+
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            double dangling = sweep(new Scatter(rank, contribution, 0, n, parallel), parallel);
+            double base = (1 - damping) / n + damping * dangling / n;
+            double change = sweep(new Gather(damping, base, contribution, rank, next, 0, n, parallel), parallel);
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            iterations++;
+            converged = change < tolerance;
+        }
+        return new Result<>(graph, rank, iterations, converged);
+    }
+
+    private double sweep(Sweep task, boolean parallel) {
+        return parallel ? pool.invoke(task) : task.compute();
+    }
+
+    /**
+     * A pass over the vertices in [from, to) that sums one double per vertex,
+     * splitting in halves down to chunks of about CHUNK vertices. The halves
+     * run in parallel only if 'parallel'; either way they are added in the
+     * same order.
+     */
+    private abstract static class Sweep extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        final int from;
+        final int to;
+        final boolean parallel;
+
+        Sweep(int from, int to, boolean parallel) {
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+        }
+
+        abstract Sweep half(int from, int to);
+
+        abstract double leaf();
+
+        @Override
+        protected Double compute() {
+            if (to - from <= CHUNK) {
+                return leaf();
+            }
+            int middle = (from + to) >>> 1;
+            Sweep left = half(from, middle);
+            Sweep right = half(middle, to);
+            double leftSum;
+            double rightSum;
+            if (parallel) {
+                left.fork();
+                rightSum = right.compute();
+                leftSum = left.join();
+            } else {
+                leftSum = left.compute();
+                rightSum = right.compute();
+            }
+            return leftSum + rightSum;
+        }
+    }
+
+    /**
+     * Spread each vertex's rank over its out-weight; sums the rank held by
+     * dangling vertices.
+     */
+    private class Scatter extends Sweep {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] rank;
+        private final double[] contribution;
+
+        Scatter(double[] rank, double[] contribution, int from, int to, boolean parallel) {
+            super(from, to, parallel);
+            this.rank = rank;
+            this.contribution = contribution;
+        }
+
+        @Override
+        Sweep half(int from, int to) {
+            return new Scatter(rank, contribution, from, to, parallel);
+        }
+
+        @Override
+        double leaf() {
+            double dangling = 0;
+            for (int u = from; u < to; u++) {
+                double inverse = inverseOutWeight[u];
+                if (inverse == 0) {
+                    dangling += rank[u];
+                }
+                contribution[u] = rank[u] * inverse;
+            }
+            return dangling;
+        }
+    }
+
+    /**
+     * Pull each vertex's new rank from its sources; sums the L1 change.
+     */
+    private class Gather extends Sweep {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double damping;
+        private final double base;
+        private final double[] contribution;
+        private final double[] rank;
+        private final double[] next;
+
+        Gather(double damping, double base, double[] contribution, double[] rank, double[] next,
+                int from, int to, boolean parallel) {
+            super(from, to, parallel);
+            this.damping = damping;
+            this.base = base;
+            this.contribution = contribution;
+            this.rank = rank;
+            this.next = next;
+        }
+
+        @Override
+        Sweep half(int from, int to) {
+            return new Gather(damping, base, contribution, rank, next, from, to, parallel);
+        }
+
+        @Override
+        double leaf() {
+            double change = 0;
+            for (int v = from; v < to; v++) {
+                double sum = 0;
+                int degree = graph.inDegree(v);
+                for (int i = 0; i < degree; i++) {
+                    sum += contribution[graph.source(v, i)] * graph.sourceWeight(v, i);
+                }
+                double value = base + damping * sum;
+                change += Math.abs(value - rank[v]);
+                next[v] = value;
+            }
+            return change;
+        }
+    }
+
+    /**
+     * The ranks computed by one run, indexed by the ids of the snapshot.
+     *
+     * @param <L> type of vertex labels, must be immutable
+     */
+    public static final class Result<L> {
+
+        private final CsrGraph<L> graph;
+        private final double[] ranks;
+        private final int iterations;
+        private final boolean converged;
+
+        // Abstraction function:
+        //   Represents the rank ranks[v] of each vertex id v of 'graph',
+        //   reached after 'iterations' iterations, which met the tolerance
+        //   if 'converged'.
+        //
+        // Representation invariant:
+        //   - ranks.length == graph.vertexCount(), and iterations >= 0.
+        //
+        // Safety from rep exposure:
+        //   - All fields are private and final; getRanks() returns a copy.
+
+        // Constructor
+        Result(CsrGraph<L> graph, double[] ranks, int iterations, boolean converged) {
+            this.graph = graph;
+            this.ranks = ranks;
+            this.iterations = iterations;
+            this.converged = converged;
+            assert ranks.length == graph.vertexCount() && iterations >= 0 : "Malformed result";
+        }
+
+        /**
+         * @param id a vertex id in [0, vertexCount()) of the snapshot
+         * @return the rank of that vertex
+         */
+        public double getRank(int id) {
+            return ranks[id];
+        }
+
+        /**
+         * @param vertex a label
+         * @return the rank of that vertex, or 0 if it is not in the snapshot
+         */
+        public double getRank(L vertex) {
+            int id = graph.idOf(vertex);
+            return id < 0 ? 0 : ranks[id];
+        }
+
+        /**
+         * @return a new array of every vertex's rank, indexed by id
+         */
+        public double[] getRanks() {
+            return ranks.clone();
+        }
+
+        /**
+         * @return the number of iterations run
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return true if the ranks met the tolerance before the iteration
+         *         limit
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+
+        /**
+         * @param k how many vertices to return, non-negative
+         * @return the labels of the k highest-ranked vertices (or all, if
+         *         fewer), highest first; ties are broken by id
+         */
+        public List<L> top(int k) {
+            Integer[] order = new Integer[ranks.length];
+            for (int v = 0; v < order.length; v++) {
+                order[v] = v;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(v -> -ranks[v]).thenComparingInt(v -> v));
+            List<L> top = new ArrayList<>();
+            for (int i = 0; i < Math.min(k, order.length); i++) {
+                top.add(graph.labelOf(order[i]));
+            }
+            return top;
+        }
+
+        @Override
+        public String toString() {
+            return "PageRank after " + iterations + " iterations" + (converged ? "" : " (not converged)")
+                    + ": top " + top(10);
+        }
+    }
+}
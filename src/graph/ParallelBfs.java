@@ -0,0 +1,200 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Breadth-first reachability over a {@link CsrGraph} snapshot, expanding each
+ * level of the search in parallel on a {@link ForkJoinPool}.
+ *
+ * <p>The search is level-synchronous: every vertex of the current frontier is
+ * expanded before any vertex of the next one. Each frontier is split into
+ * chunks that run as fork-join tasks. A vertex joins the next frontier only
+ * if the claiming thread wins an atomic test-and-set on a bitset over vertex
+ * ids, so no vertex is visited twice.
+ *
+ * <p>Instances are immutable and may be shared between threads; every query
+ * allocates its own working arrays, of size proportional to the vertex count.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public class ParallelBfs<L> {
+
+    /** Which edges a search follows. */
+    public enum Direction {
+        /** Follow edges from source to target, as {@link Graph#targets}. */
+        FORWARD,
+        /** Follow edges from target to source, as {@link Graph#sources}. */
+        BACKWARD
+    }
+
+    /** Hop limit meaning "no limit". */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /** Hop count reported for a vertex that is not reached. */
+    public static final int UNREACHED = -1;
+
+    // Frontiers smaller than this are expanded by the calling thread, and
+    // larger ones are split into chunks of about this many vertices
+    private static final int CHUNK = 1024;
+
+    private final CsrGraph<L> graph;
+    private final ForkJoinPool pool;
+
+    // Abstraction function:
+    //   Represents a reachability oracle for 'graph' that runs its searches
+    //   on 'pool'.
+    //
+    // Representation invariant:
+    //   - 'graph' and 'pool' are not null.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final; the snapshot is immutable.
+    //   - hops() returns a fresh array and reachable() a fresh set.
+
+    // Constructor, using the common fork-join pool
+    public ParallelBfs(CsrGraph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    // Constructor
+    public ParallelBfs(CsrGraph<L> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert graph != null && pool != null : "Graph and pool must not be null";
+    }
+
+    /**
+     * Count the hops from a vertex to every vertex within a hop limit.
+     *
+     * @param source id of the start vertex in [0, graph.vertexCount())
+     * @param maxHops the largest number of edges a path may use, non-negative,
+     *        or {@link #UNLIMITED}
+     * @param direction which way edges are followed
+     * @return a new array where entry v is the least number of edges on a
+     *         path from source to v (or from v to source, if BACKWARD), or
+     *         {@link #UNREACHED} if there is no such path within maxHops
+     */
+    public int[] hops(int source, int maxHops, Direction direction) {
+        int n = graph.vertexCount();
+        int[] hops = new int[n];
+        Arrays.fill(hops, UNREACHED);
+        AtomicBitSet visited = new AtomicBitSet(n);
+        int[] frontier = new int[n];
+        int[] next = new int[n];
+        AtomicInteger nextSize = new AtomicInteger();
+
+        visited.add(source);
+        hops[source] = 0;
+        frontier[0] = source;
+        int frontierSize = 1;
+        for (int level = 1; frontierSize > 0 && level - 1 < maxHops; level++) {
+            nextSize.set(0);
+            Expand task = new Expand(direction == Direction.FORWARD, frontier, 0, frontierSize,
+                    next, nextSize, visited, hops, level);
+            if (frontierSize <= CHUNK) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize.get();
+        }
+        return hops;
+    }
+
+    /**
+     * Find every vertex within a hop limit of a vertex.
+     *
+     * @param source label of the start vertex
+     * @param maxHops the largest number of edges a path may use, non-negative,
+     *        or {@link #UNLIMITED}
+     * @param direction which way edges are followed
+     * @return the set of labels of vertices reachable from source (or that can
+     *         reach source, if BACKWARD) along at most maxHops edges,
+     *         including source itself; empty if source is not in the graph
+     */
+    public Set<L> reachable(L source, int maxHops, Direction direction) {
+        Set<L> reached = new HashSet<>();
+        int id = graph.idOf(source);
+        if (id < 0) {
+            return reached;
+        }
+        int[] hops = hops(id, maxHops, direction);
+        for (int v = 0; v < hops.length; v++) {
+            if (hops[v] != UNREACHED) {
+                reached.add(graph.labelOf(v));
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Expand frontier[from..to) by one level, splitting in halves down to
+     * chunks of about CHUNK vertices.
+     */
+    private class Expand extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean forward;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final int[] next;
+        private final AtomicInteger nextSize;
+        private final AtomicBitSet visited;
+        private final int[] hops;
+        private final int level;
+
+        Expand(boolean forward, int[] frontier, int from, int to, int[] next, AtomicInteger nextSize,
+                AtomicBitSet visited, int[] hops, int level) {
+            this.forward = forward;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+            this.nextSize = nextSize;
+            this.visited = visited;
+            this.hops = hops;
+            this.level = level;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Expand(forward, frontier, from, middle, next, nextSize, visited, hops, level),
+                        new Expand(forward, frontier, middle, to, next, nextSize, visited, hops, level));
+                return;
+            }
+            // Collect locally, then reserve one block of the next frontier
+            IntList found = new IntList();
+            for (int k = from; k < to; k++) {
+                int u = frontier[k];
+                int degree = forward ? graph.outDegree(u) : graph.inDegree(u);
+                for (int i = 0; i < degree; i++) {
+                    int v = forward ? graph.target(u, i) : graph.source(u, i);
+                    if (!visited.get(v) && visited.add(v)) {
+                        hops[v] = level;
+                        found.add(v);
+                    }
+                }
+            }
+            if (!found.isEmpty()) {
+                found.copyTo(next, nextSize.getAndAdd(found.size()));
+            }
+        }
+    }
+}
@@ -0,0 +1,518 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable hash map with structural sharing: a hash array mapped trie
+ * whose nodes branch 32 ways on successive 5-bit slices of the keys' hashes.
+ * put() and remove() return a new map that copies only the O(log32 n) nodes
+ * on the path to the key and shares every other node with this one, so a
+ * new version costs memory proportional to the change, not to the map.
+ * Keys whose hashes are equal in all 32 bits share a collision node.
+ *
+ * <p>Keys and values must not be null.
+ *
+ * @param <K> type of keys, must be immutable
+ * @param <V> type of values, must be immutable
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentMap EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    // Abstraction function:
+    //   Represents the map holding every key-value pair stored in the trie
+    //   under 'root', or the empty map if root is null.
+    //
+    // Representation invariant:
+    //   - size is the number of pairs under root, and root is null iff
+    //     size == 0.
+    //   - every pair is stored in the BitmapNode or CollisionNode that its
+    //     key's hash leads to from the root, once.
+    //   - no node is empty, and no node below the root holds a single pair
+    //     and nothing else.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final, and nodes are never changed once
+    //     published; nodes and their arrays are never returned.
+    //   - Keys and values are immutable.
+
+    // Constructor
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return EMPTY;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the number of keys in this map
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this map has no keys
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key a key
+     * @return the value of key, or null if key is not in this map
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        return root == null || key == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    /**
+     * @param key a key
+     * @return true if key is in this map
+     */
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key a key
+     * @param value its new value
+     * @return a map equal to this one except that key maps to value; this
+     *         map itself if key already maps to an equal value
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("null key or value");
+        }
+        int hash = hash(key);
+        if (root == null) {
+            return new PersistentMap<>(new BitmapNode(bit(hash, 0), new Object[] { key, value }), 1);
+        }
+        boolean[] added = { false };
+        Node newRoot = root.put(key, value, hash, 0, added);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @param key a key
+     * @return a map equal to this one without key; this map itself if key is
+     *         not in it
+     */
+    PersistentMap<K, V> remove(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Node newRoot = root.remove(key, hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Visit every pair of this map.
+     *
+     * @param action called once with each key and its value
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    /**
+     * @return the number of branches of the root; the root's branches are
+     *         numbered [0, width()) and partition the keys
+     */
+    int width() {
+        return root == null ? 0 : root.width();
+    }
+
+    /**
+     * @return an iterator over the pairs of this map, as immutable entries
+     */
+    Iterator<Map.Entry<K, V>> iterator() {
+        return iterator(0, width());
+    }
+
+    /**
+     * @param from first root branch, inclusive
+     * @param to last root branch, exclusive
+     * @return an iterator over the pairs under root branches [from, to), as
+     *         immutable entries
+     */
+    Iterator<Map.Entry<K, V>> iterator(int from, int to) {
+        return root == null || from >= to ? Collections.emptyIterator() : new TrieIterator<>(root, from, to);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        forEach((key, value) -> result.append(result.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return result.append('}').toString();
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    // A node holding the two given pairs, whose hashes agree below 'shift'
+    private static Node pair(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2,
+            int shift) {
+        if (shift >= Integer.SIZE) {
+            return new CollisionNode(hash1, new Object[] { key1, key2 }, new Object[] { value1, value2 });
+        }
+        int bit1 = bit(hash1, shift);
+        int bit2 = bit(hash2, shift);
+        if (bit1 == bit2) {
+            return new BitmapNode(bit1,
+                    new Object[] { null, pair(key1, value1, hash1, key2, value2, hash2, shift + BITS) });
+        }
+        Object[] array = Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Object[] { key1, value1, key2, value2 }
+                : new Object[] { key2, value2, key1, value1 };
+        return new BitmapNode(bit1 | bit2, array);
+    }
+
+    /** A node of the trie. */
+    private abstract static class Node {
+
+        // Value of key under this node, or null
+        abstract Object get(Object key, int hash, int shift);
+
+        // This node with key mapped to value; this node itself if unchanged.
+        // Sets added[0] if key was not under this node.
+        abstract Node put(Object key, Object value, int hash, int shift, boolean[] added);
+
+        // This node without key; this node itself if key is absent; null if
+        // the node would be empty
+        abstract Node remove(Object key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+
+        // Number of branches, each a pair or a child node
+        abstract int width();
+
+        // If branch i is a pair, its key; otherwise null
+        abstract Object keyAt(int i);
+
+        // If branch i is a pair, its value; otherwise the child node
+        abstract Object valueAt(int i);
+    }
+
+    /**
+     * A node with one branch per set bit of 'bitmap', in bit order. Branch i
+     * is array[2i] = key and array[2i+1] = value for a pair, or array[2i] =
+     * null and array[2i+1] = child node.
+     */
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+        private final Object[] array;
+
+        // Constructor
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+            assert array.length == 2 * Integer.bitCount(bitmap) && bitmap != 0 : "Malformed node";
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).get(key, hash, shift + BITS);
+            }
+            return k.equals(key) ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(array, i, copy, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).put(key, value, hash, shift + BITS, added);
+                return child == v ? this : replace(i, null, child);
+            }
+            if (k.equals(key)) {
+                return v.equals(value) ? this : replace(i, k, value);
+            }
+            added[0] = true;
+            return replace(i, null, pair(k, v, hash(k), key, value, hash, shift + BITS));
+        }
+
+        private BitmapNode replace(int i, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[i] = key;
+            copy[i + 1] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private Node without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k != null) {
+                return k.equals(key) ? without(bit, i) : this;
+            }
+            Node child = (Node) array[i + 1];
+            Node newChild = child.remove(key, hash, shift + BITS);
+            if (newChild == child) {
+                return this;
+            }
+            if (newChild == null) {
+                return without(bit, i);
+            }
+            if (newChild.width() == 1 && newChild.keyAt(0) != null) {
+                // Pull a lone pair up into this node
+                return replace(i, newChild.keyAt(0), newChild.valueAt(0));
+            }
+            return replace(i, null, newChild);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        @Override
+        int width() {
+            return array.length / 2;
+        }
+
+        @Override
+        Object keyAt(int i) {
+            return array[2 * i];
+        }
+
+        @Override
+        Object valueAt(int i) {
+            return array[2 * i + 1];
+        }
+    }
+
+    /**
+     * A node of pairs whose keys all have the same full hash.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] keys;
+        private final Object[] values;
+
+        // Constructor
+        CollisionNode(int hash, Object[] keys, Object[] values) {
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+            assert keys.length == values.length && keys.length > 0 : "Malformed collision node";
+        }
+
+        private int find(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int i = find(key);
+            return i < 0 ? null : values[i];
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            assert hash == this.hash : "Key does not belong in this collision node";
+            int i = find(key);
+            if (i >= 0) {
+                if (values[i].equals(value)) {
+                    return this;
+                }
+                Object[] newValues = values.clone();
+                newValues[i] = value;
+                return new CollisionNode(hash, keys, newValues);
+            }
+            Object[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            Object[] newValues = Arrays.copyOf(values, values.length + 1);
+            newKeys[keys.length] = key;
+            newValues[values.length] = value;
+            added[0] = true;
+            return new CollisionNode(hash, newKeys, newValues);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int i = find(key);
+            if (i < 0) {
+                return this;
+            }
+            if (keys.length == 1) {
+                return null;
+            }
+            Object[] newKeys = new Object[keys.length - 1];
+            Object[] newValues = new Object[values.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(values, 0, newValues, 0, i);
+            System.arraycopy(values, i + 1, newValues, i, values.length - i - 1);
+            return new CollisionNode(hash, newKeys, newValues);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < keys.length; i++) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+
+        @Override
+        int width() {
+            return keys.length;
+        }
+
+        @Override
+        Object keyAt(int i) {
+            return keys[i];
+        }
+
+        @Override
+        Object valueAt(int i) {
+            return values[i];
+        }
+    }
+
+    /**
+     * A depth-first iterator over the pairs under a range of a node's
+     * branches, with an explicit stack of (node, next branch).
+     */
+    private static final class TrieIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        // Deep enough for 32-bit hashes in 5-bit slices, plus a collision node
+        private static final int MAX_DEPTH = Integer.SIZE / BITS + 2;
+
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] positions = new int[MAX_DEPTH];
+        private final int rootEnd;
+        private int depth = 0;
+        private Object nextKey;
+        private Object nextValue;
+
+        // Constructor, over branches [from, to) of root
+        TrieIterator(Node root, int from, int to) {
+            nodes[0] = root;
+            positions[0] = from;
+            rootEnd = to;
+            advance();
+        }
+
+        // Find the next pair, or set nextKey to null if there is none
+        private void advance() {
+            nextKey = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                int end = depth == 0 ? rootEnd : node.width();
+                if (positions[depth] >= end) {
+                    depth--;
+                    continue;
+                }
+                int i = positions[depth]++;
+                Object key = node.keyAt(i);
+                if (key != null) {
+                    nextKey = key;
+                    nextValue = node.valueAt(i);
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) node.valueAt(i);
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>((K) nextKey, (V) nextValue);
+            advance();
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.Locale;
+
+/**
+ * How often a graph implementation checks its representation invariant after
+ * a mutation.
+ *
+ * <p>The default for new instances comes from the system property
+ * {@value #PROPERTY} ({@code off}, {@code sampled}, {@code incremental} or
+ * {@code full}, in any case). If that property is not set, or names no
+ * mode, the default is {@link #FULL} when assertions are enabled and
+ * {@link #OFF} otherwise, so production runs without {@code -ea} pay nothing
+ * for rep checking. Like {@link Integer#getInteger(String, int)} for
+ * {@value #SAMPLE_PROPERTY}, a malformed value is ignored rather than
+ * failing class initialization.
+ */
+public enum RepCheck {
+
+    /** Never check; mutations cost no more than the operation itself. */
+    OFF,
+
+    /**
+     * Run the full check once every {@link #sampleInterval()} mutations, so
+     * the amortized cost per mutation is small.
+     */
+    SAMPLED,
+
+    /** After each mutation, check only the part of the rep it touched. */
+    INCREMENTAL,
+
+    /** Run the full check after every mutation. */
+    FULL;
+
+    /** System property that selects the default mode. */
+    public static final String PROPERTY = "graph.repcheck";
+
+    /** System property that sets the interval for {@link #SAMPLED} mode. */
+    public static final String SAMPLE_PROPERTY = "graph.repcheck.sample";
+
+    private static final int DEFAULT_SAMPLE_INTERVAL = 1024;
+
+    private static final RepCheck DEFAULT = fromSystemProperty();
+    private static final int SAMPLE_INTERVAL = Math.max(1,
+            Integer.getInteger(SAMPLE_PROPERTY, DEFAULT_SAMPLE_INTERVAL));
+
+    /**
+     * @return the mode that new graph instances start in
+     */
+    public static RepCheck defaultMode() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the number of mutations between full checks in SAMPLED mode
+     */
+    public static int sampleInterval() {
+        return SAMPLE_INTERVAL;
+    }
+
+    private static RepCheck fromSystemProperty() {
+        return parse(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * Read a mode as given in the system property {@value #PROPERTY}.
+     *
+     * @param mode the name of a mode in any case, possibly surrounded by
+     *        whitespace, or null
+     * @return the mode named, or the default for when the property is not
+     *         set if mode is null or names no mode
+     */
+    static RepCheck parse(String mode) {
+        if (mode != null) {
+            String name = mode.trim().toUpperCase(Locale.ROOT);
+            for (RepCheck value : values()) {
+                if (value.name().equals(name)) {
+                    return value;
+                }
+            }
+        }
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true; // intentional side effect, only runs with -ea
+        return assertionsEnabled ? FULL : OFF;
+    }
+
+    /**
+     * Decide whether the mutation with the given sequence number should run
+     * the full check.
+     *
+     * @param mutations number of mutations so far, including this one
+     * @return true if a full check is due in this mode
+     */
+    boolean fullCheckDue(long mutations) {
+        return this == FULL || (this == SAMPLED && mutations % SAMPLE_INTERVAL == 0);
+    }
+}
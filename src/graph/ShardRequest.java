@@ -0,0 +1,25 @@
+package graph;
+
+import java.io.Serializable;
+
+/**
+ * One operation to run on a {@link GraphShard}, as sent by a
+ * {@link ShardedGraph} through a {@link ShardTransport}. Requests are
+ * serializable so that a transport may carry them to a shard in another
+ * process; a request must capture only its arguments, and its reply must
+ * also be serializable.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ * @param <R> type of the reply
+ */
+@FunctionalInterface
+public interface ShardRequest<L, R> extends Serializable {
+
+    /**
+     * Run this request.
+     *
+     * @param shard the shard it was sent to
+     * @return the reply
+     */
+    R apply(GraphShard<L> shard);
+}
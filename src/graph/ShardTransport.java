@@ -0,0 +1,31 @@
+package graph;
+
+/**
+ * How a {@link ShardedGraph} reaches its shards. A transport owns or
+ * connects to a fixed number of {@link GraphShard}s and delivers each request
+ * to one of them, returning its reply. Implementations must be safe for
+ * concurrent use, and should let requests to different shards proceed in
+ * parallel.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public interface ShardTransport<L> {
+
+    /**
+     * @return the number of shards, positive and fixed for the life of the
+     *         transport
+     */
+    int shardCount();
+
+    /**
+     * Run a request on one shard and wait for its reply.
+     *
+     * @param <R> type of the reply
+     * @param shard index of the shard, in [0, shardCount())
+     * @param request the request to run
+     * @return the reply of the request
+     * @throws IllegalStateException if the request cannot be delivered or
+     *         its reply cannot be returned
+     */
+    <R> R send(int shard, ShardRequest<L, R> request);
+}
@@ -0,0 +1,538 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A thread-safe implementation of Graph that partitions its vertices across
+ * a fixed number of {@link GraphShard}s by the hash of their labels. Each
+ * shard holds its own vertices and their outgoing edges, with a reverse index
+ * of those edges by target; the shards are reached through a pluggable
+ * {@link ShardTransport}, in this JVM ({@link InProcessTransport}) or
+ * elsewhere.
+ *
+ * <p>set() and targets() go to the shard that owns the source (and set() to
+ * the shard that owns the target, to add it); sources() asks every shard,
+ * since the sources of a vertex may live anywhere. add() and set() on
+ * different shards run in parallel. remove() must clear edges into the vertex
+ * from every shard, so it excludes all other mutators while it runs; each of
+ * add(), set() and remove() is atomic. Observers other than freeze() never
+ * lock; they are weakly consistent, seeing each shard as it is when they
+ * reach it.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable (and
+ *        serializable, if the transport requires it)
+ */
+public class ShardedGraph<L> extends Graph<L> {
+
+    private final ShardTransport<L> transport;
+    private final int shardCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Abstraction function:
+    //   Represents the graph whose vertices are the union of the vertices of
+    //   the shards reached through 'transport', with the edges out of each
+    //   vertex held by its shard.
+    //
+    // Representation invariant:
+    //   - shardCount == transport.shardCount() and is positive.
+    //   - every vertex v is held by shard shardOf(v) and by no other.
+    //   - every edge target is a vertex of this graph.
+    //   The invariant holds whenever no mutator is running: add() and set()
+    //   hold the read lock and add the target before the edge; remove() holds
+    //   the write lock.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final, and the shards are reached only
+    //     through requests whose replies are fresh collections.
+    //   - Labels are immutable and weights are ints or boxed Integers, also
+    //     immutable.
+
+    // Constructor, with the given number of shards in this JVM
+    public ShardedGraph(int shardCount) {
+        this(new InProcessTransport<>(shardCount));
+    }
+
+    // Constructor, over the shards of the given transport, which should be
+    // empty
+    public ShardedGraph(ShardTransport<L> transport) {
+        super(Collections.emptySet());
+        this.transport = transport;
+        this.shardCount = transport.shardCount();
+        assert shardCount > 0 : "No shards";
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @param vertex a label
+     * @return the index of the shard that owns that label, in
+     *         [0, getShardCount())
+     */
+    public int shardOf(L vertex) {
+        int h = vertex.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+
+    private <R> R send(L vertex, ShardRequest<L, R> request) {
+        return transport.send(shardOf(vertex), request);
+    }
+
+    // Group labels by the shard that owns them
+    private List<List<L>> byShard(Iterable<? extends L> vertices) {
+        List<List<L>> groups = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (L vertex : vertices) {
+            groups.get(shardOf(vertex)).add(vertex);
+        }
+        return groups;
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        lock.readLock().lock();
+        try {
+            boolean added = send(vertex, shard -> shard.addVertex(vertex));
+            if (added) {
+                logVertexAdded(vertex);
+            }
+            return added;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        lock.readLock().lock();
+        try {
+            boolean targetAdded = weight != 0 && send(target, shard -> shard.addVertex(target));
+            int previous = send(source, shard -> shard.setEdge(source, target, weight));
+            if (previous < 0) {
+                logVertexAdded(source);
+                previous = 0;
+            }
+            if (targetAdded) {
+                logVertexAdded(target);
+            }
+            logEdgeChanged(source, target, previous, weight);
+            return previous;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        lock.writeLock().lock();
+        try {
+            if (!send(vertex, shard -> shard.removeVertex(vertex))) {
+                return false;
+            }
+            for (int i = 0; i < shardCount; i++) {
+                transport.send(i, shard -> shard.removeEdgesTo(vertex));
+            }
+            logVertexRemoved(vertex);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the vertices are sent to each shard in one
+     * request. Each vertex is added atomically, but the batch as a whole is
+     * not.
+     */
+    @Override
+    public boolean addAll(Collection<? extends L> newVertices) {
+        lock.readLock().lock();
+        try {
+            boolean changed = false;
+            List<List<L>> groups = byShard(newVertices);
+            for (int i = 0; i < shardCount; i++) {
+                List<L> group = groups.get(i);
+                if (group.isEmpty()) {
+                    continue;
+                }
+                boolean[] added = transport.send(i, shard -> shard.addVertices(group));
+                for (int k = 0; k < added.length; k++) {
+                    if (added[k]) {
+                        logVertexAdded(group.get(k));
+                        changed = true;
+                    }
+                }
+            }
+            return changed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the batch takes two requests per shard: one
+     * adding the targets it owns, then one setting the edges out of its
+     * sources in order. The final state is as if each edge were set in
+     * order, and the changes are logged in batch order, exactly as set()
+     * would log them edge by edge; but the batch is not atomic.
+     */
+    @Override
+    public void setAll(Iterable<EdgeTriple<L>> newEdges) {
+        List<EdgeTriple<L>> batch = new ArrayList<>();
+        List<L> targets = new ArrayList<>();
+        for (EdgeTriple<L> edge : newEdges) {
+            batch.add(edge);
+            if (edge.getWeight() != 0) {
+                targets.add(edge.getTarget());
+            }
+        }
+        List<List<EdgeTriple<L>>> edgeGroups = new ArrayList<>();
+        List<List<Integer>> indexGroups = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            edgeGroups.add(new ArrayList<>());
+            indexGroups.add(new ArrayList<>());
+        }
+        for (int index = 0; index < batch.size(); index++) {
+            int shard = shardOf(batch.get(index).getSource());
+            edgeGroups.get(shard).add(batch.get(index));
+            indexGroups.get(shard).add(index);
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<L> added = new HashSet<>();
+            List<List<L>> targetGroups = byShard(targets);
+            for (int i = 0; i < shardCount; i++) {
+                List<L> group = targetGroups.get(i);
+                if (group.isEmpty()) {
+                    continue;
+                }
+                boolean[] targetAdded = transport.send(i, shard -> shard.addVertices(group));
+                for (int k = 0; k < targetAdded.length; k++) {
+                    if (targetAdded[k]) {
+                        added.add(group.get(k));
+                    }
+                }
+            }
+            int[] previous = new int[batch.size()];
+            for (int i = 0; i < shardCount; i++) {
+                List<EdgeTriple<L>> group = edgeGroups.get(i);
+                if (group.isEmpty()) {
+                    continue;
+                }
+                int[] results = transport.send(i, shard -> shard.setEdges(group));
+                for (int k = 0; k < results.length; k++) {
+                    previous[indexGroups.get(i).get(k)] = results[k];
+                    if (results[k] < 0) {
+                        added.add(group.get(k).getSource());
+                    }
+                }
+            }
+            // Log each new vertex at its first edge, as set() would
+            for (int index = 0; index < batch.size(); index++) {
+                EdgeTriple<L> edge = batch.get(index);
+                if (edge.getWeight() != 0) {
+                    if (added.remove(edge.getSource())) {
+                        logVertexAdded(edge.getSource());
+                    }
+                    if (added.remove(edge.getTarget())) {
+                        logVertexAdded(edge.getTarget());
+                    }
+                }
+                logEdgeChanged(edge.getSource(), edge.getTarget(), Math.max(previous[index], 0), edge.getWeight());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the batch is atomic, and takes two requests
+     * per shard: one removing the vertices it owns, then one removing every
+     * edge into any removed vertex.
+     */
+    @Override
+    public boolean removeAll(Collection<? extends L> oldVertices) {
+        lock.writeLock().lock();
+        try {
+            List<L> removed = new ArrayList<>();
+            List<List<L>> groups = byShard(oldVertices);
+            for (int i = 0; i < shardCount; i++) {
+                List<L> group = groups.get(i);
+                if (group.isEmpty()) {
+                    continue;
+                }
+                boolean[] present = transport.send(i, shard -> {
+                    boolean[] result = new boolean[group.size()];
+                    for (int k = 0; k < result.length; k++) {
+                        result[k] = shard.removeVertex(group.get(k));
+                    }
+                    return result;
+                });
+                for (int k = 0; k < present.length; k++) {
+                    if (present[k]) {
+                        removed.add(group.get(k));
+                    }
+                }
+            }
+            if (removed.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < shardCount; i++) {
+                transport.send(i, shard -> {
+                    int count = 0;
+                    for (L vertex : removed) {
+                        count += shard.removeEdgesTo(vertex);
+                    }
+                    return count;
+                });
+            }
+            for (L vertex : removed) {
+                logVertexRemoved(vertex);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<L> vertices() {
+        Set<L> vertices = new HashSet<>();
+        for (int i = 0; i < shardCount; i++) {
+            vertices.addAll(transport.send(i, GraphShard::vertices));
+        }
+        return vertices;
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = new HashMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            sources.putAll(transport.send(i, shard -> shard.sources(target)));
+        }
+        return sources;
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        return send(source, shard -> shard.targets(source));
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        return send(source, shard -> shard.weight(source, target));
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+        targets(source).forEach(action::accept);
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+        sources(target).forEach(action::accept);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the view may be read concurrently with
+     * mutation. size() and contains() ask the shards on every call, and each
+     * iterator walks a copy taken when it is created.
+     */
+    @Override
+    public Set<L> verticesView() {
+        return new AbstractSet<L>() {
+            @Override
+            public int size() {
+                int size = 0;
+                for (int i = 0; i < shardCount; i++) {
+                    size += transport.send(i, GraphShard::vertexCount);
+                }
+                return size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object vertex) {
+                L label = (L) vertex;
+                return vertex != null && send(label, shard -> shard.containsVertex(label));
+            }
+
+            @Override
+            public Iterator<L> iterator() {
+                return Collections.unmodifiableSet(vertices()).iterator();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the view may be read concurrently with
+     * mutation; every access asks all of the shards again.
+     */
+    @Override
+    public Map<L, Integer> sourcesView(L target) {
+        return new AbstractMap<L, Integer>() {
+            @Override
+            public Set<Map.Entry<L, Integer>> entrySet() {
+                return Collections.unmodifiableMap(sources(target)).entrySet();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the view may be read concurrently with
+     * mutation; every access asks the owning shard again.
+     */
+    @Override
+    public Map<L, Integer> targetsView(L source) {
+        return new AbstractMap<L, Integer>() {
+            @Override
+            public Set<Map.Entry<L, Integer>> entrySet() {
+                return Collections.unmodifiableMap(targets(source)).entrySet();
+            }
+
+            @Override
+            public Integer get(Object key) {
+                return targets(source).get(key);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the cursor may be used concurrently with
+     * mutation; it fetches the edges of one shard at a time, as they are
+     * when the cursor reaches that shard.
+     */
+    @Override
+    public EdgeCursor<L> edges() {
+        return new EdgeCursor<L>() {
+            private int nextShard = 0;
+            private Iterator<EdgeTriple<L>> row = Collections.emptyIterator();
+            private EdgeTriple<L> edge;
+
+            @Override
+            public boolean next() {
+                while (!row.hasNext()) {
+                    if (nextShard == shardCount) {
+                        edge = null;
+                        return false;
+                    }
+                    row = transport.send(nextShard++, GraphShard::edges).iterator();
+                }
+                edge = row.next();
+                return true;
+            }
+
+            private EdgeTriple<L> current() {
+                if (edge == null) {
+                    throw new IllegalStateException("cursor is not on an edge");
+                }
+                return edge;
+            }
+
+            @Override
+            public L source() {
+                return current().getSource();
+            }
+
+            @Override
+            public L target() {
+                return current().getTarget();
+            }
+
+            @Override
+            public int weight() {
+                return current().getWeight();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the stream may run concurrently with
+     * mutation; it is weakly consistent in the same way as {@link #edges()},
+     * and splits by shard.
+     */
+    @Override
+    public Stream<EdgeTriple<L>> edgeStream() {
+        return IntStream.range(0, shardCount).boxed()
+                .flatMap(i -> transport.send(i, GraphShard::edges).stream());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the snapshot is read under the write lock,
+     * one request for the vertices and one for the edges of each shard, so
+     * it is a state the whole graph really had. Unlike the other observers,
+     * it waits for running mutators and holds back new ones while it reads.
+     */
+    @Override
+    public CsrGraph<L> freeze() {
+        List<L> vertices = new ArrayList<>();
+        Map<L, List<EdgeTriple<L>>> rows = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                vertices.addAll(transport.send(i, GraphShard::vertices));
+                for (EdgeTriple<L> edge : transport.send(i, GraphShard::edges)) {
+                    rows.computeIfAbsent(edge.getSource(), source -> new ArrayList<>()).add(edge);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return CsrGraph.copyOf(vertices, (source, action) -> {
+            for (EdgeTriple<L> edge : rows.getOrDefault(source, List.of())) {
+                action.accept(edge.getTarget(), edge.getWeight());
+            }
+        }, false);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        EdgeCursor<L> cursor = edges();
+        while (cursor.next()) {
+            sb.append(String.format("%s -> %s : %d", cursor.source(), cursor.target(), cursor.weight()))
+                    .append("\n");
+        }
+        return sb.toString();
+    }
+}
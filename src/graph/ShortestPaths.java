@@ -0,0 +1,253 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shortest-path queries over a {@link CsrGraph} snapshot, using Dijkstra's
+ * algorithm with an indexed primitive binary heap. Edge weights in a graph are
+ * positive, so every query is exact.
+ *
+ * <p>All bookkeeping is in int-id arrays that are allocated once and reused:
+ * each query marks the entries it touches with a fresh epoch number instead of
+ * clearing them, so a point-to-point query that stops early costs time
+ * proportional to the part of the graph it explores, not to the whole graph.
+ * Because of that shared scratch space an instance must not be used by more
+ * than one thread at a time; create one instance per thread instead.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public class ShortestPaths<L> {
+
+    /** Distance reported for a vertex that cannot be reached. */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final CsrGraph<L> graph;
+    private final long[] forwardDistances;
+    private final long[] backwardDistances;
+    private final int[] forwardParents;
+    private final int[] backwardParents;
+    private final int[] forwardStamps;
+    private final int[] backwardStamps;
+    private final IntMinHeap forwardHeap;
+    private final IntMinHeap backwardHeap;
+    private int epoch = 0;
+
+    // Abstraction function:
+    //   Represents a shortest-path oracle for 'graph'. The other fields are
+    //   scratch space for the query in progress and add nothing to the
+    //   abstract value.
+    //
+    // Representation invariant:
+    //   - every array has length graph.vertexCount(), and both heaps have
+    //     that capacity.
+    //   - during a query, forwardDistances[v] and forwardParents[v] are
+    //     meaningful only if forwardStamps[v] == epoch; likewise backward.
+    //   - between queries, both heaps are empty.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final except 'epoch'; the snapshot is
+    //     immutable and the scratch arrays are never returned.
+    //   - distancesFrom() returns a fresh array and paths are immutable.
+
+    // Constructor
+    public ShortestPaths(CsrGraph<L> graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.forwardDistances = new long[n];
+        this.backwardDistances = new long[n];
+        this.forwardParents = new int[n];
+        this.backwardParents = new int[n];
+        this.forwardStamps = new int[n];
+        this.backwardStamps = new int[n];
+        this.forwardHeap = new IntMinHeap(n);
+        this.backwardHeap = new IntMinHeap(n);
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert forwardDistances.length == graph.vertexCount() : "Scratch arrays sized wrongly";
+        assert forwardHeap.isEmpty() && backwardHeap.isEmpty() : "Heaps not cleared between queries";
+    }
+
+    // Start a new query, invalidating every stamped entry in O(1)
+    private void nextEpoch() {
+        if (++epoch == 0) {
+            Arrays.fill(forwardStamps, 0);
+            Arrays.fill(backwardStamps, 0);
+            epoch = 1;
+        }
+        forwardHeap.clear();
+        backwardHeap.clear();
+    }
+
+    private void reach(long[] distances, int[] parents, int[] stamps, IntMinHeap heap,
+            int vertex, long distance, int parent) {
+        stamps[vertex] = epoch;
+        distances[vertex] = distance;
+        parents[vertex] = parent;
+        heap.push(vertex, distance);
+    }
+
+    // Forward Dijkstra from source; stops once target is settled, or runs to
+    // completion if target is -1
+    private void forwardSearch(int source, int target) {
+        nextEpoch();
+        reach(forwardDistances, forwardParents, forwardStamps, forwardHeap, source, 0, -1);
+        while (!forwardHeap.isEmpty()) {
+            int u = forwardHeap.poll();
+            if (u == target) {
+                break;
+            }
+            long du = forwardDistances[u];
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                int v = graph.target(u, i);
+                long dv = du + graph.targetWeight(u, i);
+                if (forwardStamps[v] != epoch || dv < forwardDistances[v]) {
+                    reach(forwardDistances, forwardParents, forwardStamps, forwardHeap, v, dv, u);
+                }
+            }
+        }
+        forwardHeap.clear();
+        checkRep();
+    }
+
+    /**
+     * Compute the distance from one vertex to every vertex.
+     *
+     * @param source id of the source vertex in [0, graph.vertexCount())
+     * @return a new array where entry v is the length of a shortest path from
+     *         source to v, or {@link #UNREACHABLE} if there is none
+     */
+    public long[] distancesFrom(int source) {
+        forwardSearch(source, -1);
+        long[] distances = new long[graph.vertexCount()];
+        for (int v = 0; v < distances.length; v++) {
+            distances[v] = forwardStamps[v] == epoch ? forwardDistances[v] : UNREACHABLE;
+        }
+        return distances;
+    }
+
+    /**
+     * Compute the length of a shortest path, stopping as soon as the target is
+     * reached.
+     *
+     * @param source id of the source vertex in [0, graph.vertexCount())
+     * @param target id of the target vertex in [0, graph.vertexCount())
+     * @return the length of a shortest path from source to target, or
+     *         {@link #UNREACHABLE} if there is none
+     */
+    public long distance(int source, int target) {
+        forwardSearch(source, target);
+        return forwardStamps[target] == epoch ? forwardDistances[target] : UNREACHABLE;
+    }
+
+    /**
+     * Find a shortest path with a single forward search that stops as soon as
+     * the target is reached.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return a path of least total weight from source to target, or empty if
+     *         either vertex is not in the graph or target is unreachable
+     */
+    public Optional<WeightedPath<L>> shortestPath(L source, L target) {
+        int s = graph.idOf(source);
+        int t = graph.idOf(target);
+        if (s < 0 || t < 0) {
+            return Optional.empty();
+        }
+        forwardSearch(s, t);
+        if (forwardStamps[t] != epoch) {
+            return Optional.empty();
+        }
+        List<L> vertices = new ArrayList<>();
+        for (int v = t; v >= 0; v = forwardParents[v]) {
+            vertices.add(graph.labelOf(v));
+        }
+        Collections.reverse(vertices);
+        return Optional.of(new WeightedPath<>(vertices, forwardDistances[t]));
+    }
+
+    /**
+     * Find a shortest path by searching forward from the source over outgoing
+     * edges and backward from the target over incoming edges at the same
+     * time, which usually explores far fewer vertices than a one-sided search.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return a path of least total weight from source to target, or empty if
+     *         either vertex is not in the graph or target is unreachable
+     */
+    public Optional<WeightedPath<L>> bidirectionalShortestPath(L source, L target) {
+        int s = graph.idOf(source);
+        int t = graph.idOf(target);
+        if (s < 0 || t < 0) {
+            return Optional.empty();
+        }
+        if (s == t) {
+            return Optional.of(new WeightedPath<>(new ArrayList<>(List.of(source)), 0));
+        }
+        nextEpoch();
+        reach(forwardDistances, forwardParents, forwardStamps, forwardHeap, s, 0, -1);
+        reach(backwardDistances, backwardParents, backwardStamps, backwardHeap, t, 0, -1);
+        long best = UNREACHABLE;
+        int meet = -1;
+
+        // Every path not yet seen is at least as long as the sum of the two
+        // smallest open distances, so stop once that sum reaches the best
+        // meeting point found
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && forwardHeap.minKey() + backwardHeap.minKey() < best) {
+            if (forwardHeap.minKey() <= backwardHeap.minKey()) {
+                int u = forwardHeap.poll();
+                long du = forwardDistances[u];
+                for (int i = 0; i < graph.outDegree(u); i++) {
+                    int v = graph.target(u, i);
+                    long dv = du + graph.targetWeight(u, i);
+                    if (forwardStamps[v] != epoch || dv < forwardDistances[v]) {
+                        reach(forwardDistances, forwardParents, forwardStamps, forwardHeap, v, dv, u);
+                        if (backwardStamps[v] == epoch && dv + backwardDistances[v] < best) {
+                            best = dv + backwardDistances[v];
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backwardHeap.poll();
+                long du = backwardDistances[u];
+                for (int i = 0; i < graph.inDegree(u); i++) {
+                    int v = graph.source(u, i);
+                    long dv = du + graph.sourceWeight(u, i);
+                    if (backwardStamps[v] != epoch || dv < backwardDistances[v]) {
+                        reach(backwardDistances, backwardParents, backwardStamps, backwardHeap, v, dv, u);
+                        if (forwardStamps[v] == epoch && dv + forwardDistances[v] < best) {
+                            best = dv + forwardDistances[v];
+                            meet = v;
+                        }
+                    }
+                }
+            }
+        }
+        forwardHeap.clear();
+        backwardHeap.clear();
+        checkRep();
+        if (meet < 0) {
+            return Optional.empty();
+        }
+
+        List<L> vertices = new ArrayList<>();
+        for (int v = meet; v >= 0; v = forwardParents[v]) {
+            vertices.add(graph.labelOf(v));
+        }
+        Collections.reverse(vertices);
+        for (int v = backwardParents[meet]; v >= 0; v = backwardParents[v]) {
+            vertices.add(graph.labelOf(v));
+        }
+        return Optional.of(new WeightedPath<>(vertices, best));
+    }
+}
@@ -0,0 +1,404 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The strongly connected components of a {@link CsrGraph} snapshot, with the
+ * condensation DAG and topological orders, for cycle detection and
+ * dependency ordering.
+ *
+ * <p>Components are found by Pearce's variant of Tarjan's algorithm, run
+ * iteratively: the depth-first search keeps its path on explicit int stacks
+ * rather than the call stack, so arbitrarily deep graphs cannot overflow it.
+ * Besides the snapshot, the search needs one int per vertex (which ends up
+ * holding the component id), one bit per vertex, and stacks of at most one
+ * int per vertex; the condensation adds one int per vertex and per edge
+ * between components.
+ *
+ * <p>Components are numbered in topological order: every edge between two
+ * components goes from the lower id to the higher. Instances are immutable
+ * and may be shared between threads.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public class StrongComponents<L> {
+
+    private final CsrGraph<L> graph;
+    private final int[] component;
+    private final int componentCount;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final int[] dagOffsets;
+    private final int[] dagTargets;
+    private final boolean acyclic;
+
+    // Abstraction function:
+    //   Represents the partition of the vertices of 'graph' into components
+    //   0..componentCount-1, vertex v being in component[v]. The members of
+    //   component c are members[memberOffsets[c]..memberOffsets[c+1]-1], and
+    //   the condensation has an edge from c to each of
+    //   dagTargets[dagOffsets[c]..dagOffsets[c+1]-1]. 'acyclic' is true iff
+    //   'graph' has no cycle.
+    //
+    // Representation invariant:
+    //   - component.length == graph.vertexCount(), and every component[v] is
+    //     in [0, componentCount).
+    //   - memberOffsets and dagOffsets have length componentCount+1, start at
+    //     0 and are nondecreasing; members lists each vertex exactly once,
+    //     grouped by component and in increasing id order within a group.
+    //   - each row of dagTargets is strictly increasing, and every d in the
+    //     row of c has c < d.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private and final, and the arrays are never
+    //     returned; getComponents() returns a copy.
+    //   - The snapshot is immutable.
+
+    // Constructor, which finds the components
+    public StrongComponents(CsrGraph<L> graph) {
+        this.graph = graph;
+        int n = graph.vertexCount();
+        this.component = new int[n];
+        this.componentCount = search();
+
+        this.memberOffsets = new int[componentCount + 1];
+        this.members = new int[n];
+        for (int v = 0; v < n; v++) {
+            memberOffsets[component[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] fill = Arrays.copyOf(memberOffsets, componentCount);
+        for (int v = 0; v < n; v++) {
+            members[fill[component[v]]++] = v;
+        }
+
+        this.dagOffsets = new int[componentCount + 1];
+        this.dagTargets = condense();
+        boolean selfLoop = false;
+        for (int v = 0; v < n && !selfLoop; v++) {
+            selfLoop = graph.weight(v, v) != 0;
+        }
+        this.acyclic = componentCount == n && !selfLoop;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert component.length == graph.vertexCount() : "Components sized wrongly";
+        assert memberOffsets[componentCount] == members.length : "Members miscounted";
+        assert dagOffsets[componentCount] == dagTargets.length : "Condensation miscounted";
+    }
+
+    /**
+     * Number every vertex's component, in topological order.
+     *
+     * <p>While the search runs, rindex[v] (kept in 'component') is 0 for an
+     * unvisited vertex, and otherwise the visit index of the earliest vertex
+     * known to reach v's component, until v's component is complete; then it
+     * is the component number, counted down from n - 1 so that it exceeds
+     * every index still in use. A component completes only after every
+     * component it has edges to, so numbers counted down are in topological
+     * order.
+     *
+     * @return the number of components
+     */
+    private int search() {
+        int n = graph.vertexCount();
+        int[] rindex = component;
+        BitSet root = new BitSet(n);
+        IntList path = new IntList();
+        IntList positions = new IntList();
+        IntList pending = new IntList();
+        int index = 1;
+        int c = n - 1;
+
+        for (int start = 0; start < n; start++) {
+            if (rindex[start] != 0) {
+                continue;
+            }
+            path.add(start);
+            positions.add(0);
+            root.set(start);
+            rindex[start] = index++;
+            while (!path.isEmpty()) {
+                int v = path.peek();
+                int i = positions.peek();
+                if (i < graph.outDegree(v)) {
+                    int w = graph.target(v, i);
+                    if (rindex[w] == 0) {
+                        // Descend; the edge is finished when w is
+                        path.add(w);
+                        positions.add(0);
+                        root.set(w);
+                        rindex[w] = index++;
+                        continue;
+                    }
+                    positions.add(positions.pop() + 1);
+                    if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root.clear(v);
+                    }
+                    continue;
+                }
+
+                path.pop();
+                positions.pop();
+                if (root.get(v)) {
+                    index--;
+                    while (!pending.isEmpty() && rindex[v] <= rindex[pending.peek()]) {
+                        rindex[pending.pop()] = c;
+                        index--;
+                    }
+                    rindex[v] = c--;
+                } else {
+                    pending.add(v);
+                }
+                if (!path.isEmpty()) {
+                    int u = path.peek();
+                    positions.add(positions.pop() + 1);
+                    if (rindex[v] < rindex[u]) {
+                        rindex[u] = rindex[v];
+                        root.clear(u);
+                    }
+                }
+            }
+        }
+        assert pending.isEmpty() : "Vertices left without a component";
+
+        // Shift numbers c+1..n-1 down to 0..count-1
+        int count = n - 1 - c;
+        for (int v = 0; v < n; v++) {
+            rindex[v] -= c + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Collect the distinct edges between components, filling dagOffsets.
+     *
+     * @return the targets of the condensation, row by row, each row sorted
+     */
+    private int[] condense() {
+        int[] seen = new int[componentCount];
+        Arrays.fill(seen, -1);
+        IntList targets = new IntList();
+        for (int c = 0; c < componentCount; c++) {
+            for (int k = memberOffsets[c]; k < memberOffsets[c + 1]; k++) {
+                int v = members[k];
+                for (int i = 0; i < graph.outDegree(v); i++) {
+                    int d = component[graph.target(v, i)];
+                    if (d != c && seen[d] != c) {
+                        seen[d] = c;
+                        targets.add(d);
+                    }
+                }
+            }
+            dagOffsets[c + 1] = targets.size();
+        }
+        int[] result = new int[targets.size()];
+        targets.copyTo(result, 0);
+        for (int c = 0; c < componentCount; c++) {
+            Arrays.sort(result, dagOffsets[c], dagOffsets[c + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the snapshot whose components these are
+     */
+    public CsrGraph<L> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of strongly connected components
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @param id a vertex id in [0, getGraph().vertexCount())
+     * @return the component of that vertex, in [0, componentCount())
+     */
+    public int componentOf(int id) {
+        return component[id];
+    }
+
+    /**
+     * @param vertex a label
+     * @return the component of that vertex, or -1 if it is not in the
+     *         snapshot
+     */
+    public int componentOf(L vertex) {
+        int id = graph.idOf(vertex);
+        return id < 0 ? -1 : component[id];
+    }
+
+    /**
+     * @return a new array of every vertex's component, indexed by vertex id
+     */
+    public int[] getComponents() {
+        return component.clone();
+    }
+
+    /**
+     * @param c a component in [0, componentCount())
+     * @return the number of vertices in that component
+     */
+    public int componentSize(int c) {
+        return memberOffsets[c + 1] - memberOffsets[c];
+    }
+
+    /**
+     * @param c a component in [0, componentCount())
+     * @param i an index in [0, componentSize(c))
+     * @return the id of the i-th vertex of that component; members are in
+     *         increasing id order
+     */
+    public int member(int c, int i) {
+        return members[memberOffsets[c] + i];
+    }
+
+    /**
+     * @param c a component in [0, componentCount())
+     * @return a new list of the labels of the vertices of that component, in
+     *         increasing id order
+     */
+    public List<L> members(int c) {
+        List<L> labels = new ArrayList<>(componentSize(c));
+        for (int k = memberOffsets[c]; k < memberOffsets[c + 1]; k++) {
+            labels.add(graph.labelOf(members[k]));
+        }
+        return labels;
+    }
+
+    /**
+     * @param c a component in [0, componentCount())
+     * @return the number of components that c has edges to in the
+     *         condensation DAG
+     */
+    public int dagOutDegree(int c) {
+        return dagOffsets[c + 1] - dagOffsets[c];
+    }
+
+    /**
+     * @param c a component in [0, componentCount())
+     * @param i an index in [0, dagOutDegree(c))
+     * @return the i-th component that c has edges to; these are in
+     *         increasing order, and all greater than c
+     */
+    public int dagTarget(int c, int i) {
+        return dagTargets[dagOffsets[c] + i];
+    }
+
+    /**
+     * @return the number of edges of the condensation DAG, counting each
+     *         ordered pair of components joined by an edge once
+     */
+    public int dagEdgeCount() {
+        return dagTargets.length;
+    }
+
+    /**
+     * @return true if the snapshot has no cycle: every component is a single
+     *         vertex without an edge to itself
+     */
+    public boolean isAcyclic() {
+        return acyclic;
+    }
+
+    /**
+     * @return the vertex ids of the snapshot in topological order, every
+     *         edge going from an earlier vertex to a later one; empty if the
+     *         snapshot has a cycle
+     */
+    public Optional<int[]> topologicalIds() {
+        if (!acyclic) {
+            return Optional.empty();
+        }
+        int[] order = new int[members.length];
+        for (int c = 0; c < componentCount; c++) {
+            order[c] = members[memberOffsets[c]];
+        }
+        return Optional.of(order);
+    }
+
+    /**
+     * @return the labels of the snapshot in topological order, every edge
+     *         going from an earlier vertex to a later one; empty if the
+     *         snapshot has a cycle
+     */
+    public Optional<List<L>> topologicalOrder() {
+        return topologicalIds().map(order -> {
+            List<L> labels = new ArrayList<>(order.length);
+            for (int id : order) {
+                labels.add(graph.labelOf(id));
+            }
+            return labels;
+        });
+    }
+
+    /**
+     * @return the labels of the vertices of some cycle, in order, each with
+     *         an edge to the next and the last with an edge to the first;
+     *         empty if the snapshot has no cycle
+     */
+    public Optional<List<L>> findCycle() {
+        for (int c = 0; c < componentCount; c++) {
+            int first = members[memberOffsets[c]];
+            if (componentSize(c) == 1) {
+                if (graph.weight(first, first) != 0) {
+                    return Optional.of(List.of(graph.labelOf(first)));
+                }
+                continue;
+            }
+            return Optional.of(cycleThrough(first));
+        }
+        return Optional.empty();
+    }
+
+    // Walk from a vertex of a non-trivial component along edges inside the
+    // component until a vertex repeats, and return the loop found
+    private List<L> cycleThrough(int start) {
+        int c = component[start];
+        int[] step = new int[componentSize(c)];
+        Arrays.fill(step, -1);
+        IntList walk = new IntList();
+        int v = start;
+        while (step[slot(c, v)] < 0) {
+            step[slot(c, v)] = walk.size();
+            walk.add(v);
+            int next = -1;
+            for (int i = 0; i < graph.outDegree(v) && next < 0; i++) {
+                if (component[graph.target(v, i)] == c) {
+                    next = graph.target(v, i);
+                }
+            }
+            assert next >= 0 : "Component member with no edge inside the component";
+            v = next;
+        }
+        List<L> cycle = new ArrayList<>();
+        for (int k = step[slot(c, v)]; k < walk.size(); k++) {
+            cycle.add(graph.labelOf(walk.get(k)));
+        }
+        return cycle;
+    }
+
+    // The index of a vertex among the members of its component c
+    private int slot(int c, int id) {
+        return Arrays.binarySearch(members, memberOffsets[c], memberOffsets[c + 1], id) - memberOffsets[c];
+    }
+
+    @Override
+    public String toString() {
+        return componentCount + " strongly connected components of " + graph.vertexCount() + " vertices"
+                + (acyclic ? " (acyclic)" : "");
+    }
+}
@@ -0,0 +1,746 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A multi-version implementation of Graph: every mutation builds a new
+ * immutable version of the graph out of persistent hash maps that share all
+ * unchanged structure with the previous version, and then publishes it with
+ * one volatile write.
+ *
+ * <p>{@link #snapshot()} returns the current version as an immutable Graph
+ * in O(1), without copying. A snapshot is consistent: it never shows part of
+ * a mutation, and a batch from addAll(), setAll() or removeAll() is published
+ * as a single version. It holds on only to the nodes that later versions have
+ * replaced, so its memory cost grows with the changes made after it was
+ * taken, by O(log n) small nodes per changed edge, not with the size of the
+ * graph.
+ *
+ * <p>Readers never lock and never block writers, and may run on any number
+ * of threads. Mutators are serialized on this object, and each one costs a
+ * few path copies in the adjacency maps. Every observer of this graph reads
+ * the version current when it is called; the views read the current version
+ * on every access, while edges() and edgeStream() walk the version current
+ * when they are called, so a long scan of the live graph is as consistent as
+ * a scan of a snapshot.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class VersionedGraph<L> extends Graph<L> {
+
+    private volatile Version<L> current;
+    private final Set<L> verticesView;
+
+    // Abstraction function:
+    //   Represents the graph current.
+    //
+    // Representation invariant:
+    //   - 'current' is not null and satisfies the invariant of Version.
+    //   - current.number only increases.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private. Versions are immutable, so handing one to a
+    //     snapshot cannot change this graph.
+    //   - vertices(), sources() and targets() return fresh copies, and the
+    //     views are read-only.
+    //   - The superclass's own rep is left empty and is never used.
+
+    // Constructor
+    public VersionedGraph(Set<L> vertices) {
+        super(Collections.emptySet());
+        PersistentMap<L, PersistentMap<L, Integer>> edges = PersistentMap.empty();
+        for (L vertex : vertices) {
+            edges = edges.put(vertex, PersistentMap.empty());
+        }
+        this.current = new Version<>(edges, edges, 0, 0);
+        this.verticesView = new VertexView<>(() -> current);
+    }
+
+    /**
+     * Take a consistent, immutable snapshot of this graph, in O(1). Later
+     * changes to this graph do not affect the snapshot.
+     *
+     * @return the current version of this graph
+     */
+    public Snapshot<L> snapshot() {
+        return new Snapshot<>(current);
+    }
+
+    /**
+     * @return the number of the current version, which starts at 0 and grows
+     *         by one with every mutation that changes the graph
+     */
+    public long getVersion() {
+        return current.number;
+    }
+
+    @Override
+    public synchronized boolean add(L vertex) {
+        Version<L> version = current;
+        Version<L> next = version.add(vertex);
+        if (next == version) {
+            return false;
+        }
+        current = next;
+        logVertexAdded(vertex);
+        return true;
+    }
+
+    @Override
+    public synchronized int set(L source, L target, int weight) {
+        assert weight >= 0 : "Edge weight must be nonnegative";
+        Version<L> version = current;
+        int previousWeight = version.weight(source, target);
+        if (weight == 0 && previousWeight == 0) {
+            return 0;
+        }
+        boolean newSource = !version.out.containsKey(source);
+        boolean newTarget = !version.out.containsKey(target);
+        Version<L> next = version.set(source, target, weight);
+        if (next == version) {
+            return previousWeight;
+        }
+        current = next;
+        if (newSource) {
+            logVertexAdded(source);
+        }
+        if (newTarget && !target.equals(source)) {
+            logVertexAdded(target);
+        }
+        logEdgeChanged(source, target, previousWeight, weight);
+        return previousWeight;
+    }
+
+    @Override
+    public synchronized boolean remove(L vertex) {
+        Version<L> version = current;
+        Version<L> next = version.remove(vertex);
+        if (next == version) {
+            return false;
+        }
+        current = next;
+        logVertexRemoved(vertex);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends L> newVertices) {
+        Version<L> version = current;
+        Version<L> next = version;
+        List<L> added = new ArrayList<>();
+        for (L vertex : newVertices) {
+            Version<L> withVertex = next.add(vertex);
+            if (withVertex != next) {
+                next = withVertex;
+                added.add(vertex);
+            }
+        }
+        current = next;
+        added.forEach(this::logVertexAdded);
+        return next != version;
+    }
+
+    @Override
+    public synchronized void setAll(Iterable<EdgeTriple<L>> edges) {
+        Version<L> next = current;
+        List<Runnable> changes = new ArrayList<>();
+        for (EdgeTriple<L> edge : edges) {
+            L source = edge.getSource();
+            L target = edge.getTarget();
+            int weight = edge.getWeight();
+            int previousWeight = next.weight(source, target);
+            if (weight == 0 && previousWeight == 0) {
+                continue;
+            }
+            boolean newSource = !next.out.containsKey(source);
+            boolean newTarget = !next.out.containsKey(target);
+            Version<L> changed = next.set(source, target, weight);
+            if (changed == next) {
+                continue;
+            }
+            next = changed;
+            if (newSource) {
+                changes.add(() -> logVertexAdded(source));
+            }
+            if (newTarget && !target.equals(source)) {
+                changes.add(() -> logVertexAdded(target));
+            }
+            changes.add(() -> logEdgeChanged(source, target, previousWeight, weight));
+        }
+        // Publish the batch as one version before recording its changes
+        current = next;
+        changes.forEach(Runnable::run);
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<? extends L> oldVertices) {
+        Version<L> version = current;
+        Version<L> next = version;
+        List<L> removed = new ArrayList<>();
+        for (L vertex : oldVertices) {
+            Version<L> withoutVertex = next.remove(vertex);
+            if (withoutVertex != next) {
+                next = withoutVertex;
+                removed.add(vertex);
+            }
+        }
+        current = next;
+        removed.forEach(this::logVertexRemoved);
+        return next != version;
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return current.vertices();
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        return current.sources(target);
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        return current.targets(source);
+    }
+
+    @Override
+    public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    @Override
+    public Map<L, Integer> sourcesView(L target) {
+        return new AdjacencyView<>(() -> current.in.get(target));
+    }
+
+    @Override
+    public Map<L, Integer> targetsView(L source) {
+        return new AdjacencyView<>(() -> current.out.get(source));
+    }
+
+    @Override
+    public int weight(L source, L target) {
+        return current.weight(source, target);
+    }
+
+    @Override
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+        Version.forEach(current.out, source, action);
+    }
+
+    @Override
+    public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+        Version.forEach(current.in, target, action);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the cursor walks the version current when it
+     * is created, so it may be used while this graph changes.
+     */
+    @Override
+    public EdgeCursor<L> edges() {
+        return current.edges();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the stream walks the version current when it
+     * is created, so it may run while this graph changes.
+     */
+    @Override
+    public Stream<EdgeTriple<L>> edgeStream() {
+        return current.edgeStream();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In this implementation the copy is made from one version, as by
+     * {@code snapshot().freeze()}, so it may be taken while this graph
+     * changes and never blocks writers.
+     */
+    @Override
+    public CsrGraph<L> freeze() {
+        return snapshot().freeze();
+    }
+
+    @Override
+    public String toString() {
+        return current.toString();
+    }
+
+    /**
+     * An immutable version of a VersionedGraph, as a Graph whose mutators
+     * all throw UnsupportedOperationException.
+     *
+     * @param <L> type of vertex labels in this graph, must be immutable
+     */
+    public static final class Snapshot<L> extends Graph<L> {
+
+        private final Version<L> version;
+        private final Set<L> verticesView;
+
+        // Abstraction function:
+        //   Represents the graph 'version'.
+        //
+        // Representation invariant:
+        //   - 'version' is not null.
+        //
+        // Safety from rep exposure:
+        //   - All fields are private and final, and the version is
+        //     immutable; observers return fresh copies or read-only views.
+        //   - The superclass's own rep is left empty and is never used.
+
+        // Constructor
+        Snapshot(Version<L> version) {
+            super(Collections.emptySet());
+            this.version = version;
+            this.verticesView = new VertexView<>(() -> version);
+        }
+
+        /**
+         * @return the number of the version of the graph this snapshot holds
+         */
+        public long getVersion() {
+            return version.number;
+        }
+
+        private static UnsupportedOperationException immutable() {
+            return new UnsupportedOperationException("snapshot is immutable");
+        }
+
+        /**
+         * Not supported: a snapshot is immutable.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public boolean add(L vertex) {
+            throw immutable();
+        }
+
+        /**
+         * Not supported: a snapshot is immutable.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public int set(L source, L target, int weight) {
+            throw immutable();
+        }
+
+        /**
+         * Not supported: a snapshot is immutable.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public boolean remove(L vertex) {
+            throw immutable();
+        }
+
+        /**
+         * Not supported: a snapshot is immutable.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public boolean addAll(Collection<? extends L> newVertices) {
+            throw immutable();
+        }
+
+        /**
+         * Not supported: a snapshot is immutable.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public void setAll(Iterable<EdgeTriple<L>> edges) {
+            throw immutable();
+        }
+
+        /**
+         * Not supported: a snapshot is immutable.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public boolean removeAll(Collection<? extends L> oldVertices) {
+            throw immutable();
+        }
+
+        @Override
+        public Set<L> vertices() {
+            return version.vertices();
+        }
+
+        @Override
+        public Map<L, Integer> sources(L target) {
+            return version.sources(target);
+        }
+
+        @Override
+        public Map<L, Integer> targets(L source) {
+            return version.targets(source);
+        }
+
+        @Override
+        public Set<L> verticesView() {
+            return verticesView;
+        }
+
+        @Override
+        public Map<L, Integer> sourcesView(L target) {
+            return new AdjacencyView<>(() -> version.in.get(target));
+        }
+
+        @Override
+        public Map<L, Integer> targetsView(L source) {
+            return new AdjacencyView<>(() -> version.out.get(source));
+        }
+
+        @Override
+        public int weight(L source, L target) {
+            return version.weight(source, target);
+        }
+
+        @Override
+        public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+            Version.forEach(version.out, source, action);
+        }
+
+        @Override
+        public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+            Version.forEach(version.in, target, action);
+        }
+
+        @Override
+        public EdgeCursor<L> edges() {
+            return version.edges();
+        }
+
+        @Override
+        public Stream<EdgeTriple<L>> edgeStream() {
+            return version.edgeStream();
+        }
+
+        @Override
+        public String toString() {
+            return version.toString();
+        }
+    }
+
+    /**
+     * One immutable version of the graph.
+     */
+    static final class Version<L> {
+
+        final PersistentMap<L, PersistentMap<L, Integer>> out;
+        final PersistentMap<L, PersistentMap<L, Integer>> in;
+        final long edgeCount;
+        final long number;
+
+        // Abstraction function:
+        //   Represents the graph whose vertices are the keys of 'out', with an
+        //   edge from s to t of weight w for every out.get(s).get(t) == w;
+        //   'in' holds the same edges keyed by target. It is version 'number'
+        //   of its graph.
+        //
+        // Representation invariant:
+        //   - 'out' and 'in' have the same key set.
+        //   - out.get(s).get(t) == w if and only if in.get(t).get(s) == w, and
+        //     every such w is positive.
+        //   - edgeCount is the number of edges.
+        //
+        // Safety from rep exposure:
+        //   - All fields are final and immutable.
+
+        // Constructor
+        Version(PersistentMap<L, PersistentMap<L, Integer>> out, PersistentMap<L, PersistentMap<L, Integer>> in,
+                long edgeCount, long number) {
+            this.out = out;
+            this.in = in;
+            this.edgeCount = edgeCount;
+            this.number = number;
+            assert out.size() == in.size() && edgeCount >= 0 : "Malformed version";
+        }
+
+        int weight(L source, L target) {
+            PersistentMap<L, Integer> targets = out.get(source);
+            Integer weight = targets == null ? null : targets.get(target);
+            return weight == null ? 0 : weight;
+        }
+
+        // This version with the vertex added; this version if already there
+        Version<L> add(L vertex) {
+            if (out.containsKey(vertex)) {
+                return this;
+            }
+            return new Version<>(out.put(vertex, PersistentMap.empty()), in.put(vertex, PersistentMap.empty()),
+                    edgeCount, number + 1);
+        }
+
+        // This version with the edge set; this version if unchanged
+        Version<L> set(L source, L target, int weight) {
+            PersistentMap<L, Integer> targets = out.get(source);
+            PersistentMap<L, Integer> sources = in.get(target);
+            boolean newSource = targets == null;
+            boolean newTarget = sources == null;
+            if (weight == 0 && (newSource || newTarget)) {
+                return this;
+            }
+            Integer previous = newSource ? null : targets.get(target);
+            int previousWeight = previous == null ? 0 : previous;
+            if (previousWeight == weight && !newSource && !newTarget) {
+                return this;
+            }
+            PersistentMap<L, PersistentMap<L, Integer>> newOut = out;
+            PersistentMap<L, PersistentMap<L, Integer>> newIn = in;
+            boolean loop = source.equals(target);
+            if (newSource) {
+                targets = PersistentMap.empty();
+                newIn = loop ? newIn : newIn.put(source, PersistentMap.empty());
+            }
+            if (newTarget) {
+                sources = PersistentMap.empty();
+                newOut = loop ? newOut : newOut.put(target, PersistentMap.empty());
+            }
+            newOut = newOut.put(source, weight > 0 ? targets.put(target, weight) : targets.remove(target));
+            newIn = newIn.put(target, weight > 0 ? sources.put(source, weight) : sources.remove(source));
+            long edges = edgeCount + (previousWeight == 0 ? 1 : 0) - (weight == 0 ? 1 : 0);
+            return new Version<>(newOut, newIn, edges, number + 1);
+        }
+
+        // This version without the vertex and its edges; this version if it
+        // is not there
+        Version<L> remove(L vertex) {
+            PersistentMap<L, Integer> targets = out.get(vertex);
+            if (targets == null) {
+                return this;
+            }
+            PersistentMap<L, Integer> sources = in.get(vertex);
+            PersistentMap<L, PersistentMap<L, Integer>> newOut = out;
+            PersistentMap<L, PersistentMap<L, Integer>> newIn = in;
+            for (Iterator<Map.Entry<L, Integer>> it = targets.iterator(); it.hasNext(); ) {
+                L target = it.next().getKey();
+                newIn = newIn.put(target, newIn.get(target).remove(vertex));
+            }
+            for (Iterator<Map.Entry<L, Integer>> it = sources.iterator(); it.hasNext(); ) {
+                L source = it.next().getKey();
+                newOut = newOut.put(source, newOut.get(source).remove(vertex));
+            }
+            boolean loop = targets.containsKey(vertex);
+            long edges = edgeCount - targets.size() - sources.size() + (loop ? 1 : 0);
+            return new Version<>(newOut.remove(vertex), newIn.remove(vertex), edges, number + 1);
+        }
+
+        Set<L> vertices() {
+            Set<L> vertices = new HashSet<>(out.size() * 4 / 3 + 1);
+            out.forEach((vertex, targets) -> vertices.add(vertex));
+            return vertices;
+        }
+
+        Map<L, Integer> sources(L target) {
+            return copy(in.get(target));
+        }
+
+        Map<L, Integer> targets(L source) {
+            return copy(out.get(source));
+        }
+
+        private static <L> Map<L, Integer> copy(PersistentMap<L, Integer> weights) {
+            Map<L, Integer> result = new HashMap<>();
+            if (weights != null) {
+                weights.forEach(result::put);
+            }
+            return result;
+        }
+
+        static <L> void forEach(PersistentMap<L, PersistentMap<L, Integer>> index, L vertex,
+                ObjIntConsumer<? super L> action) {
+            PersistentMap<L, Integer> weights = index.get(vertex);
+            if (weights != null) {
+                weights.forEach(action::accept);
+            }
+        }
+
+        EdgeCursor<L> edges() {
+            return new VersionCursor<>(out.iterator());
+        }
+
+        Stream<EdgeTriple<L>> edgeStream() {
+            return StreamSupport.stream(new EdgeSpliterator<>(
+                    (from, to) -> new VersionCursor<>(out.iterator(from, to)), 0, out.width(), edgeCount), false);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            out.forEach((source, targets) -> targets.forEach((target, weight) ->
+                    sb.append(String.format("%s -> %s : %d", source, target, weight)).append("\n")));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A cursor over the outgoing edges of the vertices an iterator yields.
+     */
+    private static final class VersionCursor<L> implements EdgeCursor<L> {
+
+        private final Iterator<Map.Entry<L, PersistentMap<L, Integer>>> rows;
+        private Iterator<Map.Entry<L, Integer>> row = Collections.emptyIterator();
+        private L source;
+        private Map.Entry<L, Integer> edge;
+
+        // Constructor
+        VersionCursor(Iterator<Map.Entry<L, PersistentMap<L, Integer>>> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() {
+            while (!row.hasNext()) {
+                if (!rows.hasNext()) {
+                    edge = null;
+                    return false;
+                }
+                Map.Entry<L, PersistentMap<L, Integer>> entry = rows.next();
+                source = entry.getKey();
+                row = entry.getValue().iterator();
+            }
+            edge = row.next();
+            return true;
+        }
+
+        private Map.Entry<L, Integer> current() {
+            if (edge == null) {
+                throw new IllegalStateException("cursor is not on an edge");
+            }
+            return edge;
+        }
+
+        @Override
+        public L source() {
+            current();
+            return source;
+        }
+
+        @Override
+        public L target() {
+            return current().getKey();
+        }
+
+        @Override
+        public int weight() {
+            return current().getValue();
+        }
+    }
+
+    /**
+     * A read-only view of the vertices of a version, looked up through a
+     * supplier on every access.
+     */
+    private static final class VertexView<L> extends AbstractSet<L> {
+
+        private final Supplier<Version<L>> version;
+
+        // Constructor
+        VertexView(Supplier<Version<L>> version) {
+            this.version = version;
+        }
+
+        @Override
+        public int size() {
+            return version.get().out.size();
+        }
+
+        @Override
+        public boolean contains(Object vertex) {
+            return version.get().out.containsKey(vertex);
+        }
+
+        @Override
+        public Iterator<L> iterator() {
+            Iterator<Map.Entry<L, PersistentMap<L, Integer>>> entries = version.get().out.iterator();
+            return new Iterator<L>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public L next() {
+                    return entries.next().getKey();
+                }
+            };
+        }
+    }
+
+    /**
+     * A read-only map view of one vertex's weight map, looked up through a
+     * supplier on every access, so that it follows the vertex across remove
+     * and re-add.
+     */
+    private static final class AdjacencyView<L> extends AbstractMap<L, Integer> {
+
+        private final Supplier<PersistentMap<L, Integer>> weights;
+
+        // Constructor
+        AdjacencyView(Supplier<PersistentMap<L, Integer>> weights) {
+            this.weights = weights;
+        }
+
+        private PersistentMap<L, Integer> current() {
+            PersistentMap<L, Integer> current = weights.get();
+            return current == null ? PersistentMap.empty() : current;
+        }
+
+        @Override
+        public int size() {
+            return current().size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return current().containsKey(key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return current().get(key);
+        }
+
+        @Override
+        public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override
+                public int size() {
+                    return AdjacencyView.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<L, Integer>> iterator() {
+                    return current().iterator();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package graph;
+
+/**
+ * A graph whose vertices have dense int ids, for callers that keep
+ * per-vertex data in arrays instead of maps keyed by label. Implemented by
+ * {@link CsrGraph}, whose ids are fixed for the life of the snapshot, and by
+ * {@link Graph}, whose ids are stable until the vertex is removed and may
+ * then be given to a vertex added later. Subclasses of Graph that replace
+ * its representation and keep no ids of their own have no ids at all; see
+ * {@link Graph#idOf(Object)}.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public interface VertexIds<L> {
+
+    /**
+     * Get the dense id of a vertex.
+     *
+     * @param vertex a label
+     * @return the non-negative id of vertex, or -1 if this graph does not
+     *         include a vertex with the given label or keeps no ids
+     */
+    int idOf(L vertex);
+
+    /**
+     * Get the label of the vertex that currently has an id.
+     *
+     * @param id a vertex id
+     * @return the label of the vertex with that id
+     */
+    L labelOf(int id);
+}
@@ -0,0 +1,88 @@
+package graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable directed path through a graph, with its total weight.
+ * 
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class WeightedPath<L> {
+
+    private final List<L> vertices;
+    private final long weight;
+
+    // Abstraction function:
+    //   Represents the path vertices.get(0) -> vertices.get(1) -> ... whose
+    //   edge weights sum to 'weight'.
+
+    // Representation invariant:
+    //   - 'vertices' is nonempty and contains no nulls.
+    //   - 'weight' is non-negative, and zero if 'vertices' has one element.
+
+    // Safety from rep exposure:
+    //   - All fields are private and final.
+    //   - 'vertices' is an unmodifiable copy, and labels are immutable.
+
+    // Constructor
+    WeightedPath(List<L> vertices, long weight) {
+        this.vertices = Collections.unmodifiableList(vertices);
+        this.weight = weight;
+        checkRep();
+    }
+
+    // Check the representation invariant
+    private void checkRep() {
+        assert !vertices.isEmpty() : "Path must have at least one vertex";
+        assert weight >= 0 : "Weight must be non-negative";
+        assert vertices.size() > 1 || weight == 0 : "Single-vertex path has weight zero";
+    }
+
+    /**
+     * @return the vertices of this path, from its source to its target
+     */
+    public List<L> getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return the first vertex of this path
+     */
+    public L getSource() {
+        return vertices.get(0);
+    }
+
+    /**
+     * @return the last vertex of this path
+     */
+    public L getTarget() {
+        return vertices.get(vertices.size() - 1);
+    }
+
+    /**
+     * @return the sum of the weights of the edges of this path
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof WeightedPath)) {
+            return false;
+        }
+        WeightedPath<?> other = (WeightedPath<?>) that;
+        return vertices.equals(other.vertices) && weight == other.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return vertices.hashCode() * 31 + Long.hashCode(weight);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" -> ", vertices.stream().map(String::valueOf).toArray(String[]::new)) + " : " + weight;
+    }
+}
@@ -0,0 +1,466 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of graph mutations on disk, split into segment files.
+ *
+ * <p>Each mutation gets a log sequence number (LSN), one more than the last.
+ * Appending only encodes the record into an in-memory buffer; a background
+ * flusher thread writes the buffer to the current segment and forces it to
+ * disk, taking every record appended since its last write in one write and
+ * one fsync (group commit). The flusher waits up to a flush interval for
+ * records to accumulate, but starts at once when the buffer is large or a
+ * caller is blocked in {@link #sync()}.
+ *
+ * <p>Each segment is named {@code wal-<first LSN>.log} and holds records of
+ * the form: body length (int), body, CRC-32 of the body (int), where the body
+ * is the LSN (long), an operation byte, and the operation's labels (each an
+ * int byte length and UTF-8 bytes) and weight (int). A record cut short by a
+ * crash, or one whose checksum does not match, ends the log; replay() drops
+ * it and everything after it.
+ */
+class WriteAheadLog implements Closeable {
+
+    static final byte ADD = 1;
+    static final byte SET = 2;
+    static final byte REMOVE = 3;
+
+    /** Receives the records of a log being replayed. */
+    interface Replayer {
+        void add(String vertex);
+
+        void set(String source, String target, int weight);
+
+        void remove(String vertex);
+    }
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int BATCH_BYTES = 1 << 16;
+    private static final int MAX_PENDING_BYTES = 1 << 23;
+
+    private final Path directory;
+    private final long flushNanos;
+    private final long segmentBytes;
+    private final Object lock = new Object();
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+
+    // Guarded by 'lock'
+    private byte[] active = new byte[BATCH_BYTES];
+    private int activeSize = 0;
+    private long appendedLsn;
+    private long durableLsn;
+    private long requestedLsn;
+    private IOException failure;
+    private boolean closing = false;
+
+    // Owned by the flusher thread once it starts
+    private byte[] spare = new byte[BATCH_BYTES];
+    private FileChannel segment;
+    private long segmentSize = 0;
+
+    // Abstraction function:
+    //   Represents the sequence of records numbered 1..appendedLsn, of which
+    //   those up to durableLsn are known to be on disk, in segment files of
+    //   'directory', and the rest are encoded in active[0..activeSize) or
+    //   being written by the flusher.
+    //
+    // Representation invariant:
+    //   - durableLsn <= appendedLsn.
+    //   - active[0..activeSize) holds whole encoded records, in LSN order.
+    //   - 'segment' is the open channel of the segment with the highest
+    //     first LSN, positioned at its end, which is segmentSize.
+    //
+    // Safety from rep exposure:
+    //   - All fields are private; buffers and channels are never returned.
+
+    // Constructor, starting a new segment after the given LSN
+    WriteAheadLog(Path directory, long lastLsn, long flushMillis, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.segmentBytes = segmentBytes;
+        this.appendedLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.requestedLsn = lastLsn;
+        openSegment(lastLsn + 1);
+        this.flusher = new Thread(this::flushLoop, "graph-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Check the representation invariant; the caller holds 'lock'
+    private void checkRep() {
+        assert durableLsn <= appendedLsn : "More records durable than appended";
+        assert activeSize <= active.length : "Buffer overrun";
+    }
+
+    private static String segmentName(long firstLsn) {
+        return String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX);
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        segment = FileChannel.open(directory.resolve(segmentName(firstLsn)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segmentSize = 0;
+    }
+
+    /**
+     * @return the LSN of the last record appended, or of the last record
+     *         before this log was opened
+     */
+    long lastLsn() {
+        synchronized (lock) {
+            return appendedLsn;
+        }
+    }
+
+    // ---- Appending ----
+
+    /**
+     * Append an add() record.
+     *
+     * @param vertex label of the vertex added
+     * @throws UncheckedIOException if an earlier write to disk failed
+     */
+    void appendAdd(String vertex) {
+        append(ADD, vertex, null, 0);
+    }
+
+    /**
+     * Append a set() record.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight the weight passed to set()
+     * @throws UncheckedIOException if an earlier write to disk failed
+     */
+    void appendSet(String source, String target, int weight) {
+        append(SET, source, target, weight);
+    }
+
+    /**
+     * Append a remove() record.
+     *
+     * @param vertex label of the vertex removed
+     * @throws UncheckedIOException if an earlier write to disk failed
+     */
+    void appendRemove(String vertex) {
+        append(REMOVE, vertex, null, 0);
+    }
+
+    private void append(byte op, String first, String second, int weight) {
+        byte[] firstBytes = first.getBytes(StandardCharsets.UTF_8);
+        byte[] secondBytes = second == null ? null : second.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = Long.BYTES + 1 + Integer.BYTES + firstBytes.length
+                + (op == SET ? Integer.BYTES + secondBytes.length + Integer.BYTES : 0);
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException("write-ahead log failed", failure);
+            }
+            if (closing) {
+                throw new IllegalStateException("write-ahead log is closed");
+            }
+            int recordLength = Integer.BYTES + bodyLength + Integer.BYTES;
+            if (activeSize + recordLength > active.length) {
+                active = Arrays.copyOf(active, Math.max(active.length * 2, activeSize + recordLength));
+            }
+            ByteBuffer out = ByteBuffer.wrap(active, activeSize, recordLength);
+            out.putInt(bodyLength);
+            out.putLong(++appendedLsn);
+            out.put(op);
+            out.putInt(firstBytes.length).put(firstBytes);
+            if (op == SET) {
+                out.putInt(secondBytes.length).put(secondBytes);
+                out.putInt(weight);
+            }
+            crc.reset();
+            crc.update(active, activeSize + Integer.BYTES, bodyLength);
+            out.putInt((int) crc.getValue());
+            activeSize += recordLength;
+            checkRep();
+            if (activeSize >= BATCH_BYTES) {
+                lock.notifyAll();
+            }
+            // Back-pressure: do not let the buffer outgrow the disk
+            while (activeSize >= MAX_PENDING_BYTES && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // ---- Flushing ----
+
+    /**
+     * Block until every record appended so far is on disk. Concurrent
+     * callers share one write and one fsync.
+     *
+     * @throws IOException if writing the log failed
+     */
+    void sync() throws IOException {
+        synchronized (lock) {
+            long target = appendedLsn;
+            requestedLsn = Math.max(requestedLsn, target);
+            lock.notifyAll();
+            while (durableLsn < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted waiting for the write-ahead log");
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            byte[] batch;
+            int size;
+            long last;
+            synchronized (lock) {
+                try {
+                    while (activeSize == 0 && !closing) {
+                        lock.wait();
+                    }
+                    // Linger for more records, unless someone is waiting
+                    long deadline = System.nanoTime() + flushNanos;
+                    long remaining;
+                    while (!closing && requestedLsn <= durableLsn && activeSize < BATCH_BYTES
+                            && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    closing = true;
+                }
+                if (activeSize == 0) {
+                    lock.notifyAll();
+                    return;
+                }
+                batch = active;
+                size = activeSize;
+                last = appendedLsn;
+                active = spare;
+                activeSize = 0;
+                lock.notifyAll();
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch, 0, size);
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+                segment.force(false);
+                segmentSize += size;
+                if (segmentSize >= segmentBytes) {
+                    segment.close();
+                    openSegment(last + 1);
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                spare = batch.length > BATCH_BYTES * 4 ? new byte[BATCH_BYTES] : batch;
+                durableLsn = last;
+                checkRep();
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Write every appended record, stop the flusher and close the current
+     * segment. Appending afterwards fails.
+     *
+     * @throws IOException if writing the log failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted closing the write-ahead log");
+        }
+        segment.close();
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // ---- Segments on disk ----
+
+    // Segment files of a directory, oldest first
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long firstLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Delete every closed segment whose records all have LSNs at or below the
+     * given one, because a snapshot now covers them.
+     *
+     * @param directory the log directory
+     * @param lsn the last LSN covered by a durable snapshot
+     * @throws IOException if a segment cannot be deleted
+     */
+    static void deleteSegmentsThrough(Path directory, long lsn) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstLsn(segments.get(i + 1)) <= lsn + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * Replay the records of every segment in a directory, in LSN order. A
+     * torn or corrupt record ends the log: its segment is truncated before it,
+     * and any later segments are deleted.
+     *
+     * @param directory the log directory
+     * @param afterLsn records with this LSN or lower are skipped
+     * @param replayer receives the records with higher LSNs
+     * @return the LSN of the last record in the log, or afterLsn if that is
+     *         higher
+     * @throws IOException if a segment cannot be read
+     */
+    static long replay(Path directory, long afterLsn, Replayer replayer) throws IOException {
+        long last = afterLsn;
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            Path file = segments.get(i);
+            long valid = 0;
+            boolean torn = false;
+            try (InputStream stream = Files.newInputStream(file);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+                CRC32 checksum = new CRC32();
+                while (true) {
+                    int bodyLength;
+                    try {
+                        bodyLength = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (bodyLength <= Long.BYTES || bodyLength > MAX_PENDING_BYTES) {
+                        torn = true;
+                        break;
+                    }
+                    byte[] body = new byte[bodyLength];
+                    int expected;
+                    try {
+                        in.readFully(body);
+                        expected = in.readInt();
+                    } catch (EOFException e) {
+                        torn = true;
+                        break;
+                    }
+                    checksum.reset();
+                    checksum.update(body);
+                    if ((int) checksum.getValue() != expected) {
+                        torn = true;
+                        break;
+                    }
+                    long lsn = apply(body, afterLsn, replayer);
+                    last = Math.max(last, lsn);
+                    valid += Integer.BYTES + bodyLength + Integer.BYTES;
+                }
+            }
+            if (torn) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                    channel.force(true);
+                }
+                for (int j = i + 1; j < segments.size(); j++) {
+                    Files.deleteIfExists(segments.get(j));
+                }
+                break;
+            }
+        }
+        return last;
+    }
+
+    // Decode one record body and pass it on if its LSN is above afterLsn
+    private static long apply(byte[] body, long afterLsn, Replayer replayer) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        long lsn = in.getLong();
+        if (lsn <= afterLsn) {
+            return lsn;
+        }
+        byte op = in.get();
+        String first = readLabel(in);
+        switch (op) {
+        case ADD:
+            replayer.add(first);
+            break;
+        case SET:
+            String second = readLabel(in);
+            replayer.set(first, second, in.getInt());
+            break;
+        case REMOVE:
+            replayer.remove(first);
+            break;
+        default:
+            throw new IllegalStateException("unknown log operation " + op + " at LSN " + lsn);
+        }
+        return lsn;
+    }
+
+    private static String readLabel(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
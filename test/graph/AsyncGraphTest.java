@@ -0,0 +1,332 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for AsyncGraph.
+ */
+public class AsyncGraphTest {
+
+    // Testing strategy for AsyncGraph
+    //   targetsAsync(), sourcesAsync(): vertex present, absent; delivered map
+    //                                   unmodifiable
+    //   targetsMany(), sourcesMany(): empty, duplicates, absent vertex; one
+    //                                 task for the whole batch
+    //   coalescing: second lookup while the first is queued shares it; lookup
+    //               after the first started reading reads again; batch
+    //               overlapping a queued lookup
+    //   edgePublisher(): empty graph, many edges requested one at a time,
+    //                    cancel part way, traversal throws; supplied
+    //                    executor with a single worker (fork-join pool) or
+    //                    just enough threads (fixed pool)
+    //   queryAsync(): result, exception
+    //   executors: default (virtual threads or fork-join pool), supplied,
+    //              rejecting after close(); buffer size not positive
+
+    private static final long TIMEOUT = 10;
+
+    // An executor that only queues tasks, run by the test when it chooses
+    private static class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove().run();
+            }
+        }
+    }
+
+    // A graph that counts calls to targets()
+    private static class CountingGraph extends ConcurrentGraph<String> {
+        final AtomicInteger targetReads = new AtomicInteger();
+
+        CountingGraph() {
+            super(Collections.emptySet());
+        }
+
+        @Override
+        public Map<String, Integer> targets(String source) {
+            targetReads.incrementAndGet();
+            return super.targets(source);
+        }
+    }
+
+    private static Graph<String> sample() {
+        Graph<String> graph = new ConcurrentGraph<>(Collections.emptySet());
+        graph.set("A", "B", 1);
+        graph.set("A", "C", 2);
+        graph.set("C", "B", 3);
+        return graph;
+    }
+
+    @Test
+    public void testLookups() throws Exception {
+        try (AsyncGraph<String> async = new AsyncGraph<>(sample())) {
+            assertEquals(Map.of("B", 1, "C", 2), async.targetsAsync("A").get(TIMEOUT, TimeUnit.SECONDS));
+            assertEquals(Map.of("A", 1, "C", 3), async.sourcesAsync("B").get(TIMEOUT, TimeUnit.SECONDS));
+            assertEquals(Map.of(), async.targetsAsync("X").get(TIMEOUT, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testDeliveredMapUnmodifiable() throws Exception {
+        try (AsyncGraph<String> async = new AsyncGraph<>(sample())) {
+            async.targetsAsync("A").get(TIMEOUT, TimeUnit.SECONDS).put("D", 1);
+        }
+    }
+
+    @Test
+    public void testMany() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        AsyncGraph<String> async = new AsyncGraph<>(sample(), executor);
+        CompletableFuture<Map<String, Map<String, Integer>>> targets = async.targetsMany(List.of("A", "C", "A", "X"));
+        CompletableFuture<Map<String, Map<String, Integer>>> sources = async.sourcesMany(List.of("B"));
+        CompletableFuture<Map<String, Map<String, Integer>>> none = async.targetsMany(List.of());
+        assertEquals(2, executor.tasks.size());
+        assertTrue(none.isDone());
+        assertEquals(Map.of(), none.get());
+
+        executor.runAll();
+        assertEquals(Map.of("A", Map.of("B", 1, "C", 2), "C", Map.of("B", 3), "X", Map.of()), targets.get());
+        assertEquals(Map.of("B", Map.of("A", 1, "C", 3)), sources.get());
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        CountingGraph graph = new CountingGraph();
+        graph.set("A", "B", 1);
+        ManualExecutor executor = new ManualExecutor();
+        AsyncGraph<String> async = new AsyncGraph<>(graph, executor);
+
+        CompletableFuture<Map<String, Integer>> first = async.targetsAsync("A");
+        CompletableFuture<Map<String, Integer>> second = async.targetsAsync("A");
+        CompletableFuture<Map<String, Map<String, Integer>>> batch = async.targetsMany(List.of("A", "B"));
+        assertSame(first, second);
+        assertEquals(2, async.getCoalescedCount());
+        assertEquals(2, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(2, graph.targetReads.get());
+        assertEquals(Map.of("B", 1), first.get());
+        assertEquals(Map.of("A", Map.of("B", 1), "B", Map.of()), batch.get());
+
+        CompletableFuture<Map<String, Integer>> later = async.targetsAsync("A");
+        assertNotSame(first, later);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(3, graph.targetReads.get());
+    }
+
+    @Test
+    public void testNoCoalescingOnceReadStarted() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        List<CompletableFuture<Map<String, Integer>>> inner = new ArrayList<>();
+        List<AsyncGraph<String>> holder = new ArrayList<>();
+        Graph<String> graph = new ConcurrentGraph<String>(Collections.emptySet()) {
+            @Override
+            public Map<String, Integer> targets(String source) {
+                if (inner.isEmpty()) {
+                    inner.add(holder.get(0).targetsAsync(source));
+                }
+                return super.targets(source);
+            }
+        };
+        AsyncGraph<String> async = new AsyncGraph<>(graph, executor);
+        holder.add(async);
+
+        CompletableFuture<Map<String, Integer>> first = async.targetsAsync("A");
+        executor.tasks.remove().run();
+        assertTrue(first.isDone());
+        assertNotSame(first, inner.get(0));
+        assertFalse(inner.get(0).isDone());
+        assertEquals(0, async.getCoalescedCount());
+        executor.runAll();
+        assertTrue(inner.get(0).isDone());
+    }
+
+    @Test
+    public void testLookupFailure() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        Graph<String> graph = new ConcurrentGraph<String>(Collections.emptySet()) {
+            @Override
+            public Map<String, Integer> sources(String target) {
+                throw new IllegalStateException("broken");
+            }
+        };
+        AsyncGraph<String> async = new AsyncGraph<>(graph, executor);
+        CompletableFuture<Map<String, Integer>> future = async.sourcesAsync("A");
+        executor.runAll();
+        try {
+            future.get();
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // a failed lookup is not shared with later ones
+        async.sourcesAsync("A");
+        assertEquals(1, executor.tasks.size());
+    }
+
+    // A subscriber that requests one edge at a time, cancelling after 'limit'
+    private static class OneAtATime implements Flow.Subscriber<EdgeTriple<String>> {
+        final List<EdgeTriple<String>> received = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final int limit;
+        Flow.Subscription subscription;
+
+        OneAtATime(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(EdgeTriple<String> edge) {
+            received.add(edge);
+            if (received.size() == limit) {
+                subscription.cancel();
+                done.complete(null);
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+
+    @Test
+    public void testEdgePublisher() throws Exception {
+        Graph<String> graph = new ConcurrentGraph<>(Collections.emptySet());
+        Set<EdgeTriple<String>> expected = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            graph.set("V" + i, "V" + (i * 3 % 500), i + 1);
+            expected.add(new EdgeTriple<>("V" + i, "V" + (i * 3 % 500), i + 1));
+        }
+        try (AsyncGraph<String> async = new AsyncGraph<>(graph)) {
+            OneAtATime all = new OneAtATime(-1);
+            async.edgePublisher().subscribe(all);
+            all.done.get(TIMEOUT, TimeUnit.SECONDS);
+            assertEquals(500, all.received.size());
+            assertEquals(expected, new HashSet<>(all.received));
+
+            OneAtATime some = new OneAtATime(10);
+            async.edgePublisher().subscribe(some);
+            some.done.get(TIMEOUT, TimeUnit.SECONDS);
+            assertEquals(10, some.received.size());
+
+            OneAtATime none = new OneAtATime(-1);
+            new AsyncGraph<>(Graph.<String>empty(), Runnable::run).edgePublisher().subscribe(none);
+            none.done.get(TIMEOUT, TimeUnit.SECONDS);
+            assertTrue(none.received.isEmpty());
+        }
+    }
+
+    @Test
+    public void testEdgePublisherOnSuppliedExecutors() throws Exception {
+        Graph<String> graph = new ConcurrentGraph<>(Collections.emptySet());
+        for (int i = 0; i < 100; i++) {
+            graph.set("V" + i, "V" + (i + 1), 1);
+        }
+        // A fork-join pool compensates for the blocked traversal; a fixed
+        // pool needs a thread for delivery beside it
+        for (ExecutorService executor : List.of(new ForkJoinPool(1), Executors.newFixedThreadPool(2))) {
+            try {
+                OneAtATime subscriber = new OneAtATime(-1);
+                new AsyncGraph<>(graph, executor, 4).edgePublisher().subscribe(subscriber);
+                subscriber.done.get(TIMEOUT, TimeUnit.SECONDS);
+                assertEquals(100, subscriber.received.size());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testEdgePublisherFailure() throws Exception {
+        Graph<String> graph = new ConcurrentGraph<String>(Collections.emptySet()) {
+            @Override
+            public EdgeCursor<String> edges() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        try (AsyncGraph<String> async = new AsyncGraph<>(graph)) {
+            OneAtATime subscriber = new OneAtATime(-1);
+            async.edgePublisher().subscribe(subscriber);
+            try {
+                subscriber.done.get(TIMEOUT, TimeUnit.SECONDS);
+                fail("expected failure");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testQueryAsync() throws Exception {
+        try (AsyncGraph<String> async = new AsyncGraph<>(sample())) {
+            CompletableFuture<Integer> count = async.queryAsync(graph -> graph.vertices().size());
+            assertEquals(Integer.valueOf(3), count.get(TIMEOUT, TimeUnit.SECONDS));
+            CompletableFuture<Object> failed = async.queryAsync(graph -> {
+                throw new IllegalStateException("broken");
+            });
+            try {
+                failed.get(TIMEOUT, TimeUnit.SECONDS);
+                fail("expected failure");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testClosedRejectsLookups() throws Exception {
+        AsyncGraph<String> async = new AsyncGraph<>(sample());
+        assertEquals(Runtime.version().feature() >= 21, async.usesVirtualThreads());
+        async.close();
+        CompletableFuture<Map<String, Integer>> future = async.targetsAsync("A");
+        assertTrue(future.isCompletedExceptionally());
+        assertFalse(new AsyncGraph<>(sample(), Runnable::run).usesVirtualThreads());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBufferSizeNotPositive() {
+        new AsyncGraph<>(sample(), Runnable::run, 0);
+    }
+}
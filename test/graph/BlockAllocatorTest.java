@@ -0,0 +1,66 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for BlockAllocator.
+ */
+public class BlockAllocatorTest {
+
+    // Testing strategy
+    //   allocate(): smallest block, block that grows the current page, block
+    //               that opens a new page, block larger than a page
+    //   free(): block reused by the next allocation of its size class, and
+    //           zeroed when reused; large block releases its page
+
+    private static final int PAGE_INTS = 1 << 10;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testBlockSizes() {
+        assertEquals(2, BlockAllocator.blockInts(1));
+        assertEquals(4, BlockAllocator.blockInts(3));
+        assertEquals(8, BlockAllocator.blockInts(8));
+    }
+
+    @Test
+    public void testFreedBlockIsReusedAndZeroed() {
+        BlockAllocator allocator = new BlockAllocator(PAGE_INTS);
+        long first = allocator.allocate(8);
+        for (int i = 0; i < 8; i++) {
+            allocator.putInt(first, i, i + 1);
+        }
+        allocator.free(first, 8);
+        long second = allocator.allocate(7);
+        assertEquals(first, second);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(0, allocator.getInt(second, i));
+        }
+        assertEquals(8, allocator.usedInts());
+    }
+
+    @Test
+    public void testBlocksSpanManyPages() {
+        BlockAllocator allocator = new BlockAllocator(PAGE_INTS);
+        long[] addresses = new long[100];
+        for (int k = 0; k < addresses.length; k++) {
+            addresses[k] = allocator.allocate(100);
+            allocator.putInt(addresses[k], 99, k);
+        }
+        for (int k = 0; k < addresses.length; k++) {
+            assertEquals(k, allocator.getInt(addresses[k], 99));
+        }
+        long reserved = allocator.reservedBytes();
+        long large = allocator.allocate(4 * PAGE_INTS);
+        allocator.putInt(large, 4 * PAGE_INTS - 1, 42);
+        assertEquals(42, allocator.getInt(large, 4 * PAGE_INTS - 1));
+        allocator.free(large, 4 * PAGE_INTS);
+        assertEquals(reserved, allocator.reservedBytes());
+    }
+}
@@ -0,0 +1,251 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for CachingGraph and CacheStats, including every test in
+ * GraphInstanceTest.
+ */
+public class CachingGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a CachingGraph over a Graph for tests in GraphInstanceTest.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        return new CachingGraph<>(Graph.empty());
+    }
+
+    // Testing strategy for CachingGraph
+    //   sources(), targets(): miss then hit; vertex absent; returned map
+    //                         unmodifiable
+    //   invalidation: set() drops only targets(s) and sources(t); remove()
+    //                 drops the vertex and its neighbors; unrelated entries
+    //                 kept; random mutations never leave a stale entry
+    //   shortestPath(): miss then hit; new or cheaper edge drops every path;
+    //                   removed or dearer edge drops only paths using it;
+    //                   remove() drops paths through the vertex; add(),
+    //                   addAll() and set() of weight 0 drop a new vertex's
+    //                   empty path to itself
+    //   eviction: more distinct queries than the maximum size
+    //   stats: hits, misses, hit rate, evictions, invalidations, reset
+    //   constructor: maximum size not positive
+
+    @Test
+    public void testHitsAndMisses() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty());
+        graph.set("A", "B", 1);
+        Map<String, Integer> first = graph.targets("A");
+        assertSame(first, graph.targets("A"));
+        assertEquals(Map.of("B", 1), first);
+        assertEquals(Map.of("A", 1), graph.sources("B"));
+        assertEquals(Map.of(), graph.targets("X"));
+        graph.targets("X");
+
+        CacheStats stats = graph.getStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(0.4, stats.getHitRate(), 1e-9);
+
+        graph.resetStats();
+        assertEquals(0, graph.getStats().getHitCount());
+        assertEquals(0, graph.getStats().getHitRate(), 0);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testCachedMapUnmodifiable() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty());
+        graph.set("A", "B", 1);
+        graph.targets("A").put("C", 2);
+    }
+
+    @Test
+    public void testSetInvalidatesOnlyEndpoints() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty());
+        graph.set("A", "B", 1);
+        graph.set("C", "D", 1);
+        Map<String, Integer> sourcesOfA = graph.sources("A");
+        Map<String, Integer> targetsOfB = graph.targets("B");
+        Map<String, Integer> targetsOfC = graph.targets("C");
+        graph.targets("A");
+        graph.sources("B");
+
+        graph.set("A", "B", 5);
+        assertEquals(2, graph.getStats().getInvalidationCount());
+        assertEquals(Map.of("B", 5), graph.targets("A"));
+        assertEquals(Map.of("A", 5), graph.sources("B"));
+        assertSame(sourcesOfA, graph.sources("A"));
+        assertSame(targetsOfB, graph.targets("B"));
+        assertSame(targetsOfC, graph.targets("C"));
+
+        graph.set("A", "B", 5);
+        assertEquals(2, graph.getStats().getInvalidationCount());
+    }
+
+    @Test
+    public void testRemoveInvalidatesNeighbors() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty());
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 2);
+        graph.set("D", "E", 3);
+        graph.targets("A");
+        graph.sources("C");
+        Map<String, Integer> targetsOfD = graph.targets("D");
+
+        assertTrue(graph.remove("B"));
+        assertEquals(Map.of(), graph.targets("A"));
+        assertEquals(Map.of(), graph.sources("C"));
+        assertEquals(Map.of(), graph.targets("B"));
+        assertSame(targetsOfD, graph.targets("D"));
+        assertFalse(graph.remove("B"));
+
+        graph.sources("E");
+        assertTrue(graph.removeAll(List.of("D", "X")));
+        assertEquals(Map.of(), graph.sources("E"));
+    }
+
+    @Test
+    public void testPathInvalidation() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty());
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 1);
+        graph.set("A", "C", 5);
+        graph.set("X", "Y", 1);
+        Optional<WeightedPath<String>> path = graph.shortestPath("A", "C");
+        assertEquals(List.of("A", "B", "C"), path.get().getVertices());
+        assertSame(path, graph.shortestPath("A", "C"));
+        Optional<WeightedPath<String>> other = graph.shortestPath("X", "Y");
+
+        // A dearer edge that the path uses
+        graph.set("B", "C", 2);
+        assertSame(other, graph.shortestPath("X", "Y"));
+        assertEquals(3, graph.shortestPath("A", "C").get().getWeight());
+
+        // A removed edge that no cached path uses
+        path = graph.shortestPath("A", "C");
+        graph.set("A", "C", 0);
+        assertSame(path, graph.shortestPath("A", "C"));
+
+        // A cheaper edge may shorten any path
+        graph.set("A", "C", 1);
+        assertEquals(List.of("A", "C"), graph.shortestPath("A", "C").get().getVertices());
+        assertNotSame(other, graph.shortestPath("X", "Y"));
+
+        // Removing a vertex drops the paths through it
+        graph.set("A", "C", 0);
+        graph.shortestPath("A", "C");
+        other = graph.shortestPath("X", "Y");
+        graph.remove("B");
+        assertEquals(Optional.empty(), graph.shortestPath("A", "C"));
+        assertSame(other, graph.shortestPath("X", "Y"));
+    }
+
+    @Test
+    public void testAddDropsEmptyPathToItself() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty());
+        Optional<WeightedPath<String>> other = graph.shortestPath("X", "Y");
+        assertEquals(Optional.empty(), graph.shortestPath("X", "X"));
+        assertEquals(Optional.empty(), graph.shortestPath("Z", "Z"));
+
+        assertTrue(graph.add("X"));
+        assertEquals(List.of("X"), graph.shortestPath("X", "X").get().getVertices());
+        assertEquals(0, graph.shortestPath("X", "X").get().getWeight());
+        assertSame(other, graph.shortestPath("X", "Y"));
+
+        assertTrue(graph.addAll(List.of("X", "Z")));
+        assertEquals(List.of("Z"), graph.shortestPath("Z", "Z").get().getVertices());
+        assertEquals(2, graph.getStats().getInvalidationCount());
+    }
+
+    @Test
+    public void testZeroWeightSetDropsEmptyPathToItself() {
+        // A delegate whose set() adds the endpoints even for weight 0
+        Graph<String> delegate = new Graph<String>(Collections.emptySet()) {
+            @Override
+            public int set(String source, String target, int weight) {
+                add(source);
+                add(target);
+                return super.set(source, target, weight);
+            }
+        };
+        CachingGraph<String> graph = new CachingGraph<>(delegate);
+        graph.set("X", "Y", 1);
+        assertEquals(Optional.empty(), graph.shortestPath("A", "A"));
+        assertEquals(Optional.empty(), graph.shortestPath("A", "B"));
+
+        assertEquals(0, graph.set("A", "B", 0));
+        assertEquals(List.of("A"), graph.shortestPath("A", "A").get().getVertices());
+        assertEquals(List.of("B"), graph.shortestPath("B", "B").get().getVertices());
+        assertEquals(Optional.empty(), graph.shortestPath("A", "B"));
+        assertEquals(1, graph.shortestPath("X", "Y").get().getWeight());
+    }
+
+    @Test
+    public void testEviction() {
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty(), 2);
+        graph.set("A", "B", 1);
+        graph.targets("A");
+        graph.targets("B");
+        graph.targets("A");
+        graph.targets("C");
+        assertEquals(1, graph.getStats().getEvictionCount());
+        graph.targets("A");
+        assertEquals(2, graph.getStats().getHitCount());
+        graph.targets("B");
+        assertEquals(2, graph.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testRandomMutationsNeverStale() {
+        Random random = new Random(7);
+        Graph<String> reference = Graph.empty();
+        CachingGraph<String> graph = new CachingGraph<>(Graph.empty(), 8);
+        for (int step = 0; step < 5000; step++) {
+            String a = "V" + random.nextInt(12);
+            String b = "V" + random.nextInt(12);
+            switch (random.nextInt(8)) {
+            case 0:
+                assertEquals(reference.remove(a), graph.remove(a));
+                break;
+            case 1:
+                reference.removeAll(List.of(a, b));
+                graph.removeAll(List.of(a, b));
+                break;
+            case 2:
+            case 3:
+                int weight = random.nextInt(4);
+                assertEquals(reference.set(a, b, weight), graph.set(a, b, weight));
+                break;
+            case 4:
+                assertEquals(reference.targets(a), graph.targets(a));
+                break;
+            case 5:
+                assertEquals(reference.sources(a), graph.sources(a));
+                break;
+            default:
+                Optional<WeightedPath<String>> expected =
+                        new ShortestPaths<>(reference.freeze()).shortestPath(a, b);
+                Optional<WeightedPath<String>> actual = graph.shortestPath(a, b);
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isPresent()) {
+                    assertEquals(expected.get().getWeight(), actual.get().getWeight());
+                }
+            }
+        }
+        assertTrue(graph.getStats().getHitCount() > 0);
+        assertTrue(graph.getStats().getInvalidationCount() > 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaximumSizeNotPositive() {
+        new CachingGraph<>(Graph.empty(), 0);
+    }
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for ChangeLog and GraphChange. Recording from each graph
+ * implementation is tested in GraphInstanceTest.
+ */
+public class ChangeLogTest {
+
+    // Testing strategy
+    //   changesSince(): empty log, sequence 0, latest sequence, sequence in
+    //                   the middle, changes overwritten by wrap-around,
+    //                   negative or future sequence
+    //   GraphChange: each kind, getters, equals
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyLog() {
+        ChangeLog<String> log = new ChangeLog<>(4);
+        assertEquals(0, log.lastSequence());
+        assertEquals(Collections.emptyList(), log.changesSince(0).get());
+    }
+
+    @Test
+    public void testChangesSinceWithWrapAround() {
+        ChangeLog<String> log = new ChangeLog<>(4);
+        Graph<String> graph = Graph.empty();
+        graph.setChangeLog(log);
+        for (int i = 1; i <= 6; i++) {
+            graph.set("A", "B", i);
+        }
+        assertEquals("two vertices and six weights", 8, log.lastSequence());
+        assertFalse("changes 4 and earlier were overwritten", log.changesSince(3).isPresent());
+
+        List<GraphChange<String>> changes = log.changesSince(4).get();
+        assertEquals(4, changes.size());
+        GraphChange<String> first = changes.get(0);
+        assertEquals(5, first.getSequence());
+        assertEquals(GraphChange.Kind.EDGE_CHANGED, first.getKind());
+        assertEquals("A", first.getSource());
+        assertEquals("B", first.getTarget());
+        assertEquals(2, first.getOldWeight());
+        assertEquals(3, first.getNewWeight());
+        assertEquals(first, log.changesSince(4).get().get(0));
+        assertEquals(Collections.emptyList(), log.changesSince(8).get());
+    }
+
+    @Test
+    public void testVertexChanges() {
+        ChangeLog<String> log = new ChangeLog<>(4);
+        Graph<String> graph = Graph.empty();
+        graph.setChangeLog(log);
+        graph.add("A");
+        graph.remove("A");
+        List<GraphChange<String>> changes = log.changesSince(0).get();
+        assertEquals(GraphChange.Kind.VERTEX_ADDED, changes.get(0).getKind());
+        assertEquals(GraphChange.Kind.VERTEX_REMOVED, changes.get(1).getKind());
+        assertEquals("A", changes.get(1).getSource());
+        assertNull(changes.get(1).getTarget());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFutureSequence() {
+        new ChangeLog<String>(4).changesSince(1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+        new ChangeLog<String>(0);
+    }
+}
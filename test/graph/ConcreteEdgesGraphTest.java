@@ -23,7 +23,7 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
      */
     @Override
     public Graph<String> emptyInstance() {
-        return new Graph<String>(Collections.emptySet());
+        return new ConcreteEdgesGraph(Collections.emptySet());
     }
 
     /*
@@ -63,6 +63,62 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
         assertEquals(0, sources.size()); // The edge from A to B should be removed
     }
 
+    @Test
+    public void testConcreteEdgesGraphSetAddsVertices() {
+        Graph<String> graph = emptyInstance();
+        assertEquals(0, graph.set("A", "B", 5));
+        assertEquals(Set.of("A", "B"), graph.vertices());
+        assertEquals(0, graph.set("B", "C", 0));
+        assertEquals(Set.of("A", "B"), graph.vertices());
+        assertTrue(graph.targets("B").isEmpty());
+    }
+
+    @Test
+    public void testConcreteEdgesGraphIndexesAfterRemovals() {
+        // Removing edges moves later edges into the gaps; every remaining
+        // edge must still be found through both indexes
+        Graph<String> graph = emptyInstance();
+        for (int i = 0; i < 10; i++) {
+            graph.set("V" + i, "V" + ((i + 1) % 10), i + 1);
+            graph.set("V" + i, "V" + i, 100 + i);
+        }
+        assertEquals(2, graph.set("V1", "V2", 0));
+        assertTrue(graph.remove("V5"));
+        assertEquals(101, graph.set("V1", "V1", 0));
+
+        assertEquals(Collections.emptyMap(), graph.targets("V1"));
+        assertEquals(Map.of("V3", 103, "V4", 4), graph.targets("V3"));
+        assertEquals(Map.of("V4", 104), graph.targets("V4"));
+        assertEquals(Map.of("V6", 106), graph.sources("V6"));
+        assertEquals(Map.of("V0", 1), graph.sources("V1"));
+        assertEquals(4, graph.weight("V3", "V4"));
+        assertEquals(0, graph.weight("V4", "V5"));
+    }
+
+    @Test
+    public void testConcreteEdgesGraphEveryRepCheckMode() {
+        for (RepCheck mode : RepCheck.values()) {
+            ConcreteEdgesGraph graph = new ConcreteEdgesGraph(Set.of("A"));
+            graph.setRepCheck(mode);
+            for (int i = 0; i < 2000; i++) {
+                graph.set("A", "V" + (i % 50), i % 3);
+            }
+            graph.remove("V1");
+            assertEquals(mode.name(), 0, graph.weight("A", "V1"));
+            assertEquals(mode.name(), 1, graph.weight("A", "V49"));
+            assertEquals(mode.name(), 50, graph.vertices().size());
+        }
+    }
+
+    @Test
+    public void testConcreteEdgesGraphFreeze() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 5);
+        graph.set("C", "B", 2);
+        CsrGraph<String> csr = graph.freeze();
+        assertEquals(Map.of("A", 5, "C", 2), csr.sources("B"));
+    }
+
     /*
      * Testing Edge...
      */
@@ -73,5 +129,18 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
         assertEquals("A -> B : 5", edge.toString());
     }
 
+    @Test
+    public void testEdgeSetWeight() {
+        ConcreteEdgesGraph.Edge edge = new ConcreteEdgesGraph.Edge("A", "B", 5);
+        edge.setWeight(2);
+        assertEquals(2, edge.getWeight());
+        try {
+            edge.setWeight(0);
+            fail("expected a zero weight to break the rep invariant");
+        } catch (AssertionError e) {
+            // expected
+        }
+    }
+
     
 }
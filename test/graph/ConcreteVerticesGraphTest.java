@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import org.junit.Test;
 
@@ -14,7 +15,7 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
      */
     @Override
     public Graph<String> emptyInstance() {
-        return new Graph<String>(Collections.emptySet());
+        return new ConcreteVerticesGraph(Collections.emptySet());
     }
 
     /*
@@ -25,6 +26,10 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
     //   - Empty graph
     //   - Graph with vertices
     //   - Add vertices, remove vertices, and check the result
+    //
+    // Testing strategy for ConcreteVerticesGraph edges
+    //   - sources/targets after set, change and removal of edges
+    //   - remove a vertex with incoming, outgoing and self-loop edges
 
     
     @Test
@@ -57,6 +62,73 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
     }
 
 
+    @Test
+    public void testSourcesAndTargetsFollowEdges() {
+        ConcreteVerticesGraph graph = new ConcreteVerticesGraph(Collections.emptySet());
+        assertEquals(0, graph.set("A", "B", 3));
+        assertEquals(0, graph.set("C", "B", 4));
+        assertEquals(3, graph.set("A", "B", 5));
+        assertEquals(Map.of("A", 5, "C", 4), graph.sources("B"));
+        assertEquals(Map.of("B", 5), graph.targets("A"));
+        assertEquals(4, graph.set("C", "B", 0));
+        assertEquals(Map.of("A", 5), graph.sourcesView("B"));
+        assertEquals(Collections.emptyMap(), graph.targets("C"));
+        assertEquals(Set.of("A", "B", "C"), graph.vertices());
+    }
+
+    @Test
+    public void testRemoveUnlinksNeighbors() {
+        ConcreteVerticesGraph graph = new ConcreteVerticesGraph(Collections.emptySet());
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 2);
+        graph.set("B", "B", 3);
+        graph.set("C", "A", 4);
+        assertTrue(graph.remove("B"));
+        assertEquals(Collections.emptyMap(), graph.targets("A"));
+        assertEquals(Collections.emptyMap(), graph.sources("C"));
+        assertEquals(Map.of("C", 4), graph.sources("A"));
+        assertEquals(0, graph.weight("B", "B"));
+        assertEquals("Vertices: [A, C]", graph.toString());
+        assertFalse(graph.remove("B"));
+    }
+
+    @Test
+    public void testMatchesGraph() {
+        Graph<String> expected = Graph.empty();
+        ConcreteVerticesGraph graph = new ConcreteVerticesGraph(Collections.emptySet());
+        graph.setRepCheck(RepCheck.INCREMENTAL);
+        for (int i = 0; i < 3000; i++) {
+            String source = "V" + (i * 7 % 40);
+            String target = "V" + (i * 13 % 40);
+            if (i % 11 == 0) {
+                assertEquals(expected.remove(source), graph.remove(source));
+            } else {
+                assertEquals(expected.set(source, target, i % 5), graph.set(source, target, i % 5));
+            }
+        }
+        assertEquals(expected.vertices(), graph.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals(expected.targets(vertex), graph.targets(vertex));
+            assertEquals(expected.sources(vertex), graph.sources(vertex));
+        }
+    }
+
+    @Test
+    public void testEveryRepCheckMode() {
+        for (RepCheck mode : RepCheck.values()) {
+            ConcreteVerticesGraph graph = new ConcreteVerticesGraph(Collections.emptySet());
+            graph.setRepCheck(mode);
+            for (int i = 0; i < 2000; i++) {
+                graph.add("V" + (i % 50));
+                if (i % 7 == 0) {
+                    graph.remove("V" + (i % 50));
+                }
+            }
+            assertEquals(mode.name(), graph.vertices().size(), graph.toString().split(",").length);
+        }
+    }
+
+
     /*
      * Testing Vertex...
      */
@@ -72,5 +144,18 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
         assertEquals("A", vertex.toString());
     }
 
+    @Test
+    public void testVertexEdges() {
+        Vertex vertex = new Vertex("A");
+        assertEquals(0, vertex.setTarget("B", 2));
+        assertEquals(2, vertex.setTarget("B", 6));
+        assertEquals(0, vertex.setSource("C", 1));
+        assertEquals(6, vertex.getTarget("B"));
+        assertEquals(1, vertex.getSource("C"));
+        assertEquals(0, vertex.getSource("B"));
+        assertEquals(6, vertex.setTarget("B", 0));
+        assertEquals(0, vertex.getTarget("B"));
+    }
+
     
 }
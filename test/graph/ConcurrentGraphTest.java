@@ -0,0 +1,140 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as tests for its behavior under concurrent mutation.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<>(Collections.emptySet());
+    }
+
+    /*
+     * Testing ConcurrentGraph...
+     */
+
+    // Testing strategy for concurrency
+    //   - many threads setting edges on disjoint sources: no update is lost
+    //   - threads setting and removing overlapping vertices: afterwards every
+    //     edge is present in both targets() and sources(), and no edge refers
+    //     to a removed vertex
+    //   - freeze() while a thread sets and removes: every snapshot is well
+    //     formed
+
+    private static void runThreads(int threads, IntConsumer body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            futures.add(pool.submit(() -> body.accept(id)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDisjointSetsNotLost() throws Exception {
+        Graph<String> graph = emptyInstance();
+        runThreads(8, id -> {
+            for (int i = 0; i < 1000; i++) {
+                graph.set("s" + id, "t" + i, i + 1);
+            }
+        });
+        for (int id = 0; id < 8; id++) {
+            assertEquals(1000, graph.targets("s" + id).size());
+        }
+        assertEquals(8, graph.sources("t999").size());
+    }
+
+    @Test
+    public void testRemoveAtomicWithConcurrentSets() throws Exception {
+        Graph<String> graph = emptyInstance();
+        runThreads(8, id -> {
+            Random random = new Random(id);
+            for (int i = 0; i < 5000; i++) {
+                String source = "v" + random.nextInt(40);
+                String target = "v" + random.nextInt(40);
+                if (random.nextInt(10) == 0) {
+                    graph.remove(source);
+                } else {
+                    graph.set(source, target, random.nextInt(3));
+                }
+            }
+        });
+        for (String source : graph.vertices()) {
+            for (Map.Entry<String, Integer> edge : graph.targets(source).entrySet()) {
+                assertTrue("edge to removed vertex", graph.vertices().contains(edge.getKey()));
+                assertEquals(edge.getValue(), graph.sources(edge.getKey()).get(source));
+            }
+            for (Map.Entry<String, Integer> edge : graph.sources(source).entrySet()) {
+                assertEquals(edge.getValue(), graph.targets(edge.getKey()).get(source));
+            }
+        }
+    }
+
+    @Test
+    public void testFreezeDuringMutation() throws Exception {
+        Graph<String> graph = emptyInstance();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(1);
+            while (!done.get()) {
+                String source = "v" + random.nextInt(200);
+                if (random.nextInt(8) == 0) {
+                    graph.remove(source);
+                } else {
+                    graph.set(source, "v" + random.nextInt(200), 1 + random.nextInt(3));
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 300; i++) {
+                assertWellFormed(graph.freeze());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+
+    // Every out-edge of the snapshot is also an in-edge, with the same weight
+    static <L> void assertWellFormed(CsrGraph<L> snapshot) {
+        int inEdges = 0;
+        for (int v = 0; v < snapshot.vertexCount(); v++) {
+            inEdges += snapshot.inDegree(v);
+            for (int i = 0; i < snapshot.outDegree(v); i++) {
+                int target = snapshot.target(v, i);
+                assertEquals(snapshot.targetWeight(v, i),
+                        (int) snapshot.sources(snapshot.labelOf(target)).get(snapshot.labelOf(v)));
+            }
+        }
+        assertEquals(snapshot.edgeCount(), inEdges);
+    }
+}
@@ -0,0 +1,114 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+import org.junit.Test;
+
+/**
+ * Tests for CsrGraph snapshots taken with Graph.freeze().
+ */
+public class CsrGraphTest {
+
+    // Testing strategy
+    //   freeze(): empty graph, graph with isolated vertices, self-loops,
+    //             vertices with several in- and out-edges
+    //   observers: label-based results match the source graph
+    //   id accessors: ids are dense, rows are sorted, weight() finds and
+    //                 misses edges
+    //   snapshot: later changes to the source graph are not visible
+    //   copyOf(): edge to a vertex missing from vertices() is rejected
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Graph<String> sampleGraph() {
+        Graph<String> graph = new Graph<>(Collections.emptySet());
+        graph.set("A", "B", 5);
+        graph.set("A", "C", 3);
+        graph.set("B", "C", 2);
+        graph.set("C", "C", 7);
+        graph.add("D");
+        return graph;
+    }
+
+    @Test
+    public void testFreezeEmpty() {
+        CsrGraph<String> csr = Graph.<String>empty().freeze();
+        assertEquals(0, csr.vertexCount());
+        assertEquals(0, csr.edgeCount());
+        assertEquals(Collections.emptySet(), csr.vertices());
+        assertEquals(-1, csr.idOf("A"));
+    }
+
+    @Test
+    public void testObserversMatchGraph() {
+        Graph<String> graph = sampleGraph();
+        CsrGraph<String> csr = graph.freeze();
+
+        assertEquals(graph.vertices(), csr.vertices());
+        assertEquals(4, csr.edgeCount());
+        for (String vertex : graph.vertices()) {
+            assertEquals("targets of " + vertex, graph.targets(vertex), csr.targets(vertex));
+            assertEquals("sources of " + vertex, graph.sources(vertex), csr.sources(vertex));
+        }
+        assertTrue(csr.targets("E").isEmpty());
+        assertTrue(csr.sources("E").isEmpty());
+    }
+
+    @Test
+    public void testIdAccessors() {
+        CsrGraph<String> csr = sampleGraph().freeze();
+
+        for (int id = 0; id < csr.vertexCount(); id++) {
+            assertEquals(id, csr.idOf(csr.labelOf(id)));
+            for (int i = 1; i < csr.outDegree(id); i++) {
+                assertTrue("out rows sorted", csr.target(id, i - 1) < csr.target(id, i));
+            }
+            for (int i = 1; i < csr.inDegree(id); i++) {
+                assertTrue("in rows sorted", csr.source(id, i - 1) < csr.source(id, i));
+            }
+        }
+
+        int a = csr.idOf("A");
+        int c = csr.idOf("C");
+        assertEquals(2, csr.outDegree(a));
+        assertEquals(3, csr.inDegree(c));
+        assertEquals(3, csr.weight(a, c));
+        assertEquals(0, csr.weight(c, a));
+        assertEquals(0, csr.outDegree(csr.idOf("D")));
+    }
+
+    @Test
+    public void testSnapshotIndependentOfGraph() {
+        Graph<String> graph = sampleGraph();
+        CsrGraph<String> csr = graph.freeze();
+
+        graph.set("A", "B", 0);
+        graph.remove("C");
+
+        assertEquals(Set.of("A", "B", "C", "D"), csr.vertices());
+        assertEquals(Map.of("B", 5, "C", 3), csr.targets("A"));
+    }
+
+    @Test(expected=ConcurrentModificationException.class)
+    public void testCopyRejectsEdgeToUnknownVertex() {
+        // A graph whose rows change between vertices() and forEachTarget()
+        Graph<String> graph = new Graph<String>(Collections.emptySet()) {
+            @Override
+            public void forEachTarget(String source, ObjIntConsumer<? super String> action) {
+                action.accept("added later", 1);
+            }
+        };
+        graph.add("A");
+        CsrGraph.copyOf(graph);
+    }
+
+}
@@ -0,0 +1,237 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for DurableGraph, including every test in GraphInstanceTest.
+ */
+public class DurableGraphTest extends GraphInstanceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<DurableGraph> opened = new ArrayList<>();
+
+    /*
+     * Provide a DurableGraph in a new directory for tests in
+     * GraphInstanceTest, without background checkpoints.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        try {
+            return open(folder.newFolder().toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private DurableGraph open(Path directory) throws IOException {
+        DurableGraph graph = DurableGraph.open(directory, 1, 0);
+        opened.add(graph);
+        return graph;
+    }
+
+    @After
+    public void closeGraphs() throws IOException {
+        for (DurableGraph graph : opened) {
+            graph.close();
+        }
+    }
+
+    private static Set<String> files(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals(expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+        }
+    }
+
+    // Testing strategy for DurableGraph
+    //   recovery: from the log alone, from a snapshot alone, from a snapshot
+    //             plus a log tail; across several reopenings
+    //   log: add, set (including weight 0 and unchanged weights), remove,
+    //        removeAll; torn or corrupt tail
+    //   checkpoint: nothing changed, old snapshots and covered log segments
+    //               deleted; background checkpoints; a background
+    //               checkpoint that fails, reported once and then retried
+    //   sync() with and without pending changes
+
+    @Test
+    public void testReopenReplaysLog() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        DurableGraph graph = open(directory);
+        graph.set("A", "B", 5);
+        graph.set("B", "C", 2);
+        graph.add("D");
+        graph.set("A", "B", 0);
+        graph.set("A", "C", 3);
+        graph.remove("B");
+        graph.close();
+
+        DurableGraph reopened = open(directory);
+        assertEquals(Set.of("A", "C", "D"), reopened.vertices());
+        assertEquals(Map.of("C", 3), reopened.targets("A"));
+        assertTrue(files(directory, "snapshot-").isEmpty());
+    }
+
+    @Test
+    public void testCheckpointThenTail() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        Graph<String> expected = Graph.empty();
+        DurableGraph graph = open(directory);
+        for (int i = 0; i < 100; i++) {
+            expected.set("V" + i, "V" + (i * 7 % 100), i + 1);
+            graph.set("V" + i, "V" + (i * 7 % 100), i + 1);
+        }
+        graph.checkpoint();
+        assertEquals(1, files(directory, "snapshot-").size());
+        graph.checkpoint(); // nothing changed
+        assertEquals(1, files(directory, "snapshot-").size());
+
+        expected.removeAll(List.of("V1", "V2", "missing"));
+        graph.removeAll(List.of("V1", "V2", "missing"));
+        expected.set("V3", "new", 9);
+        graph.set("V3", "new", 9);
+        graph.close();
+
+        DurableGraph reopened = open(directory);
+        assertSameGraph(expected, reopened);
+        reopened.checkpoint();
+        assertEquals(1, files(directory, "snapshot-").size());
+        reopened.close();
+
+        assertSameGraph(expected, open(directory));
+    }
+
+    @Test
+    public void testCheckpointDeletesCoveredSegments() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        for (int session = 0; session < 3; session++) {
+            DurableGraph graph = open(directory);
+            graph.set("A", "S" + session, 1);
+            graph.close();
+        }
+        assertEquals(3, files(directory, "wal-").size());
+
+        DurableGraph graph = open(directory);
+        graph.checkpoint();
+        assertEquals(1, files(directory, "wal-").size());
+        graph.set("A", "after", 2);
+        graph.close();
+
+        DurableGraph reopened = open(directory);
+        assertEquals(Map.of("S0", 1, "S1", 1, "S2", 1, "after", 2), reopened.targets("A"));
+    }
+
+    @Test
+    public void testTornTailIsDropped() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        DurableGraph graph = open(directory);
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 2);
+        graph.close();
+
+        Path segment = directory.resolve(files(directory, "wal-").iterator().next());
+        byte[] bytes = Files.readAllBytes(segment);
+        // Cut the last record short, then add garbage after it
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 3));
+        Files.write(segment, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        DurableGraph reopened = open(directory);
+        assertEquals(Set.of("A", "B"), reopened.vertices());
+        assertEquals(Map.of("B", 1), reopened.targets("A"));
+        reopened.set("C", "A", 4);
+        reopened.close();
+
+        DurableGraph again = open(directory);
+        assertEquals(Set.of("A", "B", "C"), again.vertices());
+        assertEquals(Map.of("A", 4), again.targets("C"));
+    }
+
+    @Test
+    public void testSyncMakesChangesDurable() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        DurableGraph graph = DurableGraph.open(directory, 10_000, 0);
+        opened.add(graph);
+        graph.sync(); // nothing pending
+        graph.set("A", "B", 3);
+        graph.sync();
+        long logged;
+        try (Stream<Path> segments = Files.list(directory)) {
+            logged = segments.mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertTrue("log written by sync()", logged > 0);
+    }
+
+    @Test
+    public void testBackgroundCheckpoints() throws IOException, InterruptedException {
+        Path directory = folder.newFolder().toPath();
+        DurableGraph graph = DurableGraph.open(directory, 1, 10);
+        Random random = new Random(3);
+        Graph<String> expected = Graph.empty();
+        for (int i = 0; i < 2000; i++) {
+            String source = "V" + random.nextInt(40);
+            String target = "V" + random.nextInt(40);
+            int weight = random.nextInt(4);
+            expected.set(source, target, weight);
+            graph.set(source, target, weight);
+            if (i % 500 == 0) {
+                Thread.sleep(20);
+            }
+        }
+        graph.close();
+        assertFalse(files(directory, "snapshot-").isEmpty());
+        assertSameGraph(expected, open(directory));
+    }
+
+    @Test
+    public void testFailedBackgroundCheckpointIsReportedAndRetried() throws IOException, InterruptedException {
+        Path directory = folder.newFolder().toPath();
+        DurableGraph graph = DurableGraph.open(directory, 1, 200);
+        // A directory in the way of the temporary snapshot file makes the
+        // checkpoint of the first record fail
+        Path blocker = Files.createDirectory(directory.resolve(String.format("snapshot-%020d.bin.tmp", 1)));
+        graph.set("A", "B", 1);
+        Thread.sleep(500);
+        try {
+            graph.sync();
+            fail("expected the checkpoint failure");
+        } catch (IOException e) {
+            // expected
+        }
+        Files.delete(blocker);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!files(directory, "snapshot-").contains(String.format("snapshot-%020d.bin", 1))) {
+            assertTrue("checkpoint should be retried", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        graph.close();
+        assertEquals(Map.of("B", 1), open(directory).targets("A"));
+    }
+}
@@ -0,0 +1,137 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for GraphIO.
+ */
+public class GraphIOTest {
+
+    // Testing strategy
+    //   text format: edges, isolated vertices, blank lines, labels with
+    //                spaces and non-ASCII characters, malformed lines
+    //   binary format: round trip, empty graph, more edges than one batch,
+    //                  wrong magic number, truncated file
+    //   readers add to a graph that already has vertices and edges
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Graph<String> sampleGraph() {
+        Graph<String> graph = new Graph<>(Collections.emptySet());
+        graph.set("A", "B", 5);
+        graph.set("B", "A", 3);
+        graph.set("New York", "S\u00e3o Paulo", 12);
+        graph.set("C", "C", 1);
+        graph.add("lonely");
+        return graph;
+    }
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals(expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+        }
+    }
+
+    @Test
+    public void testReadEdgeList() throws IOException {
+        Path file = folder.newFile("graph.txt").toPath();
+        Files.write(file, List.of("A -> B : 5", "", "B -> C : 2", "D", "A -> B : 7"), StandardCharsets.UTF_8);
+        Graph<String> graph = Graph.empty();
+        graph.add("existing");
+        GraphIO.readEdgeList(file, graph);
+        assertEquals(Set.of("A", "B", "C", "D", "existing"), graph.vertices());
+        assertEquals(Map.of("B", 7), graph.targets("A"));
+        assertEquals(Map.of("B", 2), graph.sources("C"));
+    }
+
+    @Test
+    public void testEdgeListRoundTrip() throws IOException {
+        Path file = folder.newFile("graph.txt").toPath();
+        Graph<String> graph = sampleGraph();
+        GraphIO.writeEdgeList(graph, file);
+        Graph<String> read = Graph.empty();
+        GraphIO.readEdgeList(file, read);
+        assertSameGraph(graph, read);
+    }
+
+    @Test(expected=IOException.class)
+    public void testEdgeListBadWeight() throws IOException {
+        Path file = folder.newFile("graph.txt").toPath();
+        Files.write(file, List.of("A -> B : five"), StandardCharsets.UTF_8);
+        GraphIO.readEdgeList(file, Graph.empty());
+    }
+
+    @Test(expected=IOException.class)
+    public void testEdgeListMissingWeight() throws IOException {
+        Path file = folder.newFile("graph.txt").toPath();
+        Files.write(file, List.of("A -> B"), StandardCharsets.UTF_8);
+        GraphIO.readEdgeList(file, Graph.empty());
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        Path file = folder.newFile("graph.bin").toPath();
+        Graph<String> graph = sampleGraph();
+        GraphIO.writeBinary(graph, file);
+        Graph<String> read = new ConcreteEdgesGraph(Collections.emptySet());
+        GraphIO.readBinary(file, read);
+        assertSameGraph(graph, read);
+    }
+
+    @Test
+    public void testBinaryEmptyAndLarge() throws IOException {
+        Path empty = folder.newFile("empty.bin").toPath();
+        GraphIO.writeBinary(Graph.<String>empty(), empty);
+        Graph<String> read = Graph.empty();
+        GraphIO.readBinary(empty, read);
+        assertTrue(read.vertices().isEmpty());
+
+        // more edges than one loader batch
+        Graph<String> large = Graph.empty();
+        for (int i = 0; i < 100_000; i++) {
+            large.set("v" + (i % 1000), "v" + (i / 100), 1 + i % 9);
+        }
+        Path file = folder.newFile("large.bin").toPath();
+        GraphIO.writeBinary(large, file);
+        read = Graph.empty();
+        GraphIO.readBinary(file, read);
+        assertSameGraph(large, read);
+    }
+
+    @Test(expected=IOException.class)
+    public void testBinaryWrongMagic() throws IOException {
+        Path file = folder.newFile("graph.bin").toPath();
+        Files.write(file, new byte[] { 1, 2, 3, 4, 0, 0, 0, 1 });
+        GraphIO.readBinary(file, Graph.empty());
+    }
+
+    @Test(expected=IOException.class)
+    public void testBinaryTruncated() throws IOException {
+        Path file = folder.newFile("graph.bin").toPath();
+        GraphIO.writeBinary(sampleGraph(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        GraphIO.readBinary(file, Graph.empty());
+    }
+}
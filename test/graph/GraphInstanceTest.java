@@ -5,7 +5,14 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
@@ -20,7 +27,31 @@ import org.junit.Test;
 public abstract class GraphInstanceTest {
     
     // Testing strategy
-    //   TODO
+    //   weight(): edge present, edge absent, edge set to zero, vertex absent
+    //   set(), setAll() of weight zero: edge present; either endpoint absent,
+    //                                  which adds no vertex and logs nothing
+    //   forEachTarget(), forEachSource():
+    //     vertex absent, vertex with no edges, vertex with several edges,
+    //     self-loop; results match targets() and sources()
+    //   verticesView(), targetsView(), sourcesView():
+    //     view taken before and after mutations, vertex removed and re-added,
+    //     attempted modification through the view
+    //   addAll(): all new, some already present, none new
+    //   setAll(): insert, update and delete-by-zero in one batch, vertices
+    //             created on demand, later triples override earlier ones
+    //   removeAll(): none present, a few vertices, most of the graph;
+    //                remaining edges still visible from both ends
+    //   setChangeLog(): add, set and remove that change the graph append
+    //                   one change each, in order; no-op mutations append
+    //                   nothing; a batch appends one change per element;
+    //                   mutations after detaching the log are not recorded
+    //   edges(), edgeStream(): empty graph, vertices without edges, removed
+    //                          vertices and edges, self-loop, enough edges
+    //                          for a parallel stream to split; every edge
+    //                          seen exactly once; cursor not on an edge
+    //   idOf(), labelOf(): vertex present, removed, never added; ids
+    //                      distinct and inverted by labelOf(), or -1 for
+    //                      every vertex of a graph that keeps no ids
     
     /**
      * Overridden by implementation-specific test classes.
@@ -41,6 +72,249 @@ public abstract class GraphInstanceTest {
                 Collections.emptySet(), emptyInstance().vertices());
     }
     
-    // TODO other tests for instance methods of Graph
+    @Test
+    public void testWeight() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 5);
+        graph.set("B", "A", 2);
+        assertEquals(5, graph.weight("A", "B"));
+        assertEquals(2, graph.weight("B", "A"));
+        assertEquals(0, graph.weight("A", "A"));
+        assertEquals(0, graph.weight("C", "A"));
+
+        graph.set("A", "B", 0);
+        assertEquals(0, graph.weight("A", "B"));
+    }
+
+    @Test
+    public void testForEachTargetAndSource() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 5);
+        graph.set("A", "C", 3);
+        graph.set("A", "A", 1);
+        graph.set("C", "A", 4);
+        graph.add("D");
+
+        Map<String, Integer> targets = new HashMap<>();
+        graph.forEachTarget("A", targets::put);
+        assertEquals(graph.targets("A"), targets);
+        assertEquals(3, targets.size());
+
+        Map<String, Integer> sources = new HashMap<>();
+        graph.forEachSource("A", sources::put);
+        assertEquals(graph.sources("A"), sources);
+        assertEquals(2, sources.size());
+
+        graph.forEachTarget("D", (target, weight) -> fail("D has no targets"));
+        graph.forEachSource("E", (source, weight) -> fail("E is not a vertex"));
+    }
     
+    @Test
+    public void testViewsAreLive() {
+        Graph<String> graph = emptyInstance();
+        Set<String> vertices = graph.verticesView();
+        Map<String, Integer> targets = graph.targetsView("A");
+        Map<String, Integer> sources = graph.sourcesView("B");
+        assertTrue(vertices.isEmpty());
+        assertTrue(targets.isEmpty());
+
+        graph.set("A", "B", 5);
+        graph.set("A", "C", 3);
+        assertEquals(Set.of("A", "B", "C"), vertices);
+        assertEquals(Map.of("B", 5, "C", 3), targets);
+        assertEquals(Map.of("A", 5), sources);
+        assertEquals(Integer.valueOf(3), targets.get("C"));
+        assertNull(targets.get("D"));
+
+        graph.remove("A");
+        assertEquals(Set.of("B", "C"), vertices);
+        assertTrue(targets.isEmpty());
+        assertTrue(sources.isEmpty());
+
+        graph.set("A", "B", 7);
+        assertEquals(Map.of("B", 7), targets);
+        assertEquals(graph.targets("A"), targets);
+        assertEquals(graph.sources("B"), sources);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testVerticesViewUnmodifiable() {
+        Graph<String> graph = emptyInstance();
+        graph.verticesView().add("A");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTargetsViewUnmodifiable() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 5);
+        graph.targetsView("A").put("C", 1);
+    }
+
+    @Test
+    public void testAddAll() {
+        Graph<String> graph = emptyInstance();
+        assertTrue(graph.addAll(List.of("A", "B")));
+        assertTrue(graph.addAll(List.of("B", "C")));
+        assertFalse(graph.addAll(List.of("A", "C")));
+        assertEquals(Set.of("A", "B", "C"), graph.vertices());
+    }
+
+    @Test
+    public void testZeroWeightAddsNoVertices() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+        ChangeLog<String> log = new ChangeLog<>(100);
+        graph.setChangeLog(log);
+
+        assertEquals(0, graph.set("A", "C", 0));
+        assertEquals(0, graph.set("X", "A", 0));
+        assertEquals(0, graph.set("Y", "Z", 0));
+        assertEquals(0, graph.set("W", "W", 0));
+        graph.setAll(List.of(new EdgeTriple<>("P", "Q", 0), new EdgeTriple<>("B", "R", 0)));
+        assertEquals(Set.of("A", "B"), graph.vertices());
+        assertFalse(graph.verticesView().contains("C"));
+        assertEquals(0, log.lastSequence());
+
+        assertEquals(1, graph.set("A", "B", 0));
+        assertEquals(Set.of("A", "B"), graph.vertices());
+        assertTrue(graph.targets("A").isEmpty());
+        assertEquals(1, log.lastSequence());
+    }
+
+    @Test
+    public void testSetAll() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 5);
+        graph.set("B", "C", 2);
+        graph.setAll(List.of(
+                new EdgeTriple<>("A", "B", 6),
+                new EdgeTriple<>("B", "C", 0),
+                new EdgeTriple<>("C", "D", 1),
+                new EdgeTriple<>("C", "D", 4)));
+        assertEquals(Set.of("A", "B", "C", "D"), graph.vertices());
+        assertEquals(Map.of("B", 6), graph.targets("A"));
+        assertTrue(graph.targets("B").isEmpty());
+        assertEquals(Map.of("C", 4), graph.sources("D"));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        Graph<String> graph = emptyInstance();
+        List<EdgeTriple<String>> ring = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ring.add(new EdgeTriple<>("V" + i, "V" + ((i + 1) % 20), i + 1));
+            ring.add(new EdgeTriple<>("V" + i, "V" + i, 100));
+        }
+        graph.setAll(ring);
+
+        assertFalse(graph.removeAll(List.of("X", "Y")));
+        assertTrue(graph.removeAll(List.of("V0", "X")));
+        assertEquals(19, graph.vertices().size());
+        assertTrue(graph.sources("V1").keySet().equals(Set.of("V1")));
+
+        // Removing most of the graph at once
+        List<String> most = new ArrayList<>();
+        for (int i = 1; i < 18; i++) {
+            most.add("V" + i);
+        }
+        assertTrue(graph.removeAll(most));
+        assertEquals(Set.of("V18", "V19"), graph.vertices());
+        assertEquals(Map.of("V19", 19, "V18", 100), graph.targets("V18"));
+        assertEquals(Map.of("V18", 19, "V19", 100), graph.sources("V19"));
+        assertEquals(Map.of("V18", 100), graph.sources("V18"));
+        assertEquals(Map.of("V19", 100), graph.targets("V19"));
+    }
+
+    @Test
+    public void testEdgeCursorAndStream() {
+        Graph<String> graph = emptyInstance();
+        assertFalse(graph.edges().next());
+        assertEquals(0, graph.edgeStream().count());
+
+        Set<EdgeTriple<String>> expected = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            String source = "V" + i;
+            String target = "V" + (i * 7 % 200);
+            graph.set(source, target, i + 1);
+            expected.add(new EdgeTriple<>(source, target, i + 1));
+        }
+        graph.add("isolated");
+        graph.set("V3", "gone", 4);
+        graph.remove("gone");
+        graph.set("V5", "V6", 9);
+        graph.set("V5", "V6", 0);
+
+        EdgeCursor<String> cursor = graph.edges();
+        List<EdgeTriple<String>> seen = new ArrayList<>();
+        while (cursor.next()) {
+            seen.add(new EdgeTriple<>(cursor.source(), cursor.target(), cursor.weight()));
+        }
+        assertFalse(cursor.next());
+        assertEquals(expected.size(), seen.size());
+        assertEquals(expected, new HashSet<>(seen));
+
+        assertEquals(expected, graph.edgeStream().collect(Collectors.toSet()));
+        List<EdgeTriple<String>> parallel = graph.edgeStream().parallel().collect(Collectors.toList());
+        assertEquals(expected.size(), parallel.size());
+        assertEquals(expected, new HashSet<>(parallel));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testEdgeCursorBeforeFirstEdge() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+        graph.edges().source();
+    }
+
+    @Test
+    public void testChangeLog() {
+        Graph<String> graph = emptyInstance();
+        graph.add("A");
+        ChangeLog<String> log = new ChangeLog<>(100);
+        graph.setChangeLog(log);
+        assertSame(log, graph.getChangeLog());
+
+        graph.set("A", "B", 5);
+        graph.add("A");
+        graph.set("A", "B", 5);
+        graph.set("A", "B", 7);
+        graph.set("B", "A", 0);
+        graph.remove("B");
+        graph.removeAll(List.of("A", "X"));
+        List<String> changes = new ArrayList<>();
+        for (GraphChange<String> change : log.changesSince(0).get()) {
+            changes.add(change.toString());
+        }
+        assertEquals(List.of("1: add B", "2: A -> B : 0 => 5", "3: A -> B : 5 => 7", "4: remove B", "5: remove A"),
+                changes);
+        assertEquals(5, log.lastSequence());
+
+        graph.setChangeLog(null);
+        graph.add("C");
+        assertEquals(5, log.lastSequence());
+    }
+
+    @Test
+    public void testVertexIds() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 2);
+        graph.add("D");
+        graph.remove("B");
+        VertexIds<String> ids = graph;
+        boolean keepsIds = ids.idOf("A") >= 0;
+        Set<Integer> seen = new HashSet<>();
+        for (String vertex : graph.vertices()) {
+            int id = ids.idOf(vertex);
+            if (keepsIds) {
+                assertTrue("Ids should be distinct", id >= 0 && seen.add(id));
+                assertEquals("labelOf should invert idOf", vertex, ids.labelOf(id));
+            } else {
+                assertEquals("A graph without ids should have none", -1, id);
+            }
+        }
+        assertEquals(-1, ids.idOf("B"));
+        assertEquals(-1, ids.idOf("X"));
+    }
+
 }
@@ -0,0 +1,137 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * Tests for InstrumentedGraph and GraphMetrics, including every test in
+ * GraphInstanceTest.
+ */
+public class InstrumentedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an InstrumentedGraph over a Graph for tests in
+     * GraphInstanceTest.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        return new InstrumentedGraph<>(Graph.empty());
+    }
+
+    // Testing strategy for InstrumentedGraph
+    //   wrapped graph: empty, already has vertices and edges; Graph,
+    //                  ConcreteEdgesGraph
+    //   counters: each operation counted once per call; not counted while
+    //             disabled; reset
+    //   gauges: edges added, reweighted, removed by set(..., 0), by remove(),
+    //           by removeAll() including edges between removed vertices and
+    //           self-loops, by setAll() with repeated edges; max degrees
+    //   instrument(): property unset returns the same graph
+    //   JMX: registered attributes readable, unregistered
+
+    @Test
+    public void testCountsCalls() {
+        InstrumentedGraph<String> graph = new InstrumentedGraph<>(Graph.empty());
+        GraphMetrics metrics = graph.getMetrics();
+        graph.add("A");
+        graph.set("A", "B", 1);
+        graph.set("A", "B", 2);
+        graph.targets("A");
+        graph.sources("B");
+        graph.vertices();
+        assertEquals(1, metrics.operation(GraphMetrics.Operation.ADD).getCount());
+        assertEquals(2, metrics.operation(GraphMetrics.Operation.SET).getCount());
+        assertEquals(1, metrics.operation(GraphMetrics.Operation.TARGETS).getCount());
+        assertEquals(1, metrics.operation(GraphMetrics.Operation.SOURCES).getCount());
+        assertEquals(1, metrics.operation(GraphMetrics.Operation.VERTICES).getCount());
+        assertEquals(0, metrics.operation(GraphMetrics.Operation.REMOVE).getCount());
+        assertTrue(metrics.operation(GraphMetrics.Operation.SET).getMaxNanos() > 0);
+
+        metrics.setEnabled(false);
+        graph.set("B", "C", 1);
+        assertEquals(2, metrics.operation(GraphMetrics.Operation.SET).getCount());
+        assertEquals("gauges kept while disabled", 2, metrics.getEdgeCount());
+
+        metrics.setEnabled(true);
+        metrics.reset();
+        assertEquals(0, metrics.operation(GraphMetrics.Operation.SET).getCount());
+    }
+
+    @Test
+    public void testGauges() {
+        InstrumentedGraph<String> graph = new InstrumentedGraph<>(new ConcreteEdgesGraph(Collections.emptySet()));
+        GraphMetrics metrics = graph.getMetrics();
+        graph.set("A", "B", 1);
+        graph.set("A", "C", 1);
+        graph.set("A", "A", 1);
+        graph.set("B", "C", 1);
+        graph.set("A", "C", 5);
+        assertEquals(3, metrics.getVertexCount());
+        assertEquals(4, metrics.getEdgeCount());
+        assertEquals(3, metrics.getMaxOutDegree());
+        assertEquals(2, metrics.getMaxInDegree());
+        assertEquals(4.0 / 3, metrics.getAverageOutDegree(), 1e-9);
+
+        graph.set("B", "C", 0);
+        assertEquals(3, metrics.getEdgeCount());
+        graph.remove("A");
+        assertEquals(0, metrics.getEdgeCount());
+        assertEquals(2, metrics.getVertexCount());
+
+        graph.setAll(List.of(new EdgeTriple<>("B", "C", 1), new EdgeTriple<>("C", "B", 1),
+                new EdgeTriple<>("B", "C", 0), new EdgeTriple<>("C", "C", 2)));
+        assertEquals(2, metrics.getEdgeCount());
+        graph.set("D", "B", 1);
+        graph.removeAll(List.of("B", "C", "missing"));
+        assertEquals(0, metrics.getEdgeCount());
+        assertEquals(1, metrics.getVertexCount());
+    }
+
+    @Test
+    public void testWrapsExistingGraph() {
+        Graph<String> inner = Graph.empty();
+        inner.set("A", "B", 1);
+        inner.set("C", "B", 1);
+        GraphMetrics metrics = new InstrumentedGraph<>(inner).getMetrics();
+        assertEquals(2, metrics.getEdgeCount());
+        assertEquals(2, metrics.getMaxInDegree());
+        assertEquals(1, metrics.getMaxOutDegree());
+    }
+
+    @Test
+    public void testInstrumentOffByDefault() {
+        Graph<String> graph = Graph.empty();
+        assertSame(graph, InstrumentedGraph.instrument(graph, "unused"));
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        InstrumentedGraph<String> graph = new InstrumentedGraph<>(Graph.empty());
+        GraphMetrics metrics = graph.getMetrics();
+        metrics.register("test graph");
+        try {
+            graph.set("A", "B", 3);
+            graph.targets("A");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("graph:type=Graph,name=" + ObjectName.quote("test graph"));
+            assertEquals(1L, server.getAttribute(name, "EdgeCount"));
+            assertEquals(2L, server.getAttribute(name, "VertexCount"));
+            ObjectName targets = new ObjectName(name + ",operation=TARGETS");
+            assertEquals(1L, server.getAttribute(targets, "Count"));
+            server.setAttribute(name, new Attribute("Enabled", false));
+            assertFalse(metrics.isEnabled());
+        } finally {
+            metrics.unregister();
+        }
+        assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("graph:*"), null).isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IntIntMap.
+ */
+public class IntIntMapTest {
+
+    // Testing strategy
+    //   put(): new key, existing key, key zero, enough keys to force resizing
+    //   remove(): absent key, negative key, present key
+    //   get(): present key, absent key, negative key
+    //   compare against HashMap under a random mix of puts and removes
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(0, map.put(0, 5));
+        assertEquals(5, map.put(0, 7));
+        assertEquals(7, map.get(0));
+        assertEquals(0, map.get(1));
+        assertEquals(0, map.get(-1));
+        assertFalse(map.containsKey(-1));
+        assertEquals(0, map.remove(-1));
+        assertEquals(7, map.remove(0));
+        assertEquals(0, map.remove(0));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(42);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // a small key range keeps probe runs long and removals frequent
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                int value = random.nextInt(100) + 1;
+                assertEquals(expected.getOrDefault(key, 0).intValue(), map.put(key, value));
+                expected.put(key, value);
+            } else {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? 0 : previous.intValue(), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        for (int key = 0; key < 500; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+    // Testing strategy
+    //   values: 0, exact range (< 64), log-linear range, beyond the largest
+    //           trackable value, negative
+    //   bucket bounds: contiguous, each value within its bucket's bounds
+    //   percentiles: empty histogram, 0, 50, 100, out of range; relative
+    //                error under 1/32
+    //   reset
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int bucket = 1; bucket < LatencyHistogram.bucket(Long.MAX_VALUE); bucket++) {
+            assertEquals(LatencyHistogram.upperBound(bucket - 1) + 1, LatencyHistogram.lowerBound(bucket));
+        }
+        for (long value : new long[] { 0, 1, 63, 64, 65, 127, 128, 1000, 123_456_789, 1L << 40 }) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= value);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500, histogram.getMean(), 1e-6);
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue("median " + median, Math.abs(median - 500_000) <= 500_000 / 32);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue("p99 " + p99, Math.abs(p99 - 990_000) <= 990_000 / 32);
+        assertTrue(histogram.getValueAtPercentile(0) <= 1000 + 1000 / 32);
+    }
+
+    @Test
+    public void testExtremeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertTrue(histogram.getValueAtPercentile(100) > 1L << 40);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPercentileOutOfRange() {
+        new LatencyHistogram().getValueAtPercentile(101);
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,63 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for ObjIntMap.
+ */
+public class ObjIntMapTest {
+
+    // Testing strategy
+    //   put(): new key, existing key, enough keys to force resizing
+    //   remove(): absent key, present key, keys in the same probe run
+    //   get()/getOrDefault(): present key, absent key
+    //   compare against HashMap under a random mix of puts and removes
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        ObjIntMap<String> map = new ObjIntMap<>();
+        assertEquals(0, map.put("A", 5));
+        assertEquals(5, map.put("A", 7));
+        assertEquals(7, map.get("A"));
+        assertEquals(0, map.get("B"));
+        assertEquals(-1, map.getOrDefault("B", -1));
+        assertEquals(7, map.remove("A"));
+        assertEquals(0, map.remove("A"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(42);
+        ObjIntMap<Integer> map = new ObjIntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // a small key range keeps probe runs long and removals frequent
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                int value = random.nextInt(100) + 1;
+                assertEquals(expected.getOrDefault(key, 0).intValue(), map.put(key, value));
+                expected.put(key, value);
+            } else {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? 0 : previous.intValue(), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map.toMap());
+        for (int key = 0; key < 500; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+}
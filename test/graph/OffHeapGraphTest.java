@@ -0,0 +1,121 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for OffHeapGraph, including every test in GraphInstanceTest.
+ */
+public class OffHeapGraphTest extends GraphInstanceTest {
+
+    // Small pages, so that the tests cross page boundaries and grow pages
+    private static final int PAGE_INTS = 1 << 10;
+
+    /*
+     * Provide an OffHeapGraph for tests in GraphInstanceTest.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        return new OffHeapGraph(Collections.emptySet(), PAGE_INTS);
+    }
+
+    // Testing strategy for OffHeapGraph
+    //   labels: ASCII, non-ASCII, empty, longer than one int
+    //   ids: assigned densely, recycled after remove()
+    //   blocks: grown past one page, shrunk by set(..., 0), freed by remove(),
+    //           space reused by later allocations
+    //   compare against Graph under a random mix of set() and remove()
+
+    @Test
+    public void testLabelsRoundTrip() {
+        OffHeapGraph graph = new OffHeapGraph(Set.of("", "S\u00e3o Paulo", "http://example.org/a/long/uri"), PAGE_INTS);
+        assertEquals(Set.of("", "S\u00e3o Paulo", "http://example.org/a/long/uri"), graph.vertices());
+        graph.set("S\u00e3o Paulo", "", 4);
+        assertEquals(Map.of("", 4), graph.targets("S\u00e3o Paulo"));
+        assertEquals(0, graph.weight("Sao Paulo", ""));
+        assertEquals("S\u00e3o Paulo -> " + " : 4\n", graph.toString());
+    }
+
+    @Test
+    public void testIdsAreRecycled() {
+        OffHeapGraph graph = new OffHeapGraph(Collections.emptySet(), PAGE_INTS);
+        graph.set("A", "B", 1);
+        graph.add("C");
+        assertEquals(1, graph.idOf("B"));
+        assertTrue(graph.remove("B"));
+        assertNull(graph.labelOf(1));
+        assertEquals(-1, graph.idOf("B"));
+        graph.add("D");
+        assertEquals(1, graph.idOf("D"));
+        assertEquals("D", graph.labelOf(1));
+        assertEquals(Collections.emptyMap(), graph.targets("A"));
+    }
+
+    @Test
+    public void testHighDegreeVertexCrossesPages() {
+        OffHeapGraph graph = new OffHeapGraph(Collections.emptySet(), PAGE_INTS);
+        for (int i = 0; i < 5000; i++) {
+            graph.set("hub", "v" + i, i + 1);
+        }
+        assertEquals(5000, graph.targets("hub").size());
+        assertEquals(1234, graph.weight("hub", "v1233"));
+        assertEquals(Map.of("hub", 5000), graph.sources("v4999"));
+        for (int i = 0; i < 5000; i++) {
+            graph.set("hub", "v" + i, 0);
+        }
+        assertTrue(graph.targets("hub").isEmpty());
+    }
+
+    @Test
+    public void testFreedSpaceIsReused() {
+        OffHeapGraph graph = new OffHeapGraph(Collections.emptySet(), PAGE_INTS);
+        long used = graph.usedBlockInts();
+        long reserved = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                graph.set("s" + i, "t" + (i % 17), 1);
+            }
+            for (int i = 0; i < 200; i++) {
+                graph.remove("s" + i);
+            }
+            for (int i = 0; i < 17; i++) {
+                graph.remove("t" + i);
+            }
+            assertEquals(used, graph.usedBlockInts());
+            if (round == 0) {
+                reserved = graph.offHeapBytes();
+            }
+        }
+        assertEquals(reserved, graph.offHeapBytes());
+    }
+
+    @Test
+    public void testMatchesGraph() {
+        Random random = new Random(7);
+        Graph<String> expected = Graph.empty();
+        OffHeapGraph graph = new OffHeapGraph(Collections.emptySet(), PAGE_INTS);
+        for (int i = 0; i < 20000; i++) {
+            String source = "V" + random.nextInt(60);
+            String target = "V" + random.nextInt(60);
+            if (random.nextInt(50) == 0) {
+                assertEquals(expected.remove(source), graph.remove(source));
+            } else {
+                int weight = random.nextInt(3) == 0 ? 0 : random.nextInt(9) + 1;
+                assertEquals(expected.set(source, target, weight), graph.set(source, target, weight));
+            }
+        }
+        assertEquals(expected.vertices(), graph.vertices());
+        assertEquals(expected.vertices(), graph.verticesView());
+        for (String vertex : expected.vertices()) {
+            assertEquals(expected.targets(vertex), graph.targets(vertex));
+            assertEquals(expected.sources(vertex), graph.sourcesView(vertex));
+            assertEquals(vertex, graph.labelOf(graph.idOf(vertex)));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for PageRank.
+ */
+public class PageRankTest {
+
+    // Testing strategy
+    //   graph: empty, cycle, star, dangling vertices, self-loops, unequal
+    //          weights, large enough to split across the pool
+    //   parameters: damping 0, default; tolerance met, iteration limit hit;
+    //               out of range
+    //   compare with a dense power iteration; serial and parallel runs agree
+    //   ranks sum to 1
+
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    // Dense power iteration over the same snapshot, for comparison
+    private static double[] denseRanks(CsrGraph<Integer> graph, double damping, int iterations) {
+        int n = graph.vertexCount();
+        double[][] transition = new double[n][n];
+        for (int u = 0; u < n; u++) {
+            long total = 0;
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                total += graph.targetWeight(u, i);
+            }
+            for (int v = 0; v < n; v++) {
+                transition[u][v] = total == 0 ? 1.0 / n : 0;
+            }
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                transition[u][graph.target(u, i)] = (double) graph.targetWeight(u, i) / total;
+            }
+        }
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int k = 0; k < iterations; k++) {
+            double[] next = new double[n];
+            for (int v = 0; v < n; v++) {
+                next[v] = (1 - damping) / n;
+                for (int u = 0; u < n; u++) {
+                    next[v] += damping * rank[u] * transition[u][v];
+                }
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+    @Test
+    public void testEmpty() {
+        PageRank.Result<String> result = new PageRank<>(Graph.<String>empty().freeze()).run();
+        assertTrue(result.isConverged());
+        assertEquals(0, result.getIterations());
+        assertTrue(result.top(3).isEmpty());
+    }
+
+    @Test
+    public void testCycleIsUniform() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 7);
+        graph.set("C", "A", 2);
+        PageRank.Result<String> result = new PageRank<>(graph.freeze()).run();
+        assertTrue(result.isConverged());
+        for (String vertex : List.of("A", "B", "C")) {
+            assertEquals(1.0 / 3, result.getRank(vertex), EPSILON);
+        }
+        assertEquals(0, result.getRank("missing"), 0);
+    }
+
+    @Test
+    public void testWeightsAndDanglingVertices() {
+        Graph<String> graph = Graph.empty();
+        graph.set("hub", "heavy", 9);
+        graph.set("hub", "light", 1);
+        graph.set("heavy", "hub", 1);
+        graph.set("light", "light", 1);
+        graph.add("lonely");
+        PageRank.Result<String> result = new PageRank<>(graph.freeze()).run();
+        assertEquals(1, sum(result.getRanks()), EPSILON);
+        assertTrue(result.getRank("heavy") > result.getRank("lonely"));
+        assertEquals(List.of("light", "hub"), result.top(2));
+
+        PageRank.Result<String> noDamping = new PageRank<>(graph.freeze()).run(0, 0, 5);
+        assertEquals("pure random jumps", 0.25, noDamping.getRank("hub"), EPSILON);
+        assertEquals(0.25, noDamping.getRank("lonely"), EPSILON);
+    }
+
+    @Test
+    public void testIterationLimit() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 1);
+        PageRank.Result<String> result = new PageRank<>(graph.freeze()).run(0.85, 0, 3);
+        assertEquals(3, result.getIterations());
+        assertFalse(result.isConverged());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDampingOutOfRange() {
+        new PageRank<>(Graph.<String>empty().freeze()).run(1, 1e-6, 10);
+    }
+
+    @Test
+    public void testMatchesDenseIteration() {
+        Random random = new Random(5);
+        Graph<Integer> graph = Graph.empty();
+        for (int v = 0; v < 40; v++) {
+            graph.add(v);
+        }
+        for (int e = 0; e < 120; e++) {
+            graph.set(random.nextInt(35), random.nextInt(40), 1 + random.nextInt(5));
+        }
+        CsrGraph<Integer> snapshot = graph.freeze();
+        PageRank.Result<Integer> result = new PageRank<>(snapshot).run(0.85, 0, 30);
+        double[] expected = denseRanks(snapshot, 0.85, 30);
+        for (int v = 0; v < expected.length; v++) {
+            assertEquals(expected[v], result.getRank(v), 1e-12);
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        Random random = new Random(11);
+        Graph<Integer> graph = Graph.empty();
+        int n = 50_000;
+        for (int v = 0; v < n; v++) {
+            graph.add(v);
+        }
+        for (int e = 0; e < 200_000; e++) {
+            graph.set(random.nextInt(n), (int) (n * Math.pow(random.nextDouble(), 2)), 1 + random.nextInt(9));
+        }
+        CsrGraph<Integer> snapshot = graph.freeze();
+        ForkJoinPool serialPool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        try {
+            PageRank.Result<Integer> serial = new PageRank<>(snapshot, serialPool).run();
+            PageRank.Result<Integer> parallel = new PageRank<>(snapshot, parallelPool).run();
+            assertTrue(serial.isConverged());
+            assertEquals(serial.getIterations(), parallel.getIterations());
+            assertArrayEquals(serial.getRanks(), parallel.getRanks(), 0);
+            assertEquals(1, sum(parallel.getRanks()), 1e-9);
+        } finally {
+            serialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for ParallelBfs.
+ */
+public class ParallelBfsTest {
+
+    // Testing strategy
+    //   hop limit: 0, 1, several, UNLIMITED
+    //   direction: FORWARD, BACKWARD
+    //   graph: source not in graph, cycles and self-loops, unreachable parts,
+    //          frontiers small enough to expand inline and large enough to
+    //          split across the pool
+    //   compare hops() with a sequential BFS
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testSmallGraph() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 1);
+        graph.set("C", "A", 1);
+        graph.set("C", "D", 1);
+        graph.set("D", "D", 1);
+        graph.add("E");
+        ParallelBfs<String> bfs = new ParallelBfs<>(graph.freeze());
+
+        assertEquals(Set.of("A"), bfs.reachable("A", 0, ParallelBfs.Direction.FORWARD));
+        assertEquals(Set.of("A", "B"), bfs.reachable("A", 1, ParallelBfs.Direction.FORWARD));
+        assertEquals(Set.of("A", "B", "C", "D"), bfs.reachable("A", ParallelBfs.UNLIMITED, ParallelBfs.Direction.FORWARD));
+        assertEquals(Set.of("D", "C"), bfs.reachable("D", 1, ParallelBfs.Direction.BACKWARD));
+        assertEquals(Set.of("E"), bfs.reachable("E", 5, ParallelBfs.Direction.BACKWARD));
+        assertTrue(bfs.reachable("Z", 5, ParallelBfs.Direction.FORWARD).isEmpty());
+    }
+
+    // Sequential BFS over the same snapshot, for comparison
+    private static int[] sequentialHops(CsrGraph<Integer> graph, int source, int maxHops, boolean forward) {
+        int[] hops = new int[graph.vertexCount()];
+        Arrays.fill(hops, ParallelBfs.UNREACHED);
+        hops[source] = 0;
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (hops[u] == maxHops) {
+                continue;
+            }
+            int degree = forward ? graph.outDegree(u) : graph.inDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = forward ? graph.target(u, i) : graph.source(u, i);
+                if (hops[v] == ParallelBfs.UNREACHED) {
+                    hops[v] = hops[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return hops;
+    }
+
+    @Test
+    public void testLargeRandomGraphAgainstSequential() {
+        Random random = new Random(3);
+        int n = 50_000;
+        Graph<Integer> graph = Graph.empty();
+        for (int v = 0; v < n; v++) {
+            graph.add(v);
+        }
+        for (int e = 0; e < 4 * n; e++) {
+            graph.set(random.nextInt(n), random.nextInt(n), 1);
+        }
+        CsrGraph<Integer> csr = graph.freeze();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelBfs<Integer> bfs = new ParallelBfs<>(csr, pool);
+            for (int maxHops : new int[] { 0, 1, 3, ParallelBfs.UNLIMITED }) {
+                for (ParallelBfs.Direction direction : ParallelBfs.Direction.values()) {
+                    int source = random.nextInt(n);
+                    boolean forward = direction == ParallelBfs.Direction.FORWARD;
+                    assertArrayEquals("maxHops " + maxHops + " " + direction,
+                            sequentialHops(csr, source, maxHops, forward),
+                            bfs.hops(source, maxHops, direction));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for PersistentMap.
+ */
+public class PersistentMapTest {
+
+    // Testing strategy
+    //   put(): new key, existing key with equal and different value
+    //   remove(): absent key, present key, last key
+    //   versions: older versions unchanged after put() and remove()
+    //   keys with equal hash codes (collision nodes), including removal
+    //   iterator(), iterator(from, to): whole map; root branches partition
+    //   compare against HashMap under a random mix of puts and removes
+
+    /** A key whose hash code is chosen, to force collisions. */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            return that instanceof Key && ((Key) that).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "K" + id;
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        PersistentMap<String, Integer> empty = PersistentMap.empty();
+        PersistentMap<String, Integer> one = empty.put("a", 1);
+        PersistentMap<String, Integer> two = one.put("b", 2);
+        assertSame(two, two.put("b", 2));
+        PersistentMap<String, Integer> changed = two.put("b", 3);
+
+        assertTrue(empty.isEmpty());
+        assertNull(empty.get("a"));
+        assertEquals(1, one.size());
+        assertNull(one.get("b"));
+        assertEquals(Integer.valueOf(2), two.get("b"));
+        assertEquals(Integer.valueOf(3), changed.get("b"));
+        assertEquals(2, changed.size());
+
+        assertSame(two, two.remove("c"));
+        PersistentMap<String, Integer> removed = two.remove("a");
+        assertEquals(1, removed.size());
+        assertFalse(removed.containsKey("a"));
+        assertTrue(two.containsKey("a"));
+        assertTrue(removed.remove("b").isEmpty());
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 5; i++) {
+            map = map.put(new Key(i, 17), i + 1);
+        }
+        map = map.put(new Key(9, 18), 10);
+        assertEquals(6, map.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i + 1), map.get(new Key(i, 17)));
+        }
+        assertNull(map.get(new Key(7, 17)));
+        for (int i = 0; i < 4; i++) {
+            map = map.remove(new Key(i, 17));
+        }
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(5), map.get(new Key(4, 17)));
+        assertEquals(Integer.valueOf(10), map.get(new Key(9, 18)));
+        map = map.remove(new Key(4, 17)).remove(new Key(9, 18));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(42);
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> old = map;
+        Map<Key, Integer> oldExpected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // few distinct hashes, so some keys collide in all 32 bits
+            int id = random.nextInt(2000);
+            Key key = new Key(id, id % 1500);
+            if (random.nextInt(3) > 0) {
+                int value = random.nextInt(100) + 1;
+                map = map.put(key, value);
+                expected.put(key, value);
+            } else {
+                map = map.remove(key);
+                expected.remove(key);
+            }
+            assertEquals(expected.size(), map.size());
+            if (i == 10000) {
+                old = map;
+                oldExpected = new HashMap<>(expected);
+            }
+        }
+        assertEquals(expected, contents(map, 0, map.width()));
+        assertEquals(oldExpected, contents(old, 0, old.width()));
+
+        Map<Key, Integer> halves = contents(map, 0, map.width() / 2);
+        Map<Key, Integer> upper = contents(map, map.width() / 2, map.width());
+        assertTrue(Collections.disjoint(halves.keySet(), upper.keySet()));
+        halves.putAll(upper);
+        assertEquals(expected, halves);
+    }
+
+    private static Map<Key, Integer> contents(PersistentMap<Key, Integer> map, int from, int to) {
+        Map<Key, Integer> contents = new HashMap<>();
+        for (Iterator<Map.Entry<Key, Integer>> it = map.iterator(from, to); it.hasNext(); ) {
+            Map.Entry<Key, Integer> entry = it.next();
+            assertNull("key seen twice", contents.put(entry.getKey(), entry.getValue()));
+        }
+        return contents;
+    }
+}
@@ -0,0 +1,52 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Tests for RepCheck.
+ */
+public class RepCheckTest {
+
+    // Testing strategy
+    //   parse(): each mode name; lower case, mixed case, surrounding
+    //            whitespace; under a locale with different case rules;
+    //            null, empty, unknown name fall back to the default
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testParseNames() {
+        for (RepCheck mode : RepCheck.values()) {
+            assertEquals(mode, RepCheck.parse(mode.name()));
+            assertEquals(mode, RepCheck.parse(mode.name().toLowerCase(Locale.ROOT)));
+        }
+        assertEquals(RepCheck.SAMPLED, RepCheck.parse("  Sampled\n"));
+    }
+
+    @Test
+    public void testParseIgnoresDefaultLocale() {
+        Locale saved = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // "incremental".toUpperCase() in Turkish gives a dotted capital I
+            assertEquals(RepCheck.INCREMENTAL, RepCheck.parse("incremental"));
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void testParseFallsBackToDefault() {
+        // Tests run with -ea, so the default is FULL
+        assertEquals(RepCheck.FULL, RepCheck.parse(null));
+        assertEquals(RepCheck.FULL, RepCheck.parse(""));
+        assertEquals(RepCheck.FULL, RepCheck.parse("sometimes"));
+    }
+}
@@ -0,0 +1,240 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+import org.junit.Test;
+
+/**
+ * Tests for ShardedGraph and its transports.
+ *
+ * This class runs the GraphInstanceTest tests against ShardedGraph over a
+ * LoopbackTransport, so that every request and reply is serialized, as well
+ * as tests for partitioning and for behavior under concurrent mutation.
+ */
+public class ShardedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a ShardedGraph over loopback shards for tests in
+     * GraphInstanceTest.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        return new ShardedGraph<>(new LoopbackTransport<>(4));
+    }
+
+    /*
+     * Testing ShardedGraph...
+     */
+
+    // Testing strategy for ShardedGraph
+    //   partitioning: one shard, many shards; each vertex owned by exactly
+    //                 one shard; edge whose endpoints are on different shards
+    //   sources(): sources spread over every shard
+    //   remove(): vertex with sources on other shards; self-loop
+    //   setAll(): logs the same changes in the same order as set() edge by
+    //             edge, with vertices on many shards, a vertex first seen as
+    //             a target, self-loop, zero weight on absent endpoints
+    //   transports: in-process, loopback (messages counted); shard count
+    //               not positive
+    //   concurrency: threads setting edges on disjoint sources lose no
+    //                update; threads setting and removing overlapping
+    //                vertices leave targets() and sources() in agreement;
+    //                freeze() while threads set and remove edges
+
+    private static void runThreads(int threads, IntConsumer body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            futures.add(pool.submit(() -> body.accept(id)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEachVertexOwnedByOneShard() {
+        InProcessTransport<String> transport = new InProcessTransport<>(8);
+        ShardedGraph<String> graph = new ShardedGraph<>(transport);
+        assertEquals(8, graph.getShardCount());
+        for (int i = 0; i < 100; i++) {
+            graph.set("V" + i, "V" + (i + 1) % 100, i + 1);
+        }
+        int total = 0;
+        for (int i = 0; i < 8; i++) {
+            for (String vertex : transport.send(i, GraphShard::vertices)) {
+                assertEquals(i, graph.shardOf(vertex));
+                total++;
+            }
+        }
+        assertEquals(100, total);
+        assertEquals(100, graph.verticesView().size());
+        assertTrue(graph.verticesView().contains("V42"));
+        assertFalse(graph.verticesView().contains("V100"));
+    }
+
+    @Test
+    public void testSingleShard() {
+        ShardedGraph<String> graph = new ShardedGraph<>(1);
+        graph.set("A", "B", 2);
+        graph.set("B", "A", 3);
+        assertEquals(0, graph.shardOf("A"));
+        assertEquals(Map.of("B", 3), graph.sources("A"));
+        assertTrue(graph.remove("B"));
+        assertEquals(Set.of("A"), graph.vertices());
+        assertTrue(graph.targets("A").isEmpty());
+    }
+
+    @Test
+    public void testSetAllLogsAsSetDoes() {
+        List<EdgeTriple<String>> batch = new ArrayList<>();
+        batch.add(new EdgeTriple<>("X", "Y", 0));
+        for (int i = 0; i < 20; i++) {
+            batch.add(new EdgeTriple<>("V" + i, "V" + (i + 7) % 20, i + 1));
+        }
+        batch.add(new EdgeTriple<>("S", "S", 4));
+        batch.add(new EdgeTriple<>("V3", "V10", 0));
+        batch.add(new EdgeTriple<>("V0", "Z", 0));
+        batch.add(new EdgeTriple<>("V5", "V12", 9));
+
+        ShardedGraph<String> batched = new ShardedGraph<>(4);
+        ChangeLog<String> batchedLog = new ChangeLog<>(100);
+        batched.setChangeLog(batchedLog);
+        batched.setAll(batch);
+        ShardedGraph<String> single = new ShardedGraph<>(4);
+        ChangeLog<String> singleLog = new ChangeLog<>(100);
+        single.setChangeLog(singleLog);
+        for (EdgeTriple<String> edge : batch) {
+            single.set(edge.getSource(), edge.getTarget(), edge.getWeight());
+        }
+
+        assertEquals(single.vertices(), batched.vertices());
+        assertFalse(batched.vertices().contains("X"));
+        assertFalse(batched.vertices().contains("Z"));
+        assertEquals(singleLog.changesSince(0).get().toString(),
+                batchedLog.changesSince(0).get().toString());
+    }
+
+    @Test
+    public void testSourcesAndRemoveAcrossShards() {
+        ShardedGraph<String> graph = new ShardedGraph<>(new LoopbackTransport<>(4));
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            graph.set("S" + i, "hub", i + 1);
+            shards.add(graph.shardOf("S" + i));
+        }
+        graph.set("hub", "hub", 100);
+        graph.set("hub", "S0", 7);
+        assertEquals(4, shards.size());
+        assertEquals(41, graph.sources("hub").size());
+        assertEquals(Integer.valueOf(40), graph.sources("hub").get("S39"));
+
+        assertTrue(graph.remove("hub"));
+        assertFalse(graph.remove("hub"));
+        assertEquals(40, graph.vertices().size());
+        assertTrue(graph.sources("S0").isEmpty());
+        for (int i = 0; i < 40; i++) {
+            assertTrue(graph.targets("S" + i).isEmpty());
+        }
+        assertEquals(0, graph.edgeStream().count());
+    }
+
+    @Test
+    public void testLoopbackCountsMessages() {
+        LoopbackTransport<String> transport = new LoopbackTransport<>(2);
+        ShardedGraph<String> graph = new ShardedGraph<>(transport);
+        graph.set("A", "B", 1);
+        // one request and one reply for each of the two shard operations
+        assertEquals(4, transport.getMessageCount());
+        assertTrue(transport.getByteCount() > 0);
+        graph.sources("B");
+        assertEquals(8, transport.getMessageCount());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testShardCountNotPositive() {
+        new ShardedGraph<String>(0);
+    }
+
+    @Test
+    public void testDisjointSetsNotLost() throws Exception {
+        Graph<String> graph = new ShardedGraph<>(4);
+        runThreads(8, id -> {
+            for (int i = 0; i < 1000; i++) {
+                graph.set("s" + id, "t" + i, i + 1);
+            }
+        });
+        for (int id = 0; id < 8; id++) {
+            assertEquals(1000, graph.targets("s" + id).size());
+        }
+        assertEquals(8, graph.sources("t999").size());
+    }
+
+    @Test
+    public void testRemoveAtomicWithConcurrentSets() throws Exception {
+        Graph<String> graph = new ShardedGraph<>(4);
+        runThreads(8, id -> {
+            Random random = new Random(id);
+            for (int i = 0; i < 5000; i++) {
+                String source = "v" + random.nextInt(40);
+                String target = "v" + random.nextInt(40);
+                if (random.nextInt(10) == 0) {
+                    graph.remove(source);
+                } else {
+                    graph.set(source, target, random.nextInt(3));
+                }
+            }
+        });
+        for (String source : graph.vertices()) {
+            for (Map.Entry<String, Integer> edge : graph.targets(source).entrySet()) {
+                assertTrue("edge to removed vertex", graph.vertices().contains(edge.getKey()));
+                assertEquals(edge.getValue(), graph.sources(edge.getKey()).get(source));
+            }
+            for (Map.Entry<String, Integer> edge : graph.sources(source).entrySet()) {
+                assertEquals(edge.getValue(), graph.targets(edge.getKey()).get(source));
+            }
+        }
+    }
+
+    @Test
+    public void testFreezeDuringMutation() throws Exception {
+        Graph<String> graph = new ShardedGraph<>(4);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(1);
+            while (!done.get()) {
+                String source = "v" + random.nextInt(200);
+                if (random.nextInt(8) == 0) {
+                    graph.remove(source);
+                } else {
+                    graph.set(source, "v" + random.nextInt(200), 1 + random.nextInt(3));
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 300; i++) {
+                ConcurrentGraphTest.assertWellFormed(graph.freeze());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for ShortestPaths.
+ */
+public class ShortestPathsTest {
+
+    // Testing strategy
+    //   graph: single vertex, unreachable target, vertex not in graph,
+    //          parallel routes with different weights, self-loops, cycles
+    //   query: distancesFrom(), distance(), shortestPath(),
+    //          bidirectionalShortestPath(); source == target
+    //   compare all queries with Bellman-Ford on random graphs, and check
+    //   that every returned path exists in the graph with the stated weight
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testSmallGraph() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 4);
+        graph.set("A", "C", 1);
+        graph.set("C", "B", 2);
+        graph.set("B", "D", 5);
+        graph.set("D", "D", 1);
+        graph.add("E");
+        ShortestPaths<String> paths = new ShortestPaths<>(graph.freeze());
+
+        WeightedPath<String> expected = new WeightedPath<>(List.of("A", "C", "B", "D"), 8);
+        assertEquals(Optional.of(expected), paths.shortestPath("A", "D"));
+        assertEquals(Optional.of(expected), paths.bidirectionalShortestPath("A", "D"));
+        assertEquals(Optional.empty(), paths.shortestPath("D", "A"));
+        assertEquals(Optional.empty(), paths.bidirectionalShortestPath("A", "E"));
+        assertEquals(Optional.empty(), paths.shortestPath("A", "Z"));
+        assertEquals(0, paths.shortestPath("A", "A").get().getWeight());
+        assertEquals(List.of("A"), paths.bidirectionalShortestPath("A", "A").get().getVertices());
+        assertEquals("A -> C -> B -> D : 8", expected.toString());
+    }
+
+    // Distances from source by Bellman-Ford, for comparison
+    private static long[] bellmanFord(CsrGraph<Integer> graph, int source) {
+        long[] distances = new long[graph.vertexCount()];
+        Arrays.fill(distances, ShortestPaths.UNREACHABLE);
+        distances[source] = 0;
+        for (int round = 0; round < graph.vertexCount(); round++) {
+            for (int u = 0; u < graph.vertexCount(); u++) {
+                if (distances[u] == ShortestPaths.UNREACHABLE) {
+                    continue;
+                }
+                for (int i = 0; i < graph.outDegree(u); i++) {
+                    int v = graph.target(u, i);
+                    distances[v] = Math.min(distances[v], distances[u] + graph.targetWeight(u, i));
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static void assertValidPath(Graph<Integer> graph, WeightedPath<Integer> path, int source, int target) {
+        List<Integer> vertices = path.getVertices();
+        assertEquals(Integer.valueOf(source), path.getSource());
+        assertEquals(Integer.valueOf(target), path.getTarget());
+        long weight = 0;
+        for (int i = 1; i < vertices.size(); i++) {
+            int w = graph.weight(vertices.get(i - 1), vertices.get(i));
+            assertTrue("path uses a missing edge", w > 0);
+            weight += w;
+        }
+        assertEquals(weight, path.getWeight());
+    }
+
+    @Test
+    public void testRandomGraphsAgainstBellmanFord() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 20; trial++) {
+            Graph<Integer> graph = Graph.empty();
+            int n = 5 + random.nextInt(40);
+            for (int v = 0; v < n; v++) {
+                graph.add(v);
+            }
+            for (int e = random.nextInt(4 * n); e > 0; e--) {
+                graph.set(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(20));
+            }
+            CsrGraph<Integer> csr = graph.freeze();
+            ShortestPaths<Integer> paths = new ShortestPaths<>(csr);
+            for (int s = 0; s < n; s++) {
+                long[] expected = bellmanFord(csr, s);
+                long[] actual = paths.distancesFrom(s);
+                assertArrayEquals(expected, actual);
+                for (int t = 0; t < n; t++) {
+                    int source = csr.labelOf(s);
+                    int target = csr.labelOf(t);
+                    assertEquals(expected[t], paths.distance(s, t));
+                    Optional<WeightedPath<Integer>> one = paths.shortestPath(source, target);
+                    Optional<WeightedPath<Integer>> two = paths.bidirectionalShortestPath(source, target);
+                    if (expected[t] == ShortestPaths.UNREACHABLE) {
+                        assertFalse(one.isPresent());
+                        assertFalse(two.isPresent());
+                    } else {
+                        assertEquals(expected[t], one.get().getWeight());
+                        assertEquals(expected[t], two.get().getWeight());
+                        assertValidPath(graph, one.get(), source, target);
+                        assertValidPath(graph, two.get(), source, target);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for StrongComponents.
+ */
+public class StrongComponentsTest {
+
+    // Testing strategy for StrongComponents
+    //   graph: empty, one vertex, self-loop, DAG, cycles joined by edges,
+    //          chain deep enough to overflow a recursive search, random
+    //   components: count, membership, numbered in topological order
+    //   condensation: parallel edges between components counted once
+    //   topologicalOrder(), findCycle(): acyclic graph, cyclic graph
+
+    private static CsrGraph<String> snapshot(String... edges) {
+        Graph<String> graph = Graph.empty();
+        for (String edge : edges) {
+            String[] ends = edge.split(">");
+            graph.set(ends[0], ends[1], 1);
+        }
+        return graph.freeze();
+    }
+
+    @Test
+    public void testEmpty() {
+        StrongComponents<String> components = new StrongComponents<>(Graph.<String>empty().freeze());
+        assertEquals(0, components.componentCount());
+        assertEquals(0, components.dagEdgeCount());
+        assertTrue(components.isAcyclic());
+        assertEquals(Optional.of(List.of()), components.topologicalOrder());
+        assertEquals(Optional.empty(), components.findCycle());
+    }
+
+    @Test
+    public void testSingleVertexAndSelfLoop() {
+        Graph<String> graph = Graph.empty();
+        graph.add("A");
+        StrongComponents<String> single = new StrongComponents<>(graph.freeze());
+        assertEquals(1, single.componentCount());
+        assertTrue(single.isAcyclic());
+
+        StrongComponents<String> loop = new StrongComponents<>(snapshot("A>A"));
+        assertEquals(1, loop.componentCount());
+        assertFalse(loop.isAcyclic());
+        assertEquals(Optional.empty(), loop.topologicalOrder());
+        assertEquals(Optional.of(List.of("A")), loop.findCycle());
+    }
+
+    @Test
+    public void testDag() {
+        StrongComponents<String> components = new StrongComponents<>(snapshot("A>B", "A>C", "B>D", "C>D", "E>A"));
+        assertEquals(5, components.componentCount());
+        assertTrue(components.isAcyclic());
+        List<String> order = components.topologicalOrder().get();
+        assertEquals(List.of("E", "A"), order.subList(0, 2));
+        assertEquals("D", order.get(4));
+        assertTrue(components.componentOf("A") < components.componentOf("B"));
+        assertEquals(-1, components.componentOf("X"));
+    }
+
+    @Test
+    public void testCyclesAndCondensation() {
+        StrongComponents<String> components = new StrongComponents<>(snapshot(
+                "A>B", "B>C", "C>A", "C>D", "B>D", "D>E", "E>D", "E>F", "A>F"));
+        assertEquals(3, components.componentCount());
+        int abc = components.componentOf("A");
+        int de = components.componentOf("D");
+        int f = components.componentOf("F");
+        assertEquals(abc, components.componentOf("C"));
+        assertEquals(de, components.componentOf("E"));
+        assertTrue(abc < de && de < f);
+        assertEquals(List.of("A", "B", "C"), sorted(components.members(abc)));
+        assertEquals(3, components.componentSize(abc));
+
+        assertEquals(3, components.dagEdgeCount());
+        assertEquals(2, components.dagOutDegree(abc));
+        assertEquals(de, components.dagTarget(abc, 0));
+        assertEquals(f, components.dagTarget(abc, 1));
+        assertEquals(0, components.dagOutDegree(f));
+
+        assertFalse(components.isAcyclic());
+        assertEquals(Optional.empty(), components.topologicalIds());
+        assertIsCycle(components.getGraph(), components.findCycle().get());
+    }
+
+    @Test
+    public void testDeepChain() {
+        int n = 200_000;
+        Graph<Integer> graph = Graph.empty();
+        for (int i = 0; i < n - 1; i++) {
+            graph.set(i, i + 1, 1);
+        }
+        StrongComponents<Integer> chain = new StrongComponents<>(graph.freeze());
+        assertEquals(n, chain.componentCount());
+        List<Integer> order = chain.topologicalOrder().get();
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+
+        graph.set(n - 1, 0, 1);
+        StrongComponents<Integer> ring = new StrongComponents<>(graph.freeze());
+        assertEquals(1, ring.componentCount());
+        assertEquals(n, ring.findCycle().get().size());
+    }
+
+    @Test
+    public void testRandomAgainstReachability() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(30);
+            Graph<Integer> graph = Graph.empty();
+            for (int v = 0; v < n; v++) {
+                graph.add(v);
+            }
+            int edges = random.nextInt(n * 2);
+            for (int e = 0; e < edges; e++) {
+                graph.set(random.nextInt(n), random.nextInt(n), 1);
+            }
+            CsrGraph<Integer> snapshot = graph.freeze();
+            StrongComponents<Integer> components = new StrongComponents<>(snapshot);
+            boolean[][] reach = reachability(snapshot);
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    boolean same = reach[u][v] && reach[v][u];
+                    assertEquals(same, components.componentOf(u) == components.componentOf(v));
+                    if (snapshot.weight(u, v) != 0 && !same) {
+                        assertTrue(components.componentOf(u) < components.componentOf(v));
+                    }
+                }
+            }
+            Optional<List<Integer>> cycle = components.findCycle();
+            assertEquals(components.isAcyclic(), cycle.isEmpty());
+            if (cycle.isPresent()) {
+                assertIsCycle(snapshot, cycle.get());
+            }
+        }
+    }
+
+    // Reflexive-transitive closure by repeated relaxation
+    private static boolean[][] reachability(CsrGraph<Integer> graph) {
+        int n = graph.vertexCount();
+        boolean[][] reach = new boolean[n][n];
+        for (int u = 0; u < n; u++) {
+            reach[u][u] = true;
+            for (int i = 0; i < graph.outDegree(u); i++) {
+                reach[u][graph.target(u, i)] = true;
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    reach[u][v] |= reach[u][k] && reach[k][v];
+                }
+            }
+        }
+        return reach;
+    }
+
+    private static <L> void assertIsCycle(CsrGraph<L> graph, List<L> cycle) {
+        assertFalse(cycle.isEmpty());
+        assertEquals(cycle.size(), new HashSet<>(cycle).size());
+        for (int k = 0; k < cycle.size(); k++) {
+            int from = graph.idOf(cycle.get(k));
+            int to = graph.idOf(cycle.get((k + 1) % cycle.size()));
+            assertNotEquals(0, graph.weight(from, to));
+        }
+    }
+
+    private static List<String> sorted(List<String> labels) {
+        List<String> copy = new ArrayList<>(labels);
+        copy.sort(null);
+        return copy;
+    }
+}
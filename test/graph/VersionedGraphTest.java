@@ -0,0 +1,167 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Tests for VersionedGraph and its snapshots, including every test in
+ * GraphInstanceTest.
+ */
+public class VersionedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a VersionedGraph for tests in GraphInstanceTest.
+     */
+    @Override
+    public Graph<String> emptyInstance() {
+        return new VersionedGraph<>(Collections.emptySet());
+    }
+
+    // Testing strategy for VersionedGraph
+    //   snapshot(): taken before and after add, set, remove and batches;
+    //               unchanged by later mutations; views of a snapshot fixed
+    //               while views of the graph are live
+    //   snapshot mutators: each throws UnsupportedOperationException
+    //   getVersion(): grows with each change, not with no-op mutations
+    //   self-loops and removal of a vertex with edges both ways
+    //   concurrency: a reader scanning snapshots, or freezing the graph,
+    //                while a writer moves edges always sees a consistent
+    //                edge count
+
+    @Test
+    public void testSnapshotIsolation() {
+        VersionedGraph<String> graph = new VersionedGraph<>(Set.of("A"));
+        graph.set("A", "B", 1);
+        graph.set("B", "A", 2);
+        graph.set("A", "A", 3);
+        VersionedGraph.Snapshot<String> before = graph.snapshot();
+        Map<String, Integer> snapshotTargets = before.targetsView("A");
+        Map<String, Integer> liveTargets = graph.targetsView("A");
+
+        graph.set("A", "B", 5);
+        graph.set("A", "C", 1);
+        graph.remove("B");
+        graph.setAll(List.of(new EdgeTriple<>("C", "D", 4)));
+
+        assertEquals(Set.of("A", "B"), before.vertices());
+        assertEquals(Map.of("B", 1, "A", 3), before.targets("A"));
+        assertEquals(Map.of("A", 1), before.sources("B"));
+        assertEquals(Map.of("B", 1, "A", 3), snapshotTargets);
+        assertEquals(1, before.weight("A", "B"));
+        assertEquals(3, before.edgeStream().count());
+
+        assertEquals(Set.of("A", "C", "D"), graph.vertices());
+        assertEquals(Map.of("A", 3, "C", 1), liveTargets);
+        assertEquals(Map.of("A", 3, "C", 1), graph.snapshot().targets("A"));
+        assertEquals(3, graph.edgeStream().count());
+    }
+
+    @Test
+    public void testVersions() {
+        VersionedGraph<String> graph = new VersionedGraph<>(Collections.emptySet());
+        assertEquals(0, graph.getVersion());
+        graph.add("A");
+        graph.add("A");
+        graph.set("A", "B", 1);
+        graph.set("A", "B", 1);
+        graph.set("A", "C", 0);
+        assertEquals(2, graph.getVersion());
+        VersionedGraph.Snapshot<String> snapshot = graph.snapshot();
+        graph.removeAll(List.of("A", "B"));
+        assertEquals(2, snapshot.getVersion());
+        assertTrue(graph.getVersion() > 2);
+        assertEquals(0, graph.snapshot().edgeStream().count());
+    }
+
+    @Test
+    public void testSnapshotImmutable() {
+        VersionedGraph<String> graph = new VersionedGraph<>(Set.of("A"));
+        VersionedGraph.Snapshot<String> snapshot = graph.snapshot();
+        List<Runnable> mutations = List.of(
+                () -> snapshot.add("B"),
+                () -> snapshot.set("A", "B", 1),
+                () -> snapshot.remove("A"),
+                () -> snapshot.addAll(List.of("B")),
+                () -> snapshot.setAll(List.of(new EdgeTriple<>("A", "B", 1))),
+                () -> snapshot.removeAll(List.of("A")));
+        for (Runnable mutation : mutations) {
+            try {
+                mutation.run();
+                fail("expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+        assertEquals(Set.of("A"), snapshot.vertices());
+    }
+
+    @Test
+    public void testSnapshotsConsistentDuringWrites() throws InterruptedException {
+        VersionedGraph<String> graph = new VersionedGraph<>(Collections.emptySet());
+        for (int i = 0; i < 100; i++) {
+            graph.set("S" + i, "T" + i, 1);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            // Move each edge to a new target: remove one edge, add another,
+            // as a single batch, so every version has exactly 100 edges
+            for (int round = 0; !done.get(); round++) {
+                int i = round % 100;
+                String source = "S" + i;
+                String oldTarget = graph.targets(source).keySet().iterator().next();
+                graph.setAll(List.of(new EdgeTriple<>(source, oldTarget, 0),
+                        new EdgeTriple<>(source, "T" + i + "-" + round, 1)));
+            }
+        });
+        writer.start();
+        try {
+            for (int scan = 0; scan < 200; scan++) {
+                VersionedGraph.Snapshot<String> snapshot = graph.snapshot();
+                int edges = 0;
+                EdgeCursor<String> cursor = snapshot.edges();
+                while (cursor.next()) {
+                    edges++;
+                }
+                assertEquals(100, edges);
+                assertEquals(100, graph.edgeStream().parallel().count());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testFreezeDuringWrites() throws InterruptedException {
+        VersionedGraph<String> graph = new VersionedGraph<>(Collections.emptySet());
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(1);
+            while (!done.get()) {
+                String source = "v" + random.nextInt(200);
+                if (random.nextInt(8) == 0) {
+                    graph.remove(source);
+                } else {
+                    graph.set(source, "v" + random.nextInt(200), 1 + random.nextInt(3));
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 300; i++) {
+                ConcurrentGraphTest.assertWellFormed(graph.freeze());
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+}
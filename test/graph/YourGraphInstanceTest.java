@@ -3,7 +3,10 @@ package graph;
 import static org.junit.Assert.*;
 
 import org.junit.Test;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -105,5 +108,91 @@ public class YourGraphInstanceTest extends GraphInstanceTest {
         assertEquals("Edge should be removed, so weight should be 0", 0, graph.set("A", "B", 10));
     }
 
-}
+    @Test
+    public void testSourcesTrackIncomingEdges() {
+        Graph<String> graph = emptyInstance();
+
+        graph.set("A", "C", 1);
+        graph.set("B", "C", 2);
+        graph.set("C", "C", 3);
+        graph.set("C", "A", 4);
+
+        assertEquals("Sources of C should be A, B and C itself", Map.of("A", 1, "B", 2, "C", 3), graph.sources("C"));
+
+        graph.set("B", "C", 0);
+        assertEquals("Zero weight should drop B from the sources of C", Map.of("A", 1, "C", 3), graph.sources("C"));
+
+        assertTrue("Removing vertex C should return true", graph.remove("C"));
+        assertTrue("Sources of A should be empty after removal of C", graph.sources("A").isEmpty());
+        assertTrue("Targets of A should be empty after removal of C", graph.targets("A").isEmpty());
+        assertTrue("Sources of C should be empty after removal", graph.sources("C").isEmpty());
+    }
+
+    @Test
+    public void testIdsAreDenseAndRecycled() {
+        Graph<String> graph = emptyInstance();
+
+        graph.add("A");
+        graph.add("B");
+        graph.set("B", "C", 2);
+
+        assertEquals("Ids should be assigned densely in order of addition", 0, graph.idOf("A"));
+        assertEquals("Ids should be assigned densely in order of addition", 1, graph.idOf("B"));
+        assertEquals("Ids should be assigned densely in order of addition", 2, graph.idOf("C"));
+        assertEquals("labelOf should invert idOf", "C", graph.labelOf(graph.idOf("C")));
+        assertEquals("A missing vertex should have id -1", -1, graph.idOf("D"));
 
+        assertTrue("Removing vertex B should return true", graph.remove("B"));
+        assertNull("A freed id should have no label", graph.labelOf(1));
+        assertNull("An id never handed out should have no label", graph.labelOf(7));
+
+        graph.add("D");
+        assertEquals("A freed id should be reused", 1, graph.idOf("D"));
+        assertEquals("The reused id should map to the new label", "D", graph.labelOf(1));
+        assertEquals("Edges of the removed vertex should not reappear", Map.of(), graph.sources("C"));
+        assertEquals("Edges of the removed vertex should not reappear", Map.of(), graph.targets("D"));
+    }
+
+    @Test
+    public void testRemoveAllThenReuseIds() {
+        Graph<String> graph = emptyInstance();
+        for (int i = 0; i < 100; i++) {
+            graph.set("V" + i, "V" + ((i + 1) % 100), i + 1);
+            graph.set("V" + i, "V" + i, 1);
+        }
+        Set<String> removed = new HashSet<>();
+        for (int i = 0; i < 100; i += 2) {
+            removed.add("V" + i);
+        }
+
+        assertTrue("Removing half of the vertices should change the graph", graph.removeAll(removed));
+        graph.set("X", "V1", 9);
+
+        assertTrue("The new vertex should take a freed id", graph.idOf("X") < 100);
+        assertEquals("Only the new edge and the self-loop should enter V1",
+                Map.of("X", 9, "V1", 1), graph.sources("V1"));
+        assertEquals("Edges to removed vertices should be gone", Map.of("V1", 1), graph.targets("V1"));
+        for (String vertex : graph.vertices()) {
+            assertEquals("labelOf should invert idOf", vertex, graph.labelOf(graph.idOf(vertex)));
+        }
+    }
+
+    @Test
+    public void testSetAllSizesByVerticesNotEdges() {
+        Graph<String> graph = emptyInstance();
+        List<EdgeTriple<String>> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                batch.add(new EdgeTriple<>("V" + i, "V" + j, 1 + (i + j) % 5));
+            }
+        }
+        graph.setAll(batch);
+
+        assertEquals("Every edge should be set", 100, graph.targets("V7").size());
+        assertEquals("Weights should be as given", 1 + (7 + 9) % 5, graph.weight("V7", "V9"));
+        assertTrue("Id arrays should be sized by vertices, not edges", graph.idCapacity() < 1000);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Ids should be assigned in order of first appearance", i, graph.idOf("V" + i));
+        }
+    }
+}